@@ -0,0 +1,45 @@
+#!/bin/sh
+#
+# Measures time-to-first-request of the gateway and fails when it exceeds a budget.
+#
+# Usage: scripts/measure-startup.sh [extra JVM options...]
+#   MAX_FIRST_REQUEST_MS  budget in milliseconds (default 4000)
+#   APP_CLASSPATH         classpath to launch (default: build/libs/*-plain.jar + runtime deps
+#                         resolved by './gradlew -q printRuntimeClasspath')
+#
+# Example, comparing a plain start with the AOT + CDS build mode:
+#   ./gradlew jar && scripts/measure-startup.sh
+#   ./gradlew -Paot cdsArchive && scripts/measure-startup.sh \
+#       -Dspring.aot.enabled=true -XX:SharedArchiveFile=build/cds/application.jsa
+
+set -eu
+
+MAX_FIRST_REQUEST_MS=${MAX_FIRST_REQUEST_MS:-4000}
+PORT=${PORT:-8090}
+CLASSPATH=${APP_CLASSPATH:-$(./gradlew -q printRuntimeClasspath)}
+LOG=$(mktemp)
+
+start=$(date +%s%N)
+java "$@" -cp "$CLASSPATH" com.checkout.payment.gateway.PaymentGatewayApplication \
+    --server.port="$PORT" >"$LOG" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null; rm -f "$LOG"' EXIT
+
+until curl -s -o /dev/null "http://localhost:$PORT/api/v1/payment/00000000-0000-0000-0000-000000000000"; do
+  if ! kill -0 $pid 2>/dev/null; then
+    cat "$LOG"
+    echo "Application exited before serving a request" >&2
+    exit 1
+  fi
+  sleep 0.05
+done
+end=$(date +%s%N)
+
+elapsed=$(( (end - start) / 1000000 ))
+grep 'startup-timing' "$LOG" || true
+echo "time-to-first-request (wall clock): ${elapsed}ms (budget ${MAX_FIRST_REQUEST_MS}ms)"
+
+if [ "$elapsed" -gt "$MAX_FIRST_REQUEST_MS" ]; then
+  echo "Startup regression: ${elapsed}ms exceeds ${MAX_FIRST_REQUEST_MS}ms" >&2
+  exit 1
+fi
@@ -0,0 +1,94 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Cost of the payment API's body encodings: reading a {@link PostPaymentRequest} and writing a
+ * {@link PaymentResponse}, in JSON, Smile and CBOR.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=PaymentCodecBenchmark}; compare both the time and
+ * {@code gc.alloc.rate.norm} between the {@code format} parameters. Each benchmark also reports
+ * the encoded size of its body as the {@code bytes} secondary result. The mappers are configured like the application's, so the
+ * binary formats carry the same property names as the JSON API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentCodecBenchmark {
+
+  @Param({"json", "smile", "cbor"})
+  public String format;
+
+  private final PaymentResponse response = new PaymentResponse(
+      UUID.fromString("0bb07405-6d44-4b50-a14f-7ae0beff13ad"), PaymentStatus.AUTHORIZED, "8877",
+      4, 2030, "GBP", 100, null, "VISA", "GB");
+
+  private ObjectReader requestReader;
+  private ObjectWriter responseWriter;
+  private byte[] requestBody;
+
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    ObjectMapper mapper = switch (format) {
+      case "json" -> json;
+      case "smile" -> json.copyWith(new SmileFactory());
+      case "cbor" -> json.copyWith(new CBORFactory());
+      default -> throw new IllegalArgumentException("Unknown format: " + format);
+    };
+    requestReader = mapper.readerFor(PostPaymentRequest.class);
+    responseWriter = mapper.writerFor(PaymentResponse.class);
+    requestBody = mapper.writeValueAsBytes(
+        new PostPaymentRequest("2222405343248877", 4, 2030, "GBP", 100, "123"));
+  }
+
+  @Benchmark
+  public PostPaymentRequest readRequest(EncodedSize size) throws IOException {
+    size.bytes = requestBody.length;
+    return requestReader.readValue(requestBody);
+  }
+
+  @Benchmark
+  public byte[] writeResponse(EncodedSize size) throws IOException {
+    byte[] body = responseWriter.writeValueAsBytes(response);
+    size.bytes = body.length;
+    return body;
+  }
+
+  /**
+   * Size of the body the benchmark read or wrote. An {@code EVENTS} counter is reported as the
+   * value it holds at the end of the iteration, so assigning rather than adding yields the size.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+
+    public long bytes;
+  }
+}
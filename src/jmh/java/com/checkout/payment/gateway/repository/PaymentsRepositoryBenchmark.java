@@ -0,0 +1,84 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the repository layouts under concurrent request threads.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=PaymentsRepositoryBenchmark}. {@code add} is what
+ * the JDBC store's group commit is for: with 16 writers most puts share a batch, so compare its
+ * ops/s against the in-memory layouts rather than against one insert per round trip. {@code get}
+ * reads a working set that fits the JDBC store's cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class PaymentsRepositoryBenchmark {
+
+  private static final int WORKING_SET = 4096;
+
+  @Param({"objects", "columnar", "jdbc"})
+  public String mode;
+
+  private PaymentsRepository repository;
+  private UUID[] stored;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    repository = new PaymentsRepository(switch (mode) {
+      case "objects" -> new ObjectPaymentStore();
+      case "columnar" -> new ColumnarPaymentStore();
+      default -> new JdbcPaymentStore("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+          16, 256, 0, WORKING_SET * 2, 5_000);
+    });
+    stored = new UUID[WORKING_SET];
+    for (int i = 0; i < WORKING_SET; i++) {
+      PaymentResponse payment = payment();
+      repository.add(payment);
+      stored[i] = payment.id();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    repository.close();
+  }
+
+  @Benchmark
+  public void add() {
+    repository.add(payment());
+  }
+
+  @Benchmark
+  public Optional<PaymentResponse> get() {
+    return repository.get(stored[ThreadLocalRandom.current().nextInt(WORKING_SET)]);
+  }
+
+  private static PaymentResponse payment() {
+    return new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED, "4242", 12, 2030,
+        "GBP", 1000, null, "VISA", "GB");
+  }
+}
@@ -0,0 +1,105 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.routing.AcquirerEndpoint;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Allocation and throughput of one bank authorization exchange, Jackson versus pooled codec.
+ * <p>
+ * Run with {@code ./gradlew jmh}; the build enables {@code -prof gc}, so compare
+ * {@code gc.alloc.rate.norm} (bytes per operation) between the {@code transport} parameters.
+ * The {@code codec} benchmarks isolate serialization; the {@code exchange} ones go through
+ * {@link BankClient} and an in-memory {@link RestClient}, so they include the HTTP abstraction's
+ * own per-request objects, which neither transport can avoid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BankTransportBenchmark {
+
+  private static final byte[] RESPONSE = ("{\"authorized\":true,"
+      + "\"authorization_code\":\"0bb07405-6d44-4b50-a14f-7ae0beff13ad\"}")
+      .getBytes(StandardCharsets.UTF_8);
+
+  @Param({"jackson", "pooled"})
+  public String transport;
+
+  private final PostPaymentRequest paymentRequest =
+      new PostPaymentRequest("2222405343248877", 4, 2030, "GBP", 100, "123");
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final BankJsonCodec codec = new BankJsonCodec(512, 65_536);
+  private final ByteArrayInputStream responseStream = new ByteArrayInputStream(RESPONSE);
+
+  private BankClient bankClient;
+
+  @Setup
+  public void setUp() {
+    RestClient restClient = RestClient.builder()
+        .baseUrl("http://benchmark-bank")
+        .requestFactory((uri, method) -> {
+          MockClientHttpResponse response = new MockClientHttpResponse(RESPONSE, HttpStatus.OK);
+          response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+          MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+          request.setResponse(response);
+          return request;
+        })
+        .build();
+    AcquirerRouter router = new AcquirerRouter(
+        List.of(new AcquirerEndpoint("benchmark", restClient, TimeUnit.SECONDS.toNanos(10))), 0);
+    bankClient = new BankClient(router, transport.equals("pooled")
+        ? new PooledBankTransport(4, 512, 8192, 65_536)
+        : new JacksonBankTransport());
+  }
+
+  @Benchmark
+  public BankPaymentResponse codec() throws IOException {
+    BankPaymentRequest request = bankRequest();
+    if (transport.equals("pooled")) {
+      codec.encode(request);
+      responseStream.reset();
+      return codec.decode(responseStream);
+    }
+    objectMapper.writeValueAsBytes(request);
+    return objectMapper.readValue(RESPONSE, BankPaymentResponse.class);
+  }
+
+  @Benchmark
+  public BankPaymentResponse exchange() {
+    return bankClient.authorizePayment(bankRequest());
+  }
+
+  private BankPaymentRequest bankRequest() {
+    return new BankPaymentRequest(paymentRequest.cardNumber(), paymentRequest.expiryDate(),
+        paymentRequest.currency(), paymentRequest.amount(), paymentRequest.cvv());
+  }
+}
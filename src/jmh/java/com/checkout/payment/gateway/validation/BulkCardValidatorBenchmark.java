@@ -0,0 +1,85 @@
+package com.checkout.payment.gateway.validation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time per card number of the bulk card check, Vector API versus scalar loop.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=BulkCardValidatorBenchmark}. Scores are per card
+ * number over a batch of {@value #BATCH}. The vector checker's cost does not depend on the card
+ * length, so compare the {@code length} parameters too; {@code pack} adds the cost of copying the
+ * strings into the batch, which a caller pays once however the batch is checked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkCardValidatorBenchmark {
+
+  private static final int BATCH = 4096;
+
+  @Param({"scalar", "vector"})
+  public String checker;
+
+  @Param({"16", "19"})
+  public int length;
+
+  private final ValidationRules.Rule rule = ValidationRules.DEFAULT.ruleFor(null, null);
+  private final CardNumberBatch batch = new CardNumberBatch(BATCH);
+  private final byte[] results = new byte[BATCH];
+  private String[] cardNumbers;
+  private BulkCardValidator validator;
+
+  @Setup
+  public void setUp() {
+    CardNumberChecker implementation = checker.equals("vector")
+        ? BulkCardValidator.vectorChecker()
+        : new ScalarCardNumberChecker();
+    if (!implementation.name().equals(checker)) {
+      throw new IllegalStateException("Vector API unavailable, run with the jdk.incubator.vector "
+          + "module");
+    }
+    validator = new BulkCardValidator(implementation);
+    Random random = new Random(42);
+    cardNumbers = new String[BATCH];
+    for (int i = 0; i < BATCH; i++) {
+      StringBuilder card = new StringBuilder(length);
+      for (int digit = 0; digit < length; digit++) {
+        card.append((char) ('0' + random.nextInt(10)));
+      }
+      cardNumbers[i] = card.toString();
+      batch.add(cardNumbers[i]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int check() {
+    return validator.validate(batch, rule, results);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int pack() {
+    batch.clear();
+    for (String cardNumber : cardNumbers) {
+      batch.add(cardNumber);
+    }
+    return validator.validate(batch, rule, results);
+  }
+}
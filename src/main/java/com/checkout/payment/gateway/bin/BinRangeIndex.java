@@ -0,0 +1,157 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.model.CardMetadata;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable BIN range table.
+ * <p>
+ * Every range is normalised to {@value #BIN_DIGITS}-digit bounds (the low bound padded with
+ * zeros, the high bound with nines) and the table is stored as sorted parallel primitive arrays.
+ * A lookup parses the card prefix into an int and runs one binary search, without allocating.
+ * Identical metadata rows are shared, so a table with many ranges per scheme stays compact.
+ */
+public final class BinRangeIndex {
+
+  static final int BIN_DIGITS = 8;
+  static final BinRangeIndex EMPTY = new BinRangeIndex(new int[0], new int[0], new short[0],
+      new CardMetadata[0]);
+
+  private final int[] lows;
+  private final int[] highs;
+  private final short[] metadataIds;
+  private final CardMetadata[] metadata;
+
+  private BinRangeIndex(int[] lows, int[] highs, short[] metadataIds, CardMetadata[] metadata) {
+    this.lows = lows;
+    this.highs = highs;
+    this.metadataIds = metadataIds;
+    this.metadata = metadata;
+  }
+
+  /**
+   * @return the metadata of the range containing the card's BIN, or null if none does
+   */
+  public CardMetadata lookup(String cardNumber) {
+    int bin = binOf(cardNumber);
+    if (bin < 0) {
+      return null;
+    }
+    int low = 0;
+    int high = lows.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (lows[mid] <= bin) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    // high is now the last range starting at or below the BIN
+    return high >= 0 && bin <= highs[high] ? metadata[metadataIds[high]] : null;
+  }
+
+  public int size() {
+    return lows.length;
+  }
+
+  /**
+   * Parses a table of {@code low,high,scheme,issuer_country,preferred_acquirer} lines. Bounds are
+   * BIN prefixes of up to {@value #BIN_DIGITS} digits; blank lines and lines starting with
+   * {@code #} are ignored. Ranges must not overlap.
+   *
+   * @throws IllegalArgumentException if a line is malformed or ranges overlap
+   */
+  public static BinRangeIndex parse(BufferedReader reader) throws IOException {
+    List<Range> ranges = new ArrayList<>();
+    Map<CardMetadata, Short> metadataIds = new HashMap<>();
+    List<CardMetadata> metadata = new ArrayList<>();
+
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",", -1);
+      if (fields.length != 5) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": expected 5 fields");
+      }
+      int low = normalise(fields[0].strip(), '0', lineNumber);
+      int high = normalise(fields[1].strip(), '9', lineNumber);
+      if (low > high) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": low bound above high bound");
+      }
+      CardMetadata entry = new CardMetadata(
+          emptyToNull(fields[2]), emptyToNull(fields[3]), emptyToNull(fields[4]));
+      Short id = metadataIds.get(entry);
+      if (id == null) {
+        if (metadata.size() > Short.MAX_VALUE) {
+          throw new IllegalArgumentException("Too many distinct metadata rows");
+        }
+        id = (short) metadata.size();
+        metadataIds.put(entry, id);
+        metadata.add(entry);
+      }
+      ranges.add(new Range(low, high, id, lineNumber));
+    }
+
+    ranges.sort(Comparator.comparingInt(Range::low));
+    int[] lows = new int[ranges.size()];
+    int[] highs = new int[ranges.size()];
+    short[] ids = new short[ranges.size()];
+    for (int i = 0; i < ranges.size(); i++) {
+      Range range = ranges.get(i);
+      if (i > 0 && range.low() <= highs[i - 1]) {
+        throw new IllegalArgumentException(
+            "Line " + range.lineNumber() + ": range overlaps another range");
+      }
+      lows[i] = range.low();
+      highs[i] = range.high();
+      ids[i] = range.metadataId();
+    }
+    return new BinRangeIndex(lows, highs, ids, metadata.toArray(CardMetadata[]::new));
+  }
+
+  private static int binOf(String cardNumber) {
+    if (cardNumber == null || cardNumber.length() < BIN_DIGITS) {
+      return -1;
+    }
+    int bin = 0;
+    for (int i = 0; i < BIN_DIGITS; i++) {
+      int digit = cardNumber.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      bin = bin * 10 + digit;
+    }
+    return bin;
+  }
+
+  private static int normalise(String prefix, char padding, int lineNumber) {
+    int bin = prefix.isEmpty() || prefix.length() > BIN_DIGITS
+        ? -1
+        : binOf(prefix + String.valueOf(padding).repeat(BIN_DIGITS - prefix.length()));
+    if (bin < 0) {
+      throw new IllegalArgumentException(
+          "Line " + lineNumber + ": BIN bounds must be 1-" + BIN_DIGITS + " digits");
+    }
+    return bin;
+  }
+
+  private static String emptyToNull(String value) {
+    String stripped = value.strip();
+    return stripped.isEmpty() ? null : stripped;
+  }
+
+  private record Range(int low, int high, short metadataId, int lineNumber) {}
+}
@@ -0,0 +1,45 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.model.CardMetadata;
+import com.checkout.payment.gateway.reload.ReloadableResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current {@link BinRangeIndex} snapshot, reloaded from
+ * {@code gateway.bin-table.location} as a {@link ReloadableResource}. Until a table has been
+ * loaded, card metadata is unavailable.
+ */
+@Component
+public class BinTable {
+
+  private final ReloadableResource<BinRangeIndex> index;
+
+  public BinTable(
+      @Value("${gateway.bin-table.location:classpath:bin-ranges.csv}") Resource location
+  ) {
+    this.index = new ReloadableResource<>("BIN table", location, BinRangeIndex.EMPTY,
+        BinRangeIndex::parse, loaded -> loaded.size() + " ranges");
+    this.index.reload();
+  }
+
+  public CardMetadata lookup(String cardNumber) {
+    return index.current().lookup(cardNumber);
+  }
+
+  /**
+   * Rebuilds the index from the configured file.
+   *
+   * @return number of ranges in the active table
+   */
+  public int reload() {
+    return index.reload().size();
+  }
+
+  @Scheduled(fixedDelayString = "${gateway.bin-table.refresh-ms:30000}")
+  public void reloadIfModified() {
+    index.reloadIfModified();
+  }
+}
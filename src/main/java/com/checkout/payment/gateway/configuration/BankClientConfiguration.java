@@ -1,18 +1,61 @@
 package com.checkout.payment.gateway.configuration;
 
+import com.checkout.payment.gateway.deadline.DeadlineAwareRequestFactory;
+import com.checkout.payment.gateway.routing.AcquirerEndpoint;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
 
+/**
+ * Wires one {@link RestClient} per configured acquirer.
+ * <p>
+ * {@code bank.sim.urls} takes a comma-separated list of acquirer base URLs and falls back to the
+ * single {@code bank.sim.url}. An entry may be written as {@code name=url} to give the acquirer a
+ * name that BIN ranges can refer to; otherwise the URL is its name. Connections are bounded by
+ * the configured timeouts and, tighter still, by the deadline of the payment request.
+ */
 @Configuration
 public class BankClientConfiguration {
 
-  @Value("${bank.sim.url}")
-  private String bankApiUrl;
+  @Value("${bank.sim.urls:${bank.sim.url}}")
+  private List<String> bankApiUrls;
+
+  @Value("${bank.routing.decay-ms:10000}")
+  private long decayMillis;
+
+  @Value("${bank.routing.error-penalty:10}")
+  private double errorPenalty;
+
+  @Value("${bank.routing.latency-prior-ms:100}")
+  private long latencyPriorMillis;
+
+  @Value("${bank.http.connect-timeout-ms:2000}")
+  private int connectTimeoutMillis;
+
+  @Value("${bank.http.read-timeout-ms:10000}")
+  private int readTimeoutMillis;
 
   @Bean
-  public RestClient restClient(RestClient.Builder builder) {
-    return builder.baseUrl(bankApiUrl).build();
+  public AcquirerRouter acquirerRouter(RestClient.Builder builder) {
+    DeadlineAwareRequestFactory requestFactory =
+        new DeadlineAwareRequestFactory(connectTimeoutMillis, readTimeoutMillis);
+    List<AcquirerEndpoint> endpoints = new ArrayList<>(bankApiUrls.size());
+    for (String entry : bankApiUrls) {
+      int separator = entry.indexOf('=');
+      String name = separator > 0 ? entry.substring(0, separator).strip() : entry.strip();
+      String url = separator > 0 ? entry.substring(separator + 1).strip() : entry.strip();
+      endpoints.add(new AcquirerEndpoint(
+          name,
+          builder.clone().requestFactory(requestFactory).baseUrl(url).build(),
+          TimeUnit.MILLISECONDS.toNanos(decayMillis),
+          TimeUnit.MILLISECONDS.toNanos(latencyPriorMillis)
+      ));
+    }
+    return new AcquirerRouter(endpoints, errorPenalty);
   }
 }
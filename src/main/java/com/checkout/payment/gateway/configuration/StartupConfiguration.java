@@ -0,0 +1,46 @@
+package com.checkout.payment.gateway.configuration;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup tuning that trades first-use latency of non-payment endpoints for a faster context
+ * refresh.
+ * <p>
+ * When {@code gateway.startup.lazy-springdoc=true} every springdoc bean is marked lazy, so the
+ * OpenAPI model is only scanned when the documentation is first requested. Note that under
+ * Spring AOT the condition is evaluated at build time.
+ */
+@Configuration
+public class StartupConfiguration {
+
+  private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+  @Bean
+  @ConditionalOnProperty(name = "gateway.startup.lazy-springdoc", havingValue = "true")
+  public static BeanFactoryPostProcessor lazySpringdocPostProcessor() {
+    return beanFactory -> {
+      for (String name : beanFactory.getBeanDefinitionNames()) {
+        BeanDefinition definition = beanFactory.getBeanDefinition(name);
+        if (isSpringdocBean(definition)) {
+          definition.setLazyInit(true);
+        }
+      }
+    };
+  }
+
+  private static boolean isSpringdocBean(BeanDefinition definition) {
+    // @Bean factory methods carry the declaring auto-configuration as their factory bean name
+    String className = definition.getBeanClassName() != null
+        ? definition.getBeanClassName()
+        : definition.getFactoryBeanName();
+    if (className == null) {
+      Class<?> resolved = definition.getResolvableType().resolve();
+      className = resolved != null ? resolved.getName() : "";
+    }
+    return className.startsWith(SPRINGDOC_PACKAGE);
+  }
+}
@@ -0,0 +1,54 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.replication.ReplicaWriteGuard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+  private final ReplicaWriteGuard replicaWriteGuard;
+  private final ObjectMapper objectMapper;
+
+  public WebConfiguration(ReplicaWriteGuard replicaWriteGuard, ObjectMapper objectMapper) {
+    this.replicaWriteGuard = replicaWriteGuard;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(replicaWriteGuard)
+        .addPathPatterns("/api/v1/payment", "/api/v1/payment/**", "/api/v1/admin/import");
+  }
+
+  /**
+   * Offers Smile ({@code application/x-jackson-smile}) and CBOR ({@code application/cbor})
+   * after JSON, chosen by the request's {@code Content-Type} and {@code Accept} headers. They are
+   * built from the application's JSON mapper, replacing the defaults Spring registers when the
+   * formats are on the classpath, so property names and settings match the JSON API exactly.
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+        || converter instanceof MappingJackson2CborHttpMessageConverter);
+    int json = 0;
+    while (json < converters.size()
+        && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) {
+      json++;
+    }
+    int position = Math.min(json + 1, converters.size());
+    converters.add(position, new MappingJackson2CborHttpMessageConverter(
+        objectMapper.copyWith(new CBORFactory())));
+    converters.add(position, new MappingJackson2SmileHttpMessageConverter(
+        objectMapper.copyWith(new SmileFactory())));
+  }
+}
@@ -0,0 +1,124 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.bin.BinTable;
+import com.checkout.payment.gateway.deadline.RequestDeadlines;
+import com.checkout.payment.gateway.fairness.MerchantFairQueue;
+import com.checkout.payment.gateway.fairness.MerchantQueueStats;
+import com.checkout.payment.gateway.migration.ImportReport;
+import com.checkout.payment.gateway.migration.PaymentImporter;
+import com.checkout.payment.gateway.monitoring.SlowRequest;
+import com.checkout.payment.gateway.monitoring.SlowRequestLog;
+import com.checkout.payment.gateway.replication.PaymentReplication;
+import com.checkout.payment.gateway.replication.ReplicationStatus;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.routing.AcquirerStatus;
+import com.checkout.payment.gateway.settlement.SettlementJob;
+import com.checkout.payment.gateway.settlement.SettlementProgress;
+import com.checkout.payment.gateway.validation.ValidationRuleTable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operational endpoints for gateway administrators, versioned under "/api/v1/admin".
+ */
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+  private final SlowRequestLog slowRequestLog;
+  private final AcquirerRouter acquirerRouter;
+  private final BinTable binTable;
+  private final MerchantFairQueue merchantFairQueue;
+  private final RequestDeadlines requestDeadlines;
+  private final PaymentReplication paymentReplication;
+  private final SettlementJob settlementJob;
+  private final PaymentImporter paymentImporter;
+  private final ValidationRuleTable validationRuleTable;
+
+  public AdminController(
+      SlowRequestLog slowRequestLog,
+      AcquirerRouter acquirerRouter,
+      BinTable binTable,
+      MerchantFairQueue merchantFairQueue,
+      RequestDeadlines requestDeadlines,
+      PaymentReplication paymentReplication,
+      SettlementJob settlementJob,
+      PaymentImporter paymentImporter,
+      ValidationRuleTable validationRuleTable
+  ) {
+    this.slowRequestLog = slowRequestLog;
+    this.acquirerRouter = acquirerRouter;
+    this.binTable = binTable;
+    this.merchantFairQueue = merchantFairQueue;
+    this.requestDeadlines = requestDeadlines;
+    this.paymentReplication = paymentReplication;
+    this.settlementJob = settlementJob;
+    this.paymentImporter = paymentImporter;
+    this.validationRuleTable = validationRuleTable;
+  }
+
+  @GetMapping("/slow-requests")
+  public List<SlowRequest> getSlowRequests() {
+    return slowRequestLog.recent();
+  }
+
+  @GetMapping("/acquirers")
+  public List<AcquirerStatus> getAcquirers() {
+    return acquirerRouter.status();
+  }
+
+  @GetMapping("/merchant-queues")
+  public List<MerchantQueueStats> getMerchantQueues() {
+    return merchantFairQueue.stats();
+  }
+
+  @GetMapping("/expired-requests")
+  public Map<String, Long> getExpiredRequests() {
+    return requestDeadlines.expiredCounts();
+  }
+
+  @GetMapping("/replication")
+  public ReplicationStatus getReplication() {
+    return paymentReplication.status();
+  }
+
+  @GetMapping("/settlement")
+  public SettlementProgress getSettlement() {
+    return settlementJob.progress();
+  }
+
+  /**
+   * Starts a settlement run unless one is already in progress, and reports on the current run.
+   */
+  @PostMapping("/settlement")
+  public SettlementProgress startSettlement() {
+    settlementJob.start();
+    return settlementJob.progress();
+  }
+
+  /**
+   * Imports a CSV file of historical payments from the configured import directory, replacing
+   * payments already stored only if {@code overwrite} is set.
+   */
+  @PostMapping("/import")
+  public ImportReport importPayments(@RequestParam String file,
+      @RequestParam(defaultValue = "false") boolean overwrite) throws IOException {
+    return paymentImporter.importFile(file, overwrite);
+  }
+
+  @PostMapping("/bin-table/reload")
+  public Map<String, Integer> reloadBinTable() {
+    return Map.of("ranges", binTable.reload());
+  }
+
+  @PostMapping("/validation-rules/reload")
+  public Map<String, Integer> reloadValidationRules() {
+    return Map.of("merchants", validationRuleTable.reload());
+  }
+}
@@ -0,0 +1,34 @@
+package com.checkout.payment.gateway.controller;
+
+import static com.checkout.payment.gateway.controller.PaymentGatewayController.MERCHANT_ID_HEADER;
+
+import com.checkout.payment.gateway.event.PaymentEventStreamer;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live stream of a merchant's payment outcomes as Server-Sent Events, an alternative to polling
+ * {@code GET /api/v1/payment/{id}}.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class PaymentEventController {
+
+  private final PaymentEventStreamer paymentEventStreamer;
+
+  public PaymentEventController(PaymentEventStreamer paymentEventStreamer) {
+    this.paymentEventStreamer = paymentEventStreamer;
+  }
+
+  @GetMapping(value = "/payment/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamPaymentEvents(
+      @RequestHeader(MERCHANT_ID_HEADER) String merchantId,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+  ) {
+    return paymentEventStreamer.subscribe(merchantId, lastEventId);
+  }
+}
@@ -1,9 +1,14 @@
 package com.checkout.payment.gateway.controller;
 
+import com.checkout.payment.gateway.deadline.RequestDeadlines;
 import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.checkout.payment.gateway.model.PaymentResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.RefundRequest;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentLifecycleService;
+import java.net.URI;
+import java.util.Locale;
 import java.util.UUID;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -11,41 +16,130 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
  * REST controller for the Payment Gateway API.
  * <p>
- * Provides endpoints to process payments and retrieve payment details by ID.
+ * Provides endpoints to process payments, retrieve payment details by ID, and capture, void or
+ * refund authorized payments.
  * All endpoints are versioned under "/api/v1".
  */
 @RestController
 @RequestMapping("/api/v1")
 public class PaymentGatewayController {
 
+  static final String MERCHANT_ID_HEADER = "Merchant-Id";
+  static final String PREFER_HEADER = "Prefer";
+  static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+  static final String RESPOND_ASYNC = "respond-async";
+
   private final PaymentGatewayService paymentGatewayService;
+  private final PaymentLifecycleService paymentLifecycleService;
+  private final RequestDeadlines requestDeadlines;
 
-  public PaymentGatewayController(PaymentGatewayService paymentGatewayService) {
+  public PaymentGatewayController(
+      PaymentGatewayService paymentGatewayService,
+      PaymentLifecycleService paymentLifecycleService,
+      RequestDeadlines requestDeadlines
+  ) {
     this.paymentGatewayService = paymentGatewayService;
+    this.paymentLifecycleService = paymentLifecycleService;
+    this.requestDeadlines = requestDeadlines;
   }
 
   @PostMapping("/payment")
-  public ResponseEntity<PaymentResponse> processPayment(@RequestBody PostPaymentRequest request) {
+  public ResponseEntity<PaymentResponse> processPayment(
+      @RequestBody PostPaymentRequest request,
+      @RequestHeader(value = MERCHANT_ID_HEADER, required = false) String merchantId,
+      @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+      @RequestHeader(value = RequestDeadlines.REQUEST_TIMEOUT_HEADER, required = false)
+      String requestTimeout
+  ) {
+
+    if (prefersAsync(prefer) && paymentGatewayService.supportsAsync()) {
+      PaymentResponse response = paymentGatewayService.acceptPayment(request, merchantId);
+      if (response.status() == PaymentStatus.REJECTED) {
+        return ResponseEntity.badRequest().body(response);
+      }
+      if (response.status() == PaymentStatus.PENDING) {
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/payment/" + response.id()))
+            .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+            .body(response);
+      }
+      return ResponseEntity.ok(response);
+    }
 
-    PaymentResponse response = paymentGatewayService.processPayment(request);
+    PaymentResponse response = paymentGatewayService.processPayment(request, merchantId,
+        requestDeadlines.fromHeader(requestTimeout));
 
     if (response.status() == PaymentStatus.REJECTED) {
       return ResponseEntity.badRequest().body(response);
     }
 
+    if (response.status() == PaymentStatus.PENDING) {
+      return ResponseEntity.accepted().body(response);
+    }
+
     return ResponseEntity.ok(response);
   }
 
   @GetMapping("/payment/{id}")
-  public ResponseEntity<PaymentResponse> getPaymentById(@PathVariable UUID id) {
-    return paymentGatewayService.getPaymentById(id)
+  public ResponseEntity<PaymentResponse> getPaymentById(
+      @PathVariable UUID id,
+      @RequestHeader(value = MERCHANT_ID_HEADER, required = false) String merchantId
+  ) {
+    return paymentGatewayService.getPaymentById(id, merchantId)
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
+
+  @PostMapping("/payment/{id}/capture")
+  public ResponseEntity<PaymentResponse> capturePayment(
+      @PathVariable UUID id,
+      @RequestHeader(value = MERCHANT_ID_HEADER, required = false) String merchantId
+  ) {
+    return paymentLifecycleService.capture(id, merchantId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/payment/{id}/void")
+  public ResponseEntity<PaymentResponse> voidPayment(
+      @PathVariable UUID id,
+      @RequestHeader(value = MERCHANT_ID_HEADER, required = false) String merchantId
+  ) {
+    return paymentLifecycleService.voidPayment(id, merchantId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/payment/{id}/refund")
+  public ResponseEntity<PaymentResponse> refundPayment(
+      @PathVariable UUID id,
+      @RequestBody RefundRequest request,
+      @RequestHeader(value = MERCHANT_ID_HEADER, required = false) String merchantId
+  ) {
+    return paymentLifecycleService.refund(id, request.amount(), merchantId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Checks an RFC 7240 {@code Prefer} header for the {@code respond-async} preference.
+   */
+  private static boolean prefersAsync(String prefer) {
+    if (prefer == null) {
+      return false;
+    }
+    for (String preference : prefer.split(",")) {
+      if (preference.trim().toLowerCase(Locale.ROOT).startsWith(RESPOND_ASYNC)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
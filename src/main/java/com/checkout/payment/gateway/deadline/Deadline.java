@@ -0,0 +1,65 @@
+package com.checkout.payment.gateway.deadline;
+
+import java.time.Duration;
+
+/**
+ * Point in time after which nobody is waiting for the result of a request.
+ * <p>
+ * Deadlines are measured on {@link System#nanoTime()}, so they are only meaningful inside the
+ * JVM that created them. {@link #none()} never expires and is used for background work.
+ */
+public final class Deadline {
+
+  private static final Deadline NONE = new Deadline(0, false);
+
+  private final long expiresAtNanos;
+  private final boolean bounded;
+
+  private Deadline(long expiresAtNanos, boolean bounded) {
+    this.expiresAtNanos = expiresAtNanos;
+    this.bounded = bounded;
+  }
+
+  public static Deadline none() {
+    return NONE;
+  }
+
+  public static Deadline after(Duration budget) {
+    return new Deadline(System.nanoTime() + budget.toNanos(), true);
+  }
+
+  public boolean isBounded() {
+    return bounded;
+  }
+
+  public boolean isExpired() {
+    return bounded && expiresAtNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * @return nanoseconds left before expiry, zero once expired, or {@link Long#MAX_VALUE} for an
+   *     unbounded deadline
+   */
+  public long remainingNanos() {
+    if (!bounded) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, expiresAtNanos - System.nanoTime());
+  }
+
+  /**
+   * @return whole milliseconds left, rounded up so that a live deadline never reports zero
+   */
+  public long remainingMillis() {
+    long remaining = remainingNanos();
+    if (remaining == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    return (remaining + 999_999) / 1_000_000;
+  }
+
+  @Override
+  public String toString() {
+    return bounded ? "Deadline[remaining=" + remainingMillis() + "ms]" : "Deadline[none]";
+  }
+}
@@ -0,0 +1,53 @@
+package com.checkout.payment.gateway.deadline;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.function.Supplier;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * HTTP request factory that bounds each connection by the deadline of the calling request.
+ * <p>
+ * Code that sends a request inside {@link #within(Deadline, Supplier)} gets connect and read
+ * timeouts no longer than the time its deadline has left, so a call nobody is waiting for any
+ * more is cut off by the socket instead of running to the configured timeouts.
+ */
+public class DeadlineAwareRequestFactory extends SimpleClientHttpRequestFactory {
+
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private final int connectTimeoutMillis;
+  private final int readTimeoutMillis;
+
+  public DeadlineAwareRequestFactory(int connectTimeoutMillis, int readTimeoutMillis) {
+    this.connectTimeoutMillis = connectTimeoutMillis;
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  /**
+   * Runs {@code call} with the given deadline applied to the connections it opens.
+   */
+  public static <T> T within(Deadline deadline, Supplier<T> call) {
+    Deadline previous = CURRENT.get();
+    CURRENT.set(deadline);
+    try {
+      return call.get();
+    } finally {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+
+  @Override
+  protected void prepareConnection(HttpURLConnection connection, String httpMethod)
+      throws IOException {
+    super.prepareConnection(connection, httpMethod);
+    Deadline deadline = CURRENT.get();
+    long remaining = deadline != null ? deadline.remainingMillis() : Long.MAX_VALUE;
+    connection.setConnectTimeout((int) Math.max(1, Math.min(connectTimeoutMillis, remaining)));
+    connection.setReadTimeout((int) Math.max(1, Math.min(readTimeoutMillis, remaining)));
+  }
+}
@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.deadline;
+
+import com.checkout.payment.gateway.monitoring.PaymentStage;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns the client's {@value #REQUEST_TIMEOUT_HEADER} header into a {@link Deadline} and counts
+ * requests abandoned because their deadline passed.
+ * <p>
+ * Requests without the header get {@code gateway.deadline.default-ms}; every budget is capped at
+ * {@code gateway.deadline.max-ms}. A malformed or non-positive header falls back to the default.
+ */
+@Component
+public class RequestDeadlines {
+
+  public static final String REQUEST_TIMEOUT_HEADER = "Request-Timeout-Ms";
+
+  private final long defaultMillis;
+  private final long maxMillis;
+  private final Map<PaymentStage, LongAdder> expired = new EnumMap<>(PaymentStage.class);
+
+  public RequestDeadlines(
+      @Value("${gateway.deadline.default-ms:4500}") long defaultMillis,
+      @Value("${gateway.deadline.max-ms:30000}") long maxMillis
+  ) {
+    this.defaultMillis = defaultMillis;
+    this.maxMillis = maxMillis;
+    for (PaymentStage stage : PaymentStage.values()) {
+      expired.put(stage, new LongAdder());
+    }
+  }
+
+  /**
+   * @param headerValue the raw header value, may be null
+   * @return a deadline starting now
+   */
+  public Deadline fromHeader(String headerValue) {
+    long budget = defaultMillis;
+    if (headerValue != null) {
+      try {
+        long requested = Long.parseLong(headerValue.strip());
+        if (requested > 0) {
+          budget = requested;
+        }
+      } catch (NumberFormatException ignored) {
+        // fall back to the default budget
+      }
+    }
+    return Deadline.after(Duration.ofMillis(Math.min(budget, maxMillis)));
+  }
+
+  public void recordExpired(PaymentStage stage) {
+    expired.get(stage).increment();
+  }
+
+  /**
+   * @return expired request counts keyed by the stage in which the deadline was noticed
+   */
+  public Map<String, Long> expiredCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    expired.forEach((stage, count) -> counts.put(stage.getMetricName(), count.sum()));
+    return counts;
+  }
+}
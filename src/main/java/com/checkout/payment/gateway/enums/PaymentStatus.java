@@ -5,7 +5,13 @@ import com.fasterxml.jackson.annotation.JsonValue;
 public enum PaymentStatus {
   AUTHORIZED("Authorized"),
   DECLINED("Declined"),
-  REJECTED("Rejected");
+  REJECTED("Rejected"),
+  PENDING("Pending"),
+  CAPTURED("Captured"),
+  VOIDED("Voided"),
+  PARTIALLY_REFUNDED("Partially Refunded"),
+  REFUNDED("Refunded"),
+  FAILED("Failed");
 
   private final String name;
 
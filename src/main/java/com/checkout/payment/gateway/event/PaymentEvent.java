@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.event;
+
+import com.checkout.payment.gateway.model.PaymentResponse;
+
+/**
+ * Immutable entry of the {@link PaymentEventBus} ring.
+ *
+ * @param sequence position of the event in the bus, also used as the SSE event ID
+ * @param merchantId merchant that submitted the payment, may be null
+ * @param payment the payment outcome
+ */
+public record PaymentEvent(
+    long sequence,
+    String merchantId,
+    PaymentResponse payment
+) {}
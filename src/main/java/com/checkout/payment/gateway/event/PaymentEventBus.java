@@ -0,0 +1,69 @@
+package com.checkout.payment.gateway.event;
+
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process broadcast bus for payment outcomes.
+ * <p>
+ * Events live in a preallocated, power-of-two ring indexed by a global sequence. Publishers claim
+ * a sequence with a single atomic increment and store the event with a CAS, so they never wait
+ * for readers; once the ring wraps, the oldest events are overwritten. Every reader owns a
+ * {@link PaymentEventCursor} and detects for itself when it has been lapped.
+ */
+@Component
+public class PaymentEventBus {
+
+  private final AtomicReferenceArray<PaymentEvent> ring;
+  private final int mask;
+  private final AtomicLong nextSequence = new AtomicLong();
+
+  public PaymentEventBus(@Value("${gateway.events.ring-size:65536}") int ringSize) {
+    if (ringSize < 2 || Integer.bitCount(ringSize) != 1) {
+      throw new IllegalArgumentException("Ring size must be a power of two, was " + ringSize);
+    }
+    this.ring = new AtomicReferenceArray<>(ringSize);
+    this.mask = ringSize - 1;
+  }
+
+  public void publish(String merchantId, PaymentResponse payment) {
+    long sequence = nextSequence.getAndIncrement();
+    PaymentEvent event = new PaymentEvent(sequence, merchantId, payment);
+    int index = (int) (sequence & mask);
+    PaymentEvent current;
+    do {
+      current = ring.get(index);
+      if (current != null && current.sequence() > sequence) {
+        // A publisher one lap ahead already used this slot; our event is already stale
+        return;
+      }
+    } while (!ring.compareAndSet(index, current, event));
+  }
+
+  /**
+   * Opens a cursor for a new reader.
+   *
+   * @param lastSeenSequence sequence of the last event the reader received, e.g. from the SSE
+   *     {@code Last-Event-ID} header, or null to receive only events published from now on
+   */
+  public PaymentEventCursor openCursor(Long lastSeenSequence) {
+    long head = nextSequence.get();
+    long start = lastSeenSequence == null ? head : Math.min(lastSeenSequence + 1, head);
+    return new PaymentEventCursor(this, Math.max(0, start));
+  }
+
+  PaymentEvent slot(long sequence) {
+    return ring.get((int) (sequence & mask));
+  }
+
+  long nextSequence() {
+    return nextSequence.get();
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
@@ -0,0 +1,64 @@
+package com.checkout.payment.gateway.event;
+
+/**
+ * A single reader's position in the {@link PaymentEventBus}.
+ * <p>
+ * Not thread-safe; each subscriber owns its cursor. A reader that falls further behind than the
+ * ring (or its own lag bound) skips forward to the oldest retained event and the number of
+ * skipped events is accumulated, so the subscriber can be told about the gap.
+ */
+public final class PaymentEventCursor {
+
+  private final PaymentEventBus bus;
+  private long next;
+  private long dropped;
+
+  PaymentEventCursor(PaymentEventBus bus, long next) {
+    this.bus = bus;
+    this.next = next;
+  }
+
+  /**
+   * @return the next event, or null if it has not been published yet
+   */
+  public PaymentEvent poll() {
+    while (true) {
+      PaymentEvent event = bus.slot(next);
+      if (event == null || event.sequence() < next) {
+        return null;
+      }
+      if (event.sequence() == next) {
+        next++;
+        return event;
+      }
+      // The slot already holds a later lap: everything up to the oldest retained event is lost
+      skipTo(bus.nextSequence() - bus.capacity());
+    }
+  }
+
+  /**
+   * Skips forward so the cursor is at most {@code maxLag} events behind the publishers.
+   */
+  public void boundLag(long maxLag) {
+    skipTo(bus.nextSequence() - maxLag);
+  }
+
+  /**
+   * @return events skipped since the last call, resetting the count
+   */
+  public long takeDropped() {
+    long result = dropped;
+    dropped = 0;
+    return result;
+  }
+
+  public long position() {
+    return next;
+  }
+
+  private void skipTo(long sequence) {
+    long target = Math.max(sequence, next);
+    dropped += target - next;
+    next = target;
+  }
+}
@@ -0,0 +1,165 @@
+package com.checkout.payment.gateway.event;
+
+import com.checkout.payment.gateway.exception.SubscriptionLimitExceededException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams a merchant's payment outcomes from the {@link PaymentEventBus} as Server-Sent Events.
+ * <p>
+ * Each subscriber is served by its own worker polling its own cursor, so a slow connection only
+ * delays itself. A subscriber that lags more than {@code gateway.events.max-lag} events is
+ * skipped forward and receives a {@code gap} event with the number of events it missed; clients
+ * resume after a reconnect through the standard {@code Last-Event-ID} header.
+ * <p>
+ * At most {@code gateway.events.max-subscribers} streams are open at once; further subscribers
+ * are refused until one closes. An idle stream sends a heartbeat comment every
+ * {@code gateway.events.heartbeat-ms}, so a client that disconnected without a close is noticed
+ * and its slot freed even when no payments arrive for its merchant.
+ */
+@Component
+public class PaymentEventStreamer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentEventStreamer.class);
+
+  private final PaymentEventBus paymentEventBus;
+  private final ExecutorService workers;
+  private final Semaphore subscriberSlots;
+  private final int maxSubscribers;
+  private final long maxLag;
+  private final long pollIntervalMillis;
+  private final long heartbeatNanos;
+  private final long streamTimeoutMillis;
+
+  public PaymentEventStreamer(
+      PaymentEventBus paymentEventBus,
+      @Value("${gateway.events.max-subscribers:64}") int maxSubscribers,
+      @Value("${gateway.events.max-lag:4096}") long maxLag,
+      @Value("${gateway.events.poll-interval-ms:20}") long pollIntervalMillis,
+      @Value("${gateway.events.heartbeat-ms:15000}") long heartbeatMillis,
+      @Value("${gateway.events.stream-timeout-ms:1800000}") long streamTimeoutMillis
+  ) {
+    if (maxSubscribers <= 0) {
+      throw new IllegalArgumentException(
+          "Maximum payment event subscribers must be positive: " + maxSubscribers);
+    }
+    this.paymentEventBus = paymentEventBus;
+    this.subscriberSlots = new Semaphore(maxSubscribers);
+    this.maxSubscribers = maxSubscribers;
+    this.maxLag = maxLag;
+    this.pollIntervalMillis = pollIntervalMillis;
+    this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+    this.streamTimeoutMillis = streamTimeoutMillis;
+
+    // Threads are bounded by the subscriber slots, released as a worker returns
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "payment-events-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  public SseEmitter subscribe(String merchantId, Long lastEventId) {
+    return subscribe(merchantId, lastEventId, new SseEmitter(streamTimeoutMillis));
+  }
+
+  SseEmitter subscribe(String merchantId, Long lastEventId, SseEmitter emitter) {
+    if (!subscriberSlots.tryAcquire()) {
+      throw new SubscriptionLimitExceededException("Too many payment event subscribers");
+    }
+    Subscription subscription = new Subscription(
+        merchantId, paymentEventBus.openCursor(lastEventId), emitter);
+
+    emitter.onCompletion(subscription::cancel);
+    emitter.onTimeout(subscription::cancel);
+    emitter.onError(error -> subscription.cancel());
+
+    try {
+      workers.execute(subscription);
+    } catch (RuntimeException ex) {
+      subscriberSlots.release();
+      throw ex;
+    }
+    return emitter;
+  }
+
+  /**
+   * @return number of open payment event streams
+   */
+  int subscribers() {
+    return maxSubscribers - subscriberSlots.availablePermits();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  private final class Subscription implements Runnable {
+
+    private final String merchantId;
+    private final PaymentEventCursor cursor;
+    private final SseEmitter emitter;
+    private volatile boolean active = true;
+
+    private Subscription(String merchantId, PaymentEventCursor cursor, SseEmitter emitter) {
+      this.merchantId = merchantId;
+      this.cursor = cursor;
+      this.emitter = emitter;
+    }
+
+    void cancel() {
+      active = false;
+    }
+
+    @Override
+    public void run() {
+      try {
+        long lastSent = System.nanoTime();
+        while (active && !Thread.currentThread().isInterrupted()) {
+          cursor.boundLag(maxLag);
+          PaymentEvent event = cursor.poll();
+          long dropped = cursor.takeDropped();
+          if (dropped > 0) {
+            emitter.send(SseEmitter.event().name("gap").data(dropped));
+            lastSent = System.nanoTime();
+          }
+          if (event == null) {
+            if (System.nanoTime() - lastSent >= heartbeatNanos) {
+              emitter.send(SseEmitter.event().comment("heartbeat"));
+              lastSent = System.nanoTime();
+            }
+            TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+          } else if (merchantId.equals(event.merchantId())) {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(event.sequence()))
+                .name("payment")
+                .data(event.payment(), MediaType.APPLICATION_JSON));
+            lastSent = System.nanoTime();
+          }
+        }
+      } catch (IOException | IllegalStateException ex) {
+        LOG.debug("Payment event stream for merchant {} closed", merchantId, ex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        emitter.complete();
+      } finally {
+        subscriberSlots.release();
+      }
+    }
+  }
+}
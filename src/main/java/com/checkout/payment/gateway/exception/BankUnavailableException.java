@@ -0,0 +1,13 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * The acquiring bank certainly did not process the request: it answered with a server error, or
+ * could not be connected to. Unlike other {@link BankCommunicationException}s, such as a read
+ * timeout or a reset connection, the request can be sent again without risking a second charge.
+ */
+public class BankUnavailableException extends BankCommunicationException {
+
+  public BankUnavailableException(String message) {
+    super(message);
+  }
+}
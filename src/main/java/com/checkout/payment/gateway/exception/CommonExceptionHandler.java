@@ -1,8 +1,11 @@
 package com.checkout.payment.gateway.exception;
 
+import com.checkout.payment.gateway.deadline.RequestDeadlines;
 import com.checkout.payment.gateway.model.ErrorResponse;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,9 +17,25 @@ public class CommonExceptionHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(CommonExceptionHandler.class);
 
+  private final PaymentEventLogger paymentEventLogger;
+  private final RequestDeadlines requestDeadlines;
+
+  public CommonExceptionHandler(
+      PaymentEventLogger paymentEventLogger,
+      RequestDeadlines requestDeadlines
+  ) {
+    this.paymentEventLogger = paymentEventLogger;
+    this.requestDeadlines = requestDeadlines;
+  }
+
+  /**
+   * Bank failures arrive in bursts during an outage, so they go through the sampled asynchronous
+   * logger; the stack trace is only logged at debug level.
+   */
   @ExceptionHandler(BankCommunicationException.class)
   public ResponseEntity<ErrorResponse> handleBankCommunication(BankCommunicationException ex) {
-    LOG.error("Bank communication error", ex);
+    paymentEventLogger.bankError(ex.getMessage());
+    LOG.debug("Bank communication error", ex);
 
     return ResponseEntity
         .status(HttpStatus.SERVICE_UNAVAILABLE)
@@ -25,6 +44,77 @@ public class CommonExceptionHandler {
         ));
   }
 
+  @ExceptionHandler(SubscriptionLimitExceededException.class)
+  public ResponseEntity<ErrorResponse> handleSubscriptionLimit(
+      SubscriptionLimitExceededException ex) {
+    return ResponseEntity
+        .status(HttpStatus.TOO_MANY_REQUESTS)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(GatewayBusyException.class)
+  public ResponseEntity<ErrorResponse> handleGatewayBusy(GatewayBusyException ex) {
+    return ResponseEntity
+        .status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(DeadlineExceededException.class)
+  public ResponseEntity<ErrorResponse> handleDeadlineExceeded(DeadlineExceededException ex) {
+    requestDeadlines.recordExpired(ex.getStage());
+    LOG.debug("Request abandoned during {}: {}", ex.getStage().getMetricName(), ex.getMessage());
+    return ResponseEntity
+        .status(HttpStatus.GATEWAY_TIMEOUT)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(PaymentStateConflictException.class)
+  public ResponseEntity<ErrorResponse> handlePaymentStateConflict(
+      PaymentStateConflictException ex) {
+    return ResponseEntity
+        .status(HttpStatus.CONFLICT)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(DuplicatePaymentInProgressException.class)
+  public ResponseEntity<ErrorResponse> handleDuplicatePaymentInProgress(
+      DuplicatePaymentInProgressException ex) {
+    return ResponseEntity
+        .status(HttpStatus.CONFLICT)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(InvalidRefundAmountException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidRefundAmount(InvalidRefundAmountException ex) {
+    return ResponseEntity
+        .badRequest()
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(InvalidImportFileException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidImportFile(InvalidImportFileException ex) {
+    return ResponseEntity
+        .badRequest()
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(ReadOnlyReplicaException.class)
+  public ResponseEntity<ErrorResponse> handleReadOnlyReplica(ReadOnlyReplicaException ex) {
+    return ResponseEntity
+        .status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(PaymentStorageException.class)
+  public ResponseEntity<ErrorResponse> handlePaymentStorage(PaymentStorageException ex) {
+    LOG.error("Payment storage failed", ex);
+    return ResponseEntity
+        .status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(new ErrorResponse("Payment storage is currently unavailable. "
+            + "Please try again later."));
+  }
+
   /**
    * Catch-all safety net
    */
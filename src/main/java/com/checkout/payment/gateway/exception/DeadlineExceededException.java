@@ -0,0 +1,20 @@
+package com.checkout.payment.gateway.exception;
+
+import com.checkout.payment.gateway.monitoring.PaymentStage;
+
+public class DeadlineExceededException extends RuntimeException {
+
+  private final PaymentStage stage;
+
+  public DeadlineExceededException(String message, PaymentStage stage) {
+    super(message);
+    this.stage = stage;
+  }
+
+  /**
+   * @return the stage the request had reached when its deadline passed
+   */
+  public PaymentStage getStage() {
+    return stage;
+  }
+}
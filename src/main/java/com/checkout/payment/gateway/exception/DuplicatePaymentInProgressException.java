@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.exception;
+
+public class DuplicatePaymentInProgressException extends RuntimeException {
+
+  public DuplicatePaymentInProgressException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.exception;
+
+public class GatewayBusyException extends RuntimeException {
+
+  public GatewayBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.exception;
+
+public class InvalidRefundAmountException extends RuntimeException {
+
+  public InvalidRefundAmountException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.exception;
+
+public class PaymentStateConflictException extends RuntimeException {
+
+  public PaymentStateConflictException(String message) {
+    super(message);
+  }
+}
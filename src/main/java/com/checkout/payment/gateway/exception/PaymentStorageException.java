@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.exception;
+
+public class PaymentStorageException extends RuntimeException {
+
+  public PaymentStorageException(String message) {
+    super(message);
+  }
+
+  public PaymentStorageException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
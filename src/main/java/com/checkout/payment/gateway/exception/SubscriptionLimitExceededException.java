@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.exception;
+
+public class SubscriptionLimitExceededException extends RuntimeException {
+
+  public SubscriptionLimitExceededException(String message) {
+    super(message);
+  }
+}
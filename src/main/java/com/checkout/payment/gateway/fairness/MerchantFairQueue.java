@@ -0,0 +1,366 @@
+package com.checkout.payment.gateway.fairness;
+
+import com.checkout.payment.gateway.deadline.Deadline;
+import com.checkout.payment.gateway.exception.BankCommunicationException;
+import com.checkout.payment.gateway.exception.DeadlineExceededException;
+import com.checkout.payment.gateway.exception.GatewayBusyException;
+import com.checkout.payment.gateway.monitoring.PaymentStage;
+import com.checkout.payment.gateway.monitoring.RequestTimings;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Weighted fair queue in front of outbound bank authorizations.
+ * <p>
+ * At most {@code gateway.fair-queue.max-concurrent} authorizations are with the acquirers at
+ * once. When that capacity is taken, callers wait in a per-merchant FIFO and free slots are
+ * handed out by start-time fair queuing: each waiter is tagged with a virtual start time that
+ * advances by {@code 1 / weight} per request of its merchant, and the waiting head with the
+ * lowest tag goes next. A merchant with weight 3 therefore gets three slots for every one of a
+ * weight-1 merchant while both are backlogged, and a merchant that was idle starts at the
+ * current virtual time instead of being owed credit for the idle period.
+ * <p>
+ * Each merchant is additionally capped at its own concurrency limit and queue length; a full
+ * queue is refused with {@link GatewayBusyException} rather than letting one tenant's burst
+ * grow without bound. Payments without a merchant share the {@value #ANONYMOUS_MERCHANT} queue.
+ * <p>
+ * The merchant ID comes from a request header, so only merchants the operator registered in
+ * {@code gateway.fair-queue.merchants} (or gave a weight or concurrency override) keep a queue
+ * for the lifetime of the instance. Any other ID gets a queue that is dropped as soon as it is
+ * idle, and at most {@code gateway.fair-queue.max-unregistered-merchants} of those exist at once;
+ * beyond that, unregistered IDs share the anonymous queue. A client rotating made-up IDs can
+ * therefore neither grow the queue map nor claim more than that many per-merchant allowances.
+ * Set the limit to 0 to give only registered merchants a queue of their own.
+ */
+@Component
+public class MerchantFairQueue {
+
+  static final String ANONYMOUS_MERCHANT = "anonymous";
+
+  private final boolean enabled;
+  private final int maxConcurrent;
+  private final int defaultWeight;
+  private final int defaultMaxConcurrentPerMerchant;
+  private final int maxQueuedPerMerchant;
+  private final Map<String, Integer> weights;
+  private final Map<String, Integer> concurrencyLimits;
+  private final Set<String> registeredMerchants;
+  private final int maxUnregisteredMerchants;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  // All fields below are guarded by lock
+  private final Map<String, MerchantQueue> queues = new HashMap<>();
+  private int unregisteredQueues;
+  private int inFlight;
+  private double virtualTime;
+
+  @Autowired
+  public MerchantFairQueue(
+      @Value("${gateway.fair-queue.enabled:true}") boolean enabled,
+      @Value("${gateway.fair-queue.max-concurrent:64}") int maxConcurrent,
+      @Value("${gateway.fair-queue.default-weight:1}") int defaultWeight,
+      @Value("${gateway.fair-queue.default-max-concurrent-per-merchant:32}")
+      int defaultMaxConcurrentPerMerchant,
+      @Value("${gateway.fair-queue.max-queued-per-merchant:1000}") int maxQueuedPerMerchant,
+      @Value("${gateway.fair-queue.weights:}") List<String> weights,
+      @Value("${gateway.fair-queue.max-concurrent-per-merchant:}") List<String> concurrencyLimits,
+      @Value("${gateway.fair-queue.merchants:}") List<String> merchants,
+      @Value("${gateway.fair-queue.max-unregistered-merchants:256}") int maxUnregisteredMerchants
+  ) {
+    this(enabled, maxConcurrent, defaultWeight, defaultMaxConcurrentPerMerchant,
+        maxQueuedPerMerchant, parseOverrides(weights), parseOverrides(concurrencyLimits),
+        merchants.stream().map(String::strip).filter(merchant -> !merchant.isEmpty()).toList(),
+        maxUnregisteredMerchants);
+  }
+
+  MerchantFairQueue(boolean enabled, int maxConcurrent, int defaultWeight,
+      int defaultMaxConcurrentPerMerchant, int maxQueuedPerMerchant,
+      Map<String, Integer> weights, Map<String, Integer> concurrencyLimits,
+      List<String> merchants, int maxUnregisteredMerchants) {
+    if (maxUnregisteredMerchants < 0) {
+      throw new IllegalArgumentException("Unregistered merchant limit must not be negative");
+    }
+    this.enabled = enabled;
+    this.maxConcurrent = maxConcurrent;
+    this.defaultWeight = defaultWeight;
+    this.defaultMaxConcurrentPerMerchant = defaultMaxConcurrentPerMerchant;
+    this.maxQueuedPerMerchant = maxQueuedPerMerchant;
+    this.weights = Map.copyOf(weights);
+    this.concurrencyLimits = Map.copyOf(concurrencyLimits);
+    Set<String> registered = new HashSet<>(merchants);
+    registered.addAll(weights.keySet());
+    registered.addAll(concurrencyLimits.keySet());
+    registered.add(ANONYMOUS_MERCHANT);
+    this.registeredMerchants = Set.copyOf(registered);
+    this.maxUnregisteredMerchants = maxUnregisteredMerchants;
+  }
+
+  /**
+   * Runs a bank call once the merchant has been given a slot, waiting as long as necessary.
+   *
+   * @see #call(String, Deadline, Supplier)
+   */
+  public <T> T call(String merchantId, Supplier<T> bankCall) {
+    return call(merchantId, Deadline.none(), bankCall);
+  }
+
+  /**
+   * Runs a bank call once the merchant has been given a slot, waiting for one until the deadline.
+   *
+   * @param merchantId identifier of the merchant the call is made for, may be null
+   * @throws GatewayBusyException if the merchant already has too many calls queued
+   * @throws DeadlineExceededException if the deadline passes while waiting for a slot
+   * @throws BankCommunicationException if interrupted while waiting for a slot
+   */
+  public <T> T call(String merchantId, Deadline deadline, Supplier<T> bankCall) {
+    if (!enabled) {
+      return bankCall.get();
+    }
+    long queueStart = RequestTimings.start();
+    MerchantQueue queue = acquire(merchantId != null ? merchantId : ANONYMOUS_MERCHANT, deadline);
+    RequestTimings.stop(PaymentStage.BANK_QUEUE, queueStart);
+    try {
+      return bankCall.get();
+    } finally {
+      lock.lock();
+      try {
+        releaseLocked(queue);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * @return queue depth, concurrency and wait time for every registered merchant, and for every
+   *     other merchant with calls queued or in flight
+   */
+  public List<MerchantQueueStats> stats() {
+    List<MerchantQueueStats> stats = new ArrayList<>();
+    lock.lock();
+    try {
+      for (MerchantQueue queue : queues.values()) {
+        stats.add(queue.stats());
+      }
+    } finally {
+      lock.unlock();
+    }
+    stats.sort(Comparator.comparing(MerchantQueueStats::merchantId));
+    return stats;
+  }
+
+  private MerchantQueue acquire(String merchantId, Deadline deadline) {
+    lock.lock();
+    try {
+      MerchantQueue queue = queueLocked(merchantId);
+      if (queue.waiting.size() >= maxQueuedPerMerchant) {
+        queue.rejected++;
+        throw new GatewayBusyException("Too many payments queued for this merchant. "
+            + "Please try again later.");
+      }
+
+      double startTag = Math.max(virtualTime, queue.lastFinishTag);
+      queue.lastFinishTag = startTag + 1.0 / queue.weight;
+      Waiter waiter = new Waiter(startTag, System.nanoTime(), lock.newCondition());
+      queue.waiting.addLast(waiter);
+      dispatchLocked();
+
+      while (!waiter.granted) {
+        long remaining = deadline.remainingNanos();
+        if (remaining == 0) {
+          queue.waiting.remove(waiter);
+          queue.expired++;
+          evictIfIdleLocked(queue);
+          throw new DeadlineExceededException(
+              "Request deadline passed while waiting for acquiring bank capacity",
+              PaymentStage.BANK_QUEUE);
+        }
+        try {
+          waiter.ready.awaitNanos(remaining);
+        } catch (InterruptedException ex) {
+          if (waiter.granted) {
+            releaseLocked(queue);
+          } else {
+            queue.waiting.remove(waiter);
+            evictIfIdleLocked(queue);
+          }
+          Thread.currentThread().interrupt();
+          throw new BankCommunicationException(
+              "Interrupted while waiting for acquiring bank capacity");
+        }
+      }
+      return queue;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void releaseLocked(MerchantQueue queue) {
+    queue.inFlight--;
+    inFlight--;
+    evictIfIdleLocked(queue);
+    dispatchLocked();
+  }
+
+  /**
+   * Finds the merchant's queue, creating it if the merchant is registered or the unregistered
+   * limit allows; otherwise falls back to the shared anonymous queue.
+   */
+  private MerchantQueue queueLocked(String merchantId) {
+    MerchantQueue queue = queues.get(merchantId);
+    if (queue != null) {
+      return queue;
+    }
+    boolean registered = registeredMerchants.contains(merchantId);
+    if (!registered && unregisteredQueues >= maxUnregisteredMerchants) {
+      return queues.computeIfAbsent(ANONYMOUS_MERCHANT, id -> newQueue(id, false));
+    }
+    if (!registered) {
+      unregisteredQueues++;
+    }
+    queue = newQueue(merchantId, !registered);
+    queues.put(merchantId, queue);
+    return queue;
+  }
+
+  /**
+   * Drops an unregistered merchant's queue once nothing is waiting or in flight. A merchant that
+   * comes back starts at the current virtual time, forgoing at most one request's worth of delay.
+   */
+  private void evictIfIdleLocked(MerchantQueue queue) {
+    if (queue.evictable && queue.inFlight == 0 && queue.waiting.isEmpty()) {
+      queues.remove(queue.merchantId);
+      unregisteredQueues--;
+    }
+  }
+
+  /**
+   * Hands free slots to the waiting heads with the lowest start tags. Scans every merchant per
+   * slot, which is cheap for the tens of merchants a gateway instance serves.
+   */
+  private void dispatchLocked() {
+    while (inFlight < maxConcurrent) {
+      MerchantQueue next = null;
+      Waiter head = null;
+      for (MerchantQueue queue : queues.values()) {
+        Waiter candidate = queue.waiting.peekFirst();
+        if (candidate != null && queue.inFlight < queue.maxConcurrent
+            && (head == null || candidate.startTag < head.startTag)) {
+          next = queue;
+          head = candidate;
+        }
+      }
+      if (next == null) {
+        return;
+      }
+
+      next.waiting.pollFirst();
+      next.inFlight++;
+      inFlight++;
+      virtualTime = Math.max(virtualTime, head.startTag);
+
+      long waitedNanos = System.nanoTime() - head.enqueuedAtNanos;
+      next.dispatched++;
+      next.totalWaitNanos += waitedNanos;
+      next.maxWaitNanos = Math.max(next.maxWaitNanos, waitedNanos);
+
+      head.granted = true;
+      head.ready.signal();
+    }
+  }
+
+  private MerchantQueue newQueue(String merchantId, boolean evictable) {
+    return new MerchantQueue(
+        merchantId,
+        weights.getOrDefault(merchantId, defaultWeight),
+        concurrencyLimits.getOrDefault(merchantId, defaultMaxConcurrentPerMerchant),
+        evictable
+    );
+  }
+
+  /**
+   * Parses {@code merchant=value} entries into a map, skipping blank entries.
+   */
+  static Map<String, Integer> parseOverrides(List<String> entries) {
+    Map<String, Integer> overrides = new HashMap<>();
+    for (String entry : entries) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      int separator = entry.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected merchant=value but got: " + entry);
+      }
+      int value = Integer.parseInt(entry.substring(separator + 1).strip());
+      if (value <= 0) {
+        throw new IllegalArgumentException("Value must be positive: " + entry);
+      }
+      overrides.put(entry.substring(0, separator).strip(), value);
+    }
+    return overrides;
+  }
+
+  private static final class Waiter {
+
+    private final double startTag;
+    private final long enqueuedAtNanos;
+    private final Condition ready;
+    private boolean granted;
+
+    private Waiter(double startTag, long enqueuedAtNanos, Condition ready) {
+      this.startTag = startTag;
+      this.enqueuedAtNanos = enqueuedAtNanos;
+      this.ready = ready;
+    }
+  }
+
+  private static final class MerchantQueue {
+
+    private final String merchantId;
+    private final int weight;
+    private final int maxConcurrent;
+    private final boolean evictable;
+    private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+    private double lastFinishTag;
+    private int inFlight;
+    private long dispatched;
+    private long rejected;
+    private long expired;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    private MerchantQueue(String merchantId, int weight, int maxConcurrent, boolean evictable) {
+      this.merchantId = merchantId;
+      this.weight = weight;
+      this.maxConcurrent = maxConcurrent;
+      this.evictable = evictable;
+    }
+
+    private MerchantQueueStats stats() {
+      return new MerchantQueueStats(
+          merchantId,
+          weight,
+          maxConcurrent,
+          waiting.size(),
+          inFlight,
+          dispatched,
+          rejected,
+          expired,
+          dispatched == 0 ? 0 : totalWaitNanos / 1_000_000.0 / dispatched,
+          maxWaitNanos / 1_000_000.0
+      );
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.checkout.payment.gateway.fairness;
+
+/**
+ * Point-in-time view of one merchant's bank authorization queue.
+ *
+ * @param queued authorizations waiting for a slot
+ * @param inFlight authorizations currently with the acquirer
+ * @param dispatched authorizations admitted since startup
+ * @param rejected authorizations refused because the merchant's queue was full
+ * @param expired authorizations abandoned because their deadline passed while queued
+ */
+public record MerchantQueueStats(
+    String merchantId,
+    int weight,
+    int maxConcurrent,
+    int queued,
+    int inFlight,
+    long dispatched,
+    long rejected,
+    long expired,
+    double averageWaitMillis,
+    double maxWaitMillis
+) {}
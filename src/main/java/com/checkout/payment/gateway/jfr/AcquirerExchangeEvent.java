@@ -0,0 +1,45 @@
+package com.checkout.payment.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One HTTP exchange with one acquirer; a bank authorization has several when it fails over.
+ */
+@Name(AcquirerExchangeEvent.NAME)
+@Label("Acquirer Exchange")
+@Category("Payment Gateway")
+@Description("HTTP exchange with a single acquirer")
+@StackTrace(false)
+public final class AcquirerExchangeEvent extends Event {
+
+  public static final String NAME = "com.checkout.payment.AcquirerExchange";
+
+  @Label("Acquirer")
+  private String acquirer;
+
+  @Label("Outcome")
+  @Description("Authorized, Declined, Unavailable, Error or DeadlineExceeded")
+  private String outcome;
+
+  @Label("Currency")
+  private String currency;
+
+  @Label("Amount")
+  private int amount;
+
+  public void complete(String acquirer, String outcome, String currency, int amount) {
+    end();
+    if (shouldCommit()) {
+      this.acquirer = acquirer;
+      this.outcome = outcome;
+      this.currency = currency;
+      this.amount = amount;
+      commit();
+    }
+  }
+}
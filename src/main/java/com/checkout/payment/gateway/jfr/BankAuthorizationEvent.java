@@ -0,0 +1,45 @@
+package com.checkout.payment.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Round trip from the gateway to the acquiring bank for one payment, across every acquirer tried.
+ */
+@Name(BankAuthorizationEvent.NAME)
+@Label("Bank Authorization")
+@Category("Payment Gateway")
+@Description("Request to and response from the acquiring bank for one payment")
+@StackTrace(false)
+public final class BankAuthorizationEvent extends Event {
+
+  public static final String NAME = "com.checkout.payment.BankAuthorization";
+
+  @Label("Payment ID")
+  private String paymentId;
+
+  @Label("Outcome")
+  @Description("Authorized, Declined, or the name of the failure")
+  private String outcome;
+
+  @Label("Currency")
+  private String currency;
+
+  @Label("Amount")
+  private int amount;
+
+  public void complete(String paymentId, String outcome, String currency, int amount) {
+    end();
+    if (shouldCommit()) {
+      this.paymentId = paymentId;
+      this.outcome = outcome;
+      this.currency = currency;
+      this.amount = amount;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.checkout.payment.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Write of a payment to the repository.
+ */
+@Name(PaymentPersistenceEvent.NAME)
+@Label("Payment Persistence")
+@Category("Payment Gateway")
+@Description("Write of a payment to the repository")
+@StackTrace(false)
+public final class PaymentPersistenceEvent extends Event {
+
+  public static final String NAME = "com.checkout.payment.Persistence";
+
+  @Label("Payment ID")
+  private String paymentId;
+
+  @Label("Status")
+  private String status;
+
+  @Label("Currency")
+  private String currency;
+
+  public void complete(String paymentId, String status, String currency) {
+    end();
+    if (shouldCommit()) {
+      this.paymentId = paymentId;
+      this.status = status;
+      this.currency = currency;
+      commit();
+    }
+  }
+}
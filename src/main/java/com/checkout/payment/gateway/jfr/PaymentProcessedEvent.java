@@ -0,0 +1,46 @@
+package com.checkout.payment.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Synchronous processing of one payment from validation to stored result. Its duration is the
+ * window in which GC pauses and lock contention can be correlated with a slow payment.
+ */
+@Name(PaymentProcessedEvent.NAME)
+@Label("Payment Processed")
+@Category("Payment Gateway")
+@Description("End-to-end processing of a payment request")
+@StackTrace(false)
+public final class PaymentProcessedEvent extends Event {
+
+  public static final String NAME = "com.checkout.payment.Processed";
+
+  @Label("Payment ID")
+  private String paymentId;
+
+  @Label("Status")
+  @Description("Final status, or Failed when processing threw")
+  private String status;
+
+  @Label("Currency")
+  private String currency;
+
+  @Label("Amount")
+  private int amount;
+
+  public void complete(String paymentId, String status, String currency, int amount) {
+    end();
+    if (shouldCommit()) {
+      this.paymentId = paymentId;
+      this.status = status;
+      this.currency = currency;
+      this.amount = amount;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.checkout.payment.gateway.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarises a flight recording taken with the bundled {@code payment-gateway.jfc} settings.
+ * <p>
+ * Reports latency percentiles for every payment stage, split by outcome where the event has
+ * one, and lists the slowest payments together with how much of their wall time overlapped a GC
+ * pause or was spent blocked on a monitor or park on the request thread.
+ * <p>
+ * Run with {@code ./gradlew analyzeRecording -Precording=payments.jfr}.
+ */
+public final class PaymentRecordingAnalyzer {
+
+  static final String GC_PAUSE = "jdk.GCPhasePause";
+  static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+  static final String THREAD_PARK = "jdk.ThreadPark";
+
+  private static final String PAYMENT_EVENT_PREFIX = "com.checkout.payment.";
+  private static final int DEFAULT_SLOWEST = 10;
+
+  private PaymentRecordingAnalyzer() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: PaymentRecordingAnalyzer <recording.jfr> [slowest]");
+      System.exit(2);
+    }
+    int slowest = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SLOWEST;
+    print(analyze(Path.of(args[0]), slowest), System.out);
+  }
+
+  /**
+   * Reads the recording and summarises it.
+   *
+   * @param slowest how many of the slowest processed payments to report
+   */
+  public static Summary analyze(Path recording, int slowest) throws IOException {
+    Map<String, List<Long>> durations = new TreeMap<>();
+    List<RecordedEvent> processed = new ArrayList<>();
+    List<Interval> gcPauses = new ArrayList<>();
+    Map<Long, List<Interval>> blockedByThread = new HashMap<>();
+
+    try (RecordingFile file = new RecordingFile(recording)) {
+      while (file.hasMoreEvents()) {
+        RecordedEvent event = file.readEvent();
+        String name = event.getEventType().getName();
+        if (name.startsWith(PAYMENT_EVENT_PREFIX)) {
+          durations.computeIfAbsent(stageOf(event), key -> new ArrayList<>())
+              .add(event.getDuration().toNanos());
+          if (name.equals(PaymentProcessedEvent.NAME)) {
+            processed.add(event);
+          }
+        } else if (name.equals(GC_PAUSE)) {
+          gcPauses.add(Interval.of(event));
+        } else if (name.equals(MONITOR_ENTER) || name.equals(THREAD_PARK)) {
+          Long threadId = threadIdOf(event);
+          if (threadId != null) {
+            blockedByThread.computeIfAbsent(threadId, key -> new ArrayList<>())
+                .add(Interval.of(event));
+          }
+        }
+      }
+    }
+
+    List<StageLatency> stages = new ArrayList<>();
+    durations.forEach((stage, nanos) -> stages.add(StageLatency.of(stage, nanos)));
+
+    List<SlowPayment> slowPayments = processed.stream()
+        .sorted(Comparator.comparing(RecordedEvent::getDuration, Comparator.reverseOrder()))
+        .limit(slowest)
+        .map(event -> {
+          Interval payment = Interval.of(event);
+          Long threadId = threadIdOf(event);
+          List<Interval> blocked = threadId != null
+              ? blockedByThread.getOrDefault(threadId, List.of())
+              : List.of();
+          return new SlowPayment(
+              event.getString("paymentId"),
+              event.getString("status"),
+              millis(event.getDuration().toNanos()),
+              millis(payment.overlap(gcPauses)),
+              millis(payment.overlap(blocked)));
+        })
+        .toList();
+    return new Summary(stages, slowPayments);
+  }
+
+  static void print(Summary summary, PrintStream out) {
+    out.printf("%-40s %8s %10s %10s %10s %10s%n",
+        "stage", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+    for (StageLatency stage : summary.stages()) {
+      out.printf("%-40s %8d %10.3f %10.3f %10.3f %10.3f%n", stage.stage(), stage.count(),
+          stage.p50Millis(), stage.p90Millis(), stage.p99Millis(), stage.maxMillis());
+    }
+    out.println();
+    out.printf("%-38s %-20s %10s %10s %10s%n",
+        "slowest payments", "status", "total ms", "gc ms", "blocked ms");
+    for (SlowPayment payment : summary.slowest()) {
+      out.printf("%-38s %-20s %10.3f %10.3f %10.3f%n", payment.paymentId(), payment.status(),
+          payment.durationMillis(), payment.gcPauseMillis(), payment.blockedMillis());
+    }
+  }
+
+  private static String stageOf(RecordedEvent event) {
+    String stage = event.getEventType().getName().substring(PAYMENT_EVENT_PREFIX.length());
+    if (event.hasField("outcome")) {
+      return stage + "/" + event.getString("outcome");
+    }
+    if (event.hasField("status")) {
+      return stage + "/" + event.getString("status");
+    }
+    return stage;
+  }
+
+  private static Long threadIdOf(RecordedEvent event) {
+    RecordedThread thread = event.getThread();
+    return thread != null ? thread.getJavaThreadId() : null;
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  /**
+   * Everything the analyzer extracted from one recording.
+   */
+  public record Summary(List<StageLatency> stages, List<SlowPayment> slowest) {
+
+    public StageLatency stage(String stage) {
+      return stages.stream()
+          .filter(latency -> latency.stage().equals(stage))
+          .findFirst()
+          .orElse(null);
+    }
+  }
+
+  /**
+   * Latency distribution of one payment stage; outcome-bearing stages are keyed
+   * {@code Stage/Outcome}, e.g. {@code BankAuthorization/Declined}.
+   */
+  public record StageLatency(String stage, int count, double p50Millis, double p90Millis,
+      double p99Millis, double maxMillis) {
+
+    static StageLatency of(String stage, List<Long> nanos) {
+      long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+      return new StageLatency(stage, sorted.length, millis(percentile(sorted, 50)),
+          millis(percentile(sorted, 90)), millis(percentile(sorted, 99)),
+          millis(sorted[sorted.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+      int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(rank, 1) - 1];
+    }
+  }
+
+  /**
+   * One of the slowest payments, with the part of its duration that overlapped a GC pause and
+   * the part its thread spent blocked on a contended monitor or parked.
+   */
+  public record SlowPayment(String paymentId, String status, double durationMillis,
+      double gcPauseMillis, double blockedMillis) {
+  }
+
+  private record Interval(long startNanos, long endNanos) {
+
+    static Interval of(RecordedEvent event) {
+      return new Interval(epochNanos(event.getStartTime()), epochNanos(event.getEndTime()));
+    }
+
+    long overlap(List<Interval> others) {
+      long total = 0;
+      for (Interval other : others) {
+        long start = Math.max(startNanos, other.startNanos);
+        long end = Math.min(endNanos, other.endNanos);
+        if (end > start) {
+          total += end - start;
+        }
+      }
+      return total;
+    }
+
+    private static long epochNanos(Instant instant) {
+      return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+  }
+}
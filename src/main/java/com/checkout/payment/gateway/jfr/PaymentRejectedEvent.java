@@ -0,0 +1,39 @@
+package com.checkout.payment.gateway.jfr;
+
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A payment request turned away before reaching the bank.
+ */
+@Name(PaymentRejectedEvent.NAME)
+@Label("Payment Rejected")
+@Category("Payment Gateway")
+@Description("Payment request rejected by validation or risk checks")
+@StackTrace(false)
+public final class PaymentRejectedEvent extends Event {
+
+  public static final String NAME = "com.checkout.payment.Rejected";
+
+  @Label("Reasons")
+  private String reasons;
+
+  @Label("Reason Count")
+  private int reasonCount;
+
+  /**
+   * Commits the event if a recording wants it; the reasons are only joined in that case.
+   */
+  public void complete(List<String> reasons) {
+    if (shouldCommit()) {
+      this.reasons = String.join("; ", reasons);
+      this.reasonCount = reasons.size();
+      commit();
+    }
+  }
+}
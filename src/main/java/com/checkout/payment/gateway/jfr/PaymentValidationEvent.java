@@ -0,0 +1,36 @@
+package com.checkout.payment.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Validation of an incoming payment request.
+ */
+@Name(PaymentValidationEvent.NAME)
+@Label("Payment Validation")
+@Category("Payment Gateway")
+@Description("Validation of a payment request")
+@StackTrace(false)
+public final class PaymentValidationEvent extends Event {
+
+  public static final String NAME = "com.checkout.payment.Validation";
+
+  @Label("Currency")
+  private String currency;
+
+  @Label("Error Count")
+  private int errorCount;
+
+  public void complete(String currency, int errorCount) {
+    end();
+    if (shouldCommit()) {
+      this.currency = currency;
+      this.errorCount = errorCount;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.migration;
+
+/**
+ * A line that could not be imported.
+ *
+ * @param line 1-based line number in the file
+ */
+public record ImportError(
+    long line,
+    String message
+) {
+}
@@ -0,0 +1,24 @@
+package com.checkout.payment.gateway.migration;
+
+import java.util.List;
+
+/**
+ * Outcome of one bulk import.
+ *
+ * @param imported payments stored
+ * @param skipped payments left out because a payment with the same ID was already stored
+ * @param failed lines that could not be parsed
+ * @param errors the first failed lines, up to {@code gateway.import.max-errors}, in file order
+ * @param recordsPerSecond imported payments per second of wall time
+ */
+public record ImportReport(
+    String file,
+    long bytes,
+    long imported,
+    long skipped,
+    long failed,
+    List<ImportError> errors,
+    long elapsedMillis,
+    long recordsPerSecond
+) {
+}
@@ -0,0 +1,278 @@
+package com.checkout.payment.gateway.migration;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Parses payment CSV lines straight out of a (memory-mapped) {@link ByteBuffer}.
+ * <p>
+ * Columns are {@value #HEADER}; empty fields are null. The trailing merchant that owns the
+ * payment may be left out, as in files written before payments recorded their owner; such
+ * payments stay visible to every merchant. Fields are decoded in place: UUIDs and numbers from
+ * their digits, statuses by comparing bytes with the status names, last-four digits from a shared
+ * table and currencies, schemes, countries and merchants through a small per-parser interner,
+ * so a well-formed line allocates nothing but its {@link PaymentResponse}. Not thread-safe.
+ * <p>
+ * Currency and amount are required, and so is the refunded amount of a captured or refunded
+ * payment, which must lie between zero and the amount. Pending payments are refused: they would
+ * be stored without the deferred authorization that completes them.
+ */
+final class PaymentCsvParser {
+
+  static final String HEADER = "id,status,card_number_last_four,expiry_month,expiry_year,"
+      + "currency,amount,card_scheme,issuer_country,refunded_amount,merchant_id";
+
+  private static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+  private static final int COLUMNS = 11;
+  // Header and column count of files without the merchant column
+  private static final byte[] OWNERLESS_HEADER_BYTES = HEADER.substring(0,
+      HEADER.lastIndexOf(',')).getBytes(StandardCharsets.US_ASCII);
+  private static final int OWNERLESS_COLUMNS = COLUMNS - 1;
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+  private static final byte[][] STATUS_NAMES = new byte[STATUSES.length][];
+  private static final String[] LAST_FOUR = new String[10_000];
+
+  static {
+    for (int i = 0; i < STATUSES.length; i++) {
+      STATUS_NAMES[i] = STATUSES[i].getName().getBytes(StandardCharsets.US_ASCII);
+    }
+    for (int i = 0; i < LAST_FOUR.length; i++) {
+      LAST_FOUR[i] = String.format("%04d", i);
+    }
+  }
+
+  private final int[] fieldStart = new int[COLUMNS];
+  private final int[] fieldEnd = new int[COLUMNS];
+  private final Interner interner = new Interner();
+  private ByteBuffer buffer;
+
+  /**
+   * Parses the line in {@code buffer} between {@code start} and {@code end}, excluding the line
+   * terminator.
+   *
+   * @throws MalformedLineException if the line is not a valid payment
+   */
+  PaymentResponse parse(ByteBuffer buffer, int start, int end) throws MalformedLineException {
+    this.buffer = buffer;
+    if (end > start && buffer.get(end - 1) == '\r') {
+      end--;
+    }
+    int column = 0;
+    fieldStart[0] = start;
+    for (int i = start; i < end; i++) {
+      if (buffer.get(i) == ',') {
+        if (column == COLUMNS - 1) {
+          throw new MalformedLineException("expected at most " + COLUMNS + " columns");
+        }
+        fieldEnd[column++] = i;
+        fieldStart[column] = i + 1;
+      }
+    }
+    fieldEnd[column] = end;
+    if (column < OWNERLESS_COLUMNS - 1) {
+      throw new MalformedLineException("expected " + OWNERLESS_COLUMNS + " or " + COLUMNS
+          + " columns, found " + (column + 1));
+    }
+    UUID id = uuid(0);
+    PaymentStatus status = status(1);
+    if (status == PaymentStatus.PENDING) {
+      throw new MalformedLineException("pending payments cannot be imported");
+    }
+    String lastFour = lastFour(2);
+    Integer expiryMonth = integer(3);
+    Integer expiryYear = integer(4);
+    String currency = interned(5);
+    if (currency == null) {
+      throw new MalformedLineException("currency is required");
+    }
+    Integer amount = integer(6);
+    if (amount == null) {
+      throw new MalformedLineException("amount is required");
+    }
+    Integer refundedAmount = integer(9);
+    if (refundedAmount == null && isCaptured(status)) {
+      throw new MalformedLineException("refunded_amount is required once captured");
+    }
+    if (refundedAmount != null && (refundedAmount < 0 || refundedAmount > amount)) {
+      throw new MalformedLineException("refunded_amount must be between 0 and amount");
+    }
+    String merchantId = column == COLUMNS - 1 ? interned(10) : null;
+    return new PaymentResponse(id, status, lastFour, expiryMonth, expiryYear, currency, amount,
+        null, interned(7), interned(8), refundedAmount, merchantId);
+  }
+
+  /**
+   * @return whether the line is the CSV header
+   */
+  boolean isHeader(ByteBuffer buffer, int start, int end) {
+    this.buffer = buffer;
+    if (end > start && buffer.get(end - 1) == '\r') {
+      end--;
+    }
+    return end - start == HEADER_BYTES.length && matches(start, HEADER_BYTES)
+        || end - start == OWNERLESS_HEADER_BYTES.length
+        && matches(start, OWNERLESS_HEADER_BYTES);
+  }
+
+  private UUID uuid(int column) throws MalformedLineException {
+    int start = fieldStart[column];
+    if (fieldEnd[column] - start != 36) {
+      throw new MalformedLineException("id is not a UUID");
+    }
+    long high = hex(start, 8) << 32 | hex(start + 9, 4) << 16 | hex(start + 14, 4);
+    long low = hex(start + 19, 4) << 48 | hex(start + 24, 12);
+    if (buffer.get(start + 8) != '-' || buffer.get(start + 13) != '-'
+        || buffer.get(start + 18) != '-' || buffer.get(start + 23) != '-') {
+      throw new MalformedLineException("id is not a UUID");
+    }
+    return new UUID(high, low);
+  }
+
+  private long hex(int start, int digits) throws MalformedLineException {
+    long value = 0;
+    for (int i = start; i < start + digits; i++) {
+      int nibble = Character.digit(buffer.get(i), 16);
+      if (nibble < 0) {
+        throw new MalformedLineException("id is not a UUID");
+      }
+      value = value << 4 | nibble;
+    }
+    return value;
+  }
+
+  private PaymentStatus status(int column) throws MalformedLineException {
+    int start = fieldStart[column];
+    int length = fieldEnd[column] - start;
+    for (int i = 0; i < STATUS_NAMES.length; i++) {
+      if (STATUS_NAMES[i].length == length && matches(start, STATUS_NAMES[i])) {
+        return STATUSES[i];
+      }
+    }
+    throw new MalformedLineException("unknown status");
+  }
+
+  private static boolean isCaptured(PaymentStatus status) {
+    return status == PaymentStatus.CAPTURED || status == PaymentStatus.PARTIALLY_REFUNDED
+        || status == PaymentStatus.REFUNDED;
+  }
+
+  private String lastFour(int column) throws MalformedLineException {
+    int start = fieldStart[column];
+    int length = fieldEnd[column] - start;
+    if (length == 0) {
+      return null;
+    }
+    if (length != 4) {
+      throw new MalformedLineException("card_number_last_four must be 4 digits");
+    }
+    int value = 0;
+    for (int i = start; i < start + 4; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new MalformedLineException("card_number_last_four must be 4 digits");
+      }
+      value = value * 10 + digit;
+    }
+    return LAST_FOUR[value];
+  }
+
+  private Integer integer(int column) throws MalformedLineException {
+    int start = fieldStart[column];
+    int end = fieldEnd[column];
+    if (start == end) {
+      return null;
+    }
+    boolean negative = buffer.get(start) == '-';
+    int i = negative ? start + 1 : start;
+    if (i == end || end - i > 10) {
+      throw new MalformedLineException("column " + (column + 1) + " is not an integer");
+    }
+    long value = 0;
+    for (; i < end; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new MalformedLineException("column " + (column + 1) + " is not an integer");
+      }
+      value = value * 10 + digit;
+    }
+    value = negative ? -value : value;
+    if (value != (int) value) {
+      throw new MalformedLineException("column " + (column + 1) + " is out of range");
+    }
+    return (int) value;
+  }
+
+  private String interned(int column) {
+    int start = fieldStart[column];
+    int end = fieldEnd[column];
+    return start == end ? null : interner.intern(buffer, start, end);
+  }
+
+  private boolean matches(int start, byte[] expected) {
+    for (int i = 0; i < expected.length; i++) {
+      if (buffer.get(start + i) != expected[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Thrown for a line that cannot be imported; carries no stack trace, since bad lines in a large
+   * file are expected and only their messages are reported.
+   */
+  static final class MalformedLineException extends Exception {
+
+    MalformedLineException(String message) {
+      super(message, null, false, false);
+    }
+  }
+
+  /**
+   * Open-addressing table from byte sequences to a single {@link String} instance each, for the
+   * low-cardinality columns. Full tables stop interning and decode every value.
+   */
+  private static final class Interner {
+
+    private static final int CAPACITY = 1024;
+
+    private final byte[][] keys = new byte[CAPACITY][];
+    private final String[] values = new String[CAPACITY];
+    private int size;
+
+    String intern(ByteBuffer buffer, int start, int end) {
+      int hash = 0;
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + buffer.get(i);
+      }
+      int slot = (hash ^ hash >>> 16) & (CAPACITY - 1);
+      for (byte[] key = keys[slot]; key != null; key = keys[slot]) {
+        if (key.length == end - start && equal(buffer, start, key)) {
+          return values[slot];
+        }
+        slot = (slot + 1) & (CAPACITY - 1);
+      }
+      byte[] bytes = new byte[end - start];
+      buffer.get(start, bytes);
+      String value = new String(bytes, StandardCharsets.UTF_8);
+      if (size < CAPACITY / 2) {
+        keys[slot] = bytes;
+        values[slot] = value;
+        size++;
+      }
+      return value;
+    }
+
+    private static boolean equal(ByteBuffer buffer, int start, byte[] key) {
+      for (int i = 0; i < key.length; i++) {
+        if (buffer.get(start + i) != key[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
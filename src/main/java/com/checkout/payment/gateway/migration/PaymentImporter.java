@@ -0,0 +1,250 @@
+package com.checkout.payment.gateway.migration;
+
+import com.checkout.payment.gateway.exception.InvalidImportFileException;
+import com.checkout.payment.gateway.migration.PaymentCsvParser.MalformedLineException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk import of historical payments from CSV files in {@code gateway.import.directory}.
+ * <p>
+ * The file is cut into chunks of up to {@code gateway.import.max-chunk-bytes}, each ending on a
+ * line boundary, and every chunk is memory-mapped and parsed on its own fork/join worker with a
+ * {@link PaymentCsvParser}, so no line is copied onto the heap. Parsed payments are handed to
+ * {@link PaymentsRepository#addAll} in batches of {@code gateway.import.batch-size}. Lines that
+ * cannot be parsed are counted and the first {@code gateway.import.max-errors} of them reported
+ * with their line numbers; they do not stop the import. Payments already stored are skipped and
+ * counted unless the import is asked to overwrite them.
+ */
+@Component
+public class PaymentImporter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentImporter.class);
+
+  private static final long MIN_CHUNK_BYTES = 64 * 1024;
+  private static final int BOUNDARY_SCAN_BYTES = 8 * 1024;
+
+  private final PaymentsRepository repository;
+  private final Path directory;
+  private final ForkJoinPool pool;
+  private final long maxChunkBytes;
+  private final int batchSize;
+  private final int maxErrors;
+
+  public PaymentImporter(
+      PaymentsRepository repository,
+      @Value("${gateway.import.directory:import}") String directory,
+      @Value("${gateway.import.parallelism:0}") int parallelism,
+      @Value("${gateway.import.max-chunk-bytes:67108864}") long maxChunkBytes,
+      @Value("${gateway.import.batch-size:4096}") int batchSize,
+      @Value("${gateway.import.max-errors:100}") int maxErrors
+  ) {
+    this.repository = repository;
+    this.directory = Path.of(directory).toAbsolutePath().normalize();
+    this.pool = new ForkJoinPool(
+        parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.maxChunkBytes = maxChunkBytes;
+    this.batchSize = batchSize;
+    this.maxErrors = maxErrors;
+  }
+
+  /**
+   * Imports {@code fileName}, resolved against the import directory, leaving payments that are
+   * already stored untouched.
+   *
+   * @throws InvalidImportFileException if the file is outside the import directory or missing
+   */
+  public ImportReport importFile(String fileName) throws IOException {
+    return importFile(fileName, false);
+  }
+
+  /**
+   * Imports {@code fileName}, resolved against the import directory.
+   *
+   * @param overwrite whether to replace payments that are already stored rather than skip them
+   * @throws InvalidImportFileException if the file is outside the import directory or missing
+   */
+  public ImportReport importFile(String fileName, boolean overwrite) throws IOException {
+    Path file = directory.resolve(fileName).normalize();
+    if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+      throw new InvalidImportFileException("No import file " + fileName + " in " + directory);
+    }
+    long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      List<Long> boundaries = split(channel, size);
+      List<Callable<ChunkResult>> chunks = new ArrayList<>();
+      for (int i = 0; i + 1 < boundaries.size(); i++) {
+        long chunkStart = boundaries.get(i);
+        long chunkEnd = boundaries.get(i + 1);
+        chunks.add(() -> importChunk(channel, chunkStart, chunkEnd, overwrite));
+      }
+
+      long lines = 0;
+      long imported = 0;
+      long skipped = 0;
+      long failed = 0;
+      List<ImportError> errors = new ArrayList<>();
+      for (Future<ChunkResult> future : pool.invokeAll(chunks)) {
+        ChunkResult chunk = join(future);
+        for (ImportError error : chunk.errors()) {
+          if (errors.size() < maxErrors) {
+            errors.add(new ImportError(lines + error.line(), error.message()));
+          }
+        }
+        lines += chunk.lines();
+        imported += chunk.imported();
+        skipped += chunk.skipped();
+        failed += chunk.failed();
+      }
+
+      long elapsedNanos = System.nanoTime() - start;
+      ImportReport report = new ImportReport(file.toString(), size, imported, skipped, failed,
+          errors, elapsedNanos / 1_000_000,
+          elapsedNanos > 0 ? (long) (imported * 1_000_000_000.0 / elapsedNanos) : imported);
+      LOG.info("Imported {} payments from {} ({} already stored, {} failed lines) in {} ms, "
+              + "{} per second", imported, file, skipped, failed, report.elapsedMillis(),
+          report.recordsPerSecond());
+      return report;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * @return chunk start offsets, each at the beginning of a line, followed by the file size
+   */
+  private List<Long> split(FileChannel channel, long size) throws IOException {
+    long target = Math.max(Math.min(MIN_CHUNK_BYTES, maxChunkBytes),
+        Math.min(maxChunkBytes, size / (pool.getParallelism() * 4L)));
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+    long position = target;
+    while (position < size) {
+      long lineStart = nextLineStart(channel, position, size);
+      if (lineStart >= size) {
+        break;
+      }
+      boundaries.add(lineStart);
+      position = lineStart + target;
+    }
+    boundaries.add(size);
+    return boundaries;
+  }
+
+  /**
+   * @return the offset of the first line starting at or after {@code position}
+   */
+  private static long nextLineStart(FileChannel channel, long position, long size)
+      throws IOException {
+    ByteBuffer window = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+    for (long offset = position - 1; offset < size; offset += window.limit()) {
+      window.clear();
+      if (channel.read(window, offset) <= 0) {
+        break;
+      }
+      window.flip();
+      for (int i = 0; i < window.limit(); i++) {
+        if (window.get(i) == '\n') {
+          return offset + i + 1;
+        }
+      }
+    }
+    return size;
+  }
+
+  private ChunkResult importChunk(FileChannel channel, long start, long end, boolean overwrite)
+      throws IOException {
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    PaymentCsvParser parser = new PaymentCsvParser();
+    List<PaymentResponse> batch = new ArrayList<>(batchSize);
+    List<ImportError> errors = new ArrayList<>();
+    long lines = 0;
+    long imported = 0;
+    long skipped = 0;
+    long failed = 0;
+    int limit = buffer.limit();
+    int lineStart = 0;
+    while (lineStart < limit) {
+      int lineEnd = lineStart;
+      while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+        lineEnd++;
+      }
+      lines++;
+      boolean blank = lineEnd == lineStart
+          || (lineEnd == lineStart + 1 && buffer.get(lineStart) == '\r');
+      boolean header = start == 0 && lines == 1 && parser.isHeader(buffer, lineStart, lineEnd);
+      if (!blank && !header) {
+        try {
+          PaymentResponse payment = parser.parse(buffer, lineStart, lineEnd);
+          if (overwrite || repository.get(payment.id()).isEmpty()) {
+            batch.add(payment);
+          } else {
+            skipped++;
+          }
+        } catch (MalformedLineException ex) {
+          failed++;
+          if (errors.size() < maxErrors) {
+            errors.add(new ImportError(lines, ex.getMessage()));
+          }
+        }
+        if (batch.size() == batchSize) {
+          repository.addAll(batch);
+          imported += batch.size();
+          batch.clear();
+        }
+      }
+      lineStart = lineEnd + 1;
+    }
+    if (!batch.isEmpty()) {
+      repository.addAll(batch);
+      imported += batch.size();
+    }
+    return new ChunkResult(lines, imported, skipped, failed, errors);
+  }
+
+  private static ChunkResult join(Future<ChunkResult> chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException io) {
+        throw io;
+      }
+      if (ex.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IOException(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted during import", ex);
+    }
+  }
+
+  /**
+   * What one chunk contributed; error line numbers are relative to the chunk's first line.
+   */
+  private record ChunkResult(long lines, long imported, long skipped, long failed,
+      List<ImportError> errors) {
+  }
+}
@@ -1,5 +1,6 @@
 package com.checkout.payment.gateway.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -10,6 +11,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * @param currency the currency of the payment (e.g., USD, EUR)
  * @param amount the payment amount in minor units (e.g., cents)
  * @param cvv the card verification value
+ * @param cardMetadata BIN-derived card attributes used for routing; not sent to the bank
  */
 public record BankPaymentRequest(
     @JsonProperty("card_number")
@@ -20,5 +22,22 @@ public record BankPaymentRequest(
 
     String currency,
     int amount,
-    String cvv
-) {}
+    String cvv,
+
+    @JsonIgnore
+    CardMetadata cardMetadata
+) {
+
+  public BankPaymentRequest(String cardNumber, String expiryDate, String currency, int amount,
+      String cvv) {
+    this(cardNumber, expiryDate, currency, amount, cvv, null);
+  }
+
+  /**
+   * Returns the acquirer the card's BIN range prefers, or null if there is none.
+   */
+  @JsonIgnore
+  public String preferredAcquirer() {
+    return cardMetadata != null ? cardMetadata.preferredAcquirer() : null;
+  }
+}
@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.model;
+
+/**
+ * Card attributes derived from the card's BIN (issuer identification number).
+ *
+ * @param scheme card scheme (e.g., VISA, MASTERCARD)
+ * @param issuerCountry ISO 3166 alpha-2 country of the issuing bank, may be null
+ * @param preferredAcquirer name of the acquirer payments with this BIN should be routed to,
+ *     may be null
+ */
+public record CardMetadata(
+    String scheme,
+    String issuerCountry,
+    String preferredAcquirer
+) {}
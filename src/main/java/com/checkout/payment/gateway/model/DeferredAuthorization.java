@@ -0,0 +1,29 @@
+package com.checkout.payment.gateway.model;
+
+/**
+ * An authorization that could not reach the bank and is queued for retry.
+ *
+ * @param merchantId merchant that submitted the payment, may be null
+ * @param bankRequest the request to replay against the bank
+ * @param pendingPayment the stored payment, in PENDING status
+ * @param attempts number of failed attempts so far, including the original one
+ * @param nextAttemptAtMillis epoch milliseconds of the next attempt
+ */
+public record DeferredAuthorization(
+    String merchantId,
+    BankPaymentRequest bankRequest,
+    PaymentResponse pendingPayment,
+    int attempts,
+    long nextAttemptAtMillis
+) {
+
+  public DeferredAuthorization retryAt(long nextAttemptAtMillis) {
+    return new DeferredAuthorization(merchantId, bankRequest, pendingPayment, attempts + 1,
+        nextAttemptAtMillis);
+  }
+
+  public DeferredAuthorization rescheduledAt(long nextAttemptAtMillis) {
+    return new DeferredAuthorization(merchantId, bankRequest, pendingPayment, attempts,
+        nextAttemptAtMillis);
+  }
+}
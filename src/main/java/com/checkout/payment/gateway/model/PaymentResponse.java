@@ -1,20 +1,28 @@
 package com.checkout.payment.gateway.model;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Represents the response sent to the merchant after processing a payment request.
  *
  * @param id UUID of the payment
- * @param status the status of the payment (AUTHORIZED, DECLINED, REJECTED)
+ * @param status the status of the payment (AUTHORIZED, DECLINED, REJECTED, PENDING, CAPTURED,
+ *     VOIDED, PARTIALLY_REFUNDED, REFUNDED)
  * @param cardNumberLastFour last four digits of the card
  * @param expiryMonth expiry month of the card
  * @param expiryYear expiry year of the card
  * @param currency payment currency
  * @param amount payment amount
  * @param errors list of validation errors, if any
+ * @param cardScheme card scheme derived from the BIN, if known
+ * @param issuerCountry issuing country derived from the BIN, if known
+ * @param refundedAmount total amount refunded so far, set once the payment is captured
+ * @param merchantId merchant that submitted the payment, if any; stored with the payment but
+ *     never sent in a response
  */
 public record PaymentResponse(
     UUID id,
@@ -24,5 +32,59 @@ public record PaymentResponse(
     Integer expiryYear,
     String currency,
     Integer amount,
-    List<String> errors
-) {}
+    List<String> errors,
+    String cardScheme,
+    String issuerCountry,
+    Integer refundedAmount,
+
+    @JsonIgnore
+    String merchantId
+) {
+
+  public PaymentResponse(UUID id, PaymentStatus status, String cardNumberLastFour,
+      Integer expiryMonth, Integer expiryYear, String currency, Integer amount,
+      List<String> errors, String cardScheme, String issuerCountry, Integer refundedAmount) {
+    this(id, status, cardNumberLastFour, expiryMonth, expiryYear, currency, amount, errors,
+        cardScheme, issuerCountry, refundedAmount, null);
+  }
+
+  public PaymentResponse(UUID id, PaymentStatus status, String cardNumberLastFour,
+      Integer expiryMonth, Integer expiryYear, String currency, Integer amount,
+      List<String> errors, String cardScheme, String issuerCountry) {
+    this(id, status, cardNumberLastFour, expiryMonth, expiryYear, currency, amount, errors,
+        cardScheme, issuerCountry, null);
+  }
+
+  public PaymentResponse(UUID id, PaymentStatus status, String cardNumberLastFour,
+      Integer expiryMonth, Integer expiryYear, String currency, Integer amount,
+      List<String> errors) {
+    this(id, status, cardNumberLastFour, expiryMonth, expiryYear, currency, amount, errors, null,
+        null);
+  }
+
+  /**
+   * Returns a copy of this payment with a different status, e.g. when a pending payment is
+   * finally answered by the bank.
+   */
+  public PaymentResponse withStatus(PaymentStatus newStatus) {
+    return new PaymentResponse(id, newStatus, cardNumberLastFour, expiryMonth, expiryYear,
+        currency, amount, errors, cardScheme, issuerCountry, refundedAmount, merchantId);
+  }
+
+  /**
+   * Returns a copy of this payment after a lifecycle operation.
+   */
+  public PaymentResponse withStatus(PaymentStatus newStatus, Integer newRefundedAmount) {
+    return new PaymentResponse(id, newStatus, cardNumberLastFour, expiryMonth, expiryYear,
+        currency, amount, errors, cardScheme, issuerCountry, newRefundedAmount, merchantId);
+  }
+
+  /**
+   * Payments submitted without a merchant stay visible to every caller.
+   *
+   * @return whether the payment has no owner or is owned by this merchant
+   */
+  public boolean isVisibleTo(String requestingMerchantId) {
+    return merchantId == null || Objects.equals(merchantId, requestingMerchantId);
+  }
+}
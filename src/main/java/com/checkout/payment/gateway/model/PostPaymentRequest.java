@@ -31,10 +31,14 @@ public record PostPaymentRequest(
 
   /**
    * Returns the expiry date in MM/YYYY format.
+   * <p>
+   * Built by concatenation rather than {@code String.format}, which parses the pattern and
+   * allocates a formatter on every call of this per-authorization path.
    */
   @JsonProperty("expiry_date")
   public String expiryDate() {
-    return String.format("%02d/%d", expiryMonth, expiryYear);
+    String padding = expiryMonth != null && expiryMonth >= 0 && expiryMonth < 10 ? "0" : "";
+    return padding + expiryMonth + "/" + expiryYear;
   }
 
   public String cardNumberLastFour() {
@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.model;
+
+/**
+ * DTO representing a merchant's request to refund part or all of a captured payment.
+ *
+ * @param amount amount to refund, in the minor currency unit
+ */
+public record RefundRequest(
+    Integer amount
+) {}
@@ -0,0 +1,167 @@
+package com.checkout.payment.gateway.monitoring;
+
+import com.checkout.payment.gateway.monitoring.PaymentLogEvent.Type;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchronous, structured logger for payment outcomes and bank failures.
+ * <p>
+ * Request threads only copy a handful of fields into a preallocated ring slot; formatting and
+ * appender I/O happen on a single background thread. When the ring is full events are dropped
+ * and counted rather than blocking the payment path. Identical bank errors are sampled: only
+ * the first {@code gateway.logging.error-sample-limit} per window are written, followed by a
+ * summary of how many were suppressed.
+ */
+@Component
+public class PaymentEventLogger {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Logger log;
+  private final PaymentLogEventRing ring;
+  private final int errorSampleLimit;
+  private final long errorWindowNanos;
+  private final Thread consumer;
+  private volatile boolean running = true;
+
+  // Consumer-thread state only
+  private final Map<String, Integer> errorCounts = new HashMap<>();
+  private long windowStart = System.nanoTime();
+  private long reportedDrops;
+
+  public PaymentEventLogger(
+      @Value("${gateway.logging.buffer-size:8192}") int bufferSize,
+      @Value("${gateway.logging.error-sample-limit:5}") int errorSampleLimit,
+      @Value("${gateway.logging.error-window-ms:10000}") long errorWindowMillis
+  ) {
+    this(bufferSize, errorSampleLimit, errorWindowMillis,
+        LoggerFactory.getLogger(PaymentEventLogger.class));
+  }
+
+  PaymentEventLogger(int bufferSize, int errorSampleLimit, long errorWindowMillis, Logger log) {
+    this.log = log;
+    this.ring = new PaymentLogEventRing(bufferSize);
+    this.errorSampleLimit = errorSampleLimit;
+    this.errorWindowNanos = TimeUnit.MILLISECONDS.toNanos(errorWindowMillis);
+    this.consumer = new Thread(this::drainLoop, "payment-event-logger");
+    this.consumer.setDaemon(true);
+    this.consumer.start();
+  }
+
+  public void authorized(UUID paymentId, String cardLastFour, String currency, int amount) {
+    enqueue(Type.AUTHORIZED, paymentId, cardLastFour, currency, amount, null);
+  }
+
+  public void declined(UUID paymentId, String cardLastFour, String currency, int amount) {
+    enqueue(Type.DECLINED, paymentId, cardLastFour, currency, amount, null);
+  }
+
+  public void rejected(List<String> errors) {
+    enqueue(Type.REJECTED, null, null, null, 0, String.join("; ", errors));
+  }
+
+  public void bankError(String message) {
+    enqueue(Type.BANK_ERROR, null, null, null, 0, message);
+  }
+
+  /**
+   * @return number of events discarded because the ring was full
+   */
+  public long droppedEvents() {
+    return ring.dropped();
+  }
+
+  private void enqueue(Type type, UUID paymentId, String cardLastFour, String currency,
+      int amount, String detail) {
+    long position = ring.claim();
+    if (position < 0) {
+      return;
+    }
+    PaymentLogEvent event = ring.slot(position);
+    event.type = type;
+    event.paymentId = paymentId;
+    event.cardLastFour = cardLastFour;
+    event.currency = currency;
+    event.amount = amount;
+    event.detail = detail;
+    ring.publish(position);
+  }
+
+  private void drainLoop() {
+    while (running) {
+      if (!drain()) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+      rollWindowIfDue(System.nanoTime());
+    }
+    drain();
+    rollWindowIfDue(Long.MAX_VALUE);
+  }
+
+  /**
+   * Writes every published event.
+   *
+   * @return true if at least one event was consumed
+   */
+  private boolean drain() {
+    boolean consumed = false;
+    PaymentLogEvent event;
+    while ((event = ring.peek()) != null) {
+      write(event);
+      ring.release();
+      consumed = true;
+    }
+    return consumed;
+  }
+
+  private void write(PaymentLogEvent event) {
+    switch (event.type) {
+      case AUTHORIZED, DECLINED -> log.info(
+          "payment_event type={} payment_id={} card=****{} currency={} amount={}",
+          event.type, event.paymentId, event.cardLastFour, event.currency, event.amount);
+      case REJECTED -> log.warn("payment_event type=REJECTED errors=\"{}\"", event.detail);
+      case BANK_ERROR -> {
+        int seen = errorCounts.merge(event.detail, 1, Integer::sum);
+        if (seen <= errorSampleLimit) {
+          log.error("payment_event type=BANK_ERROR message=\"{}\"", event.detail);
+        }
+      }
+    }
+  }
+
+  private void rollWindowIfDue(long now) {
+    if (now - windowStart < errorWindowNanos) {
+      return;
+    }
+    errorCounts.forEach((message, count) -> {
+      if (count > errorSampleLimit) {
+        log.error("payment_event type=BANK_ERROR message=\"{}\" suppressed={}",
+            message, count - errorSampleLimit);
+      }
+    });
+    errorCounts.clear();
+
+    long drops = ring.dropped();
+    if (drops > reportedDrops) {
+      log.warn("payment_event type=DROPPED count={}", drops - reportedDrops);
+      reportedDrops = drops;
+    }
+    windowStart = System.nanoTime();
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    consumer.join(TimeUnit.SECONDS.toMillis(5));
+  }
+}
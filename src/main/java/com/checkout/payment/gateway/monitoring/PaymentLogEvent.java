@@ -0,0 +1,30 @@
+package com.checkout.payment.gateway.monitoring;
+
+import java.util.UUID;
+
+/**
+ * Mutable, reusable slot of the payment log ring. Holds structured fields only, never the full
+ * card number.
+ */
+class PaymentLogEvent {
+
+  enum Type {
+    AUTHORIZED, DECLINED, REJECTED, BANK_ERROR
+  }
+
+  Type type;
+  UUID paymentId;
+  String cardLastFour;
+  String currency;
+  int amount;
+  String detail;
+
+  void clear() {
+    type = null;
+    paymentId = null;
+    cardLastFour = null;
+    currency = null;
+    amount = 0;
+    detail = null;
+  }
+}
@@ -0,0 +1,89 @@
+package com.checkout.payment.gateway.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated log event slots.
+ * <p>
+ * Producers claim a slot with a single CAS and never block: when the ring is full the event is
+ * discarded and counted instead. Each slot carries a sequence number which tells producers and
+ * the consumer whose turn it is, so no lock is taken on either side.
+ */
+class PaymentLogEventRing {
+
+  private final int mask;
+  private final AtomicLongArray sequences;
+  private final PaymentLogEvent[] slots;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private long head;
+
+  PaymentLogEventRing(int capacity) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+    }
+    this.mask = capacity - 1;
+    this.sequences = new AtomicLongArray(capacity);
+    this.slots = new PaymentLogEvent[capacity];
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+      slots[i] = new PaymentLogEvent();
+    }
+  }
+
+  /**
+   * Claims a free slot, or returns -1 and increments the drop counter when the ring is full.
+   * A successfully claimed slot must be filled via {@link #slot(long)} and then handed over
+   * with {@link #publish(long)}.
+   */
+  long claim() {
+    long position = tail.get();
+    while (true) {
+      long sequence = sequences.get((int) (position & mask));
+      long difference = sequence - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          return position;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        dropped.incrementAndGet();
+        return -1;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  PaymentLogEvent slot(long position) {
+    return slots[(int) (position & mask)];
+  }
+
+  void publish(long position) {
+    sequences.set((int) (position & mask), position + 1);
+  }
+
+  /**
+   * Returns the next published event, or {@code null} if none is available. The returned slot
+   * is only valid until {@link #release()} is called. Must only be called by the consumer.
+   */
+  PaymentLogEvent peek() {
+    int index = (int) (head & mask);
+    return sequences.get(index) == head + 1 ? slots[index] : null;
+  }
+
+  /**
+   * Returns the slot obtained from {@link #peek()} to producers.
+   */
+  void release() {
+    int index = (int) (head & mask);
+    slots[index].clear();
+    sequences.set(index, head + mask + 1);
+    head++;
+  }
+
+  long dropped() {
+    return dropped.get();
+  }
+}
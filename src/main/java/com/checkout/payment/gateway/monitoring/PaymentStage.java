@@ -0,0 +1,22 @@
+package com.checkout.payment.gateway.monitoring;
+
+/**
+ * Stages of a payment request that are timed individually and reported in the
+ * {@code Server-Timing} header.
+ */
+public enum PaymentStage {
+  VALIDATION("validation"),
+  BANK_QUEUE("bank-queue"),
+  ACQUIRER("acquirer"),
+  STORAGE("storage");
+
+  private final String metricName;
+
+  PaymentStage(String metricName) {
+    this.metricName = metricName;
+  }
+
+  public String getMetricName() {
+    return metricName;
+  }
+}
@@ -0,0 +1,89 @@
+package com.checkout.payment.gateway.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-request accumulator of {@link PaymentStage} durations.
+ * <p>
+ * An instance is bound to the request thread by {@link ServerTimingFilter}; code on the payment
+ * path reports into it through the static helpers, which are no-ops when no request is being
+ * timed (timing disabled, or work running off the request thread).
+ */
+public final class RequestTimings {
+
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+  private static final PaymentStage[] STAGES = PaymentStage.values();
+
+  private final long startNanos = System.nanoTime();
+  private final long[] stageNanos = new long[STAGES.length];
+
+  static RequestTimings begin() {
+    RequestTimings timings = new RequestTimings();
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  static void end() {
+    CURRENT.remove();
+  }
+
+  static RequestTimings current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * @return a {@link System#nanoTime()} start mark, or 0 when no request is being timed
+   */
+  public static long start() {
+    return CURRENT.get() != null ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Adds the time elapsed since {@code startMark} to the given stage of the current request.
+   */
+  public static void stop(PaymentStage stage, long startMark) {
+    RequestTimings timings = CURRENT.get();
+    if (timings != null && startMark != 0) {
+      timings.stageNanos[stage.ordinal()] += System.nanoTime() - startMark;
+    }
+  }
+
+  long elapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /**
+   * Renders the recorded stages plus the total as a {@code Server-Timing} header value.
+   */
+  String toHeaderValue() {
+    StringBuilder header = new StringBuilder(96);
+    for (PaymentStage stage : STAGES) {
+      long nanos = stageNanos[stage.ordinal()];
+      if (nanos > 0) {
+        appendMetric(header, stage.getMetricName(), nanos);
+      }
+    }
+    appendMetric(header, "total", elapsedNanos());
+    return header.toString();
+  }
+
+  Map<String, Double> stagesMillis() {
+    Map<String, Double> stages = new LinkedHashMap<>();
+    for (PaymentStage stage : STAGES) {
+      stages.put(stage.getMetricName(), toMillis(stageNanos[stage.ordinal()]));
+    }
+    return stages;
+  }
+
+  static double toMillis(long nanos) {
+    return Math.round(nanos / 10_000.0) / 100.0;
+  }
+
+  private static void appendMetric(StringBuilder header, String name, long nanos) {
+    if (!header.isEmpty()) {
+      header.append(", ");
+    }
+    header.append(name).append(";dur=").append(toMillis(nanos));
+  }
+}
@@ -0,0 +1,63 @@
+package com.checkout.payment.gateway.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Times POST requests stage by stage and records those slower than
+ * {@code gateway.server-timing.slow-threshold-ms} in the {@link SlowRequestLog}.
+ * <p>
+ * The header itself is written by {@link ServerTimingResponseAdvice}, because by the time the
+ * filter chain returns the response body has already been committed.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  private final SlowRequestLog slowRequestLog;
+  private final long slowThresholdNanos;
+
+  public ServerTimingFilter(
+      SlowRequestLog slowRequestLog,
+      @Value("${gateway.server-timing.slow-threshold-ms:500}") long slowThresholdMillis
+  ) {
+    this.slowRequestLog = slowRequestLog;
+    this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"POST".equals(request.getMethod());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    RequestTimings timings = RequestTimings.begin();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RequestTimings.end();
+      long elapsed = timings.elapsedNanos();
+      if (elapsed >= slowThresholdNanos) {
+        slowRequestLog.record(new SlowRequest(
+            Instant.now(),
+            request.getMethod(),
+            request.getRequestURI(),
+            response.getStatus(),
+            RequestTimings.toMillis(elapsed),
+            timings.stagesMillis()
+        ));
+      }
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.checkout.payment.gateway.monitoring;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Snapshot of a request that exceeded the slow-request threshold.
+ *
+ * @param completedAt when the request finished
+ * @param method HTTP method
+ * @param path request path
+ * @param status HTTP response status
+ * @param totalMillis total server-side duration in milliseconds
+ * @param stagesMillis per-stage durations in milliseconds
+ */
+public record SlowRequest(
+    Instant completedAt,
+    String method,
+    String path,
+    int status,
+    double totalMillis,
+    Map<String, Double> stagesMillis
+) {}
@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory ring of the most recent slow requests. Once full, the oldest entries are
+ * overwritten; recording never blocks.
+ */
+@Component
+public class SlowRequestLog {
+
+  private final AtomicReferenceArray<SlowRequest> entries;
+  private final AtomicLong written = new AtomicLong();
+
+  public SlowRequestLog(@Value("${gateway.server-timing.slow-log-size:256}") int size) {
+    this.entries = new AtomicReferenceArray<>(size);
+  }
+
+  public void record(SlowRequest request) {
+    long index = written.getAndIncrement();
+    entries.set((int) (index % entries.length()), request);
+  }
+
+  /**
+   * @return the retained slow requests, most recent first
+   */
+  public List<SlowRequest> recent() {
+    long end = written.get();
+    long start = Math.max(0, end - entries.length());
+    List<SlowRequest> result = new ArrayList<>((int) (end - start));
+    for (long i = end - 1; i >= start; i--) {
+      SlowRequest entry = entries.get((int) (i % entries.length()));
+      if (entry != null) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,69 @@
+package com.checkout.payment.gateway.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records how long the instance took to become ready and to serve its first request, both
+ * measured from JVM start so that class loading and CDS effects are included.
+ * <p>
+ * The two figures are logged once with a stable prefix, which {@code scripts/measure-startup.sh}
+ * relies on.
+ */
+@Component
+public class StartupTimingRecorder extends OncePerRequestFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StartupTimingRecorder.class);
+
+  private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+  private volatile long readyMillis = -1;
+  private volatile long firstRequestMillis = -1;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    readyMillis = uptimeMillis();
+    LOG.info("startup-timing ready={}ms", readyMillis);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+        firstRequestMillis = uptimeMillis();
+        LOG.info("startup-timing first-request={}ms", firstRequestMillis);
+      }
+    }
+  }
+
+  /**
+   * @return milliseconds from JVM start until the application was ready, or -1 if not yet ready
+   */
+  public long getReadyMillis() {
+    return readyMillis;
+  }
+
+  /**
+   * @return milliseconds from JVM start until the first request completed, or -1 if none has
+   */
+  public long getFirstRequestMillis() {
+    return firstRequestMillis;
+  }
+
+  private static long uptimeMillis() {
+    return ManagementFactory.getRuntimeMXBean().getUptime();
+  }
+}
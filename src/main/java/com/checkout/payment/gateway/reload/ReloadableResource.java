@@ -0,0 +1,100 @@
+package com.checkout.payment.gateway.reload;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+/**
+ * A value parsed from a file that can be replaced while it is in use.
+ * <p>
+ * Readers get a volatile reference and never lock. A reload parses a complete new value off to
+ * the side and swaps it in atomically, so a reader sees either the old or the new value, never a
+ * mix. The file is reloaded when its modification time changes, or on demand. A file that fails
+ * to parse is logged and the previous value kept; its modification time is remembered as well,
+ * so the same broken file is not parsed and reported again on every check.
+ *
+ * @param <T> the parsed value
+ */
+public final class ReloadableResource<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReloadableResource.class);
+
+  /**
+   * Parses the whole file.
+   */
+  @FunctionalInterface
+  public interface Parser<T> {
+
+    /**
+     * @throws IllegalArgumentException if the content is invalid
+     */
+    T parse(BufferedReader reader) throws IOException;
+  }
+
+  private final String name;
+  private final Resource location;
+  private final Parser<T> parser;
+  private final Function<T, String> summary;
+  private volatile T current;
+  private volatile long attemptedModified = -1;
+
+  /**
+   * @param name what the file holds, for log messages
+   * @param initial value used until the file is loaded
+   * @param summary describes a loaded value in the log, e.g. its size
+   */
+  public ReloadableResource(String name, Resource location, T initial, Parser<T> parser,
+      Function<T, String> summary) {
+    this.name = name;
+    this.location = location;
+    this.current = initial;
+    this.parser = parser;
+    this.summary = summary;
+  }
+
+  public T current() {
+    return current;
+  }
+
+  /**
+   * Parses the file again, whether or not it has changed.
+   *
+   * @return the value in use afterwards
+   */
+  public synchronized T reload() {
+    if (!location.exists()) {
+      LOG.warn("{} {} not found, keeping the current {}", name, location, name);
+      return current;
+    }
+    long modified = -1;
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+      modified = location.lastModified();
+      current = parser.parse(reader);
+      LOG.info("Loaded {} from {}: {}", name, location, summary.apply(current));
+    } catch (IOException | IllegalArgumentException ex) {
+      LOG.error("Failed to load {} from {}, keeping the previous {}", name, location, name, ex);
+    } finally {
+      attemptedModified = modified;
+    }
+    return current;
+  }
+
+  /**
+   * Reloads the file if its modification time differs from the last attempt to load it.
+   */
+  public void reloadIfModified() {
+    try {
+      if (location.exists() && location.lastModified() != attemptedModified) {
+        reload();
+      }
+    } catch (IOException ex) {
+      LOG.debug("Unable to check the modification time of {}", location, ex);
+    }
+  }
+}
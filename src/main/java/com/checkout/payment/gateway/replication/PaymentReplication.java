@@ -0,0 +1,108 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchronous primary/replica replication of the {@link PaymentsRepository}.
+ * <p>
+ * {@code gateway.replication.role} is {@code none} (the default), {@code primary}, which streams
+ * every mutation to the replicas connected to {@code gateway.replication.port} on the loopback
+ * interface, or {@code replica}, which follows the primary at {@code gateway.replication.primary}
+ * ({@code host:port}) and serves reads from its own copy. Replication is asynchronous: a payment
+ * acknowledged by the primary may not have reached a replica yet, and is lost if the primary dies
+ * before it does.
+ */
+@Component
+public class PaymentReplication {
+
+  public static final String NONE = "none";
+  public static final String PRIMARY = "primary";
+  public static final String REPLICA = "replica";
+
+  private final PaymentsRepository repository;
+  private final String role;
+  private final int port;
+  private final String primaryAddress;
+  private final int logCapacity;
+  private final int batchSize;
+  private final long heartbeatMillis;
+  private final long reconnectMillis;
+
+  private ReplicationPrimary primary;
+  private ReplicationReplica replica;
+
+  public PaymentReplication(
+      PaymentsRepository repository,
+      @Value("${gateway.replication.role:none}") String role,
+      @Value("${gateway.replication.port:7070}") int port,
+      @Value("${gateway.replication.primary:localhost:7070}") String primaryAddress,
+      @Value("${gateway.replication.log-capacity:65536}") int logCapacity,
+      @Value("${gateway.replication.batch-size:512}") int batchSize,
+      @Value("${gateway.replication.heartbeat-ms:200}") long heartbeatMillis,
+      @Value("${gateway.replication.reconnect-ms:1000}") long reconnectMillis) {
+    if (!List.of(NONE, PRIMARY, REPLICA).contains(role)) {
+      throw new IllegalArgumentException("Unknown replication role: " + role);
+    }
+    this.repository = repository;
+    this.role = role;
+    this.port = port;
+    this.primaryAddress = primaryAddress;
+    this.logCapacity = logCapacity;
+    this.batchSize = batchSize;
+    this.heartbeatMillis = heartbeatMillis;
+    this.reconnectMillis = reconnectMillis;
+  }
+
+  @PostConstruct
+  public void start() {
+    switch (role) {
+      case PRIMARY -> {
+        try {
+          primary = new ReplicationPrimary(repository, port, logCapacity, batchSize,
+              heartbeatMillis);
+        } catch (IOException ex) {
+          throw new UncheckedIOException("Could not listen for replicas on port " + port, ex);
+        }
+      }
+      case REPLICA -> {
+        int separator = primaryAddress.lastIndexOf(':');
+        replica = new ReplicationReplica(repository, primaryAddress.substring(0, separator),
+            Integer.parseInt(primaryAddress.substring(separator + 1)), reconnectMillis);
+      }
+      default -> {
+      }
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (primary != null) {
+      primary.close();
+    }
+    if (replica != null) {
+      replica.close();
+    }
+  }
+
+  public boolean isReplica() {
+    return REPLICA.equals(role);
+  }
+
+  public ReplicationStatus status() {
+    if (primary != null) {
+      return new ReplicationStatus(role, primary.headSequence(), true, 0, 0, primary.replicas());
+    }
+    if (replica != null) {
+      return new ReplicationStatus(role, replica.appliedSequence(), replica.connected(),
+          replica.lagSequences(), replica.lagMillis(), List.of());
+    }
+    return new ReplicationStatus(role, 0, false, 0, -1, List.of());
+  }
+}
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.replication;
+
+/**
+ * A replica connected to this primary.
+ *
+ * @param address remote address of the replica's connection
+ * @param ackedSequence last sequence number the replica acknowledged applying
+ * @param lagSequences sequence numbers logged here that the replica has not acknowledged
+ */
+public record ReplicaStatus(String address, long ackedSequence, long lagSequences) {
+}
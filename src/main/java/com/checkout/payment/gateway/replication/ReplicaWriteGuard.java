@@ -0,0 +1,32 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.exception.ReadOnlyReplicaException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Refuses payment writes on a replica, whose copy of the payments is only updated by the primary.
+ */
+@Component
+public class ReplicaWriteGuard implements HandlerInterceptor {
+
+  private final PaymentReplication paymentReplication;
+
+  public ReplicaWriteGuard(PaymentReplication paymentReplication) {
+    this.paymentReplication = paymentReplication;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (paymentReplication.isReplica() && !HttpMethod.GET.matches(request.getMethod())
+        && !HttpMethod.HEAD.matches(request.getMethod())) {
+      throw new ReadOnlyReplicaException(
+          "This instance is a read-only replica. Send payments to the primary.");
+    }
+    return true;
+  }
+}
@@ -0,0 +1,92 @@
+package com.checkout.payment.gateway.replication;
+
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, sequence-numbered log of the IDs of mutated payments on the primary.
+ * <p>
+ * Only IDs are logged: a sender reads the payment's current snapshot when it ships an entry, so
+ * entries for the same payment can be shipped in any order relative to the mutations themselves
+ * and the replica still ends on the latest state. The log is a ring; a reader that falls more
+ * than its capacity behind has lost entries and must resynchronise from a full snapshot.
+ */
+final class ReplicationLog {
+
+  private final long[] idHigh;
+  private final long[] idLow;
+  private final int mask;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition appended = lock.newCondition();
+  // Written under lock, read without it for status reporting
+  private volatile long head;
+
+  ReplicationLog(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    this.idHigh = new long[size];
+    this.idLow = new long[size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * @return the sequence number given to the entry; the first entry is 1
+   */
+  long append(UUID id) {
+    lock.lock();
+    try {
+      long sequence = head + 1;
+      int slot = (int) sequence & mask;
+      idHigh[slot] = id.getMostSignificantBits();
+      idLow[slot] = id.getLeastSignificantBits();
+      head = sequence;
+      appended.signalAll();
+      return sequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return sequence number of the latest entry, or 0 if there is none
+   */
+  long head() {
+    return head;
+  }
+
+  /**
+   * @return whether every entry after {@code sequence} is still held
+   */
+  boolean retainsAfter(long sequence) {
+    long current = head;
+    return sequence <= current && current - sequence <= idHigh.length;
+  }
+
+  /**
+   * Copies the IDs of the entries after {@code after} into {@code out}, waiting up to
+   * {@code timeoutNanos} for one to be appended.
+   *
+   * @return number of IDs copied, 0 on timeout, or -1 if entries after {@code after} have already
+   *     been overwritten
+   */
+  int read(long after, UUID[] out, long timeoutNanos) throws InterruptedException {
+    lock.lock();
+    try {
+      long waitNanos = timeoutNanos;
+      while (head == after && waitNanos > 0) {
+        waitNanos = appended.awaitNanos(waitNanos);
+      }
+      if (!retainsAfter(after)) {
+        return -1;
+      }
+      int count = (int) Math.min(head - after, out.length);
+      for (int i = 0; i < count; i++) {
+        int slot = (int) (after + 1 + i) & mask;
+        out[i] = new UUID(idHigh[slot], idLow[slot]);
+      }
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
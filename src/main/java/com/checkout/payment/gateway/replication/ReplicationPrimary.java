@@ -0,0 +1,219 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Primary side of replication: logs every mutation of the local repository and streams it to
+ * each connected replica.
+ * <p>
+ * Logging a mutation only appends the payment ID to a {@link ReplicationLog}, so the request path
+ * never waits for a replica. Each replica connection has a sender thread that takes everything
+ * logged since its last batch, up to the batch size, writes the current snapshot of each payment
+ * into a buffered stream and flushes once per batch behind a heartbeat; it does not wait for the
+ * replica's acknowledgement before sending the next batch. A replica that reconnects resumes
+ * after the last sequence number it applied, or receives a full snapshot if the primary was
+ * restarted or the log no longer holds those entries.
+ */
+final class ReplicationPrimary implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationPrimary.class);
+
+  private final PaymentsRepository repository;
+  private final ReplicationLog log;
+  private final int batchSize;
+  private final long heartbeatNanos;
+  private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+  private final ServerSocket serverSocket;
+  private final List<Session> sessions = new CopyOnWriteArrayList<>();
+  private volatile boolean running = true;
+
+  /**
+   * Starts listening on the loopback interface; port 0 picks a free port.
+   */
+  ReplicationPrimary(PaymentsRepository repository, int port, int logCapacity, int batchSize,
+      long heartbeatMillis) throws IOException {
+    this.repository = repository;
+    this.log = new ReplicationLog(logCapacity);
+    this.batchSize = batchSize;
+    this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+    this.serverSocket = new ServerSocket(port, 16, InetAddress.getLoopbackAddress());
+    repository.addMutationListener(id -> {
+      if (running) {
+        log.append(id);
+      }
+    });
+    Thread acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    LOG.info("Replication primary listening on port {}", serverSocket.getLocalPort());
+  }
+
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  long headSequence() {
+    return log.head();
+  }
+
+  List<ReplicaStatus> replicas() {
+    long head = log.head();
+    return sessions.stream()
+        .map(session -> new ReplicaStatus(session.address, session.ackedSequence,
+            Math.max(0, head - session.ackedSequence)))
+        .toList();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    try {
+      serverSocket.close();
+    } catch (IOException ex) {
+      LOG.debug("Failed to close replication listener", ex);
+    }
+    sessions.forEach(Session::close);
+  }
+
+  private void acceptLoop() {
+    while (running) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        Session session = new Session(socket);
+        sessions.add(session);
+        Thread sender = new Thread(session::send, "replication-sender-" + session.address);
+        sender.setDaemon(true);
+        sender.start();
+      } catch (IOException ex) {
+        if (running) {
+          LOG.warn("Failed to accept replica connection", ex);
+        }
+      }
+    }
+  }
+
+  private final class Session {
+
+    private final Socket socket;
+    private final String address;
+    private volatile long ackedSequence;
+
+    private Session(Socket socket) {
+      this.socket = socket;
+      this.address = socket.getRemoteSocketAddress().toString();
+    }
+
+    private void send() {
+      try (DataInputStream in = new DataInputStream(
+              new BufferedInputStream(socket.getInputStream()));
+          DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(socket.getOutputStream(), 64 * 1024))) {
+        long replicaEpoch = in.readLong();
+        long sent = in.readLong();
+        ackedSequence = replicaEpoch == epoch ? sent : 0;
+        LOG.info("Replica {} connected at sequence {}", address, sent);
+        Thread acks = new Thread(() -> readAcks(in), "replication-acks-" + address);
+        acks.setDaemon(true);
+        acks.start();
+
+        if (replicaEpoch != epoch || !log.retainsAfter(sent)) {
+          sent = sendSnapshot(out);
+        }
+        UUID[] batch = new UUID[batchSize];
+        while (running) {
+          int count = log.read(sent, batch, heartbeatNanos);
+          if (count < 0) {
+            LOG.warn("Replica {} fell behind the replication log, resending snapshot", address);
+            sent = sendSnapshot(out);
+            continue;
+          }
+          for (int i = 0; i < count; i++) {
+            Optional<PaymentResponse> payment = repository.get(batch[i]);
+            if (payment.isPresent()) {
+              ReplicationProtocol.writePayment(out, sent + i + 1, payment.get());
+            }
+          }
+          sent += count;
+          writeHeartbeat(out, sent);
+        }
+      } catch (IOException ex) {
+        LOG.info("Replica {} disconnected: {}", address, ex.getMessage());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } finally {
+        close();
+      }
+    }
+
+    /**
+     * Sends every stored payment, consistent with at least the entries logged before it started.
+     * Payments changed while it runs are logged again and follow in the normal stream.
+     *
+     * @return the sequence number streaming resumes after
+     */
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+      long resumeAfter = log.head();
+      long sent = 0;
+      try (Stream<PaymentResponse> payments = repository.stream()) {
+        for (Iterator<PaymentResponse> it = payments.iterator(); it.hasNext(); ) {
+          ReplicationProtocol.writePayment(out, 0, it.next());
+          sent++;
+        }
+      }
+      out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+      out.writeLong(resumeAfter);
+      writeHeartbeat(out, resumeAfter);
+      LOG.info("Sent snapshot of {} payments to replica {}", sent, address);
+      return resumeAfter;
+    }
+
+    private void writeHeartbeat(DataOutputStream out, long sent) throws IOException {
+      out.writeByte(ReplicationProtocol.HEARTBEAT);
+      out.writeLong(epoch);
+      out.writeLong(sent);
+      out.writeLong(log.head());
+      out.writeLong(System.currentTimeMillis());
+      out.flush();
+    }
+
+    private void readAcks(DataInputStream in) {
+      try {
+        while (running) {
+          ackedSequence = in.readLong();
+        }
+      } catch (IOException ex) {
+        close();
+      }
+    }
+
+    private void close() {
+      if (sessions.remove(this)) {
+        try {
+          socket.close();
+        } catch (IOException ex) {
+          LOG.debug("Failed to close replica connection", ex);
+        }
+      }
+    }
+  }
+}
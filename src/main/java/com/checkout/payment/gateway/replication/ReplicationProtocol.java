@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wire format between primary and replica.
+ * <p>
+ * On connecting, the replica sends the primary's epoch and the last sequence number it applied
+ * from that epoch. The primary then streams frames: {@link #PAYMENT} carries a payment snapshot,
+ * including the merchant that owns it, and the sequence number it was shipped for (0 while a full
+ * snapshot is being sent), {@link #SNAPSHOT_END} the sequence number the snapshot is consistent
+ * with, and {@link #HEARTBEAT} the primary's epoch, the sequence number everything before it
+ * covers, the primary's latest sequence number and its clock. A heartbeat closes every batch; the replica
+ * answers each one with the sequence number it has applied.
+ */
+final class ReplicationProtocol {
+
+  static final byte PAYMENT = 1;
+  static final byte SNAPSHOT_END = 2;
+  static final byte HEARTBEAT = 3;
+
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+  private ReplicationProtocol() {
+  }
+
+  static void writePayment(DataOutputStream out, long sequence, PaymentResponse payment)
+      throws IOException {
+    out.writeByte(PAYMENT);
+    out.writeLong(sequence);
+    out.writeLong(payment.id().getMostSignificantBits());
+    out.writeLong(payment.id().getLeastSignificantBits());
+    out.writeByte(payment.status().ordinal());
+    writeString(out, payment.cardNumberLastFour());
+    writeInteger(out, payment.expiryMonth());
+    writeInteger(out, payment.expiryYear());
+    writeString(out, payment.currency());
+    writeInteger(out, payment.amount());
+    writeStrings(out, payment.errors());
+    writeString(out, payment.cardScheme());
+    writeString(out, payment.issuerCountry());
+    writeInteger(out, payment.refundedAmount());
+    writeString(out, payment.merchantId());
+  }
+
+  /**
+   * Reads the body of a {@link #PAYMENT} frame after its sequence number.
+   */
+  static PaymentResponse readPayment(DataInputStream in) throws IOException {
+    UUID id = new UUID(in.readLong(), in.readLong());
+    PaymentStatus status = STATUSES[in.readUnsignedByte()];
+    String lastFour = readString(in);
+    Integer expiryMonth = readInteger(in);
+    Integer expiryYear = readInteger(in);
+    String currency = readString(in);
+    Integer amount = readInteger(in);
+    List<String> errors = readStrings(in);
+    String cardScheme = readString(in);
+    String issuerCountry = readString(in);
+    Integer refundedAmount = readInteger(in);
+    String merchantId = readString(in);
+    return new PaymentResponse(id, status, lastFour, expiryMonth, expiryYear, currency, amount,
+        errors, cardScheme, issuerCountry, refundedAmount, merchantId);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+    out.writeInt(values != null ? values.size() : -1);
+    if (values != null) {
+      for (String value : values) {
+        writeString(out, value);
+      }
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      return null;
+    }
+    List<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(readString(in));
+    }
+    return values;
+  }
+
+  private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeInt(value);
+    }
+  }
+
+  private static Integer readInteger(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+}
@@ -0,0 +1,153 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replica side of replication: keeps a connection to the primary open, applies every payment it
+ * streams to the local repository and acknowledges each batch.
+ * <p>
+ * The replica remembers the primary's epoch and the last sequence number it applied, and sends
+ * both when it reconnects so the primary can resume from there. Lag is reported as the number of
+ * sequence numbers the primary had logged beyond those applied at the last heartbeat, and as the
+ * time since that heartbeat was sent by the primary's clock.
+ */
+final class ReplicationReplica implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationReplica.class);
+
+  private final PaymentsRepository repository;
+  private final String host;
+  private final int port;
+  private final long reconnectMillis;
+  private final Thread connector;
+  private volatile boolean running = true;
+  private volatile Socket socket;
+  private volatile boolean connected;
+  private volatile long epoch;
+  private volatile long appliedSequence;
+  private volatile long primarySequence;
+  private volatile long lastHeartbeatMillis;
+
+  ReplicationReplica(PaymentsRepository repository, String host, int port, long reconnectMillis) {
+    this.repository = repository;
+    this.host = host;
+    this.port = port;
+    this.reconnectMillis = reconnectMillis;
+    this.connector = new Thread(this::connectLoop, "replication-replica");
+    connector.setDaemon(true);
+    connector.start();
+  }
+
+  boolean connected() {
+    return connected;
+  }
+
+  long appliedSequence() {
+    return appliedSequence;
+  }
+
+  long lagSequences() {
+    return Math.max(0, primarySequence - appliedSequence);
+  }
+
+  /**
+   * @return milliseconds since the primary sent the last heartbeat applied here, or -1 before the
+   *     first one
+   */
+  long lagMillis() {
+    long heartbeat = lastHeartbeatMillis;
+    return heartbeat > 0 ? Math.max(0, System.currentTimeMillis() - heartbeat) : -1;
+  }
+
+  /**
+   * Drops the current connection; the replica reconnects and resumes where it left off.
+   */
+  void disconnect() {
+    closeSocket();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    closeSocket();
+    connector.interrupt();
+  }
+
+  private void connectLoop() {
+    while (running) {
+      try (Socket connection = new Socket()) {
+        socket = connection;
+        connection.setTcpNoDelay(true);
+        connection.connect(new InetSocketAddress(host, port), (int) reconnectMillis);
+        replicate(connection);
+      } catch (IOException ex) {
+        if (running) {
+          LOG.debug("Replication connection to {}:{} failed: {}", host, port, ex.getMessage());
+        }
+      } finally {
+        connected = false;
+      }
+      if (running) {
+        try {
+          Thread.sleep(reconnectMillis);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void replicate(Socket connection) throws IOException {
+    DataInputStream in = new DataInputStream(
+        new BufferedInputStream(connection.getInputStream(), 64 * 1024));
+    DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(connection.getOutputStream()));
+    out.writeLong(epoch);
+    out.writeLong(appliedSequence);
+    out.flush();
+    connected = true;
+    LOG.info("Connected to replication primary {}:{} at sequence {}", host, port,
+        appliedSequence);
+    while (running) {
+      byte frame = in.readByte();
+      switch (frame) {
+        case ReplicationProtocol.PAYMENT -> {
+          in.readLong();
+          repository.add(ReplicationProtocol.readPayment(in));
+        }
+        case ReplicationProtocol.SNAPSHOT_END -> LOG.info(
+            "Applied replication snapshot up to sequence {}", in.readLong());
+        case ReplicationProtocol.HEARTBEAT -> {
+          epoch = in.readLong();
+          appliedSequence = in.readLong();
+          primarySequence = in.readLong();
+          lastHeartbeatMillis = in.readLong();
+          out.writeLong(appliedSequence);
+          out.flush();
+        }
+        default -> throw new IOException("Unknown replication frame " + frame);
+      }
+    }
+  }
+
+  private void closeSocket() {
+    Socket current = socket;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (IOException ex) {
+        LOG.debug("Failed to close replication connection", ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.checkout.payment.gateway.replication;
+
+import java.util.List;
+
+/**
+ * Replication state of this instance.
+ *
+ * @param role {@code none}, {@code primary} or {@code replica}
+ * @param sequence on a primary the latest logged sequence number, on a replica the last applied
+ * @param connected whether a replica is connected to its primary; always true on a primary
+ * @param lagSequences on a replica, sequence numbers the primary has logged beyond those applied
+ * @param lagMillis on a replica, age of the last heartbeat applied, or -1 before the first
+ * @param replicas on a primary, the connected replicas
+ */
+public record ReplicationStatus(
+    String role,
+    long sequence,
+    boolean connected,
+    long lagSequences,
+    long lagMillis,
+    List<ReplicaStatus> replicas
+) {
+}
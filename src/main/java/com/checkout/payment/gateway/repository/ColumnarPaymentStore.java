@@ -0,0 +1,340 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Struct-of-arrays payment store: each field lives in a primitive column and a
+ * {@link PaymentResponse} is only built when a payment is read.
+ * <p>
+ * A row takes 41 bytes: the UUID as two longs, amount and packed expiry as ints, last four digits
+ * as a short, currency, card scheme and issuer country as one-byte dictionary codes, the owning
+ * merchant as a four-byte dictionary code, and the mutable part, status and refunded amount,
+ * packed into one long. The index is an open-addressing table of row numbers, probed by comparing
+ * against the ID columns, which adds 8 to 16 bytes per payment as its load moves between a half
+ * and a quarter. On a 64-bit JVM with compressed references this is under 60 bytes per payment
+ * against about 250 for the object layout, which pays for the response, UUID, boxed integers,
+ * strings and map entry.
+ * <p>
+ * Columns are allocated in fixed-size pages that never move, so growth copies nothing and
+ * readers never see a half-copied array. Reads are lock-free: a row's columns are written before
+ * its index slot is published with a volatile write. Inserts take a single writer lock, which
+ * also covers index resizing. Status changes are a compare-and-set of the packed state word, so
+ * {@link #update} keeps the same lock-free semantics as the object store; a transition may only
+ * change the status and refunded amount.
+ * <p>
+ * Replacing a payment rewrites its row in place under a per-row sequence lock kept in the state
+ * word: the writer sets a writing bit, rewrites the columns and publishes the new state with a
+ * rewrite counter bumped. Readers retry while the bit is set or if the state changed while they
+ * read the columns, so they never see a row that mixes two payments.
+ * <p>
+ * Stored payments never carry validation errors; those are only returned for rejected requests,
+ * which are not stored.
+ */
+final class ColumnarPaymentStore implements PaymentStore {
+
+  private static final int PAGE_SHIFT = 13;
+  private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+  private static final int NO_VALUE = Integer.MIN_VALUE;
+  private static final short NO_LAST_FOUR = -1;
+  // State word: refunded amount in the low 32 bits, status ordinal in the next 8, then a rewrite
+  // counter, with the sign bit set while a row is being rewritten
+  private static final int STATUS_SHIFT = 32;
+  private static final int REWRITE_SHIFT = 40;
+  private static final long WRITING = Long.MIN_VALUE;
+  private static final long REWRITES = ~WRITING & -1L << REWRITE_SHIFT;
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final StringDictionary currencies = new StringDictionary();
+  private final StringDictionary cardSchemes = new StringDictionary();
+  private final StringDictionary issuerCountries = new StringDictionary();
+  private final StringDictionary merchants = new StringDictionary(Integer.MAX_VALUE);
+  private volatile Page[] pages = new Page[0];
+  private volatile AtomicIntegerArray index = new AtomicIntegerArray(1024);
+  // Guarded by writeLock
+  private int size;
+
+  @Override
+  public void put(PaymentResponse payment) {
+    checkStorable(payment);
+    writeLock.lock();
+    try {
+      putLocked(payment);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Takes the writer lock once for the whole list.
+   */
+  @Override
+  public void putAll(List<PaymentResponse> payments) {
+    payments.forEach(ColumnarPaymentStore::checkStorable);
+    writeLock.lock();
+    try {
+      for (PaymentResponse payment : payments) {
+        putLocked(payment);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static void checkStorable(PaymentResponse payment) {
+    if (payment.errors() != null && !payment.errors().isEmpty()) {
+      throw new IllegalArgumentException("Payments with validation errors are not stored");
+    }
+  }
+
+  private void putLocked(PaymentResponse payment) {
+    UUID id = payment.id();
+    int row = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    if (row >= 0) {
+      rewriteRow(row, payment);
+      return;
+    }
+    row = size;
+    if (row >>> PAGE_SHIFT == pages.length) {
+      Page[] grown = Arrays.copyOf(pages, pages.length + 1);
+      grown[pages.length] = new Page();
+      pages = grown;
+    }
+    writeRow(row, payment);
+    size++;
+    if (size * 2 > index.length()) {
+      index = rebuildIndex(index.length() * 2);
+    } else {
+      insert(index, row, id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+  }
+
+  @Override
+  public Optional<PaymentResponse> get(UUID id) {
+    int row = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    if (row < 0) {
+      return Optional.empty();
+    }
+    return Optional.of(read(pages[row >>> PAGE_SHIFT], row & PAGE_MASK));
+  }
+
+  @Override
+  public Optional<PaymentResponse> update(UUID id, UnaryOperator<PaymentResponse> transition) {
+    int row = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    if (row < 0) {
+      return Optional.empty();
+    }
+    Page page = pages[row >>> PAGE_SHIFT];
+    int offset = row & PAGE_MASK;
+    while (true) {
+      long state = stableState(page, offset);
+      PaymentResponse current = materialize(page, offset, state);
+      VarHandle.loadLoadFence();
+      if (page.state.get(offset) != state) {
+        continue;
+      }
+      PaymentResponse next = transition.apply(current);
+      if (!next.equals(current.withStatus(next.status(), next.refundedAmount()))) {
+        throw new IllegalArgumentException(
+            "Only status and refunded amount can change in the columnar store");
+      }
+      if (page.state.compareAndSet(offset, state, packState(next) | (state & REWRITES))) {
+        return Optional.of(next);
+      }
+    }
+  }
+
+  /**
+   * Streams the rows present when called; taking the writer lock once publishes them all.
+   */
+  @Override
+  public Stream<PaymentResponse> stream() {
+    int rows;
+    Page[] snapshot;
+    writeLock.lock();
+    try {
+      rows = size;
+      snapshot = pages;
+    } finally {
+      writeLock.unlock();
+    }
+    return IntStream.range(0, rows)
+        .mapToObj(row -> read(snapshot[row >>> PAGE_SHIFT], row & PAGE_MASK));
+  }
+
+  private void writeRow(int row, PaymentResponse payment) {
+    Page page = pages[row >>> PAGE_SHIFT];
+    int offset = row & PAGE_MASK;
+    writeColumns(page, offset, payment);
+    page.state.set(offset, packState(payment));
+  }
+
+  /**
+   * Replaces a published row; the caller holds the writer lock, so only {@link #update} races
+   * with it, and its compare-and-set fails while the writing bit is set.
+   */
+  private void rewriteRow(int row, PaymentResponse payment) {
+    Page page = pages[row >>> PAGE_SHIFT];
+    int offset = row & PAGE_MASK;
+    long state = page.state.getAndUpdate(offset, current -> current | WRITING);
+    VarHandle.storeStoreFence();
+    writeColumns(page, offset, payment);
+    page.state.set(offset, packState(payment) | ((state + (1L << REWRITE_SHIFT)) & REWRITES));
+  }
+
+  private void writeColumns(Page page, int offset, PaymentResponse payment) {
+    page.idHigh[offset] = payment.id().getMostSignificantBits();
+    page.idLow[offset] = payment.id().getLeastSignificantBits();
+    page.amount[offset] = payment.amount() != null ? payment.amount() : NO_VALUE;
+    page.expiry[offset] = packExpiry(payment.expiryMonth(), payment.expiryYear());
+    page.lastFour[offset] = packLastFour(payment.cardNumberLastFour());
+    page.currency[offset] = (byte) currencies.encode(payment.currency());
+    page.cardScheme[offset] = (byte) cardSchemes.encode(payment.cardScheme());
+    page.issuerCountry[offset] = (byte) issuerCountries.encode(payment.issuerCountry());
+    page.merchant[offset] = merchants.encode(payment.merchantId());
+  }
+
+  /**
+   * Materializes a row consistently, retrying if it was rewritten or updated meanwhile.
+   */
+  private PaymentResponse read(Page page, int offset) {
+    while (true) {
+      long state = stableState(page, offset);
+      PaymentResponse payment = materialize(page, offset, state);
+      VarHandle.loadLoadFence();
+      if (page.state.get(offset) == state) {
+        return payment;
+      }
+    }
+  }
+
+  /**
+   * @return the row's state once no rewrite is in progress
+   */
+  private static long stableState(Page page, int offset) {
+    long state;
+    while ((state = page.state.get(offset)) < 0) {
+      Thread.onSpinWait();
+    }
+    return state;
+  }
+
+  private PaymentResponse materialize(Page page, int offset, long state) {
+    int expiry = page.expiry[offset];
+    int amount = page.amount[offset];
+    int refunded = (int) state;
+    short lastFour = page.lastFour[offset];
+    return new PaymentResponse(
+        new UUID(page.idHigh[offset], page.idLow[offset]),
+        STATUSES[(int) (state >>> STATUS_SHIFT) & 0xFF],
+        lastFour == NO_LAST_FOUR ? null : unpackLastFour(lastFour),
+        expiry == 0 ? null : expiry & 0xF,
+        expiry == 0 ? null : expiry >>> 4,
+        currencies.decode(page.currency[offset] & 0xFF),
+        amount == NO_VALUE ? null : amount,
+        null,
+        cardSchemes.decode(page.cardScheme[offset] & 0xFF),
+        issuerCountries.decode(page.issuerCountry[offset] & 0xFF),
+        refunded == NO_VALUE ? null : refunded,
+        merchants.decode(page.merchant[offset])
+    );
+  }
+
+  /**
+   * @return the row holding this ID, or -1
+   */
+  private int find(long idHigh, long idLow) {
+    AtomicIntegerArray slots = index;
+    int mask = slots.length() - 1;
+    for (int slot = spread(idHigh, idLow) & mask; ; slot = (slot + 1) & mask) {
+      int entry = slots.get(slot);
+      if (entry == 0) {
+        return -1;
+      }
+      int row = entry - 1;
+      Page page = pages[row >>> PAGE_SHIFT];
+      int offset = row & PAGE_MASK;
+      if (page.idHigh[offset] == idHigh && page.idLow[offset] == idLow) {
+        return row;
+      }
+    }
+  }
+
+  private AtomicIntegerArray rebuildIndex(int capacity) {
+    AtomicIntegerArray slots = new AtomicIntegerArray(capacity);
+    for (int row = 0; row < size; row++) {
+      Page page = pages[row >>> PAGE_SHIFT];
+      int offset = row & PAGE_MASK;
+      insert(slots, row, page.idHigh[offset], page.idLow[offset]);
+    }
+    return slots;
+  }
+
+  private static void insert(AtomicIntegerArray slots, int row, long idHigh, long idLow) {
+    int mask = slots.length() - 1;
+    int slot = spread(idHigh, idLow) & mask;
+    while (slots.get(slot) != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots.set(slot, row + 1);
+  }
+
+  private static int spread(long idHigh, long idLow) {
+    long hash = (idHigh ^ idLow) * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private static long packState(PaymentResponse payment) {
+    int refunded = payment.refundedAmount() != null ? payment.refundedAmount() : NO_VALUE;
+    return ((long) payment.status().ordinal() << STATUS_SHIFT) | (refunded & 0xFFFFFFFFL);
+  }
+
+  private static int packExpiry(Integer month, Integer year) {
+    if (month == null || year == null) {
+      return 0;
+    }
+    return year << 4 | month;
+  }
+
+  private static short packLastFour(String lastFour) {
+    if (lastFour == null) {
+      return NO_LAST_FOUR;
+    }
+    if (lastFour.length() != 4) {
+      throw new IllegalArgumentException("Last four digits must have four digits");
+    }
+    return Short.parseShort(lastFour);
+  }
+
+  private static String unpackLastFour(short lastFour) {
+    String digits = Short.toString(lastFour);
+    return "0000".substring(digits.length()) + digits;
+  }
+
+  private static final class Page {
+
+    private final long[] idHigh = new long[PAGE_SIZE];
+    private final long[] idLow = new long[PAGE_SIZE];
+    private final int[] amount = new int[PAGE_SIZE];
+    private final int[] expiry = new int[PAGE_SIZE];
+    private final short[] lastFour = new short[PAGE_SIZE];
+    private final byte[] currency = new byte[PAGE_SIZE];
+    private final byte[] cardScheme = new byte[PAGE_SIZE];
+    private final byte[] issuerCountry = new byte[PAGE_SIZE];
+    private final int[] merchant = new int[PAGE_SIZE];
+    private final AtomicLongArray state = new AtomicLongArray(PAGE_SIZE);
+  }
+}
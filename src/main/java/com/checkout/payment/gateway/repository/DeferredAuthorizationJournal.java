@@ -0,0 +1,224 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.CardMetadata;
+import com.checkout.payment.gateway.model.DeferredAuthorization;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable local store for {@link DeferredAuthorization}s.
+ * <p>
+ * Each entry is one file named after the payment ID, replaced atomically on every update and
+ * deleted once the bank has answered, so the directory always holds exactly the outstanding
+ * authorizations. A save is forced to disk, together with the directory entry, before it
+ * returns. Entries carry card data, so every file is encrypted with AES-GCM.
+ */
+public class DeferredAuthorizationJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DeferredAuthorizationJournal.class);
+  private static final String SUFFIX = ".auth";
+  private static final int IV_LENGTH = 12;
+  private static final int TAG_BITS = 128;
+
+  private final Path directory;
+  private final SecretKey key;
+  private final SecureRandom random = new SecureRandom();
+
+  public DeferredAuthorizationJournal(Path directory, SecretKey key) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.key = key;
+  }
+
+  public void save(DeferredAuthorization entry) {
+    UUID id = entry.pendingPayment().id();
+    Path target = directory.resolve(id + SUFFIX);
+    Path temporary = directory.resolve(id + SUFFIX + ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        ByteBuffer bytes = ByteBuffer.wrap(encrypt(serialize(entry)));
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+        channel.force(true);
+      }
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      forceDirectory();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Unable to persist deferred authorization " + id, ex);
+    }
+  }
+
+  public void delete(UUID paymentId) {
+    try {
+      Files.deleteIfExists(directory.resolve(paymentId + SUFFIX));
+    } catch (IOException ex) {
+      LOG.warn("Unable to delete deferred authorization {}", paymentId, ex);
+    }
+  }
+
+  /**
+   * Makes the rename durable. Not every platform can open a directory for syncing; there the
+   * rename is left to the file system.
+   */
+  private void forceDirectory() {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException ex) {
+      LOG.debug("Unable to sync directory {}", directory, ex);
+    }
+  }
+
+  /**
+   * Reads every outstanding entry. Entries that cannot be decrypted or parsed are logged and
+   * skipped.
+   */
+  public List<DeferredAuthorization> loadAll() {
+    List<Path> paths;
+    try (Stream<Path> files = Files.list(directory)) {
+      paths = files.filter(file -> file.toString().endsWith(SUFFIX)).toList();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Unable to list deferred authorizations", ex);
+    }
+
+    List<DeferredAuthorization> entries = new ArrayList<>(paths.size());
+    for (Path file : paths) {
+      try {
+        entries.add(deserialize(decrypt(Files.readAllBytes(file))));
+      } catch (IOException | GeneralSecurityException ex) {
+        LOG.error("Skipping unreadable deferred authorization {}", file, ex);
+      }
+    }
+    return entries;
+  }
+
+  private byte[] encrypt(byte[] plain) {
+    try {
+      byte[] iv = new byte[IV_LENGTH];
+      random.nextBytes(iv);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+      byte[] sealed = cipher.doFinal(plain);
+      byte[] result = new byte[IV_LENGTH + sealed.length];
+      System.arraycopy(iv, 0, result, 0, IV_LENGTH);
+      System.arraycopy(sealed, 0, result, IV_LENGTH, sealed.length);
+      return result;
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Unable to encrypt deferred authorization", ex);
+    }
+  }
+
+  private byte[] decrypt(byte[] sealed) throws GeneralSecurityException {
+    Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_LENGTH));
+    return cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+  }
+
+  private static byte[] serialize(DeferredAuthorization entry) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeNullable(out, entry.merchantId());
+      out.writeInt(entry.attempts());
+      out.writeLong(entry.nextAttemptAtMillis());
+
+      BankPaymentRequest request = entry.bankRequest();
+      out.writeUTF(request.cardNumber());
+      out.writeUTF(request.expiryDate());
+      out.writeUTF(request.currency());
+      out.writeInt(request.amount());
+      out.writeUTF(request.cvv());
+      CardMetadata metadata = request.cardMetadata();
+      out.writeBoolean(metadata != null);
+      if (metadata != null) {
+        writeNullable(out, metadata.scheme());
+        writeNullable(out, metadata.issuerCountry());
+        writeNullable(out, metadata.preferredAcquirer());
+      }
+
+      PaymentResponse payment = entry.pendingPayment();
+      out.writeLong(payment.id().getMostSignificantBits());
+      out.writeLong(payment.id().getLeastSignificantBits());
+      out.writeUTF(payment.status().name());
+      out.writeUTF(payment.cardNumberLastFour());
+      out.writeInt(payment.expiryMonth());
+      out.writeInt(payment.expiryYear());
+      out.writeUTF(payment.currency());
+      out.writeInt(payment.amount());
+      writeNullable(out, payment.cardScheme());
+      writeNullable(out, payment.issuerCountry());
+    }
+    return bytes.toByteArray();
+  }
+
+  private static DeferredAuthorization deserialize(byte[] data) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      String merchantId = readNullable(in);
+      int attempts = in.readInt();
+      long nextAttemptAtMillis = in.readLong();
+
+      String cardNumber = in.readUTF();
+      String expiryDate = in.readUTF();
+      String requestCurrency = in.readUTF();
+      int requestAmount = in.readInt();
+      String cvv = in.readUTF();
+      CardMetadata metadata = in.readBoolean()
+          ? new CardMetadata(readNullable(in), readNullable(in), readNullable(in))
+          : null;
+      BankPaymentRequest request = new BankPaymentRequest(
+          cardNumber, expiryDate, requestCurrency, requestAmount, cvv, metadata);
+
+      PaymentResponse payment = new PaymentResponse(
+          new UUID(in.readLong(), in.readLong()),
+          PaymentStatus.valueOf(in.readUTF()),
+          in.readUTF(),
+          in.readInt(),
+          in.readInt(),
+          in.readUTF(),
+          in.readInt(),
+          null,
+          readNullable(in),
+          readNullable(in),
+          null,
+          merchantId
+      );
+      return new DeferredAuthorization(merchantId, request, payment, attempts,
+          nextAttemptAtMillis);
+    }
+  }
+
+  private static void writeNullable(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
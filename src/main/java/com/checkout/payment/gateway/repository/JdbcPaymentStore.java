@@ -0,0 +1,515 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.PaymentStorageException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Relational payment store reached over JDBC through a pooled data source.
+ * <p>
+ * Writes are group-committed: {@link #put} hands the payment to a single writer thread and
+ * blocks until it is durable. The writer drains everything queued while the previous batch was
+ * being written, optionally lingers briefly for more, and writes the lot as one JDBC batch of
+ * upserts in one transaction, so concurrent requests share a round trip instead of paying one
+ * each. A failed batch fails every {@code put} in it with {@link PaymentStorageException}, and so
+ * does a write that is not durable within the write timeout; a write that timed out before the
+ * writer picked it up is withdrawn, but one already in a batch may still be committed.
+ * <p>
+ * Every row carries a version drawn from an in-process sequence that is kept ahead of every
+ * version read, and a write never replaces a row with a lower version, so a row's version
+ * strictly grows in commit order. {@link #update} is
+ * optimistic: it applies the transition to the snapshot it read and writes the result only if the
+ * row still has that version, re-reading and retrying otherwise, which gives the same semantics
+ * as the in-memory stores. A replacing {@code put} that races a transition of the same payment
+ * loses to it and fails with {@link PaymentStorageException}. As in the columnar store, a
+ * transition may only change the status and refunded amount.
+ * <p>
+ * Reads go through a small LRU cache of recent snapshots that writes keep up to date; an entry
+ * is only ever replaced by a higher version, so it is never newer than the row. The cache
+ * assumes this process is the only writer to the table.
+ */
+final class JdbcPaymentStore implements PaymentStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcPaymentStore.class);
+
+  private static final String CREATE_TABLE = """
+      CREATE TABLE IF NOT EXISTS payments (
+        id UUID PRIMARY KEY,
+        status VARCHAR(32) NOT NULL,
+        card_number_last_four VARCHAR(4),
+        expiry_month INT,
+        expiry_year INT,
+        currency VARCHAR(3),
+        amount INT,
+        card_scheme VARCHAR(32),
+        issuer_country VARCHAR(8),
+        refunded_amount INT,
+        version BIGINT NOT NULL,
+        merchant_id VARCHAR(255)
+      )""";
+  // Tables created before payments recorded their owner
+  private static final String ADD_MERCHANT_COLUMN =
+      "ALTER TABLE payments ADD COLUMN IF NOT EXISTS merchant_id VARCHAR(255)";
+  private static final String UPSERT = """
+      MERGE INTO payments t
+      USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR(32)), CAST(? AS VARCHAR(4)),
+          CAST(? AS INT), CAST(? AS INT), CAST(? AS VARCHAR(3)), CAST(? AS INT),
+          CAST(? AS VARCHAR(32)), CAST(? AS VARCHAR(8)), CAST(? AS INT),
+          CAST(? AS VARCHAR(255)), CAST(? AS BIGINT)))
+        s (id, status, card_number_last_four, expiry_month, expiry_year, currency, amount,
+          card_scheme, issuer_country, refunded_amount, merchant_id, version)
+      ON t.id = s.id
+      WHEN MATCHED AND t.version < s.version THEN UPDATE SET
+        status = s.status, card_number_last_four = s.card_number_last_four,
+        expiry_month = s.expiry_month, expiry_year = s.expiry_year, currency = s.currency,
+        amount = s.amount, card_scheme = s.card_scheme, issuer_country = s.issuer_country,
+        refunded_amount = s.refunded_amount, merchant_id = s.merchant_id, version = s.version
+      WHEN NOT MATCHED THEN INSERT (id, status, card_number_last_four, expiry_month,
+        expiry_year, currency, amount, card_scheme, issuer_country, refunded_amount, merchant_id,
+        version) VALUES (s.id, s.status, s.card_number_last_four, s.expiry_month,
+        s.expiry_year, s.currency, s.amount, s.card_scheme, s.issuer_country, s.refunded_amount,
+        s.merchant_id, s.version)""";
+  private static final String SELECT = "SELECT status, card_number_last_four, expiry_month,"
+      + " expiry_year, currency, amount, card_scheme, issuer_country, refunded_amount,"
+      + " merchant_id, version FROM payments WHERE id = ?";
+  private static final String COMPARE_AND_SET = "UPDATE payments"
+      + " SET status = ?, refunded_amount = ?, version = ? WHERE id = ? AND version = ?";
+  private static final String SELECT_ALL = "SELECT status, card_number_last_four, expiry_month,"
+      + " expiry_year, currency, amount, card_scheme, issuer_country, refunded_amount,"
+      + " merchant_id, version, id FROM payments";
+  private static final String MAX_VERSION = "SELECT COALESCE(MAX(version), 0) FROM payments";
+
+  private final HikariDataSource dataSource;
+  private final int batchSize;
+  private final long lingerNanos;
+  private final long writeTimeoutNanos;
+  private final SnapshotCache cache;
+  private final AtomicLong versions = new AtomicLong();
+  private final AtomicLong batchesWritten = new AtomicLong();
+  private final LinkedBlockingQueue<PendingWrite> writes = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  JdbcPaymentStore(String url, int poolSize, int batchSize, long lingerMicros, int cacheSize,
+      long writeTimeoutMillis) {
+    if (writeTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("Write timeout must be positive");
+    }
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setMaximumPoolSize(poolSize);
+    config.setPoolName("payments");
+    this.dataSource = new HikariDataSource(config);
+    this.batchSize = batchSize;
+    this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+    this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+    this.cache = new SnapshotCache(cacheSize);
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_TABLE);
+      statement.execute(ADD_MERCHANT_COLUMN);
+      try (ResultSet maxVersion = statement.executeQuery(MAX_VERSION)) {
+        maxVersion.next();
+        versions.set(maxVersion.getLong(1));
+      }
+    } catch (SQLException ex) {
+      dataSource.close();
+      throw new PaymentStorageException("Could not initialise the payments table", ex);
+    }
+    this.writer = new Thread(this::writeLoop, "payment-batch-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void put(PaymentResponse payment) {
+    if (payment.errors() != null && !payment.errors().isEmpty()) {
+      throw new IllegalArgumentException("Payments with validation errors are not stored");
+    }
+    PendingWrite write = new PendingWrite(payment, new CompletableFuture<>());
+    enqueue(write);
+    await(write, System.nanoTime() + writeTimeoutNanos);
+  }
+
+  /**
+   * Queues the whole list before waiting, so it is written in as few batches as the batch size
+   * allows.
+   */
+  @Override
+  public void putAll(List<PaymentResponse> payments) {
+    for (PaymentResponse payment : payments) {
+      if (payment.errors() != null && !payment.errors().isEmpty()) {
+        throw new IllegalArgumentException("Payments with validation errors are not stored");
+      }
+    }
+    List<PendingWrite> pending = new ArrayList<>(payments.size());
+    for (PaymentResponse payment : payments) {
+      PendingWrite write = new PendingWrite(payment, new CompletableFuture<>());
+      enqueue(write);
+      pending.add(write);
+    }
+    long deadline = System.nanoTime() + writeTimeoutNanos;
+    for (PendingWrite write : pending) {
+      await(write, deadline);
+    }
+  }
+
+  @Override
+  public Optional<PaymentResponse> get(UUID id) {
+    Snapshot cached = cache.get(id);
+    if (cached != null) {
+      return Optional.of(cached.payment());
+    }
+    return Optional.ofNullable(load(id)).map(Snapshot::payment);
+  }
+
+  @Override
+  public Optional<PaymentResponse> update(UUID id, UnaryOperator<PaymentResponse> transition) {
+    Snapshot current = cache.get(id);
+    if (current == null) {
+      current = load(id);
+    }
+    while (current != null) {
+      PaymentResponse next = transition.apply(current.payment());
+      if (!next.equals(current.payment().withStatus(next.status(), next.refundedAmount()))) {
+        throw new IllegalArgumentException(
+            "Only status and refunded amount can change in the JDBC store");
+      }
+      long expected = current.version();
+      long version = versions.updateAndGet(last -> Math.max(last, expected) + 1);
+      if (compareAndSet(id, expected, next, version)) {
+        cache.offer(new Snapshot(next, version));
+        return Optional.of(next);
+      }
+      current = load(id);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Streams every row straight from a cursor, bypassing the cache. The stream holds a
+   * connection until it is closed.
+   */
+  @Override
+  public Stream<PaymentResponse> stream() {
+    Connection connection = null;
+    try {
+      connection = dataSource.getConnection();
+      connection.setAutoCommit(false);
+      PreparedStatement statement = connection.prepareStatement(SELECT_ALL);
+      statement.setFetchSize(1000);
+      ResultSet rows = statement.executeQuery();
+      Connection held = connection;
+      Spliterator<PaymentResponse> cursor = new Spliterators.AbstractSpliterator<>(
+          Long.MAX_VALUE, Spliterator.NONNULL | Spliterator.DISTINCT) {
+        @Override
+        public boolean tryAdvance(Consumer<? super PaymentResponse> action) {
+          try {
+            if (!rows.next()) {
+              return false;
+            }
+            action.accept(readRow(rows, rows.getObject(12, UUID.class)));
+            return true;
+          } catch (SQLException ex) {
+            throw new PaymentStorageException("Could not scan payments", ex);
+          }
+        }
+      };
+      return StreamSupport.stream(cursor, false).onClose(() -> {
+        try {
+          held.close();
+        } catch (SQLException ex) {
+          LOG.warn("Failed to release payment scan connection", ex);
+        }
+      });
+    } catch (SQLException ex) {
+      if (connection != null) {
+        try {
+          connection.close();
+        } catch (SQLException suppressed) {
+          ex.addSuppressed(suppressed);
+        }
+      }
+      throw new PaymentStorageException("Could not scan payments", ex);
+    }
+  }
+
+  /**
+   * Stops the writer once everything already queued is written, then closes the pool. Writes
+   * the writer did not get to in time are failed rather than left waiting.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    failQueued();
+    dataSource.close();
+  }
+
+  /**
+   * @return number of JDBC batches written so far; fewer than the number of puts when
+   *     concurrent writes were coalesced
+   */
+  long batchesWritten() {
+    return batchesWritten.get();
+  }
+
+  /**
+   * Queues a write, withdrawing it again if the store was closed meanwhile so that it cannot be
+   * missed by both the writer and {@link #close()}.
+   */
+  private void enqueue(PendingWrite write) {
+    if (!running) {
+      throw new IllegalStateException("Payment store is closed");
+    }
+    writes.add(write);
+    if (!running && writes.remove(write)) {
+      throw new IllegalStateException("Payment store is closed");
+    }
+  }
+
+  private void await(PendingWrite write, long deadline) {
+    UUID id = write.payment().id();
+    try {
+      write.done().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException ex) {
+      throw new PaymentStorageException("Could not store payment " + id, ex.getCause());
+    } catch (TimeoutException ex) {
+      if (write.done().cancel(false)) {
+        throw new PaymentStorageException("Timed out storing payment " + id, ex);
+      }
+      await(write, deadline);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      write.done().cancel(false);
+      throw new PaymentStorageException("Interrupted while storing payment " + id, ex);
+    }
+  }
+
+  private void failQueued() {
+    PendingWrite abandoned;
+    while ((abandoned = writes.poll()) != null) {
+      abandoned.done().completeExceptionally(new IllegalStateException("Payment store is closed"));
+    }
+  }
+
+  private void writeLoop() {
+    List<PendingWrite> batch = new ArrayList<>(batchSize);
+    while (running || !writes.isEmpty()) {
+      try {
+        PendingWrite first = writes.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        writes.drainTo(batch, batchSize - 1);
+        long lingerUntil = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+          long remaining = lingerUntil - System.nanoTime();
+          PendingWrite next = remaining > 0
+              ? writes.poll(remaining, TimeUnit.NANOSECONDS)
+              : null;
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+          writes.drainTo(batch, batchSize - batch.size());
+        }
+        writeBatch(batch);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        running = false;
+        batch.forEach(write -> write.done().completeExceptionally(
+            new IllegalStateException("Payment store is closed")));
+      } catch (RuntimeException ex) {
+        LOG.error("Payment batch writer failed", ex);
+        batch.forEach(write -> write.done().completeExceptionally(ex));
+      } finally {
+        batch.clear();
+      }
+    }
+    failQueued();
+  }
+
+  private void writeBatch(List<PendingWrite> batch) {
+    batch.removeIf(write -> write.done().isDone());
+    if (batch.isEmpty()) {
+      return;
+    }
+    long[] batchVersions = new long[batch.size()];
+    int[] updateCounts;
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+        for (int i = 0; i < batch.size(); i++) {
+          batchVersions[i] = versions.incrementAndGet();
+          bindRow(statement, batch.get(i).payment(), batchVersions[i]);
+          statement.addBatch();
+        }
+        updateCounts = statement.executeBatch();
+        connection.commit();
+      } catch (SQLException | RuntimeException ex) {
+        connection.rollback();
+        throw ex;
+      }
+    } catch (SQLException ex) {
+      LOG.warn("Failed to write a batch of {} payments", batch.size(), ex);
+      batch.forEach(write -> write.done().completeExceptionally(ex));
+      return;
+    }
+    batchesWritten.incrementAndGet();
+    for (int i = 0; i < batch.size(); i++) {
+      PendingWrite write = batch.get(i);
+      if (updateCounts[i] == 0) {
+        write.done().completeExceptionally(new PaymentStorageException("Payment "
+            + write.payment().id() + " was changed concurrently and has not been replaced"));
+        continue;
+      }
+      cache.offer(new Snapshot(write.payment(), batchVersions[i]));
+      write.done().complete(null);
+    }
+  }
+
+  private Snapshot load(UUID id) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SELECT)) {
+      statement.setObject(1, id);
+      try (ResultSet row = statement.executeQuery()) {
+        if (!row.next()) {
+          return null;
+        }
+        PaymentResponse payment = readRow(row, id);
+        long version = row.getLong(11);
+        versions.accumulateAndGet(version, Math::max);
+        return cache.offer(new Snapshot(payment, version));
+      }
+    } catch (SQLException ex) {
+      throw new PaymentStorageException("Could not read payment " + id, ex);
+    }
+  }
+
+  private static PaymentResponse readRow(ResultSet row, UUID id) throws SQLException {
+    return new PaymentResponse(
+        id,
+        PaymentStatus.valueOf(row.getString(1)),
+        row.getString(2),
+        (Integer) row.getObject(3),
+        (Integer) row.getObject(4),
+        row.getString(5),
+        (Integer) row.getObject(6),
+        null,
+        row.getString(7),
+        row.getString(8),
+        (Integer) row.getObject(9),
+        row.getString(10));
+  }
+
+  private boolean compareAndSet(UUID id, long expectedVersion, PaymentResponse next,
+      long version) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(COMPARE_AND_SET)) {
+      statement.setString(1, next.status().name());
+      setNullableInt(statement, 2, next.refundedAmount());
+      statement.setLong(3, version);
+      statement.setObject(4, id);
+      statement.setLong(5, expectedVersion);
+      return statement.executeUpdate() == 1;
+    } catch (SQLException ex) {
+      throw new PaymentStorageException("Could not update payment " + id, ex);
+    }
+  }
+
+  private static void bindRow(PreparedStatement statement, PaymentResponse payment,
+      long version) throws SQLException {
+    statement.setObject(1, payment.id());
+    statement.setString(2, payment.status().name());
+    statement.setString(3, payment.cardNumberLastFour());
+    setNullableInt(statement, 4, payment.expiryMonth());
+    setNullableInt(statement, 5, payment.expiryYear());
+    statement.setString(6, payment.currency());
+    setNullableInt(statement, 7, payment.amount());
+    statement.setString(8, payment.cardScheme());
+    statement.setString(9, payment.issuerCountry());
+    setNullableInt(statement, 10, payment.refundedAmount());
+    statement.setString(11, payment.merchantId());
+    statement.setLong(12, version);
+  }
+
+  private static void setNullableInt(PreparedStatement statement, int index, Integer value)
+      throws SQLException {
+    if (value != null) {
+      statement.setInt(index, value);
+    } else {
+      statement.setNull(index, Types.INTEGER);
+    }
+  }
+
+  private record PendingWrite(PaymentResponse payment, CompletableFuture<Void> done) {
+  }
+
+  private record Snapshot(PaymentResponse payment, long version) {
+  }
+
+  /**
+   * Bounded LRU map of the latest known snapshot per payment.
+   */
+  private static final class SnapshotCache {
+
+    private final Map<UUID, Snapshot> entries;
+
+    SnapshotCache(int capacity) {
+      this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Snapshot> eldest) {
+          return size() > capacity;
+        }
+      };
+    }
+
+    synchronized Snapshot get(UUID id) {
+      return entries.get(id);
+    }
+
+    /**
+     * Caches the snapshot unless a newer one is already cached.
+     *
+     * @return the snapshot now cached for the payment
+     */
+    synchronized Snapshot offer(Snapshot snapshot) {
+      return entries.merge(snapshot.payment().id(), snapshot,
+          (cached, offered) -> offered.version() > cached.version() ? offered : cached);
+    }
+  }
+}
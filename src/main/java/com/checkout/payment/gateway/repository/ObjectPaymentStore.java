@@ -0,0 +1,54 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Keeps each payment as a {@link PaymentResponse} in its own {@link AtomicReference}, so
+ * transitions are a compare-and-set of one immutable snapshot for another.
+ */
+class ObjectPaymentStore implements PaymentStore {
+
+  private final ConcurrentHashMap<UUID, AtomicReference<PaymentResponse>> payments =
+      new ConcurrentHashMap<>();
+
+  @Override
+  public void put(PaymentResponse payment) {
+    AtomicReference<PaymentResponse> existing =
+        payments.putIfAbsent(payment.id(), new AtomicReference<>(payment));
+    if (existing != null) {
+      existing.set(payment);
+    }
+  }
+
+  @Override
+  public Optional<PaymentResponse> get(UUID id) {
+    AtomicReference<PaymentResponse> payment = payments.get(id);
+    return payment != null ? Optional.of(payment.get()) : Optional.empty();
+  }
+
+  @Override
+  public Optional<PaymentResponse> update(UUID id, UnaryOperator<PaymentResponse> transition) {
+    AtomicReference<PaymentResponse> payment = payments.get(id);
+    if (payment == null) {
+      return Optional.empty();
+    }
+    while (true) {
+      PaymentResponse current = payment.get();
+      PaymentResponse next = transition.apply(current);
+      if (payment.compareAndSet(current, next)) {
+        return Optional.of(next);
+      }
+    }
+  }
+
+  @Override
+  public Stream<PaymentResponse> stream() {
+    return payments.values().stream().map(AtomicReference::get);
+  }
+}
@@ -0,0 +1,47 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Storage layout behind {@link PaymentsRepository}.
+ */
+interface PaymentStore {
+
+  /**
+   * Stores a payment, replacing any payment with the same ID.
+   */
+  void put(PaymentResponse payment);
+
+  /**
+   * Stores many payments at once; layouts that can amortise locking or round trips over the
+   * whole list override this.
+   */
+  default void putAll(List<PaymentResponse> payments) {
+    for (PaymentResponse payment : payments) {
+      put(payment);
+    }
+  }
+
+  Optional<PaymentResponse> get(UUID id);
+
+  /**
+   * @see PaymentsRepository#update(UUID, UnaryOperator)
+   */
+  Optional<PaymentResponse> update(UUID id, UnaryOperator<PaymentResponse> transition);
+
+  /**
+   * @see PaymentsRepository#stream()
+   */
+  Stream<PaymentResponse> stream();
+
+  /**
+   * Releases any threads or connections the store holds.
+   */
+  default void close() {
+  }
+}
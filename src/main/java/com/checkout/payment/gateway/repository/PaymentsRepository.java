@@ -1,26 +1,140 @@
 package com.checkout.payment.gateway.repository;
 
 import com.checkout.payment.gateway.model.PaymentResponse;
-import java.util.HashMap;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository for storing and retrieving payments.
  * <p>
- * Uses an in-memory map to store {@link PaymentResponse} objects by their UUID.
+ * Payments are kept in memory, keyed by their UUID. Storage is concurrent because payments are
+ * written by background authorization workers as well as by request threads; adding a payment
+ * with an existing ID replaces it.
+ * <p>
+ * Each payment is held as an immutable snapshot, and {@link #update(UUID, UnaryOperator)} moves
+ * it to a new snapshot by compare-and-set. Operations on different payments never contend, and
+ * racing operations on the same payment are applied one after another, each against the state
+ * the previous one left.
+ * <p>
+ * {@code gateway.repository.mode} selects the layout: {@code objects} (the default) keeps the
+ * {@link PaymentResponse} objects themselves, {@code columnar} keeps primitive columns and
+ * materializes responses on read, at a fraction of the heap per payment, and {@code jdbc} keeps
+ * them in a relational database ({@code gateway.repository.jdbc.url}, an in-memory H2 database
+ * by default), group-committing concurrent writes and caching recent reads.
+ * <p>
+ * Every layout stores the merchant that submitted a payment with the payment itself, so that
+ * other merchants cannot read or operate on it, and the owner survives restarts, replication and
+ * imports. Payments submitted or imported without a merchant stay visible to every caller.
  */
 @Repository
 public class PaymentsRepository {
 
-  private final HashMap<UUID, PaymentResponse> payments = new HashMap<>();
+  private final PaymentStore store;
+  private final List<Consumer<UUID>> mutationListeners = new CopyOnWriteArrayList<>();
+
+  public PaymentsRepository() {
+    this(new ObjectPaymentStore());
+  }
+
+  @Autowired
+  public PaymentsRepository(
+      @Value("${gateway.repository.mode:objects}") String mode,
+      @Value("${gateway.repository.jdbc.url:jdbc:h2:mem:payments;DB_CLOSE_DELAY=-1}") String url,
+      @Value("${gateway.repository.jdbc.pool-size:8}") int poolSize,
+      @Value("${gateway.repository.jdbc.batch-size:256}") int batchSize,
+      @Value("${gateway.repository.jdbc.linger-micros:0}") long lingerMicros,
+      @Value("${gateway.repository.jdbc.cache-size:10000}") int cacheSize,
+      @Value("${gateway.repository.jdbc.write-timeout-ms:5000}") long writeTimeoutMillis) {
+    this(switch (mode) {
+      case "objects" -> new ObjectPaymentStore();
+      case "columnar" -> new ColumnarPaymentStore();
+      case "jdbc" -> new JdbcPaymentStore(url, poolSize, batchSize, lingerMicros, cacheSize,
+          writeTimeoutMillis);
+      default -> throw new IllegalArgumentException("Unknown repository mode: " + mode);
+    });
+  }
+
+  PaymentsRepository(PaymentStore store) {
+    this.store = store;
+  }
 
   public void add(PaymentResponse payment) {
-    payments.put(payment.id(), payment);
+    store.put(payment);
+    notifyMutated(payment.id());
+  }
+
+  /**
+   * Adds many payments at once, e.g. when importing history; cheaper than adding them one by
+   * one with the columnar and JDBC layouts.
+   */
+  public void addAll(List<PaymentResponse> payments) {
+    store.putAll(payments);
+    for (PaymentResponse payment : payments) {
+      notifyMutated(payment.id());
+    }
   }
 
   public Optional<PaymentResponse> get(UUID id) {
-    return Optional.ofNullable(payments.get(id));
+    return store.get(id);
+  }
+
+  /**
+   * @return whether the payment is missing, has no owner or is owned by this merchant
+   * @see PaymentResponse#isVisibleTo(String)
+   */
+  public boolean isVisibleTo(UUID id, String merchantId) {
+    return store.get(id).map(payment -> payment.isVisibleTo(merchantId)).orElse(true);
+  }
+
+  /**
+   * Replaces a payment with the result of applying {@code transition} to its current snapshot.
+   * <p>
+   * The transition may run more than once if another update wins the race, so it must be free
+   * of side effects. An exception thrown by the transition aborts the update and propagates.
+   *
+   * @return the new snapshot, or empty if there is no payment with this ID
+   */
+  public Optional<PaymentResponse> update(UUID id, UnaryOperator<PaymentResponse> transition) {
+    Optional<PaymentResponse> updated = store.update(id, transition);
+    if (updated.isPresent()) {
+      notifyMutated(id);
+    }
+    return updated;
+  }
+
+  /**
+   * Streams every stored payment without materializing them all at once. Payments added or
+   * changed during the scan may or may not be seen. The stream must be closed.
+   */
+  public Stream<PaymentResponse> stream() {
+    return store.stream();
+  }
+
+  /**
+   * Registers a callback run on the writing thread with the ID of every payment after it was
+   * added or updated. Callbacks must be quick; they sit on the request path.
+   */
+  public void addMutationListener(Consumer<UUID> listener) {
+    mutationListeners.add(listener);
+  }
+
+  @PreDestroy
+  public void close() {
+    store.close();
+  }
+
+  private void notifyMutated(UUID id) {
+    for (Consumer<UUID> listener : mutationListeners) {
+      listener.accept(id);
+    }
   }
 }
@@ -0,0 +1,64 @@
+package com.checkout.payment.gateway.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only mapping between a set of strings and small integer codes, with code 0 reserved for
+ * null. Decoding is a lock-free array read; new strings are added under the instance lock.
+ */
+final class StringDictionary {
+
+  private static final int BYTE_CODES = 256;
+
+  private final int maxCodes;
+  private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+  private volatile String[] values = new String[8];
+  // Guarded by this
+  private int size = 1;
+
+  /**
+   * A dictionary whose codes fit in a byte.
+   */
+  StringDictionary() {
+    this(BYTE_CODES);
+  }
+
+  /**
+   * @param maxCodes number of codes available, including the one for null
+   */
+  StringDictionary(int maxCodes) {
+    this.maxCodes = maxCodes;
+  }
+
+  int encode(String value) {
+    if (value == null) {
+      return 0;
+    }
+    Integer code = codes.get(value);
+    return code != null ? code : add(value);
+  }
+
+  String decode(int code) {
+    return values[code];
+  }
+
+  private synchronized int add(String value) {
+    Integer code = codes.get(value);
+    if (code != null) {
+      return code;
+    }
+    if (size == maxCodes) {
+      throw new IllegalStateException("More than " + (maxCodes - 1) + " distinct values");
+    }
+    String[] current = values;
+    if (size == current.length) {
+      current = Arrays.copyOf(current, (int) Math.min((long) current.length * 2, maxCodes));
+    }
+    current[size] = value;
+    // Publishes the new value, and the grown array, before the code can be handed out
+    values = current;
+    codes.put(value, size);
+    return size++;
+  }
+}
@@ -0,0 +1,55 @@
+package com.checkout.payment.gateway.risk;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent Bloom filter over pre-hashed 64-bit keys.
+ * <p>
+ * Bits are set with CAS on an {@link AtomicLongArray}, so inserts and queries never lock. The
+ * {@code k} probe positions are derived from the single key by double hashing.
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+
+  /**
+   * Sizes the filter for {@code expectedInsertions} keys at the given false-positive rate.
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long bits = (long) Math.ceil(
+        -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.max(1, (bits + 63) / 64);
+    this.words = new AtomicLongArray(words);
+    this.bitCount = words * 64L;
+    this.hashCount = Math.max(1,
+        (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+  }
+
+  public void put(long key) {
+    long h1 = key;
+    long h2 = CardFingerprint.mix(key);
+    for (int i = 0; i < hashCount; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current = words.get(word);
+      while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+        current = words.get(word);
+      }
+    }
+  }
+
+  public boolean mightContain(long key) {
+    long h1 = key;
+    long h2 = CardFingerprint.mix(key);
+    for (int i = 0; i < hashCount; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,39 @@
+package com.checkout.payment.gateway.risk;
+
+import java.security.SecureRandom;
+
+/**
+ * Keyed 64-bit fingerprint of a card number.
+ * <p>
+ * The key is drawn once per process, so fingerprints cannot be precomputed to collide in the
+ * risk structures, and they are never persisted or logged. The hash is FNV-1a over the digits
+ * followed by a 64-bit finaliser for avalanche.
+ */
+public final class CardFingerprint {
+
+  private static final long KEY = new SecureRandom().nextLong();
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private CardFingerprint() {
+  }
+
+  public static long of(String cardNumber) {
+    long hash = KEY;
+    for (int i = 0; i < cardNumber.length(); i++) {
+      hash = (hash ^ cardNumber.charAt(i)) * FNV_PRIME;
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Murmur3 fmix64 finaliser.
+   */
+  static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
@@ -0,0 +1,47 @@
+package com.checkout.payment.gateway.risk;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.util.Objects;
+
+/**
+ * Identity of a payment for duplicate detection. Holds the card fingerprint, never the card
+ * number.
+ *
+ * @param cardFingerprint keyed fingerprint of the card number
+ * @param amount payment amount in minor units
+ * @param currency payment currency
+ * @param expiryMonth card expiry month
+ * @param expiryYear card expiry year
+ * @param merchantId submitting merchant, may be null
+ */
+public record DuplicateKey(
+    long cardFingerprint,
+    int amount,
+    String currency,
+    int expiryMonth,
+    int expiryYear,
+    String merchantId
+) {
+
+  public static DuplicateKey of(PostPaymentRequest request, String merchantId) {
+    return new DuplicateKey(
+        CardFingerprint.of(request.cardNumber()),
+        request.amount(),
+        request.currency(),
+        request.expiryMonth(),
+        request.expiryYear(),
+        merchantId
+    );
+  }
+
+  /**
+   * Well-mixed 64-bit hash for the Bloom filters.
+   */
+  long longHash() {
+    long hash = cardFingerprint;
+    hash = CardFingerprint.mix(hash ^ amount);
+    hash = CardFingerprint.mix(hash ^ currency.hashCode());
+    hash = CardFingerprint.mix(hash ^ (expiryYear * 100L + expiryMonth));
+    return CardFingerprint.mix(hash ^ Objects.hashCode(merchantId));
+  }
+}
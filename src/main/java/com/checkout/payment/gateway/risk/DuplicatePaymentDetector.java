@@ -0,0 +1,185 @@
+package com.checkout.payment.gateway.risk;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects payments re-submitted within {@code gateway.duplicates.window-seconds}.
+ * <p>
+ * Keys are kept in two rotating generations, each a Bloom filter plus an exact map. Almost every
+ * payment is new, so the common case is answered by the Bloom filters alone in O(1); only on a
+ * (rare) positive is the exact map consulted to confirm the match and find the original payment.
+ * Each generation covers one window; on rotation the previous generation is discarded whole,
+ * which keeps memory bounded without per-entry expiry.
+ * <p>
+ * A key is recorded only once its payment has been stored, so a payment still at the bank holds
+ * a separate reservation instead: {@link #reserve} claims the key atomically before the bank is
+ * called, and {@link #record} or {@link #release} gives the reservation up again. A payment that
+ * ended FAILED is {@link #forget forgotten}, so the merchant's retry reaches the bank.
+ */
+@Component
+public class DuplicatePaymentDetector {
+
+  private final boolean enabled;
+  private final long windowMillis;
+  private final long expectedPerWindow;
+  private final double falsePositiveRate;
+  private final Clock clock;
+  private final AtomicReference<Generations> generations;
+  private final ConcurrentHashMap<DuplicateKey, UUID> reservations = new ConcurrentHashMap<>();
+
+  @Autowired
+  public DuplicatePaymentDetector(
+      @Value("${gateway.duplicates.enabled:true}") boolean enabled,
+      @Value("${gateway.duplicates.window-seconds:60}") int windowSeconds,
+      @Value("${gateway.duplicates.expected-payments-per-window:100000}") long expectedPerWindow,
+      @Value("${gateway.duplicates.false-positive-rate:0.01}") double falsePositiveRate
+  ) {
+    this(enabled, windowSeconds, expectedPerWindow, falsePositiveRate, Clock.systemUTC());
+  }
+
+  DuplicatePaymentDetector(boolean enabled, int windowSeconds, long expectedPerWindow,
+      double falsePositiveRate, Clock clock) {
+    this.enabled = enabled;
+    this.windowMillis = windowSeconds * 1000L;
+    this.expectedPerWindow = expectedPerWindow;
+    this.falsePositiveRate = falsePositiveRate;
+    this.clock = clock;
+    this.generations = new AtomicReference<>(
+        new Generations(newGeneration(clock.millis()), null));
+  }
+
+  /**
+   * @return the ID of an earlier payment with the same key inside the window, if any
+   */
+  public Optional<UUID> findOriginal(DuplicateKey key) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    long now = clock.millis();
+    Generations current = rotateIfDue(now);
+    long hash = key.longHash();
+    return current.current().find(key, hash, now, windowMillis)
+        .or(() -> current.previous() != null
+            ? current.previous().find(key, hash, now, windowMillis)
+            : Optional.empty());
+  }
+
+  /**
+   * Claims the key for a payment about to be authorized. At most one payment holds a key at a
+   * time; the claim lasts until the payment is recorded or released.
+   *
+   * @return empty if the key was claimed for {@code paymentId}, otherwise the ID of the earlier
+   *     payment, which may still be in flight and not yet stored
+   */
+  public Optional<UUID> reserve(DuplicateKey key, UUID paymentId) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    UUID holder = reservations.putIfAbsent(key, paymentId);
+    if (holder != null) {
+      return Optional.of(holder);
+    }
+    // The holder records its key before releasing it, so a payment that finished between the
+    // two calls is found here.
+    Optional<UUID> original = findOriginal(key);
+    if (original.isPresent()) {
+      reservations.remove(key, paymentId);
+    }
+    return original;
+  }
+
+  /**
+   * Records a stored payment and ends its reservation, if it held one.
+   */
+  public void record(DuplicateKey key, UUID paymentId) {
+    if (!enabled) {
+      return;
+    }
+    long now = clock.millis();
+    Generation generation = rotateIfDue(now).current();
+    generation.bloom().put(key.longHash());
+    generation.exact().put(key, new Recorded(paymentId, now));
+    reservations.remove(key, paymentId);
+  }
+
+  /**
+   * Ends the reservation of a payment that was not stored, so the request may be retried. Does
+   * nothing once the payment has been recorded.
+   */
+  public void release(DuplicateKey key, UUID paymentId) {
+    if (enabled) {
+      reservations.remove(key, paymentId);
+    }
+  }
+
+  /**
+   * Removes a payment's key, so an identical request is no longer reported as its duplicate. Does
+   * nothing if the key has since been recorded for another payment. The Bloom filters keep the
+   * key, so a later lookup for it falls through to the exact map and finds nothing.
+   */
+  public void forget(DuplicateKey key, UUID paymentId) {
+    if (!enabled) {
+      return;
+    }
+    Generations current = generations.get();
+    current.current().forget(key, paymentId);
+    if (current.previous() != null) {
+      current.previous().forget(key, paymentId);
+    }
+    reservations.remove(key, paymentId);
+  }
+
+  private Generations rotateIfDue(long now) {
+    while (true) {
+      Generations current = generations.get();
+      if (now - current.current().startMillis() < windowMillis) {
+        return current;
+      }
+      Generation previous = now - current.current().startMillis() < 2 * windowMillis
+          ? current.current()
+          : null;
+      Generations rotated = new Generations(newGeneration(now), previous);
+      if (generations.compareAndSet(current, rotated)) {
+        return rotated;
+      }
+    }
+  }
+
+  private Generation newGeneration(long startMillis) {
+    return new Generation(startMillis, new BloomFilter(expectedPerWindow, falsePositiveRate),
+        new ConcurrentHashMap<>());
+  }
+
+  private record Recorded(UUID paymentId, long recordedAtMillis) {}
+
+  private record Generation(
+      long startMillis,
+      BloomFilter bloom,
+      ConcurrentHashMap<DuplicateKey, Recorded> exact
+  ) {
+
+    Optional<UUID> find(DuplicateKey key, long hash, long now, long windowMillis) {
+      if (!bloom.mightContain(hash)) {
+        return Optional.empty();
+      }
+      Recorded recorded = exact.get(key);
+      return recorded != null && now - recorded.recordedAtMillis() <= windowMillis
+          ? Optional.of(recorded.paymentId())
+          : Optional.empty();
+    }
+
+    void forget(DuplicateKey key, UUID paymentId) {
+      exact.computeIfPresent(key,
+          (ignored, recorded) -> recorded.paymentId().equals(paymentId) ? null : recorded);
+    }
+  }
+
+  private record Generations(Generation current, Generation previous) {}
+}
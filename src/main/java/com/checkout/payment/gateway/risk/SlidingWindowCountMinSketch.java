@@ -0,0 +1,120 @@
+package com.checkout.payment.gateway.risk;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch over a sliding time window, in constant memory.
+ * <p>
+ * The window is split into {@code buckets} time slices, each with its own
+ * {@code depth x width} counter matrix. Adding a key increments one counter per row in the
+ * current slice; the estimate for a span is, per row, the sum over the slices in that span, and
+ * then the minimum across rows. Like any Count-Min Sketch it can over-count on collisions but
+ * never under-counts, apart from increments racing with a slice being recycled.
+ * <p>
+ * All state lives in atomic arrays: slices are recycled lazily by whichever thread first notices
+ * a stale epoch, using a CAS on the slice's epoch, so the hot path takes no lock.
+ */
+public class SlidingWindowCountMinSketch {
+
+  private static final long RECYCLING = Long.MIN_VALUE;
+
+  private final int depth;
+  private final int widthMask;
+  private final int buckets;
+  private final long bucketMillis;
+  private final int sliceSize;
+  private final AtomicIntegerArray counters;
+  private final AtomicLongArray epochs;
+
+  /**
+   * @param depth number of hash rows
+   * @param width counters per row, rounded up to a power of two
+   * @param buckets number of time slices in the window
+   * @param bucketMillis duration of one slice
+   */
+  public SlidingWindowCountMinSketch(int depth, int width, int buckets, long bucketMillis) {
+    this.depth = depth;
+    int roundedWidth = width <= 2 ? 2 : Integer.highestOneBit(width - 1) << 1;
+    this.widthMask = roundedWidth - 1;
+    this.buckets = buckets;
+    this.bucketMillis = bucketMillis;
+    this.sliceSize = depth * roundedWidth;
+    this.counters = new AtomicIntegerArray(buckets * sliceSize);
+    this.epochs = new AtomicLongArray(buckets);
+    for (int i = 0; i < buckets; i++) {
+      epochs.set(i, -1);
+    }
+  }
+
+  /**
+   * Records one occurrence of {@code key} at {@code nowMillis}.
+   */
+  public void add(long key, long nowMillis) {
+    long epoch = nowMillis / bucketMillis;
+    int bucket = (int) (epoch % buckets);
+    if (!claim(bucket, epoch)) {
+      return;
+    }
+    int base = bucket * sliceSize;
+    int h1 = (int) key;
+    int h2 = (int) (key >>> 32);
+    for (int row = 0; row < depth; row++) {
+      counters.incrementAndGet(base + row * (widthMask + 1) + index(h1, h2, row));
+    }
+  }
+
+  /**
+   * Estimates the occurrences of {@code key} in the most recent {@code span} slices, the current
+   * one included.
+   */
+  public int estimate(long key, long nowMillis, int span) {
+    long currentEpoch = nowMillis / bucketMillis;
+    int h1 = (int) key;
+    int h2 = (int) (key >>> 32);
+    int minimum = Integer.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      int sum = 0;
+      for (int back = 0; back < Math.min(span, buckets); back++) {
+        long epoch = currentEpoch - back;
+        int bucket = (int) (epoch % buckets);
+        if (epochs.get(bucket) == epoch) {
+          sum += counters.get(bucket * sliceSize + row * (widthMask + 1) + index(h1, h2, row));
+        }
+      }
+      minimum = Math.min(minimum, sum);
+    }
+    return minimum;
+  }
+
+  public int buckets() {
+    return buckets;
+  }
+
+  /**
+   * Makes sure the slice belongs to {@code epoch}, recycling it if it still holds an older one.
+   *
+   * @return false if another thread is recycling the slice right now
+   */
+  private boolean claim(int bucket, long epoch) {
+    long current = epochs.get(bucket);
+    if (current == epoch) {
+      return true;
+    }
+    if (current == RECYCLING || current > epoch
+        || !epochs.compareAndSet(bucket, current, RECYCLING)) {
+      return epochs.get(bucket) == epoch;
+    }
+    int base = bucket * sliceSize;
+    for (int i = 0; i < sliceSize; i++) {
+      counters.set(base + i, 0);
+    }
+    epochs.set(bucket, epoch);
+    return true;
+  }
+
+  private int index(int h1, int h2, int row) {
+    // Kirsch-Mitzenmacher double hashing derives every row's hash from one 64-bit key
+    return (h1 + row * h2) & widthMask;
+  }
+}
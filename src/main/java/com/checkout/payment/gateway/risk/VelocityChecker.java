@@ -0,0 +1,62 @@
+package com.checkout.payment.gateway.risk;
+
+import java.time.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-card velocity limits, checked before a payment is sent to the acquirer.
+ * <p>
+ * Attempts are counted per card fingerprint in a {@link SlidingWindowCountMinSketch}, so memory
+ * stays fixed regardless of how many distinct cards are seen. Two limits apply: one over the
+ * whole window and a tighter burst limit over its most recent slice.
+ */
+@Component
+public class VelocityChecker {
+
+  private final boolean enabled;
+  private final SlidingWindowCountMinSketch sketch;
+  private final int maxAttemptsPerWindow;
+  private final int maxAttemptsPerBurst;
+  private final Clock clock;
+
+  @Autowired
+  public VelocityChecker(
+      @Value("${gateway.velocity.enabled:true}") boolean enabled,
+      @Value("${gateway.velocity.window-seconds:60}") int windowSeconds,
+      @Value("${gateway.velocity.buckets:6}") int buckets,
+      @Value("${gateway.velocity.max-attempts-per-window:20}") int maxAttemptsPerWindow,
+      @Value("${gateway.velocity.max-attempts-per-burst:5}") int maxAttemptsPerBurst,
+      @Value("${gateway.velocity.sketch-width:16384}") int sketchWidth
+  ) {
+    this(enabled, windowSeconds, buckets, maxAttemptsPerWindow, maxAttemptsPerBurst, sketchWidth,
+        Clock.systemUTC());
+  }
+
+  VelocityChecker(boolean enabled, int windowSeconds, int buckets, int maxAttemptsPerWindow,
+      int maxAttemptsPerBurst, int sketchWidth, Clock clock) {
+    this.enabled = enabled;
+    this.sketch = new SlidingWindowCountMinSketch(
+        4, sketchWidth, buckets, windowSeconds * 1000L / buckets);
+    this.maxAttemptsPerWindow = maxAttemptsPerWindow;
+    this.maxAttemptsPerBurst = maxAttemptsPerBurst;
+    this.clock = clock;
+  }
+
+  /**
+   * Records an attempt for the card and checks it against the limits.
+   *
+   * @return true if the attempt is within the limits and may proceed
+   */
+  public boolean recordAttempt(String cardNumber) {
+    if (!enabled) {
+      return true;
+    }
+    long fingerprint = CardFingerprint.of(cardNumber);
+    long now = clock.millis();
+    sketch.add(fingerprint, now);
+    return sketch.estimate(fingerprint, now, 1) <= maxAttemptsPerBurst
+        && sketch.estimate(fingerprint, now, sketch.buckets()) <= maxAttemptsPerWindow;
+  }
+}
@@ -0,0 +1,129 @@
+package com.checkout.payment.gateway.routing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.web.client.RestClient;
+
+/**
+ * A single acquirer connection together with its live routing statistics.
+ * <p>
+ * Latency is tracked as a peak-EWMA: a slower observation is adopted immediately, while faster
+ * ones decay the estimate towards them with a time constant of {@code decayNanos}. The error
+ * rate moves by {@link #ERROR_ALPHA} per observation and decays back towards zero over the same
+ * time constant, so an acquirer that stops failing recovers even while it receives little
+ * traffic. Until its first observation an endpoint is assumed to answer in the latency prior, so
+ * an acquirer nothing is known about is neither favoured nor shunned. Updates hold the endpoint's
+ * monitor only for a few arithmetic operations; the in-flight count is a plain atomic.
+ */
+public final class AcquirerEndpoint {
+
+  private static final double ERROR_ALPHA = 0.1;
+  static final long DEFAULT_LATENCY_PRIOR_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final String name;
+  private final RestClient restClient;
+  private final long decayNanos;
+  private final long latencyPriorNanos;
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private double latencyNanos;
+  private boolean observed;
+  private double errorRate;
+  private long lastUpdateNanos = System.nanoTime();
+
+  public AcquirerEndpoint(String name, RestClient restClient, long decayNanos) {
+    this(name, restClient, decayNanos, DEFAULT_LATENCY_PRIOR_NANOS);
+  }
+
+  /**
+   * @param latencyPriorNanos latency assumed before the first observation, and the cost of a
+   *     failure per unit of error penalty
+   */
+  public AcquirerEndpoint(String name, RestClient restClient, long decayNanos,
+      long latencyPriorNanos) {
+    if (latencyPriorNanos <= 0) {
+      throw new IllegalArgumentException("Latency prior must be positive: " + latencyPriorNanos);
+    }
+    this.name = name;
+    this.restClient = restClient;
+    this.decayNanos = decayNanos;
+    this.latencyPriorNanos = latencyPriorNanos;
+    this.latencyNanos = latencyPriorNanos;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public RestClient restClient() {
+    return restClient;
+  }
+
+  public void onStart() {
+    pending.incrementAndGet();
+  }
+
+  public void onSuccess(long elapsedNanos) {
+    pending.decrementAndGet();
+    observe(elapsedNanos, 0);
+  }
+
+  public void onFailure(long elapsedNanos) {
+    pending.decrementAndGet();
+    observe(elapsedNanos, 1);
+  }
+
+  /**
+   * Ends a request that was abandoned by the caller, without counting it for or against the
+   * acquirer.
+   */
+  public void onCancelled() {
+    pending.decrementAndGet();
+  }
+
+  /**
+   * Expected cost of sending one more request here: lower is better. Failures add a fixed cost of
+   * {@code errorPenalty} latency priors per unit of error rate rather than scaling the latency,
+   * so an acquirer cannot win by failing fast.
+   */
+  double score(double errorPenalty) {
+    synchronized (this) {
+      return (latencyNanos + errorPenalty * decayedErrorRate() * latencyPriorNanos)
+          * (pending.get() + 1);
+    }
+  }
+
+  double errorRate() {
+    synchronized (this) {
+      return decayedErrorRate();
+    }
+  }
+
+  AcquirerStatus status() {
+    synchronized (this) {
+      return new AcquirerStatus(name, latencyNanos / 1_000_000.0, decayedErrorRate(),
+          pending.get());
+    }
+  }
+
+  /**
+   * The error rate as of now, so it keeps decaying between observations. Caller holds the
+   * monitor.
+   */
+  private double decayedErrorRate() {
+    return errorRate * Math.exp(-(double) (System.nanoTime() - lastUpdateNanos) / decayNanos);
+  }
+
+  private void observe(long elapsedNanos, int failed) {
+    synchronized (this) {
+      long now = System.nanoTime();
+      double weight = Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+      lastUpdateNanos = now;
+      latencyNanos = !observed || elapsedNanos > latencyNanos
+          ? elapsedNanos
+          : latencyNanos * weight + elapsedNanos * (1 - weight);
+      observed = true;
+      errorRate = errorRate * weight * (1 - ERROR_ALPHA) + failed * ERROR_ALPHA;
+    }
+  }
+}
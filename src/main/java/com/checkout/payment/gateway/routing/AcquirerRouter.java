@@ -0,0 +1,97 @@
+package com.checkout.payment.gateway.routing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the acquirer for each authorization.
+ * <p>
+ * The first choice uses power-of-two-choices: two distinct endpoints are sampled at random and
+ * the one with the lower {@link AcquirerEndpoint#score(double) score} wins. This keeps load spread
+ * out while still steering away from slow or failing acquirers. The remaining endpoints follow
+ * in score order and serve as failover targets.
+ * <p>
+ * A payment whose BIN range names a preferred acquirer goes there first, unless that acquirer's
+ * error rate is above {@value #PREFERRED_MAX_ERROR_RATE}.
+ */
+public class AcquirerRouter {
+
+  static final double PREFERRED_MAX_ERROR_RATE = 0.5;
+
+  private final List<AcquirerEndpoint> endpoints;
+  private final double errorPenalty;
+
+  public AcquirerRouter(List<AcquirerEndpoint> endpoints, double errorPenalty) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("At least one acquirer endpoint is required");
+    }
+    this.endpoints = List.copyOf(endpoints);
+    this.errorPenalty = errorPenalty;
+  }
+
+  /**
+   * @return every endpoint, in the order they should be attempted for one payment
+   */
+  public List<AcquirerEndpoint> candidates() {
+    return candidates(null);
+  }
+
+  /**
+   * @param preferredAcquirer name of the acquirer to try first when healthy, may be null
+   * @return every endpoint, in the order they should be attempted for one payment
+   */
+  public List<AcquirerEndpoint> candidates(String preferredAcquirer) {
+    int size = endpoints.size();
+    if (size == 1) {
+      return endpoints;
+    }
+
+    // Scores move concurrently, so take one snapshot for both the choice and the ordering
+    double[] scores = new double[size];
+    for (int i = 0; i < size; i++) {
+      scores[i] = endpoints.get(i).score(errorPenalty);
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(size);
+    int second = random.nextInt(size - 1);
+    if (second >= first) {
+      second++;
+    }
+    int chosen = scores[first] <= scores[second] ? first : second;
+    int preferred = indexOf(preferredAcquirer);
+    if (preferred >= 0 && endpoints.get(preferred).errorRate() <= PREFERRED_MAX_ERROR_RATE) {
+      chosen = preferred;
+    }
+
+    List<Integer> failover = new ArrayList<>(size - 1);
+    for (int i = 0; i < size; i++) {
+      if (i != chosen) {
+        failover.add(i);
+      }
+    }
+    failover.sort(Comparator.comparingDouble(i -> scores[i]));
+
+    List<AcquirerEndpoint> ordered = new ArrayList<>(size);
+    ordered.add(endpoints.get(chosen));
+    failover.forEach(i -> ordered.add(endpoints.get(i)));
+    return ordered;
+  }
+
+  private int indexOf(String name) {
+    if (name != null) {
+      for (int i = 0; i < endpoints.size(); i++) {
+        if (endpoints.get(i).getName().equals(name)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  public List<AcquirerStatus> status() {
+    return endpoints.stream().map(AcquirerEndpoint::status).toList();
+  }
+}
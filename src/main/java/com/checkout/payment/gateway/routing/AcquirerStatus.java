@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.routing;
+
+/**
+ * Point-in-time view of an acquirer's routing statistics.
+ *
+ * @param name acquirer name
+ * @param latencyMillis peak-EWMA latency in milliseconds
+ * @param errorRate EWMA of the failure rate, between 0 and 1
+ * @param pending requests currently in flight
+ */
+public record AcquirerStatus(
+    String name,
+    double latencyMillis,
+    double errorRate,
+    int pending
+) {}
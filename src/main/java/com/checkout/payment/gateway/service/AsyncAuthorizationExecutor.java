@@ -0,0 +1,90 @@
+package com.checkout.payment.gateway.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded worker pipeline for payments accepted in asynchronous mode.
+ * <p>
+ * Capacity is reserved with {@link #tryReserve()} before the pending payment is stored, so a
+ * full pipeline is reported to the merchant instead of leaving an accepted payment that will
+ * never be authorized. A fixed set of workers drains the queue; the number of queued plus
+ * running authorizations never exceeds {@code gateway.async.capacity}.
+ */
+@Component
+public class AsyncAuthorizationExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncAuthorizationExecutor.class);
+
+  private final boolean enabled;
+  private final Semaphore capacity;
+  private final ExecutorService workers;
+
+  public AsyncAuthorizationExecutor(
+      @Value("${gateway.async.enabled:false}") boolean enabled,
+      @Value("${gateway.async.workers:32}") int workers,
+      @Value("${gateway.async.capacity:10000}") int capacity
+  ) {
+    this.enabled = enabled;
+    this.capacity = new Semaphore(capacity);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "async-authorization-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Reserves a slot for one authorization, which {@link #execute(Runnable)} releases. A slot
+   * that is not handed to {@code execute} must be given back with {@link #release()}.
+   *
+   * @return false if the pipeline is full
+   */
+  public boolean tryReserve() {
+    return capacity.tryAcquire();
+  }
+
+  /**
+   * Gives back a slot reserved with {@link #tryReserve()} that was never passed to
+   * {@link #execute(Runnable)}, or that {@code execute} rejected.
+   */
+  public void release() {
+    capacity.release();
+  }
+
+  /**
+   * Runs an authorization on the worker pool. A slot must have been reserved.
+   */
+  public void execute(Runnable authorization) {
+    workers.execute(() -> {
+      try {
+        authorization.run();
+      } catch (Throwable ex) {
+        LOG.error("Asynchronous authorization could not record its outcome", ex);
+      } finally {
+        capacity.release();
+      }
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    workers.shutdown();
+    if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+      LOG.warn("Asynchronous authorizations still running at shutdown");
+    }
+  }
+}
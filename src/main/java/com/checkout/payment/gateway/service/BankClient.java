@@ -1,38 +1,165 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.deadline.Deadline;
+import com.checkout.payment.gateway.deadline.DeadlineAwareRequestFactory;
 import com.checkout.payment.gateway.exception.BankCommunicationException;
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.exception.DeadlineExceededException;
+import com.checkout.payment.gateway.jfr.AcquirerExchangeEvent;
 import com.checkout.payment.gateway.model.BankPaymentRequest;
 import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.monitoring.PaymentStage;
+import com.checkout.payment.gateway.monitoring.RequestTimings;
+import com.checkout.payment.gateway.routing.AcquirerEndpoint;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 
 /**
  * Service responsible for communicating with the external bank simulator.
+ * <p>
+ * Each authorization is sent to the acquirer chosen by the {@link AcquirerRouter}; when that
+ * acquirer cannot be connected to, the remaining ones are tried in order before the failure is
+ * reported. Any other failure, such as an error status, a reset or a read timeout, is reported at
+ * once: the request may already have reached the acquirer, and sending it to another one could
+ * charge the card twice. Failures the acquirer certainly did not process, a server error or a
+ * failed connection, are reported as {@link BankUnavailableException}; a plain
+ * {@link BankCommunicationException} means the outcome is unknown.
+ * <p>
+ * A call made with a bounded {@link Deadline} never waits on an acquirer longer than the deadline
+ * allows, and is abandoned with {@link DeadlineExceededException} instead of failing over once
+ * the deadline has passed.
+ * <p>
+ * {@code bank.transport.mode} selects how requests are encoded: {@code jackson} (the default)
+ * goes through the {@link RestClient}'s message converters, {@code pooled} writes and parses the
+ * JSON directly in pooled buffers.
  */
 @Service
 public class BankClient {
 
   private static final Logger LOG = LoggerFactory.getLogger(BankClient.class);
+  static final String UNAVAILABLE_MESSAGE =
+      "Bank service is currently unavailable. Please try again later.";
+  private static final String DEADLINE_MESSAGE =
+      "Request deadline passed before the acquiring bank responded.";
 
-  private final RestClient restClient;
+  private final AcquirerRouter acquirerRouter;
+  private final BankTransport transport;
 
   public BankClient(RestClient bankRestClient) {
-    this.restClient = bankRestClient;
+    this(new AcquirerRouter(
+        List.of(new AcquirerEndpoint("default", bankRestClient, TimeUnit.SECONDS.toNanos(10))),
+        0));
+  }
+
+  public BankClient(AcquirerRouter acquirerRouter) {
+    this(acquirerRouter, new JacksonBankTransport());
+  }
+
+  @Autowired
+  public BankClient(AcquirerRouter acquirerRouter,
+      @Value("${bank.transport.mode:jackson}") String transportMode,
+      @Value("${bank.transport.pool-size:64}") int poolSize,
+      @Value("${bank.transport.buffer-bytes:512}") int bufferBytes,
+      @Value("${bank.transport.max-pooled-buffer-bytes:8192}") int maxPooledBufferBytes,
+      @Value("${bank.transport.max-response-bytes:65536}") int maxResponseBytes) {
+    this(acquirerRouter, switch (transportMode) {
+      case "jackson" -> new JacksonBankTransport();
+      case "pooled" -> new PooledBankTransport(poolSize, bufferBytes, maxPooledBufferBytes,
+          maxResponseBytes);
+      default -> throw new IllegalArgumentException("Unknown bank transport: " + transportMode);
+    });
+  }
+
+  BankClient(AcquirerRouter acquirerRouter, BankTransport transport) {
+    this.acquirerRouter = acquirerRouter;
+    this.transport = transport;
   }
 
   public BankPaymentResponse authorizePayment(BankPaymentRequest request) {
-    return restClient.post()
-        .uri("/payments")
-        .body(request)
-        .retrieve()
-        .onStatus(HttpStatusCode::is5xxServerError, (req, res) -> {
-          LOG.error("Bank service unavailable with status {}", res.getStatusCode());
-          throw new BankCommunicationException(
-              "Bank service is currently unavailable. Please try again later.");
-        })
-        .body(BankPaymentResponse.class);
+    return authorizePayment(request, Deadline.none());
+  }
+
+  /**
+   * Authorizes a payment within the given deadline.
+   *
+   * @throws DeadlineExceededException if the deadline passes before an acquirer has answered
+   */
+  public BankPaymentResponse authorizePayment(BankPaymentRequest request, Deadline deadline) {
+    long start = RequestTimings.start();
+    try {
+      return authorizeWithFailover(request, deadline);
+    } finally {
+      RequestTimings.stop(PaymentStage.ACQUIRER, start);
+    }
+  }
+
+  private BankPaymentResponse authorizeWithFailover(BankPaymentRequest request,
+      Deadline deadline) {
+    BankUnavailableException lastFailure = null;
+    for (AcquirerEndpoint endpoint : acquirerRouter.candidates(request.preferredAcquirer())) {
+      if (deadline.isExpired()) {
+        throw new DeadlineExceededException(DEADLINE_MESSAGE, PaymentStage.ACQUIRER);
+      }
+      AcquirerExchangeEvent event = new AcquirerExchangeEvent();
+      event.begin();
+      long begin = System.nanoTime();
+      endpoint.onStart();
+      try {
+        BankPaymentResponse response = DeadlineAwareRequestFactory.within(deadline,
+            () -> transport.exchange(endpoint.restClient(), request));
+        endpoint.onSuccess(System.nanoTime() - begin);
+        event.complete(endpoint.getName(), response.authorized() ? "Authorized" : "Declined",
+            request.currency(), request.amount());
+        return response;
+      } catch (BankCommunicationException ex) {
+        endpoint.onFailure(System.nanoTime() - begin);
+        event.complete(endpoint.getName(), "Unavailable", request.currency(), request.amount());
+        throw ex;
+      } catch (ResourceAccessException ex) {
+        if (deadline.isExpired()) {
+          endpoint.onCancelled();
+          event.complete(endpoint.getName(), "DeadlineExceeded", request.currency(),
+              request.amount());
+          throw new DeadlineExceededException(DEADLINE_MESSAGE, PaymentStage.ACQUIRER);
+        }
+        endpoint.onFailure(System.nanoTime() - begin);
+        event.complete(endpoint.getName(), "Unavailable", request.currency(), request.amount());
+        if (!isConnectFailure(ex)) {
+          throw new BankCommunicationException(UNAVAILABLE_MESSAGE);
+        }
+        lastFailure = new BankUnavailableException(UNAVAILABLE_MESSAGE);
+      } catch (RuntimeException ex) {
+        endpoint.onFailure(System.nanoTime() - begin);
+        event.complete(endpoint.getName(), "Error", request.currency(), request.amount());
+        throw ex;
+      }
+      LOG.debug("Acquirer {} failed, trying next candidate", endpoint.getName());
+    }
+    throw lastFailure;
+  }
+
+  /**
+   * @return true if the request failed before a connection was established, so the acquirer
+   *     cannot have seen it
+   */
+  private static boolean isConnectFailure(ResourceAccessException ex) {
+    for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+          || cause instanceof UnknownHostException) {
+        return true;
+      }
+    }
+    return false;
   }
 }
@@ -0,0 +1,369 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Hand-written JSON codec for the bank simulator's authorization exchange, working in a single
+ * reusable byte buffer.
+ * <p>
+ * {@link #encode(BankPaymentRequest)} produces a document equivalent to Jackson's for
+ * {@link BankPaymentRequest}; {@link #decode(InputStream)} reads {@link BankPaymentResponse} and
+ * skips any other members. The buffer grows when a message does not fit and keeps its new size,
+ * so a codec that is reused settles on a buffer large enough for its traffic. A response body
+ * longer than {@code maxResponseBytes} is refused rather than buffered. Not thread-safe.
+ */
+final class BankJsonCodec {
+
+  private static final byte[] CARD_NUMBER = ascii("{\"card_number\":");
+  private static final byte[] EXPIRY_DATE = ascii(",\"expiry_date\":");
+  private static final byte[] CURRENCY = ascii(",\"currency\":");
+  private static final byte[] AMOUNT = ascii(",\"amount\":");
+  private static final byte[] CVV = ascii(",\"cvv\":");
+  private static final byte[] NULL = ascii("null");
+  private static final byte[] TRUE = ascii("true");
+  private static final byte[] FALSE = ascii("false");
+  private static final byte[] AUTHORIZED = ascii("authorized");
+  private static final byte[] AUTHORIZATION_CODE = ascii("authorization_code");
+  private static final byte[] HEX = ascii("0123456789abcdef");
+
+  /** Longest escape of a single UTF-16 char: {@code \}{@code uXXXX}. */
+  private static final int MAX_ESCAPED_CHAR = 6;
+  private static final int FIXED_REQUEST_BYTES = CARD_NUMBER.length + EXPIRY_DATE.length
+      + CURRENCY.length + AMOUNT.length + CVV.length + 4 * 2 + 11 + 1;
+
+  private final int maxResponseBytes;
+  private byte[] buffer;
+  private int position;
+  private int limit;
+
+  BankJsonCodec(int capacity, int maxResponseBytes) {
+    if (capacity <= 0 || capacity > maxResponseBytes) {
+      throw new IllegalArgumentException("Codec capacity must be between 1 and "
+          + maxResponseBytes + ": " + capacity);
+    }
+    this.buffer = new byte[capacity];
+    this.maxResponseBytes = maxResponseBytes;
+  }
+
+  /**
+   * @return the buffer the last request was encoded into, or the last response read into
+   */
+  byte[] buffer() {
+    return buffer;
+  }
+
+  /**
+   * Encodes the request into {@link #buffer()} as UTF-8 JSON.
+   *
+   * @return number of bytes written, starting at offset 0
+   */
+  int encode(BankPaymentRequest request) {
+    ensureCapacity(FIXED_REQUEST_BYTES + MAX_ESCAPED_CHAR * (length(request.cardNumber())
+        + length(request.expiryDate()) + length(request.currency()) + length(request.cvv())));
+    position = 0;
+    write(CARD_NUMBER);
+    writeString(request.cardNumber());
+    write(EXPIRY_DATE);
+    writeString(request.expiryDate());
+    write(CURRENCY);
+    writeString(request.currency());
+    write(AMOUNT);
+    writeInt(request.amount());
+    write(CVV);
+    writeString(request.cvv());
+    buffer[position++] = '}';
+    return position;
+  }
+
+  /**
+   * Reads the whole response body into {@link #buffer()} and parses it.
+   *
+   * @throws IOException if the body cannot be read, is longer than {@code maxResponseBytes} or
+   *     is not a JSON object
+   */
+  BankPaymentResponse decode(InputStream body) throws IOException {
+    limit = 0;
+    int read;
+    while ((read = body.read(buffer, limit, buffer.length - limit)) != -1) {
+      limit += read;
+      if (limit == buffer.length) {
+        if (limit == maxResponseBytes) {
+          if (body.read() == -1) {
+            break;
+          }
+          throw new IOException("Bank response exceeds " + maxResponseBytes + " bytes");
+        }
+        buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxResponseBytes));
+      }
+    }
+    position = 0;
+    return parseResponse();
+  }
+
+  private BankPaymentResponse parseResponse() throws IOException {
+    boolean authorized = false;
+    String authorizationCode = null;
+    expect('{');
+    if (peek() == '}') {
+      position++;
+      return new BankPaymentResponse(false, null);
+    }
+    do {
+      expect('"');
+      int keyStart = position;
+      int keyEnd = skipStringBody();
+      expect(':');
+      if (matches(keyStart, keyEnd, AUTHORIZED)) {
+        authorized = readBoolean();
+      } else if (matches(keyStart, keyEnd, AUTHORIZATION_CODE)) {
+        authorizationCode = readNullableString();
+      } else {
+        skipValue();
+      }
+    } while (nextMember());
+    return new BankPaymentResponse(authorized, authorizationCode);
+  }
+
+  private boolean nextMember() throws IOException {
+    byte next = peek();
+    position++;
+    if (next == ',') {
+      return true;
+    }
+    if (next == '}') {
+      return false;
+    }
+    throw malformed();
+  }
+
+  private boolean readBoolean() throws IOException {
+    peek();
+    if (literal(TRUE)) {
+      return true;
+    }
+    if (literal(FALSE)) {
+      return false;
+    }
+    throw malformed();
+  }
+
+  private String readNullableString() throws IOException {
+    if (peek() != '"') {
+      if (literal(NULL)) {
+        return null;
+      }
+      throw malformed();
+    }
+    position++;
+    int start = position;
+    int end = skipStringBody();
+    for (int i = start; i < end; i++) {
+      if (buffer[i] == '\\') {
+        return unescape(start, end);
+      }
+    }
+    return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Advances past the closing quote of a string whose opening quote has been consumed.
+   *
+   * @return offset of the closing quote
+   */
+  private int skipStringBody() throws IOException {
+    while (position < limit) {
+      byte b = buffer[position++];
+      if (b == '\\') {
+        position++;
+      } else if (b == '"') {
+        return position - 1;
+      }
+    }
+    throw malformed();
+  }
+
+  private void skipValue() throws IOException {
+    byte first = peek();
+    if (first == '"') {
+      position++;
+      skipStringBody();
+      return;
+    }
+    if (first == '{' || first == '[') {
+      int depth = 0;
+      while (position < limit) {
+        byte b = buffer[position++];
+        if (b == '"') {
+          skipStringBody();
+        } else if (b == '{' || b == '[') {
+          depth++;
+        } else if ((b == '}' || b == ']') && --depth == 0) {
+          return;
+        }
+      }
+      throw malformed();
+    }
+    while (position < limit && !isDelimiter(buffer[position])) {
+      position++;
+    }
+  }
+
+  private String unescape(int start, int end) throws IOException {
+    StringBuilder value = new StringBuilder(end - start);
+    int i = start;
+    while (i < end) {
+      byte b = buffer[i];
+      if (b != '\\') {
+        int runEnd = i;
+        while (runEnd < end && buffer[runEnd] != '\\') {
+          runEnd++;
+        }
+        value.append(new String(buffer, i, runEnd - i, StandardCharsets.UTF_8));
+        i = runEnd;
+        continue;
+      }
+      if (i + 1 >= end) {
+        throw malformed();
+      }
+      byte escaped = buffer[i + 1];
+      i += 2;
+      switch (escaped) {
+        case '"', '\\', '/' -> value.append((char) escaped);
+        case 'b' -> value.append('\b');
+        case 'f' -> value.append('\f');
+        case 'n' -> value.append('\n');
+        case 'r' -> value.append('\r');
+        case 't' -> value.append('\t');
+        case 'u' -> {
+          if (i + 4 > end) {
+            throw malformed();
+          }
+          int codeUnit = 0;
+          for (int digit = 0; digit < 4; digit++) {
+            int nibble = Character.digit(buffer[i + digit], 16);
+            if (nibble < 0) {
+              throw malformed();
+            }
+            codeUnit = codeUnit << 4 | nibble;
+          }
+          value.append((char) codeUnit);
+          i += 4;
+        }
+        default -> throw malformed();
+      }
+    }
+    return value.toString();
+  }
+
+  private boolean literal(byte[] expected) {
+    int end = position + expected.length;
+    if (!matches(position, Math.min(end, limit), expected)
+        || (end < limit && !isDelimiter(buffer[end]))) {
+      return false;
+    }
+    position += expected.length;
+    return true;
+  }
+
+  private boolean matches(int start, int end, byte[] expected) {
+    return Arrays.equals(buffer, start, end, expected, 0, expected.length);
+  }
+
+  private void expect(char expected) throws IOException {
+    if (peek() != expected) {
+      throw malformed();
+    }
+    position++;
+  }
+
+  /**
+   * Skips whitespace and returns the next byte without consuming it.
+   */
+  private byte peek() throws IOException {
+    while (position < limit) {
+      byte b = buffer[position];
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        return b;
+      }
+      position++;
+    }
+    throw malformed();
+  }
+
+  private IOException malformed() {
+    return new IOException("Malformed bank response at offset " + position);
+  }
+
+  private void write(byte[] bytes) {
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void writeString(String value) {
+    if (value == null) {
+      write(NULL);
+      return;
+    }
+    buffer[position++] = '"';
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        buffer[position++] = '\\';
+        buffer[position++] = (byte) c;
+      } else if (c >= 0x20 && c < 0x7f) {
+        buffer[position++] = (byte) c;
+      } else {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[c >> 12 & 0xf];
+        buffer[position++] = HEX[c >> 8 & 0xf];
+        buffer[position++] = HEX[c >> 4 & 0xf];
+        buffer[position++] = HEX[c & 0xf];
+      }
+    }
+    buffer[position++] = '"';
+  }
+
+  private void writeInt(int value) {
+    if (value < 0) {
+      buffer[position++] = '-';
+      if (value == Integer.MIN_VALUE) {
+        buffer[position++] = '2';
+        value = -147_483_648;
+      }
+      value = -value;
+    }
+    int digits = 1;
+    for (int scale = value; scale >= 10; scale /= 10) {
+      digits++;
+    }
+    for (int i = position + digits - 1; i >= position; i--) {
+      buffer[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    position += digits;
+  }
+
+  private void ensureCapacity(int required) {
+    if (buffer.length < required) {
+      buffer = new byte[Math.max(required, buffer.length * 2)];
+    }
+  }
+
+  private static boolean isDelimiter(byte b) {
+    return b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private static int length(String value) {
+    return value != null ? value.length() : NULL.length;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
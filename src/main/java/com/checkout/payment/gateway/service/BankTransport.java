@@ -0,0 +1,17 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import org.springframework.web.client.RestClient;
+
+/**
+ * How an authorization request is put on the wire to one acquirer and its answer read back.
+ * <p>
+ * Implementations throw {@link com.checkout.payment.gateway.exception.BankUnavailableException}
+ * when the acquirer answers with a server error; I/O failures surface as
+ * {@link org.springframework.web.client.ResourceAccessException} from the {@link RestClient}.
+ */
+interface BankTransport {
+
+  BankPaymentResponse exchange(RestClient restClient, BankPaymentRequest request);
+}
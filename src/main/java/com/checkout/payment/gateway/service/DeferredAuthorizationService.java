@@ -0,0 +1,300 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.DeferredAuthorization;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
+import com.checkout.payment.gateway.replication.PaymentReplication;
+import com.checkout.payment.gateway.repository.DeferredAuthorizationJournal;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Store-and-forward authorization for when the bank is unavailable.
+ * <p>
+ * Opt-in via {@code gateway.deferred-authorization.enabled}. A payment the bank certainly did not
+ * process ({@link BankUnavailableException}) is persisted to the
+ * {@link DeferredAuthorizationJournal} before it is stored and answered as PENDING, so no pending
+ * payment exists without a journal entry to finish it; a single background worker replays it
+ * later. Retries use exponential backoff with full jitter so that queued payments do not all hit
+ * a recovering bank at once, and the worker never sends more than
+ * {@code max-retries-per-second}. Once the bank answers, the stored payment is updated and
+ * the outcome published like any other; if storing it fails, only the storing is retried, never
+ * the authorization. Payments the bank still has not answered after {@code max-attempts} are
+ * stored as FAILED, never as DECLINED. So is a replay whose outcome is unknown, such as a read
+ * timeout: it is logged for reconciliation rather than sent again.
+ * <p>
+ * A replica ({@code gateway.replication.role=replica}) never opens the journal: it accepts no
+ * payments to defer, and recovering or retrying the primary's entries would call the bank a
+ * second time for payments the primary is already completing.
+ */
+@Service
+public class DeferredAuthorizationService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DeferredAuthorizationService.class);
+
+  private final boolean enabled;
+  private final BankClient bankClient;
+  private final PaymentsRepository paymentsRepository;
+  private final PaymentEventLogger paymentEventLogger;
+  private final PaymentEventBus paymentEventBus;
+  private final DeferredAuthorizationJournal journal;
+  private final long baseBackoffMillis;
+  private final long maxBackoffMillis;
+  private final int maxAttempts;
+  private final long retryIntervalNanos;
+  private final DelayQueue<Queued> queue = new DelayQueue<>();
+  private final Thread worker;
+  private volatile boolean running = true;
+
+  public DeferredAuthorizationService(
+      BankClient bankClient,
+      PaymentsRepository paymentsRepository,
+      PaymentEventLogger paymentEventLogger,
+      PaymentEventBus paymentEventBus,
+      @Value("${gateway.deferred-authorization.enabled:false}") boolean enabled,
+      @Value("${gateway.deferred-authorization.directory:data/deferred-authorizations}")
+      Path directory,
+      @Value("${gateway.deferred-authorization.encryption-key:}") String encryptionKey,
+      @Value("${gateway.deferred-authorization.base-backoff-ms:1000}") long baseBackoffMillis,
+      @Value("${gateway.deferred-authorization.max-backoff-ms:60000}") long maxBackoffMillis,
+      @Value("${gateway.deferred-authorization.max-attempts:20}") int maxAttempts,
+      @Value("${gateway.deferred-authorization.max-retries-per-second:50}") int maxRetriesPerSecond,
+      @Value("${gateway.replication.role:none}") String replicationRole
+  ) throws IOException {
+    if (maxRetriesPerSecond <= 0) {
+      throw new IllegalArgumentException(
+          "Deferred authorization retry rate must be positive: " + maxRetriesPerSecond);
+    }
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException(
+          "Deferred authorization attempts must be positive: " + maxAttempts);
+    }
+    if (enabled && PaymentReplication.REPLICA.equals(replicationRole)) {
+      LOG.info("Deferred authorization is disabled on a replica");
+      enabled = false;
+    }
+    this.enabled = enabled;
+    this.bankClient = bankClient;
+    this.paymentsRepository = paymentsRepository;
+    this.paymentEventLogger = paymentEventLogger;
+    this.paymentEventBus = paymentEventBus;
+    this.baseBackoffMillis = baseBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.maxAttempts = maxAttempts;
+    this.retryIntervalNanos = TimeUnit.SECONDS.toNanos(1) / maxRetriesPerSecond;
+
+    if (enabled) {
+      if (encryptionKey.isBlank()) {
+        throw new IllegalStateException(
+            "gateway.deferred-authorization.encryption-key must be set when deferral is enabled");
+      }
+      this.journal = new DeferredAuthorizationJournal(directory,
+          new SecretKeySpec(Base64.getDecoder().decode(encryptionKey), "AES"));
+    } else {
+      this.journal = null;
+    }
+    this.worker = new Thread(this::retryLoop, "deferred-authorization");
+    this.worker.setDaemon(true);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Persists a failed authorization for retry and stores its pending payment with {@code store}.
+   * The journal entry is written first, so no pending payment is stored without one, and is
+   * withdrawn again if {@code store} fails; retries start only once the payment is stored.
+   *
+   * @throws java.io.UncheckedIOException if the authorization could not be persisted
+   */
+  public void defer(String merchantId, BankPaymentRequest bankRequest,
+      PaymentResponse pendingPayment, Runnable store) {
+    DeferredAuthorization entry = new DeferredAuthorization(merchantId, bankRequest,
+        pendingPayment, 1, System.currentTimeMillis() + backoffMillis(1));
+    journal.save(entry);
+    try {
+      store.run();
+    } catch (RuntimeException ex) {
+      journal.delete(pendingPayment.id());
+      throw ex;
+    }
+    queue.add(new Queued(entry));
+    LOG.debug("Payment {} deferred until the bank is available", pendingPayment.id());
+  }
+
+  /**
+   * Re-queues authorizations left over from a previous run.
+   */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    for (DeferredAuthorization entry : journal.loadAll()) {
+      if (paymentsRepository.get(entry.pendingPayment().id()).isEmpty()) {
+        paymentsRepository.add(entry.pendingPayment());
+      }
+      queue.add(new Queued(entry));
+    }
+    LOG.info("Recovered {} deferred authorizations", queue.size());
+    worker.start();
+  }
+
+  @PreDestroy
+  public void stop() {
+    running = false;
+    worker.interrupt();
+  }
+
+  private void retryLoop() {
+    long nextPermitNanos = System.nanoTime();
+    while (running) {
+      try {
+        Queued queued = queue.poll(1, TimeUnit.SECONDS);
+        if (queued == null) {
+          continue;
+        }
+        long wait = nextPermitNanos - System.nanoTime();
+        if (wait > 0) {
+          TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextPermitNanos = Math.max(nextPermitNanos, System.nanoTime()) + retryIntervalNanos;
+        retry(queued);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException ex) {
+        LOG.error("Unexpected failure while retrying deferred authorization", ex);
+      }
+    }
+  }
+
+  private void retry(Queued queued) {
+    DeferredAuthorization entry = queued.entry();
+    PaymentStatus outcome = queued.outcome() != null ? queued.outcome() : authorize(entry);
+    if (outcome == null) {
+      return;
+    }
+    try {
+      complete(entry, outcome);
+    } catch (RuntimeException ex) {
+      // The bank has answered, so only the completion is retried: sending the authorization
+      // again could charge the card twice
+      LOG.error("Unable to complete deferred payment {} as {}, retrying",
+          entry.pendingPayment().id(), outcome, ex);
+      queue.add(new Queued(entry.rescheduledAt(
+          System.currentTimeMillis() + backoffMillis(entry.attempts())), outcome));
+    }
+  }
+
+  /**
+   * Replays the authorization against the bank, re-queueing it with backoff if the bank does not
+   * answer.
+   *
+   * @return the status to store the payment with, or null if the authorization was re-queued
+   */
+  private PaymentStatus authorize(DeferredAuthorization entry) {
+    PaymentResponse pending = entry.pendingPayment();
+    try {
+      BankPaymentResponse response = bankClient.authorizePayment(entry.bankRequest());
+      return response.authorized() ? PaymentStatus.AUTHORIZED : PaymentStatus.DECLINED;
+    } catch (BankUnavailableException ex) {
+      LOG.debug("Deferred payment {} still cannot reach the bank", pending.id());
+    } catch (RuntimeException ex) {
+      // The bank may have processed the request (a timeout or a reset) or refused it outright:
+      // sending it again could charge the card twice, or fail the same way
+      LOG.error("Deferred payment {} failed with an unknown outcome, needs reconciliation",
+          pending.id(), ex);
+      return PaymentStatus.FAILED;
+    }
+    if (entry.attempts() + 1 >= maxAttempts) {
+      LOG.warn("Payment {} failed after {} failed authorization attempts", pending.id(),
+          entry.attempts() + 1);
+      return PaymentStatus.FAILED;
+    }
+    DeferredAuthorization next = entry.retryAt(
+        System.currentTimeMillis() + backoffMillis(entry.attempts() + 1));
+    try {
+      journal.save(next);
+    } catch (UncheckedIOException saveFailure) {
+      // The previous entry is still journaled, so a restart would recover the payment anyway
+      LOG.error("Unable to update deferred authorization {}", pending.id(), saveFailure);
+    }
+    queue.add(new Queued(next));
+    return null;
+  }
+
+  private void complete(DeferredAuthorization entry, PaymentStatus status) {
+    PaymentResponse payment = entry.pendingPayment().withStatus(status);
+    paymentsRepository.add(payment);
+    journal.delete(payment.id());
+
+    if (status == PaymentStatus.AUTHORIZED) {
+      paymentEventLogger.authorized(payment.id(), payment.cardNumberLastFour(), payment.currency(),
+          payment.amount());
+    } else if (status == PaymentStatus.DECLINED) {
+      paymentEventLogger.declined(payment.id(), payment.cardNumberLastFour(), payment.currency(),
+          payment.amount());
+    } else {
+      paymentEventLogger.bankError("Payment " + payment.id() + " failed after "
+          + maxAttempts + " authorization attempts");
+    }
+    paymentEventBus.publish(entry.merchantId(), payment);
+  }
+
+  /**
+   * Full-jitter exponential backoff: uniform between the base delay and
+   * {@code min(max, base * 2^attempts)}.
+   */
+  long backoffMillis(int attempts) {
+    long ceiling = baseBackoffMillis << Math.min(attempts, 30);
+    if (ceiling <= 0 || ceiling > maxBackoffMillis) {
+      ceiling = maxBackoffMillis;
+    }
+    return ThreadLocalRandom.current().nextLong(baseBackoffMillis, Math.max(ceiling,
+        baseBackoffMillis + 1));
+  }
+
+  /**
+   * @param outcome status the bank already decided, so only storing it remains; null while the
+   *     authorization itself is still to be sent
+   */
+  private record Queued(DeferredAuthorization entry, PaymentStatus outcome) implements Delayed {
+
+    Queued(DeferredAuthorization entry) {
+      this(entry, null);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(entry.nextAttemptAtMillis() - System.currentTimeMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(entry.nextAttemptAtMillis(),
+          ((Queued) other).entry().nextAttemptAtMillis());
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Sends the request through the {@link RestClient}'s message converters, i.e. Jackson.
+ */
+final class JacksonBankTransport implements BankTransport {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JacksonBankTransport.class);
+
+  @Override
+  public BankPaymentResponse exchange(RestClient restClient, BankPaymentRequest request) {
+    return restClient.post()
+        .uri("/payments")
+        .body(request)
+        .retrieve()
+        .onStatus(HttpStatusCode::is5xxServerError, (req, res) -> {
+          LOG.debug("Bank service unavailable with status {}", res.getStatusCode());
+          throw new BankUnavailableException(BankClient.UNAVAILABLE_MESSAGE);
+        })
+        .body(BankPaymentResponse.class);
+  }
+}
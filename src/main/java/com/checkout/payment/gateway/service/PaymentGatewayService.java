@@ -1,12 +1,32 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.bin.BinTable;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.deadline.Deadline;
+import com.checkout.payment.gateway.event.PaymentEventBus;
 import com.checkout.payment.gateway.exception.BankCommunicationException;
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.exception.DeadlineExceededException;
+import com.checkout.payment.gateway.exception.DuplicatePaymentInProgressException;
+import com.checkout.payment.gateway.exception.GatewayBusyException;
+import com.checkout.payment.gateway.fairness.MerchantFairQueue;
+import com.checkout.payment.gateway.jfr.BankAuthorizationEvent;
+import com.checkout.payment.gateway.jfr.PaymentPersistenceEvent;
+import com.checkout.payment.gateway.jfr.PaymentProcessedEvent;
+import com.checkout.payment.gateway.jfr.PaymentRejectedEvent;
+import com.checkout.payment.gateway.jfr.PaymentValidationEvent;
 import com.checkout.payment.gateway.model.BankPaymentRequest;
 import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.CardMetadata;
 import com.checkout.payment.gateway.model.PaymentResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
+import com.checkout.payment.gateway.monitoring.PaymentStage;
+import com.checkout.payment.gateway.monitoring.RequestTimings;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.risk.DuplicateKey;
+import com.checkout.payment.gateway.risk.DuplicatePaymentDetector;
+import com.checkout.payment.gateway.risk.VelocityChecker;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,24 +38,57 @@ import org.springframework.stereotype.Service;
  * Service responsible for orchestrating payment processing.
  * <p>
  * Handles validation, communicates with the bank, stores payments, and generates
- * {@link PaymentResponse} objects.
+ * {@link PaymentResponse} objects. Bank calls are admitted through the {@link MerchantFairQueue}
+ * so that one merchant's burst cannot starve the others. When store-and-forward is enabled, a
+ * payment the bank cannot be reached for is stored as PENDING and handed to the
+ * {@link DeferredAuthorizationService}; one the bank may already have processed is not, since
+ * sending it again could charge the card twice.
  */
 @Service
 public class PaymentGatewayService {
 
   private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayService.class);
+  static final String VELOCITY_EXCEEDED_ERROR =
+      "Too many payment attempts for this card. Please try again later.";
+  static final String DUPLICATE_IN_PROGRESS_ERROR =
+      "An identical payment is still being processed. Please retrieve it once it completes.";
+
   private final PaymentsRepository paymentsRepository;
   private final BankClient bankClient;
   private final PaymentRequestValidator paymentRequestValidator;
+  private final PaymentEventLogger paymentEventLogger;
+  private final PaymentEventBus paymentEventBus;
+  private final BinTable binTable;
+  private final VelocityChecker velocityChecker;
+  private final DuplicatePaymentDetector duplicatePaymentDetector;
+  private final DeferredAuthorizationService deferredAuthorizationService;
+  private final AsyncAuthorizationExecutor asyncAuthorizationExecutor;
+  private final MerchantFairQueue merchantFairQueue;
 
   public PaymentGatewayService(
       PaymentsRepository paymentsRepository,
       BankClient bankClient,
-      PaymentRequestValidator paymentRequestValidator
+      PaymentRequestValidator paymentRequestValidator,
+      PaymentEventLogger paymentEventLogger,
+      PaymentEventBus paymentEventBus,
+      BinTable binTable,
+      VelocityChecker velocityChecker,
+      DuplicatePaymentDetector duplicatePaymentDetector,
+      DeferredAuthorizationService deferredAuthorizationService,
+      AsyncAuthorizationExecutor asyncAuthorizationExecutor,
+      MerchantFairQueue merchantFairQueue
   ) {
     this.paymentsRepository = paymentsRepository;
     this.bankClient = bankClient;
     this.paymentRequestValidator = paymentRequestValidator;
+    this.paymentEventLogger = paymentEventLogger;
+    this.paymentEventBus = paymentEventBus;
+    this.binTable = binTable;
+    this.velocityChecker = velocityChecker;
+    this.duplicatePaymentDetector = duplicatePaymentDetector;
+    this.deferredAuthorizationService = deferredAuthorizationService;
+    this.asyncAuthorizationExecutor = asyncAuthorizationExecutor;
+    this.merchantFairQueue = merchantFairQueue;
   }
 
   public Optional<PaymentResponse> getPaymentById(UUID id) {
@@ -43,61 +96,379 @@ public class PaymentGatewayService {
     return paymentsRepository.get(id);
   }
 
+  /**
+   * Retrieves a payment on behalf of a merchant.
+   *
+   * @param merchantId identifier of the requesting merchant, may be null
+   * @return the payment, or empty if it does not exist or belongs to another merchant
+   */
+  public Optional<PaymentResponse> getPaymentById(UUID id, String merchantId) {
+    Optional<PaymentResponse> payment = getPaymentById(id);
+    if (payment.isPresent() && !payment.get().isVisibleTo(merchantId)) {
+      LOG.debug("Payment {} is not visible to the requesting merchant", id);
+      return Optional.empty();
+    }
+    return payment;
+  }
+
+  /**
+   * Processes a payment that is not attributed to any merchant.
+   */
   public PaymentResponse processPayment(PostPaymentRequest paymentRequest) {
-    List<String> errors = paymentRequestValidator.validate(paymentRequest);
+    return processPayment(paymentRequest, null);
+  }
+
+  /**
+   * Processes a payment on behalf of a merchant without a deadline.
+   */
+  public PaymentResponse processPayment(PostPaymentRequest paymentRequest, String merchantId) {
+    return processPayment(paymentRequest, merchantId, Deadline.none());
+  }
 
+  /**
+   * Processes a payment on behalf of a merchant and publishes the outcome on the
+   * {@link PaymentEventBus}.
+   * <p>
+   * The deadline bounds the wait for, and the call to, the acquirer. A request whose deadline
+   * passes before the acquirer is contacted is abandoned with {@link DeadlineExceededException};
+   * once the acquirer has answered, the outcome is stored even if the caller has gone, because
+   * the authorization has already happened.
+   *
+   * @param merchantId identifier of the submitting merchant, may be null
+   */
+  public PaymentResponse processPayment(PostPaymentRequest paymentRequest, String merchantId,
+      Deadline deadline) {
+    PaymentProcessedEvent event = new PaymentProcessedEvent();
+    event.begin();
+    PaymentResponse response = null;
+    try {
+      response = authorizeAndStore(paymentRequest, merchantId, deadline);
+      return response;
+    } finally {
+      event.complete(
+          response != null && response.id() != null ? response.id().toString() : null,
+          response != null ? response.status().getName() : "Failed",
+          paymentRequest.currency(),
+          amountOf(paymentRequest));
+    }
+  }
+
+  private PaymentResponse authorizeAndStore(PostPaymentRequest paymentRequest, String merchantId,
+      Deadline deadline) {
+    List<String> errors = validate(paymentRequest, merchantId);
     if (!errors.isEmpty()) {
-      LOG.warn("Payment request rejected due to validation errors: {}", errors);
+      return reject(errors, merchantId);
+    }
 
-      return new PaymentResponse(
-          null,
-          PaymentStatus.REJECTED,
-          null,
-          null,
-          null,
-          null,
-          null,
-          errors
-      );
+    PreparedPayment prepared = prepare(paymentRequest, merchantId);
+    Optional<PaymentResponse> screened = screen(prepared);
+    if (screened.isPresent()) {
+      return screened.get();
     }
 
-    UUID paymentId = UUID.randomUUID();
+    try {
+      if (deadline.isExpired()) {
+        throw new DeadlineExceededException(
+            "Request deadline passed before the payment reached the acquiring bank",
+            PaymentStage.VALIDATION);
+      }
+      return complete(prepared, authorize(prepared, deadline, true));
+    } finally {
+      duplicatePaymentDetector.release(prepared.duplicateKey(), prepared.id());
+    }
+  }
+
+  /**
+   * @return true if payments may be accepted for asynchronous authorization
+   */
+  public boolean supportsAsync() {
+    return asyncAuthorizationExecutor.isEnabled();
+  }
+
+  /**
+   * Accepts a payment for asynchronous authorization.
+   * <p>
+   * Validation and risk screening run synchronously, so rejections are still reported
+   * immediately. An accepted payment is stored as PENDING and returned at once; the bank is
+   * called on the {@link AsyncAuthorizationExecutor} and the final status replaces the pending
+   * record. A payment the gateway could not get an answer for is handed to the
+   * {@link DeferredAuthorizationService} when store-and-forward is enabled, and stored as FAILED
+   * otherwise, never as DECLINED.
+   *
+   * @param merchantId identifier of the submitting merchant, may be null
+   * @throws GatewayBusyException if the asynchronous pipeline is full
+   */
+  public PaymentResponse acceptPayment(PostPaymentRequest paymentRequest, String merchantId) {
+    List<String> errors = validate(paymentRequest, merchantId);
+    if (!errors.isEmpty()) {
+      return reject(errors, merchantId);
+    }
+
+    PreparedPayment prepared = prepare(paymentRequest, merchantId);
+    Optional<PaymentResponse> screened = screen(prepared);
+    if (screened.isPresent()) {
+      return screened.get();
+    }
+
+    PaymentResponse accepted;
+    try {
+      if (!asyncAuthorizationExecutor.tryReserve()) {
+        throw new GatewayBusyException("Payment gateway is busy. Please try again later.");
+      }
+      try {
+        accepted = store(prepared, paymentOf(prepared, PaymentStatus.PENDING));
+      } catch (RuntimeException ex) {
+        asyncAuthorizationExecutor.release();
+        throw ex;
+      }
+    } finally {
+      duplicatePaymentDetector.release(prepared.duplicateKey(), prepared.id());
+    }
+
+    try {
+      paymentEventBus.publish(merchantId, accepted);
+      asyncAuthorizationExecutor.execute(() -> completeAccepted(prepared));
+    } catch (RuntimeException ex) {
+      asyncAuthorizationExecutor.release();
+      // The pending payment is stored, but nothing is going to authorize it
+      LOG.error("Accepted payment {} could not be queued for authorization", prepared.id(), ex);
+      try {
+        complete(prepared, PaymentStatus.FAILED);
+      } catch (RuntimeException storeFailure) {
+        ex.addSuppressed(storeFailure);
+      }
+      throw ex;
+    }
+    return accepted;
+  }
+
+  /**
+   * Authorizes an accepted payment on a worker. A failure to get an answer replaces the pending
+   * record with a FAILED one, so the payment is never left pending without a retry behind it. A
+   * failure to store an answer the bank did give is logged for reconciliation instead: the
+   * payment was authorized or declined, and reporting it as FAILED would be wrong.
+   */
+  private void completeAccepted(PreparedPayment prepared) {
     PaymentStatus status;
-    String lastFourDigits = paymentRequest.cardNumberLastFour();
+    try {
+      status = authorize(prepared, Deadline.none(), false);
+    } catch (RuntimeException ex) {
+      LOG.error("Authorization of accepted payment {} failed", prepared.id(), ex);
+      status = PaymentStatus.FAILED;
+    }
+    if (status == PaymentStatus.PENDING) {
+      try {
+        complete(prepared, status);
+        return;
+      } catch (RuntimeException ex) {
+        // The bank never answered and nothing will retry it
+        LOG.error("Deferral of accepted payment {} failed", prepared.id(), ex);
+        status = PaymentStatus.FAILED;
+      }
+    }
+    try {
+      complete(prepared, status);
+    } catch (RuntimeException ex) {
+      LOG.error("Unable to store {} outcome of accepted payment {}, needs reconciliation",
+          status.getName(), prepared.id(), ex);
+    }
+  }
 
-    LOG.debug("Processing payment request for card ending in {}", lastFourDigits);
+  private List<String> validate(PostPaymentRequest paymentRequest, String merchantId) {
+    PaymentValidationEvent event = new PaymentValidationEvent();
+    event.begin();
+    long validationStart = RequestTimings.start();
+    List<String> errors = paymentRequestValidator.validate(paymentRequest, merchantId);
+    RequestTimings.stop(PaymentStage.VALIDATION, validationStart);
+    event.complete(paymentRequest.currency(), errors.size());
+    return errors;
+  }
 
-      BankPaymentRequest bankRequest = new BankPaymentRequest(
-          paymentRequest.cardNumber(),
-          paymentRequest.expiryDate(),
-          paymentRequest.currency(),
-          paymentRequest.amount(),
-          paymentRequest.cvv()
-      );
-
-      BankPaymentResponse bankResponse = bankClient.authorizePayment(bankRequest);
-
-      if (bankResponse.authorized()) {
-        status = PaymentStatus.AUTHORIZED;
-        LOG.info("Payment {} authorized by bank", paymentId);
-      } else {
-        status = PaymentStatus.DECLINED;
-        LOG.info("Payment {} declined by bank", paymentId);
+  private PreparedPayment prepare(PostPaymentRequest paymentRequest, String merchantId) {
+    CardMetadata cardMetadata = binTable.lookup(paymentRequest.cardNumber());
+    BankPaymentRequest bankRequest = new BankPaymentRequest(
+        paymentRequest.cardNumber(),
+        paymentRequest.expiryDate(),
+        paymentRequest.currency(),
+        paymentRequest.amount(),
+        paymentRequest.cvv(),
+        cardMetadata
+    );
+    return new PreparedPayment(UUID.randomUUID(), merchantId, paymentRequest, cardMetadata,
+        bankRequest, DuplicateKey.of(paymentRequest, merchantId));
+  }
+
+  /**
+   * Applies duplicate detection and velocity limits. A payment that passes holds the reservation
+   * of its duplicate key, which the caller must release if the payment is not stored.
+   *
+   * @return the response to return instead of authorizing, if any
+   * @throws DuplicatePaymentInProgressException if an identical payment is still at the bank
+   */
+  private Optional<PaymentResponse> screen(PreparedPayment prepared) {
+    Optional<UUID> originalId = duplicatePaymentDetector.reserve(prepared.duplicateKey(),
+        prepared.id());
+    if (originalId.isPresent()) {
+      PaymentResponse original = paymentsRepository.get(originalId.get())
+          .orElseThrow(() -> new DuplicatePaymentInProgressException(
+              DUPLICATE_IN_PROGRESS_ERROR));
+      LOG.debug("Payment request is a duplicate of payment {}", original.id());
+      return Optional.of(original);
+    }
+
+    if (!velocityChecker.recordAttempt(prepared.request().cardNumber())) {
+      duplicatePaymentDetector.release(prepared.duplicateKey(), prepared.id());
+      return Optional.of(reject(List.of(VELOCITY_EXCEEDED_ERROR), prepared.merchantId()));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Sends the payment to the bank.
+   *
+   * @param propagateFailure whether a bank failure should be thrown to the caller when it
+   *     cannot be deferred; otherwise the payment fails
+   * @return the resulting status, PENDING if the authorization is to be deferred
+   */
+  private PaymentStatus authorize(PreparedPayment prepared, Deadline deadline,
+      boolean propagateFailure) {
+    LOG.debug("Processing payment request for card ending in {}",
+        prepared.request().cardNumberLastFour());
+    try {
+      BankPaymentResponse bankResponse = merchantFairQueue.call(prepared.merchantId(), deadline,
+          () -> callBank(prepared, deadline));
+      return bankResponse.authorized() ? PaymentStatus.AUTHORIZED : PaymentStatus.DECLINED;
+    } catch (BankCommunicationException ex) {
+      if (ex instanceof BankUnavailableException && deferredAuthorizationService.isEnabled()) {
+        return PaymentStatus.PENDING;
+      }
+      if (!(ex instanceof BankUnavailableException)) {
+        LOG.warn("Outcome of payment {} at the bank is unknown, needs reconciliation",
+            prepared.id());
+      }
+      if (propagateFailure) {
+        throw ex;
+      }
+      paymentEventLogger.bankError(ex.getMessage());
+      return PaymentStatus.FAILED;
+    } catch (GatewayBusyException ex) {
+      if (propagateFailure) {
+        throw ex;
       }
+      if (deferredAuthorizationService.isEnabled()) {
+        return PaymentStatus.PENDING;
+      }
+      LOG.warn("Accepted payment {} failed: {}", prepared.id(), ex.getMessage());
+      return PaymentStatus.FAILED;
+    }
+  }
 
-    PaymentResponse payment = new PaymentResponse(
-        paymentId,
+  private BankPaymentResponse callBank(PreparedPayment prepared, Deadline deadline) {
+    BankAuthorizationEvent event = new BankAuthorizationEvent();
+    event.begin();
+    String outcome = "Failed";
+    try {
+      BankPaymentResponse response = bankClient.authorizePayment(prepared.bankRequest(), deadline);
+      outcome = response.authorized()
+          ? PaymentStatus.AUTHORIZED.getName()
+          : PaymentStatus.DECLINED.getName();
+      return response;
+    } catch (RuntimeException ex) {
+      outcome = ex.getClass().getSimpleName();
+      throw ex;
+    } finally {
+      event.complete(prepared.id().toString(), outcome, prepared.request().currency(),
+          amountOf(prepared.request()));
+    }
+  }
+
+  private PaymentResponse complete(PreparedPayment prepared, PaymentStatus status) {
+    PaymentResponse payment = paymentOf(prepared, status);
+    switch (status) {
+      case AUTHORIZED -> {
+        store(prepared, payment);
+        paymentEventLogger.authorized(payment.id(), payment.cardNumberLastFour(),
+            payment.currency(), payment.amount());
+      }
+      case DECLINED -> {
+        store(prepared, payment);
+        paymentEventLogger.declined(payment.id(), payment.cardNumberLastFour(),
+            payment.currency(), payment.amount());
+      }
+      case FAILED -> store(prepared, payment);
+      default -> deferredAuthorizationService.defer(prepared.merchantId(),
+          prepared.bankRequest(), payment, () -> store(prepared, payment));
+    }
+    paymentEventBus.publish(prepared.merchantId(), payment);
+    return payment;
+  }
+
+  private static PaymentResponse paymentOf(PreparedPayment prepared, PaymentStatus status) {
+    PostPaymentRequest paymentRequest = prepared.request();
+    CardMetadata cardMetadata = prepared.cardMetadata();
+    return new PaymentResponse(
+        prepared.id(),
         status,
-        lastFourDigits,
+        paymentRequest.cardNumberLastFour(),
         paymentRequest.expiryMonth(),
         paymentRequest.expiryYear(),
         paymentRequest.currency(),
         paymentRequest.amount(),
-        null
+        null,
+        cardMetadata != null ? cardMetadata.scheme() : null,
+        cardMetadata != null ? cardMetadata.issuerCountry() : null,
+        null,
+        prepared.merchantId()
     );
+  }
 
+  private PaymentResponse store(PreparedPayment prepared, PaymentResponse payment) {
+    PaymentPersistenceEvent event = new PaymentPersistenceEvent();
+    event.begin();
+    long storageStart = RequestTimings.start();
     paymentsRepository.add(payment);
-
+    RequestTimings.stop(PaymentStage.STORAGE, storageStart);
+    event.complete(payment.id().toString(), payment.status().getName(), payment.currency());
+    if (payment.status() == PaymentStatus.FAILED) {
+      // The bank never answered, so a retry of the same payment must reach it
+      duplicatePaymentDetector.forget(prepared.duplicateKey(), payment.id());
+    } else {
+      duplicatePaymentDetector.record(prepared.duplicateKey(), payment.id());
+    }
     return payment;
   }
+
+  private PaymentResponse reject(List<String> errors, String merchantId) {
+    paymentEventLogger.rejected(errors);
+    new PaymentRejectedEvent().complete(errors);
+
+    PaymentResponse rejected = new PaymentResponse(
+        null,
+        PaymentStatus.REJECTED,
+        null,
+        null,
+        null,
+        null,
+        null,
+        errors
+    );
+    paymentEventBus.publish(merchantId, rejected);
+    return rejected;
+  }
+
+  private static int amountOf(PostPaymentRequest paymentRequest) {
+    return paymentRequest.amount() != null ? paymentRequest.amount() : 0;
+  }
+
+  /**
+   * A validated payment with everything needed to authorize and store it.
+   */
+  private record PreparedPayment(
+      UUID id,
+      String merchantId,
+      PostPaymentRequest request,
+      CardMetadata cardMetadata,
+      BankPaymentRequest bankRequest,
+      DuplicateKey duplicateKey
+  ) {}
 }
@@ -0,0 +1,135 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.exception.InvalidRefundAmountException;
+import com.checkout.payment.gateway.exception.PaymentStateConflictException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service responsible for operations on a payment after it has been authorized.
+ * <p>
+ * The lifecycle is a small state machine: an AUTHORIZED payment may be captured or voided, and a
+ * CAPTURED or PARTIALLY_REFUNDED payment may be refunded until the refunds add up to the
+ * captured amount, at which point it is REFUNDED.
+ * <p>
+ * Each operation is a pure function from the current snapshot to the next, applied by
+ * {@link PaymentsRepository#update} with compare-and-set. When two operations race on the same
+ * payment, one is applied first and the other is re-evaluated against its result, so e.g. a
+ * capture racing a void yields exactly one of them and a {@link PaymentStateConflictException}
+ * for the other, and concurrent refunds can never exceed the captured amount.
+ * <p>
+ * A payment owned by another merchant is reported as not found, as on retrieval.
+ */
+@Service
+public class PaymentLifecycleService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentLifecycleService.class);
+
+  private final PaymentsRepository paymentsRepository;
+  private final PaymentEventBus paymentEventBus;
+
+  public PaymentLifecycleService(
+      PaymentsRepository paymentsRepository,
+      PaymentEventBus paymentEventBus
+  ) {
+    this.paymentsRepository = paymentsRepository;
+    this.paymentEventBus = paymentEventBus;
+  }
+
+  /**
+   * Captures the full authorized amount.
+   *
+   * @return the captured payment, or empty if the payment does not exist or belongs to another
+   *     merchant
+   * @throws PaymentStateConflictException if the payment is not AUTHORIZED
+   */
+  public Optional<PaymentResponse> capture(UUID id, String merchantId) {
+    return apply(id, merchantId, "capture", PaymentLifecycleService::captured);
+  }
+
+  /**
+   * Voids an authorization that has not been captured.
+   *
+   * @return the voided payment, or empty if the payment does not exist or belongs to another
+   *     merchant
+   * @throws PaymentStateConflictException if the payment is not AUTHORIZED
+   */
+  public Optional<PaymentResponse> voidPayment(UUID id, String merchantId) {
+    return apply(id, merchantId, "void", PaymentLifecycleService::voided);
+  }
+
+  /**
+   * Refunds part or all of the captured amount that has not been refunded yet.
+   *
+   * @return the refunded payment, or empty if the payment does not exist or belongs to another
+   *     merchant
+   * @throws InvalidRefundAmountException if the amount is missing or not positive
+   * @throws PaymentStateConflictException if the payment is not captured, or the amount exceeds
+   *     what is left to refund
+   */
+  public Optional<PaymentResponse> refund(UUID id, Integer amount, String merchantId) {
+    if (amount == null || amount <= 0) {
+      throw new InvalidRefundAmountException("Refund amount must be a positive integer");
+    }
+    return apply(id, merchantId, "refund", payment -> refunded(payment, amount));
+  }
+
+  private Optional<PaymentResponse> apply(UUID id, String merchantId, String operation,
+      UnaryOperator<PaymentResponse> transition) {
+    if (!paymentsRepository.isVisibleTo(id, merchantId)) {
+      LOG.debug("Refusing {} of payment {} for a merchant that does not own it", operation, id);
+      return Optional.empty();
+    }
+    Optional<PaymentResponse> updated = paymentsRepository.update(id, transition);
+    updated.ifPresent(payment -> {
+      LOG.debug("Applied {} to payment {}, now {}", operation, id, payment.status());
+      paymentEventBus.publish(merchantId, payment);
+    });
+    return updated;
+  }
+
+  private static PaymentResponse captured(PaymentResponse payment) {
+    requireStatus(payment, "captured", PaymentStatus.AUTHORIZED);
+    return payment.withStatus(PaymentStatus.CAPTURED, 0);
+  }
+
+  private static PaymentResponse voided(PaymentResponse payment) {
+    requireStatus(payment, "voided", PaymentStatus.AUTHORIZED);
+    return payment.withStatus(PaymentStatus.VOIDED, payment.refundedAmount());
+  }
+
+  private static PaymentResponse refunded(PaymentResponse payment, int amount) {
+    requireStatus(payment, "refunded", PaymentStatus.CAPTURED, PaymentStatus.PARTIALLY_REFUNDED);
+    int alreadyRefunded = payment.refundedAmount() != null ? payment.refundedAmount() : 0;
+    int refundable = payment.amount() - alreadyRefunded;
+    // Compared against what is left rather than summed, so a huge amount cannot overflow past it
+    if (amount > refundable) {
+      throw new PaymentStateConflictException("Refund of " + amount + " exceeds the "
+          + refundable + " left to refund");
+    }
+    int refunded = alreadyRefunded + amount;
+    PaymentStatus status = refunded == payment.amount()
+        ? PaymentStatus.REFUNDED
+        : PaymentStatus.PARTIALLY_REFUNDED;
+    return payment.withStatus(status, refunded);
+  }
+
+  private static void requireStatus(PaymentResponse payment, String action,
+      PaymentStatus... allowed) {
+    for (PaymentStatus status : allowed) {
+      if (payment.status() == status) {
+        return;
+      }
+    }
+    throw new PaymentStateConflictException(
+        "Payment with status " + payment.status().getName() + " cannot be " + action);
+  }
+}
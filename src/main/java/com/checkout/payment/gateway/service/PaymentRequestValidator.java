@@ -1,37 +1,60 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.bin.BinTable;
+import com.checkout.payment.gateway.model.CardMetadata;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.validation.ValidationRuleTable;
+import com.checkout.payment.gateway.validation.ValidationRules;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * Validator for {@link PostPaymentRequest}.
  * <p>
- * Handles card, CVV, amount, currency, and expiry date validation.
+ * Handles card, CVV, amount, currency, and expiry date validation. Supported currencies and card
+ * and CVV lengths come from the {@link ValidationRuleTable}, resolved for the merchant and the
+ * card's scheme.
  */
 @Component
 public class PaymentRequestValidator {
 
-  private static final Set<String> SUPPORTED_CURRENCIES = Set.of("USD", "GBP", "EUR");
-  private static final int MIN_CARD_LENGTH = 14;
-  private static final int MAX_CARD_LENGTH = 19;
-  private static final int MIN_CVV_LENGTH = 3;
-  private static final int MAX_CVV_LENGTH = 4;
+  private final ValidationRuleTable ruleTable;
+  private final BinTable binTable;
+
+  /**
+   * Validates against the built-in rules only.
+   */
+  public PaymentRequestValidator() {
+    this(null, null);
+  }
+
+  @Autowired
+  public PaymentRequestValidator(ValidationRuleTable ruleTable, BinTable binTable) {
+    this.ruleTable = ruleTable;
+    this.binTable = binTable;
+  }
 
   public List<String> validate(PostPaymentRequest request) {
+    return validate(request, null);
+  }
+
+  /**
+   * @param merchantId identifier of the submitting merchant, may be null
+   */
+  public List<String> validate(PostPaymentRequest request, String merchantId) {
     List<String> errors = new ArrayList<>();
+    ValidationRules.Rule rule = ruleFor(request, merchantId);
 
     // Card number
     String card = request.cardNumber();
     if (card == null || card.isBlank()) {
       errors.add("Card number is required");
     } else {
-      if (!card.matches("\\d+")) errors.add("Card number must contain only numeric characters");
-      if (card.length() < MIN_CARD_LENGTH || card.length() > MAX_CARD_LENGTH)
-        errors.add("Card number must be between 14-19 characters");
+      if (!isDigits(card)) errors.add("Card number must contain only numeric characters");
+      if (!rule.allowsCardLength(card.length())) errors.add(rule.cardLengthError());
     }
 
     // Expiry date
@@ -48,8 +71,8 @@ public class PaymentRequestValidator {
     String currency = request.currency();
     if (currency == null || currency.isBlank()) {
       errors.add("Currency is required");
-    } else if (currency.length() != 3 || !SUPPORTED_CURRENCIES.contains(currency.toUpperCase())) {
-      errors.add("Currency must be one of: " + SUPPORTED_CURRENCIES);
+    } else if (!rule.allowsCurrency(currency)) {
+      errors.add(rule.currencyError());
     }
 
     // Amount
@@ -60,10 +83,24 @@ public class PaymentRequestValidator {
     String cvv = request.cvv();
     if (cvv == null || cvv.isBlank()) {
       errors.add("CVV is required");
-    } else if (!cvv.matches("\\d{" + MIN_CVV_LENGTH + "," + MAX_CVV_LENGTH + "}")) {
-      errors.add("CVV must be 3-4 digits");
+    } else if (!isDigits(cvv) || !rule.allowsCvvLength(cvv.length())) {
+      errors.add(rule.cvvError());
     }
 
     return errors;
   }
+
+  private ValidationRules.Rule ruleFor(PostPaymentRequest request, String merchantId) {
+    ValidationRules rules = ruleTable != null ? ruleTable.rules() : ValidationRules.DEFAULT;
+    CardMetadata card = binTable != null ? binTable.lookup(request.cardNumber()) : null;
+    return rules.ruleFor(merchantId, card != null ? card.scheme() : null);
+  }
+
+  private static boolean isDigits(String value) {
+    int nonDigits = 0;
+    for (int i = 0; i < value.length(); i++) {
+      nonDigits |= (value.charAt(i) - '0') | ('9' - value.charAt(i));
+    }
+    return nonDigits >= 0;
+  }
 }
@@ -0,0 +1,91 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import java.util.concurrent.ArrayBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Writes the request JSON straight from its fields into a pooled buffer and parses the response
+ * from the body stream into the same buffer, bypassing the {@link RestClient}'s message
+ * converters.
+ * <p>
+ * The request is sent with a known content length, so the HTTP client streams the buffer to the
+ * connection without copying it. Apart from the response record and its authorization code, an
+ * exchange allocates nothing in the codec; codecs are borrowed from a bounded pool and a new one
+ * is created only when every pooled codec is in use. A codec whose buffer grew past
+ * {@code maxPooledBufferBytes} is dropped instead of returned, so one large response does not
+ * pin a large buffer in the pool.
+ */
+final class PooledBankTransport implements BankTransport {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PooledBankTransport.class);
+
+  private final ArrayBlockingQueue<BankJsonCodec> pool;
+  private final int bufferBytes;
+  private final int maxPooledBufferBytes;
+  private final int maxResponseBytes;
+
+  PooledBankTransport(int poolSize, int bufferBytes, int maxPooledBufferBytes,
+      int maxResponseBytes) {
+    if (maxPooledBufferBytes < bufferBytes) {
+      throw new IllegalArgumentException("Pooled buffer limit " + maxPooledBufferBytes
+          + " is below the buffer size " + bufferBytes);
+    }
+    this.pool = new ArrayBlockingQueue<>(poolSize);
+    this.bufferBytes = bufferBytes;
+    this.maxPooledBufferBytes = maxPooledBufferBytes;
+    this.maxResponseBytes = maxResponseBytes;
+  }
+
+  @Override
+  public BankPaymentResponse exchange(RestClient restClient, BankPaymentRequest request) {
+    BankJsonCodec codec = acquire();
+    try {
+      int length = codec.encode(request);
+      return restClient.post()
+          .uri("/payments")
+          .contentType(MediaType.APPLICATION_JSON)
+          .contentLength(length)
+          .body(body -> body.write(codec.buffer(), 0, length))
+          .exchange((req, res) -> {
+            HttpStatusCode status = res.getStatusCode();
+            if (status.is5xxServerError()) {
+              LOG.debug("Bank service unavailable with status {}", status);
+              throw new BankUnavailableException(BankClient.UNAVAILABLE_MESSAGE);
+            }
+            if (status.isError()) {
+              throw HttpClientErrorException.create(status, res.getStatusText(),
+                  res.getHeaders(), null, null);
+            }
+            return codec.decode(res.getBody());
+          });
+    } finally {
+      release(codec);
+    }
+  }
+
+  private BankJsonCodec acquire() {
+    BankJsonCodec codec = pool.poll();
+    return codec != null ? codec : new BankJsonCodec(bufferBytes, maxResponseBytes);
+  }
+
+  private void release(BankJsonCodec codec) {
+    if (codec.buffer().length <= maxPooledBufferBytes) {
+      pool.offer(codec);
+    }
+  }
+
+  /**
+   * @return number of idle codecs in the pool
+   */
+  int pooled() {
+    return pool.size();
+  }
+}
@@ -0,0 +1,18 @@
+package com.checkout.payment.gateway.settlement;
+
+/**
+ * Settlement totals for one currency, in minor units.
+ *
+ * @param count settled payments
+ * @param amount sum of their authorized amounts
+ * @param refundedAmount sum of the amounts refunded from them
+ * @param netAmount amount less refunds
+ */
+public record CurrencyTotals(
+    String currency,
+    long count,
+    long amount,
+    long refundedAmount,
+    long netAmount
+) {
+}
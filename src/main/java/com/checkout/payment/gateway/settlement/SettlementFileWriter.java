@@ -0,0 +1,213 @@
+package com.checkout.payment.gateway.settlement;
+
+import com.checkout.payment.gateway.validation.ValidationRules;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a gzip-compressed settlement CSV in bounded memory.
+ * <p>
+ * Detail lines arrive in any order from many threads and are appended to one spill file per
+ * currency through a small buffered {@link FileChannel}. {@link #finish(Path, ForkJoinPool)}
+ * then compresses every currency into its own gzip member in parallel, closing it with the
+ * currency's total line, and concatenates the members behind a header member. A concatenation
+ * of gzip members is itself a valid gzip file, so the result reads as one CSV grouped by
+ * currency.
+ */
+final class SettlementFileWriter implements AutoCloseable {
+
+  static final String HEADER =
+      "record_type,currency,payment_id,status,count,amount,refunded_amount,net_amount\n";
+
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  private final Path workDirectory;
+  private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+  SettlementFileWriter(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    this.workDirectory = Files.createTempDirectory(directory, "settlement-");
+  }
+
+  /**
+   * Appends detail lines for one currency and adds them to its totals. Thread-safe.
+   *
+   * @param currency three-letter currency code, which names the spill file
+   */
+  void append(String currency, byte[] lines, int length, long count, long amount,
+      long refundedAmount) throws IOException {
+    if (ValidationRules.currencyIndex(currency) < 0) {
+      throw new IllegalArgumentException("Not a three-letter currency code: " + currency);
+    }
+    Partition partition;
+    try {
+      partition = partitions.computeIfAbsent(currency, this::openPartition);
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    partition.append(lines, length, count, amount, refundedAmount);
+  }
+
+  /**
+   * Compresses every currency on {@code pool} and moves the assembled file to {@code target}.
+   *
+   * @return totals per currency, in the order they appear in the file
+   */
+  List<CurrencyTotals> finish(Path target, ForkJoinPool pool) throws IOException {
+    List<Partition> ordered = new ArrayList<>(partitions.values());
+    ordered.sort(Comparator.comparing(partition -> partition.currency));
+    List<Callable<Path>> compressions = new ArrayList<>();
+    for (Partition partition : ordered) {
+      compressions.add(partition::compress);
+    }
+    List<Path> members = new ArrayList<>();
+    for (Future<Path> member : pool.invokeAll(compressions)) {
+      try {
+        members.add(member.get());
+      } catch (ExecutionException ex) {
+        throw ex.getCause() instanceof IOException io ? io : new IOException(ex.getCause());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while compressing settlement file", ex);
+      }
+    }
+
+    Path assembled = workDirectory.resolve("settlement.csv.gz");
+    try (FileChannel out = FileChannel.open(assembled, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.WRITE)) {
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      try (OutputStream gzip = new GZIPOutputStream(header)) {
+        gzip.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+      }
+      ByteBuffer headerBytes = ByteBuffer.wrap(header.toByteArray());
+      while (headerBytes.hasRemaining()) {
+        out.write(headerBytes);
+      }
+      for (Path member : members) {
+        try (FileChannel in = FileChannel.open(member, StandardOpenOption.READ)) {
+          long size = in.size();
+          for (long position = 0; position < size; ) {
+            position += in.transferTo(position, size - position, out);
+          }
+        }
+      }
+    }
+    Files.move(assembled, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return ordered.stream().map(Partition::totals).toList();
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (Partition partition : partitions.values()) {
+      partition.channel.close();
+    }
+    try (Stream<Path> files = Files.list(workDirectory)) {
+      for (Path file : files.toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Files.deleteIfExists(workDirectory);
+  }
+
+  private Partition openPartition(String currency) {
+    try {
+      return new Partition(currency, workDirectory.resolve(currency + ".csv"));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private final class Partition {
+
+    private final String currency;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long count;
+    private long amount;
+    private long refundedAmount;
+
+    private Partition(String currency, Path spill) throws IOException {
+      this.currency = currency;
+      this.channel = FileChannel.open(spill, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private synchronized void append(byte[] lines, int length, long count, long amount,
+        long refundedAmount) throws IOException {
+      if (length > buffer.remaining()) {
+        flush();
+      }
+      if (length > buffer.capacity()) {
+        writeFully(ByteBuffer.wrap(lines, 0, length));
+      } else {
+        buffer.put(lines, 0, length);
+      }
+      this.count += count;
+      this.amount += amount;
+      this.refundedAmount += refundedAmount;
+    }
+
+    private synchronized Path compress() throws IOException {
+      flush();
+      Path member = workDirectory.resolve(currency + ".gz");
+      try (FileChannel out = FileChannel.open(member, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.WRITE);
+          OutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(out),
+              BUFFER_BYTES)) {
+        byte[] chunk = new byte[BUFFER_BYTES];
+        ByteBuffer view = ByteBuffer.wrap(chunk);
+        channel.position(0);
+        int read;
+        while ((read = channel.read(view.clear())) != -1) {
+          gzip.write(chunk, 0, read);
+        }
+        gzip.write(totalLine().getBytes(StandardCharsets.US_ASCII));
+      }
+      return member;
+    }
+
+    private synchronized CurrencyTotals totals() {
+      return new CurrencyTotals(currency, count, amount, refundedAmount,
+          amount - refundedAmount);
+    }
+
+    private String totalLine() {
+      return "T," + currency + ",,," + count + "," + amount + "," + refundedAmount + ","
+          + (amount - refundedAmount) + "\n";
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      writeFully(buffer);
+      buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    }
+  }
+}
@@ -0,0 +1,346 @@
+package com.checkout.payment.gateway.settlement;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.validation.ValidationRules;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * End-of-day settlement: writes every authorized payment to a gzip-compressed CSV file grouped by
+ * currency, with a total line per currency.
+ * <p>
+ * The repository is scanned as a stream and cut into chunks of
+ * {@code gateway.settlement.chunk-size} payments, which a fork/join pool splits further and
+ * formats in parallel. At most a few chunks per worker are in flight, so memory stays bounded
+ * however many payments there are; lines are spilled to disk per currency and only assembled
+ * into {@code settlement-<date>.csv.gz} in {@code gateway.settlement.directory} at the end. The
+ * file is a snapshot of the payments held when the run started; payments changed during the scan
+ * may or may not be included.
+ * <p>
+ * Payments are settled when the bank authorized them and they have not been voided. Each payment
+ * is settled once: the {@link SettlementLedger} records the date it went out on, and later dates
+ * leave it out, while a repeated run for the same date reproduces the same file. A payment
+ * without a valid three-letter currency is skipped and counted in the report. Runs are started
+ * by {@code gateway.settlement.cron}, disabled by default, or by an administrator; only one runs
+ * at a time.
+ */
+@Component
+public class SettlementJob {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SettlementJob.class);
+
+  private static final Set<PaymentStatus> SETTLED = EnumSet.of(PaymentStatus.AUTHORIZED,
+      PaymentStatus.CAPTURED, PaymentStatus.PARTIALLY_REFUNDED, PaymentStatus.REFUNDED);
+  private static final int LEAF_SIZE = 512;
+  private static final int CHUNKS_PER_WORKER = 2;
+
+  private final PaymentsRepository repository;
+  private final Path directory;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+  private final long progressInterval;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final LongAdder settled = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private SettlementLedger ledger;
+  private volatile long scanned;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile SettlementReport report;
+  private volatile String error;
+
+  public SettlementJob(
+      PaymentsRepository repository,
+      @Value("${gateway.settlement.directory:settlement}") String directory,
+      @Value("${gateway.settlement.parallelism:0}") int parallelism,
+      @Value("${gateway.settlement.chunk-size:8192}") int chunkSize,
+      @Value("${gateway.settlement.progress-interval:1000000}") long progressInterval
+  ) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Settlement chunk size must be positive: " + chunkSize);
+    }
+    if (progressInterval <= 0) {
+      throw new IllegalArgumentException(
+          "Settlement progress interval must be positive: " + progressInterval);
+    }
+    this.repository = repository;
+    this.directory = Path.of(directory);
+    this.pool = new ForkJoinPool(
+        parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.chunkSize = chunkSize;
+    this.progressInterval = progressInterval;
+  }
+
+  @Scheduled(cron = "${gateway.settlement.cron:-}", zone = "UTC")
+  public void runScheduled() {
+    if (!start()) {
+      LOG.warn("Skipping scheduled settlement, the previous run is still in progress");
+    }
+  }
+
+  /**
+   * Starts a settlement for today (UTC) in the background.
+   *
+   * @return false if a run is already in progress
+   */
+  public boolean start() {
+    if (!running.compareAndSet(false, true)) {
+      return false;
+    }
+    Thread worker = new Thread(() -> {
+      try {
+        settle(LocalDate.now(ZoneOffset.UTC));
+      } catch (IOException | RuntimeException ex) {
+        LOG.error("Settlement failed", ex);
+      }
+    }, "settlement");
+    worker.setDaemon(true);
+    worker.start();
+    return true;
+  }
+
+  /**
+   * Runs a settlement for {@code date} on the calling thread.
+   *
+   * @throws IllegalStateException if a run is already in progress
+   */
+  public SettlementReport run(LocalDate date) throws IOException {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("A settlement is already in progress");
+    }
+    return settle(date);
+  }
+
+  public SettlementProgress progress() {
+    String state;
+    if (running.get()) {
+      state = "running";
+    } else if (error != null) {
+      state = "failed";
+    } else if (report != null) {
+      state = "completed";
+    } else {
+      state = "idle";
+    }
+    return new SettlementProgress(state, scanned, settled.sum(), skipped.sum(), startedAt,
+        finishedAt, report, error);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  private SettlementReport settle(LocalDate date) throws IOException {
+    long start = System.nanoTime();
+    scanned = 0;
+    settled.reset();
+    skipped.reset();
+    startedAt = Instant.now();
+    finishedAt = null;
+    report = null;
+    error = null;
+    Path target = directory.resolve("settlement-" + date + ".csv.gz");
+    LOG.info("Settlement for {} started", date);
+    try (SettlementFileWriter writer = new SettlementFileWriter(directory)) {
+      if (ledger == null) {
+        ledger = new SettlementLedger(directory);
+      }
+      try (SettlementLedger.Run run = ledger.begin(date)) {
+        scan(writer, run);
+        run.commit();
+      }
+      List<CurrencyTotals> currencies = writer.finish(target, pool);
+      report = new SettlementReport(target.toString(), scanned, settled.sum(), skipped.sum(),
+          currencies, (System.nanoTime() - start) / 1_000_000);
+      if (report.skipped() > 0) {
+        LOG.warn("Settlement for {} skipped {} payments without a valid currency", date,
+            report.skipped());
+      }
+      LOG.info("Settlement for {} wrote {} of {} payments in {} currencies to {} in {} ms",
+          date, report.settled(), report.scanned(), currencies.size(), target,
+          report.elapsedMillis());
+      return report;
+    } catch (IOException | RuntimeException ex) {
+      error = ex.toString();
+      throw ex;
+    } finally {
+      finishedAt = Instant.now();
+      running.set(false);
+    }
+  }
+
+  private void scan(SettlementFileWriter writer, SettlementLedger.Run run) throws IOException {
+    ArrayDeque<ForkJoinTask<Void>> inFlight = new ArrayDeque<>();
+    int maxInFlight = pool.getParallelism() * CHUNKS_PER_WORKER;
+    try (Stream<PaymentResponse> payments = repository.stream()) {
+      Iterator<PaymentResponse> it = payments.iterator();
+      PaymentResponse[] chunk = new PaymentResponse[chunkSize];
+      int size = 0;
+      long count = 0;
+      while (it.hasNext()) {
+        chunk[size++] = it.next();
+        scanned = ++count;
+        if (count % progressInterval == 0) {
+          LOG.info("Settlement scanned {} payments, {} settled", count, settled.sum());
+        }
+        if (size == chunkSize) {
+          if (inFlight.size() == maxInFlight) {
+            join(inFlight.poll());
+          }
+          inFlight.add(pool.submit(new SettleChunk(writer, run, chunk, 0, size)));
+          chunk = new PaymentResponse[chunkSize];
+          size = 0;
+        }
+      }
+      if (size > 0) {
+        inFlight.add(pool.submit(new SettleChunk(writer, run, chunk, 0, size)));
+      }
+      while (!inFlight.isEmpty()) {
+        join(inFlight.poll());
+      }
+    } finally {
+      // Only non-empty after a failure; let running chunks finish before the writer is closed
+      inFlight.forEach(ForkJoinTask::quietlyJoin);
+    }
+  }
+
+  private static void join(ForkJoinTask<Void> task) throws IOException {
+    try {
+      task.get();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      throw new IOException(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted during settlement", ex);
+    }
+  }
+
+  /**
+   * Splits a chunk of payments in halves down to {@link #LEAF_SIZE}, then formats each leaf's
+   * settled payments into one line buffer per currency and hands those to the writer.
+   */
+  private final class SettleChunk extends RecursiveAction {
+
+    private final SettlementFileWriter writer;
+    private final SettlementLedger.Run run;
+    private final PaymentResponse[] payments;
+    private final int from;
+    private final int to;
+
+    private SettleChunk(SettlementFileWriter writer, SettlementLedger.Run run,
+        PaymentResponse[] payments, int from, int to) {
+      this.writer = writer;
+      this.run = run;
+      this.payments = payments;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > LEAF_SIZE) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new SettleChunk(writer, run, payments, from, middle),
+            new SettleChunk(writer, run, payments, middle, to));
+        return;
+      }
+      Map<String, Lines> byCurrency = new HashMap<>();
+      List<UUID> claimed = new ArrayList<>();
+      for (int i = from; i < to; i++) {
+        PaymentResponse payment = payments[i];
+        payments[i] = null;
+        if (!SETTLED.contains(payment.status())) {
+          continue;
+        }
+        if (ValidationRules.currencyIndex(payment.currency()) < 0) {
+          LOG.warn("Not settling payment {}: invalid currency {}", payment.id(),
+              payment.currency());
+          skipped.increment();
+        } else if (run.claim(payment.id(), claimed)) {
+          String currency = payment.currency().toUpperCase(Locale.ROOT);
+          byCurrency.computeIfAbsent(currency, Lines::new).add(payment);
+        }
+      }
+      try {
+        run.record(claimed);
+        for (Map.Entry<String, Lines> entry : byCurrency.entrySet()) {
+          Lines lines = entry.getValue();
+          writer.append(entry.getKey(), lines.bytes, lines.length, lines.count, lines.amount,
+              lines.refundedAmount);
+          settled.add(lines.count);
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+  /**
+   * Detail lines for one currency within a leaf, as US-ASCII bytes.
+   */
+  private static final class Lines {
+
+    private final String currency;
+    private byte[] bytes = new byte[8 * 1024];
+    private int length;
+    private long count;
+    private long amount;
+    private long refundedAmount;
+
+    private Lines(String currency) {
+      this.currency = currency;
+    }
+
+    private void add(PaymentResponse payment) {
+      long paymentAmount = payment.amount() != null ? payment.amount() : 0;
+      long refunded = payment.refundedAmount() != null ? payment.refundedAmount() : 0;
+      String line = "D," + currency + "," + payment.id() + ","
+          + payment.status().getName() + ",1," + paymentAmount + "," + refunded + ","
+          + (paymentAmount - refunded) + "\n";
+      byte[] encoded = line.getBytes(StandardCharsets.US_ASCII);
+      if (length + encoded.length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + encoded.length));
+      }
+      System.arraycopy(encoded, 0, bytes, length, encoded.length);
+      length += encoded.length;
+      count++;
+      amount += paymentAmount;
+      refundedAmount += refunded;
+    }
+  }
+}
@@ -0,0 +1,355 @@
+package com.checkout.payment.gateway.settlement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Remembers the date each payment was settled on, so that a payment appears in exactly one
+ * settlement file however many runs there are.
+ * <p>
+ * The ledger stays on disk in {@value #FILE_NAME} in the settlement directory, as fixed records of
+ * payment ID and epoch day sorted by ID. It is memory-mapped and probed by binary search, so the
+ * heap holds none of it however much settlement history builds up. A run spills the IDs it settles
+ * for the first time to a work file; on commit they are sorted in blocks of bounded size and
+ * merged with the ledger into a new file, which is forced to disk and moved over the old one
+ * before the settlement file is assembled. If the run fails after that, repeating it for the same
+ * date settles the same payments again, while later dates leave them out.
+ */
+final class SettlementLedger {
+
+  static final String FILE_NAME = "settlement-ledger.bin";
+
+  private static final int RECORD_BYTES = 24;
+  private static final int ID_BYTES = 16;
+  private static final int BUFFER_RECORDS = 4096;
+  private static final int DEFAULT_SORT_RECORDS = 1 << 20;
+  // Largest mapping that holds a whole number of records
+  private static final long SEGMENT_BYTES =
+      (long) (Integer.MAX_VALUE / RECORD_BYTES) * RECORD_BYTES;
+  private static final Comparator<UUID> ORDER = Comparator
+      .comparingLong(UUID::getMostSignificantBits)
+      .thenComparingLong(UUID::getLeastSignificantBits);
+
+  private final Path directory;
+  private final Path file;
+  private final int sortRecords;
+  private volatile Index index;
+
+  SettlementLedger(Path directory) throws IOException {
+    this(directory, DEFAULT_SORT_RECORDS);
+  }
+
+  /**
+   * @param sortRecords number of newly settled IDs sorted in memory at a time on commit
+   */
+  SettlementLedger(Path directory, int sortRecords) throws IOException {
+    Files.createDirectories(directory);
+    this.directory = directory;
+    this.file = directory.resolve(FILE_NAME);
+    this.sortRecords = sortRecords;
+    this.index = map();
+  }
+
+  /**
+   * Starts collecting the payments of one settlement run.
+   */
+  Run begin(LocalDate date) throws IOException {
+    return new Run(date.toEpochDay(), index);
+  }
+
+  private Index map() throws IOException {
+    if (!Files.exists(file)) {
+      return new Index(new MappedByteBuffer[0], 0);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size % RECORD_BYTES != 0) {
+        throw new IOException("Settlement ledger " + file + " has a partial record");
+      }
+      MappedByteBuffer[] segments =
+          new MappedByteBuffer[(int) ((size + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+      for (int i = 0; i < segments.length; i++) {
+        long position = i * SEGMENT_BYTES;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+            Math.min(SEGMENT_BYTES, size - position));
+      }
+      return new Index(segments, size / RECORD_BYTES);
+    }
+  }
+
+  /**
+   * A read-only mapping of the ledger file. Lookups use absolute reads only, so they are
+   * thread-safe.
+   */
+  private record Index(MappedByteBuffer[] segments, long records) {
+
+    /**
+     * @return the epoch day the payment was settled on, or -1 if it has not been settled
+     */
+    long settledOn(UUID id) {
+      long msb = id.getMostSignificantBits();
+      long lsb = id.getLeastSignificantBits();
+      long low = 0;
+      long high = records - 1;
+      while (low <= high) {
+        long middle = (low + high) >>> 1;
+        long position = middle * RECORD_BYTES;
+        ByteBuffer segment = segments[(int) (position / SEGMENT_BYTES)];
+        int offset = (int) (position % SEGMENT_BYTES);
+        int order = Long.compare(segment.getLong(offset), msb);
+        if (order == 0) {
+          order = Long.compare(segment.getLong(offset + 8), lsb);
+        }
+        if (order < 0) {
+          low = middle + 1;
+        } else if (order > 0) {
+          high = middle - 1;
+        } else {
+          return segment.getLong(offset + ID_BYTES);
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * The payments settled by one run, recorded in the ledger when the run commits. Closing the run
+   * removes its work files, whether or not it committed.
+   */
+  final class Run implements AutoCloseable {
+
+    private final long day;
+    private final Index index;
+    private final Path workDirectory;
+    private final FileChannel spill;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(ID_BYTES * BUFFER_RECORDS);
+    private long spilled;
+
+    private Run(long day, Index index) throws IOException {
+      this.day = day;
+      this.index = index;
+      this.workDirectory = Files.createTempDirectory(directory, "settlement-ledger-");
+      this.spill = FileChannel.open(workDirectory.resolve("settled.bin"),
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Decides whether a settleable payment belongs in this run's file. Thread-safe.
+     *
+     * @param claimed collects the payments settled for the first time, to be passed to
+     *     {@link #record}
+     * @return true if the payment has not been settled yet, or was settled on this run's date
+     */
+    boolean claim(UUID id, List<UUID> claimed) {
+      long previous = index.settledOn(id);
+      if (previous < 0) {
+        claimed.add(id);
+        return true;
+      }
+      return previous == day;
+    }
+
+    /**
+     * Spills payments settled for the first time to the run's work file. Thread-safe.
+     */
+    synchronized void record(List<UUID> claimed) throws IOException {
+      for (UUID id : claimed) {
+        if (!buffer.hasRemaining()) {
+          flush();
+        }
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+      }
+      spilled += claimed.size();
+    }
+
+    /**
+     * Merges the payments this run settled for the first time into the ledger and forces it to
+     * disk.
+     */
+    synchronized void commit() throws IOException {
+      flush();
+      if (spilled == 0) {
+        return;
+      }
+      List<Path> blocks = sortBlocks();
+      Path merged = workDirectory.resolve(FILE_NAME);
+      merge(blocks, merged);
+      Files.move(merged, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      SettlementLedger.this.index = map();
+    }
+
+    @Override
+    public void close() throws IOException {
+      spill.close();
+      try (Stream<Path> files = Files.list(workDirectory)) {
+        for (Path workFile : files.toList()) {
+          Files.deleteIfExists(workFile);
+        }
+      }
+      Files.deleteIfExists(workDirectory);
+    }
+
+    /**
+     * Reads the spilled IDs back in blocks of at most {@code sortRecords} and writes each block
+     * sorted to its own file.
+     */
+    private List<Path> sortBlocks() throws IOException {
+      List<Path> blocks = new ArrayList<>();
+      ByteBuffer in = ByteBuffer.allocate(ID_BYTES * BUFFER_RECORDS);
+      spill.position(0);
+      for (long done = 0; done < spilled; ) {
+        UUID[] ids = new UUID[(int) Math.min(sortRecords, spilled - done)];
+        for (int i = 0; i < ids.length; ) {
+          in.clear().limit(Math.min(in.capacity(), (ids.length - i) * ID_BYTES));
+          while (in.hasRemaining()) {
+            if (spill.read(in) < 0) {
+              throw new IOException("Settlement ledger work file ended early");
+            }
+          }
+          in.flip();
+          while (in.hasRemaining()) {
+            ids[i++] = new UUID(in.getLong(), in.getLong());
+          }
+        }
+        Arrays.sort(ids, ORDER);
+        Path block = workDirectory.resolve("block-" + blocks.size() + ".bin");
+        try (FileChannel out = FileChannel.open(block, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE)) {
+          ByteBuffer records = ByteBuffer.allocate(ID_BYTES * BUFFER_RECORDS);
+          for (UUID id : ids) {
+            if (!records.hasRemaining()) {
+              writeFully(out, records.flip());
+              records.clear();
+            }
+            records.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+          }
+          writeFully(out, records.flip());
+        }
+        blocks.add(block);
+        done += ids.length;
+      }
+      return blocks;
+    }
+
+    /**
+     * Merges the current ledger and the sorted blocks into {@code target}, one buffered cursor
+     * per input, and forces it to disk.
+     */
+    private void merge(List<Path> blocks, Path target) throws IOException {
+      PriorityQueue<Cursor> heads = new PriorityQueue<>(
+          Comparator.comparingLong((Cursor cursor) -> cursor.msb)
+              .thenComparingLong(cursor -> cursor.lsb));
+      List<Cursor> cursors = new ArrayList<>();
+      try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.WRITE)) {
+        if (Files.exists(file)) {
+          cursors.add(new Cursor(FileChannel.open(file, StandardOpenOption.READ), RECORD_BYTES,
+              -1));
+        }
+        for (Path block : blocks) {
+          cursors.add(new Cursor(FileChannel.open(block, StandardOpenOption.READ), ID_BYTES,
+              day));
+        }
+        for (Cursor cursor : cursors) {
+          if (cursor.advance()) {
+            heads.add(cursor);
+          }
+        }
+        ByteBuffer records = ByteBuffer.allocate(RECORD_BYTES * BUFFER_RECORDS);
+        while (!heads.isEmpty()) {
+          Cursor head = heads.poll();
+          if (!records.hasRemaining()) {
+            writeFully(out, records.flip());
+            records.clear();
+          }
+          records.putLong(head.msb).putLong(head.lsb).putLong(head.day);
+          if (head.advance()) {
+            heads.add(head);
+          }
+        }
+        writeFully(out, records.flip());
+        out.force(true);
+      } finally {
+        for (Cursor cursor : cursors) {
+          cursor.close();
+        }
+      }
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      writeFully(spill, buffer);
+      buffer.clear();
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+  }
+
+  /**
+   * Reads sorted records from one merge input. Ledger records carry their own day; block records
+   * are IDs only and take the run's day.
+   */
+  private static final class Cursor implements Closeable {
+
+    private final FileChannel channel;
+    private final int recordBytes;
+    private final long runDay;
+    private final ByteBuffer buffer;
+    private long msb;
+    private long lsb;
+    private long day;
+
+    private Cursor(FileChannel channel, int recordBytes, long runDay) {
+      this.channel = channel;
+      this.recordBytes = recordBytes;
+      this.runDay = runDay;
+      this.buffer = ByteBuffer.allocate(recordBytes * BUFFER_RECORDS).flip();
+    }
+
+    /**
+     * @return false once the input is exhausted
+     */
+    private boolean advance() throws IOException {
+      if (buffer.remaining() < recordBytes) {
+        buffer.compact();
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+          read = channel.read(buffer);
+        }
+        buffer.flip();
+        if (buffer.remaining() < recordBytes) {
+          return false;
+        }
+      }
+      msb = buffer.getLong();
+      lsb = buffer.getLong();
+      day = recordBytes == RECORD_BYTES ? buffer.getLong() : runDay;
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.checkout.payment.gateway.settlement;
+
+import java.time.Instant;
+
+/**
+ * Progress of the current or most recent settlement run.
+ *
+ * @param state {@code idle}, {@code running}, {@code completed} or {@code failed}
+ * @param scanned payments read from the repository so far
+ * @param settled payments written so far
+ * @param skipped payments left out so far because their currency is not a valid code
+ * @param report the finished run, once completed
+ * @param error why the run failed, if it did
+ */
+public record SettlementProgress(
+    String state,
+    long scanned,
+    long settled,
+    long skipped,
+    Instant startedAt,
+    Instant finishedAt,
+    SettlementReport report,
+    String error
+) {
+}
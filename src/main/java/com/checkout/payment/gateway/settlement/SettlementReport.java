@@ -0,0 +1,22 @@
+package com.checkout.payment.gateway.settlement;
+
+import java.util.List;
+
+/**
+ * Outcome of one settlement run.
+ *
+ * @param file path of the compressed settlement file
+ * @param scanned payments read from the repository
+ * @param settled payments written to the file
+ * @param skipped settleable payments left out because their currency is not a valid code
+ * @param currencies totals per currency, ordered by currency code
+ */
+public record SettlementReport(
+    String file,
+    long scanned,
+    long settled,
+    long skipped,
+    List<CurrencyTotals> currencies,
+    long elapsedMillis
+) {
+}
@@ -0,0 +1,85 @@
+package com.checkout.payment.gateway.validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks many card numbers at once for batch and bulk workloads: that each is numeric, has a
+ * length allowed by its {@link ValidationRules.Rule} and passes the Luhn checksum.
+ * <p>
+ * Card numbers are first packed into a {@link CardNumberBatch}. The check runs on the JDK Vector
+ * API when the JVM was started with {@code --add-modules jdk.incubator.vector} on hardware with
+ * 128-bit vectors, and falls back to a scalar loop otherwise; both produce identical results.
+ * The vector checker is the only class compiled against the incubator module; it lives in the
+ * {@code vector} source set and is loaded by name, so nothing else depends on the module.
+ */
+@Component
+public class BulkCardValidator {
+
+  /** The card number contains a character other than a digit. */
+  public static final int NOT_NUMERIC = 1;
+  /** The card number's length is not allowed by the rule. */
+  public static final int INVALID_LENGTH = 2;
+  /** The card number is numeric but fails the Luhn checksum. */
+  public static final int INVALID_CHECKSUM = 4;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkCardValidator.class);
+  private static final String VECTOR_CHECKER =
+      "com.checkout.payment.gateway.validation.VectorCardNumberChecker";
+
+  private final CardNumberChecker checker;
+
+  public BulkCardValidator(
+      @Value("${gateway.validation.vector.enabled:true}") boolean vectorEnabled
+  ) {
+    this(vectorEnabled ? vectorChecker() : new ScalarCardNumberChecker());
+    LOG.info("Bulk card validation uses the {} checker", checker.name());
+  }
+
+  BulkCardValidator(CardNumberChecker checker) {
+    this.checker = checker;
+  }
+
+  /**
+   * Checks every card number in the batch.
+   *
+   * @param results receives the flags of each card number, zero when it is valid; must hold at
+   *     least {@code batch.size()} entries
+   * @return the number of valid card numbers
+   */
+  public int validate(CardNumberBatch batch, ValidationRules.Rule rule, byte[] results) {
+    int count = batch.size();
+    if (results.length < count) {
+      throw new IllegalArgumentException("results holds fewer than " + count + " entries");
+    }
+    checker.check(batch.digits(), batch.lengths(), count, rule.cardLengthMask(), results);
+    int valid = 0;
+    for (int i = 0; i < count; i++) {
+      valid += results[i] == 0 ? 1 : 0;
+    }
+    return valid;
+  }
+
+  /**
+   * @return {@code vector} or {@code scalar}
+   */
+  public String implementation() {
+    return checker.name();
+  }
+
+  static CardNumberChecker vectorChecker() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        Class<?> type = Class.forName(VECTOR_CHECKER);
+        if ((boolean) type.getDeclaredMethod("isSupported").invoke(null)) {
+          return (CardNumberChecker) type.getDeclaredConstructor().newInstance();
+        }
+      } catch (ReflectiveOperationException | LinkageError ex) {
+        LOG.debug("Vector API unavailable", ex);
+      }
+    }
+    return new ScalarCardNumberChecker();
+  }
+}
@@ -0,0 +1,77 @@
+package com.checkout.payment.gateway.validation;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of card numbers packed for {@link BulkCardValidator}.
+ * <p>
+ * Each card number occupies a fixed {@value #STRIDE}-byte row, right-aligned and padded on the
+ * left with {@code '0'}. Padding with zeros changes neither the digit check nor the Luhn sum, and
+ * right-aligning puts the check digit in the last byte of every row, so the digits that Luhn
+ * doubles sit at the same offsets in every row and a checker can work on whole rows without
+ * looking at the lengths. Characters outside ASCII are stored as {@code 0xFF} so they can never
+ * pass as digits.
+ */
+public final class CardNumberBatch {
+
+  /** Row width in bytes; longer card numbers fail the length check. */
+  public static final int STRIDE = 32;
+
+  private static final byte INVALID = (byte) 0xFF;
+
+  private final byte[] digits;
+  private final int[] lengths;
+  private int size;
+
+  public CardNumberBatch(int capacity) {
+    this.digits = new byte[capacity * STRIDE];
+    this.lengths = new int[capacity];
+  }
+
+  /**
+   * Packs a card number into the next row.
+   *
+   * @param cardNumber may be null, which is treated as empty
+   * @return the index of the row
+   * @throws IllegalStateException if the batch is full
+   */
+  public int add(String cardNumber) {
+    if (size == lengths.length) {
+      throw new IllegalStateException("Batch is full");
+    }
+    int row = size * STRIDE;
+    int length = cardNumber == null ? 0 : cardNumber.length();
+    if (length >= STRIDE) {
+      Arrays.fill(digits, row, row + STRIDE, INVALID);
+    } else {
+      int start = row + STRIDE - length;
+      Arrays.fill(digits, row, start, (byte) '0');
+      for (int i = 0; i < length; i++) {
+        char c = cardNumber.charAt(i);
+        digits[start + i] = c < 0x80 ? (byte) c : INVALID;
+      }
+    }
+    lengths[size] = length;
+    return size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return lengths.length;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  byte[] digits() {
+    return digits;
+  }
+
+  int[] lengths() {
+    return lengths;
+  }
+}
@@ -0,0 +1,19 @@
+package com.checkout.payment.gateway.validation;
+
+/**
+ * Checks the packed rows of a {@link CardNumberBatch}, writing the {@link BulkCardValidator} flags
+ * of each card number into {@code results}.
+ */
+interface CardNumberChecker {
+
+  void check(byte[] digits, int[] lengths, int count, int lengthMask, byte[] results);
+
+  /** Name reported by {@link BulkCardValidator#implementation()}. */
+  String name();
+
+  static int lengthFlag(int length, int lengthMask) {
+    return length < CardNumberBatch.STRIDE && (lengthMask >>> length & 1) != 0
+        ? 0
+        : BulkCardValidator.INVALID_LENGTH;
+  }
+}
@@ -0,0 +1,40 @@
+package com.checkout.payment.gateway.validation;
+
+/**
+ * One character at a time over the significant part of each row. Used when the Vector API is not
+ * available, and as the baseline the vector checker is benchmarked against.
+ */
+final class ScalarCardNumberChecker implements CardNumberChecker {
+
+  private static final int[] DOUBLED = {0, 2, 4, 6, 8, 1, 3, 5, 7, 9};
+
+  @Override
+  public void check(byte[] digits, int[] lengths, int count, int lengthMask, byte[] results) {
+    for (int card = 0; card < count; card++) {
+      int length = lengths[card];
+      int flags = CardNumberChecker.lengthFlag(length, lengthMask);
+      int end = (card + 1) * CardNumberBatch.STRIDE;
+      int start = end - Math.min(length, CardNumberBatch.STRIDE);
+      int sum = 0;
+      boolean doubled = false;
+      for (int i = end - 1; i >= start; i--) {
+        int digit = digits[i] - '0';
+        if (digit < 0 || digit > 9) {
+          flags |= BulkCardValidator.NOT_NUMERIC;
+          break;
+        }
+        sum += doubled ? DOUBLED[digit] : digit;
+        doubled = !doubled;
+      }
+      if ((flags & BulkCardValidator.NOT_NUMERIC) == 0 && sum % 10 != 0) {
+        flags |= BulkCardValidator.INVALID_CHECKSUM;
+      }
+      results[card] = (byte) flags;
+    }
+  }
+
+  @Override
+  public String name() {
+    return "scalar";
+  }
+}
@@ -0,0 +1,46 @@
+package com.checkout.payment.gateway.validation;
+
+import com.checkout.payment.gateway.reload.ReloadableResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current compiled {@link ValidationRules}, reloaded from
+ * {@code gateway.validation.rules-location} as a {@link ReloadableResource}, so a request is
+ * validated entirely against either the old or the new rules. Without a file the built-in
+ * {@link ValidationRules#DEFAULT} rules apply.
+ */
+@Component
+public class ValidationRuleTable {
+
+  private final ReloadableResource<ValidationRules> rules;
+
+  public ValidationRuleTable(
+      @Value("${gateway.validation.rules-location:classpath:validation-rules.csv}")
+      Resource location
+  ) {
+    this.rules = new ReloadableResource<>("validation rules", location, ValidationRules.DEFAULT,
+        ValidationRules::parse, loaded -> loaded.merchantCount() + " merchants");
+    this.rules.reload();
+  }
+
+  public ValidationRules rules() {
+    return rules.current();
+  }
+
+  /**
+   * Recompiles the rules from the configured file.
+   *
+   * @return number of merchants with their own rules in the active rule set
+   */
+  public int reload() {
+    return rules.reload().merchantCount();
+  }
+
+  @Scheduled(fixedDelayString = "${gateway.validation.refresh-ms:30000}")
+  public void reloadIfModified() {
+    rules.reloadIfModified();
+  }
+}
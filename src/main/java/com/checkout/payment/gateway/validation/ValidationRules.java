@@ -0,0 +1,298 @@
+package com.checkout.payment.gateway.validation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled payment validation rules.
+ * <p>
+ * Rules are given for every payment, per card scheme and per merchant; a merchant rule overrides
+ * the scheme rule, which overrides the default, column by column. Parsing resolves that
+ * inheritance up front into one {@link Rule} per merchant and scheme, so a lookup is two hash
+ * probes. Each rule holds its supported currencies as a bitset indexed by the three letters of
+ * the code and its card and CVV lengths as bitmasks, so checking a request is a few shifts and
+ * masks.
+ */
+public final class ValidationRules {
+
+  /** The rules that applied before they became configurable. */
+  public static final ValidationRules DEFAULT = compile(
+      new RuleLine(List.of("USD", "GBP", "EUR"), lengths(14, 19), lengths(3, 4)),
+      Map.of(), Map.of());
+
+  private static final int MAX_LENGTH = 31;
+  private static final int CURRENCY_CODES = 26 * 26 * 26;
+
+  private final MerchantRules defaults;
+  private final Map<String, MerchantRules> merchants;
+
+  private ValidationRules(MerchantRules defaults, Map<String, MerchantRules> merchants) {
+    this.defaults = defaults;
+    this.merchants = merchants;
+  }
+
+  /**
+   * @param merchantId may be null
+   * @param scheme card scheme from the BIN table, may be null
+   */
+  public Rule ruleFor(String merchantId, String scheme) {
+    MerchantRules rules = merchantId != null
+        ? merchants.getOrDefault(merchantId, defaults)
+        : defaults;
+    return scheme != null ? rules.byScheme().getOrDefault(scheme, rules.rule()) : rules.rule();
+  }
+
+  public int merchantCount() {
+    return merchants.size();
+  }
+
+  /**
+   * Parses {@code scope,key,currencies,card_lengths,cvv_lengths} lines. {@code scope} is
+   * {@code default} (with an empty key), {@code scheme} or {@code merchant}. Currencies are
+   * space-separated three-letter codes; lengths are space-separated numbers or ranges such as
+   * {@code 14-19}. An empty column inherits from the less specific rule. Blank lines and lines
+   * starting with {@code #} are ignored; exactly one complete default rule is required.
+   *
+   * @throws IllegalArgumentException if a line is malformed
+   */
+  public static ValidationRules parse(BufferedReader reader) throws IOException {
+    RuleLine defaults = null;
+    Map<String, RuleLine> schemes = new LinkedHashMap<>();
+    Map<String, RuleLine> merchants = new LinkedHashMap<>();
+
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",", -1);
+      if (fields.length != 5) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": expected 5 fields");
+      }
+      String key = fields[1].strip();
+      RuleLine rule = new RuleLine(currencies(fields[2], lineNumber),
+          lengths(fields[3], lineNumber), lengths(fields[4], lineNumber));
+      switch (fields[0].strip()) {
+        case "default" -> {
+          if (defaults != null || !key.isEmpty() || rule.currencies() == null
+              || rule.cardLengths() == 0 || rule.cvvLengths() == 0) {
+            throw new IllegalArgumentException("Line " + lineNumber
+                + ": expected a single default rule with no key and every column set");
+          }
+          defaults = rule;
+        }
+        case "scheme" -> schemes.put(requireKey(key, lineNumber), rule);
+        case "merchant" -> merchants.put(requireKey(key, lineNumber), rule);
+        default -> throw new IllegalArgumentException(
+            "Line " + lineNumber + ": scope must be default, scheme or merchant");
+      }
+    }
+    if (defaults == null) {
+      throw new IllegalArgumentException("No default rule");
+    }
+    return compile(defaults, schemes, merchants);
+  }
+
+  private static ValidationRules compile(RuleLine defaults, Map<String, RuleLine> schemes,
+      Map<String, RuleLine> merchants) {
+    Map<List<String>, long[]> bitsets = new HashMap<>();
+    Map<String, RuleLine> schemeLines = new HashMap<>();
+    schemes.forEach((scheme, line) -> schemeLines.put(scheme, line.over(defaults)));
+
+    MerchantRules global = merchantRules(defaults, schemeLines, bitsets);
+    Map<String, MerchantRules> byMerchant = new HashMap<>();
+    merchants.forEach((merchantId, line) -> {
+      Map<String, RuleLine> merchantSchemes = new HashMap<>();
+      schemeLines.forEach((scheme, schemeLine) ->
+          merchantSchemes.put(scheme, line.over(schemeLine)));
+      byMerchant.put(merchantId,
+          merchantRules(line.over(defaults), merchantSchemes, bitsets));
+    });
+    return new ValidationRules(global, Map.copyOf(byMerchant));
+  }
+
+  private static MerchantRules merchantRules(RuleLine defaults, Map<String, RuleLine> schemes,
+      Map<List<String>, long[]> bitsets) {
+    Map<String, Rule> byScheme = new HashMap<>();
+    schemes.forEach((scheme, line) -> byScheme.put(scheme, line.compile(bitsets)));
+    return new MerchantRules(defaults.compile(bitsets), Map.copyOf(byScheme));
+  }
+
+  private static String requireKey(String key, int lineNumber) {
+    if (key.isEmpty()) {
+      throw new IllegalArgumentException("Line " + lineNumber + ": key is required");
+    }
+    return key;
+  }
+
+  private static List<String> currencies(String field, int lineNumber) {
+    String stripped = field.strip();
+    if (stripped.isEmpty()) {
+      return null;
+    }
+    Set<String> codes = new LinkedHashSet<>();
+    for (String code : stripped.split("\\s+")) {
+      if (currencyIndex(code) < 0) {
+        throw new IllegalArgumentException(
+            "Line " + lineNumber + ": " + code + " is not a three-letter currency code");
+      }
+      codes.add(code.toUpperCase());
+    }
+    return List.copyOf(codes);
+  }
+
+  private static int lengths(String field, int lineNumber) {
+    String stripped = field.strip();
+    if (stripped.isEmpty()) {
+      return 0;
+    }
+    int mask = 0;
+    try {
+      for (String part : stripped.split("\\s+")) {
+        int dash = part.indexOf('-');
+        int low = Integer.parseInt(dash < 0 ? part : part.substring(0, dash));
+        int high = dash < 0 ? low : Integer.parseInt(part.substring(dash + 1));
+        if (low < 1 || high > MAX_LENGTH || low > high) {
+          throw new NumberFormatException();
+        }
+        mask |= lengths(low, high);
+      }
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException(
+          "Line " + lineNumber + ": lengths must be 1-" + MAX_LENGTH + " or ranges of them");
+    }
+    return mask;
+  }
+
+  private static int lengths(int low, int high) {
+    return (int) ((1L << high + 1) - (1L << low));
+  }
+
+  /**
+   * @return the position of the code in AAA..ZZZ, ignoring case, or -1 if it is not three
+   *     ASCII letters
+   */
+  public static int currencyIndex(String code) {
+    if (code == null || code.length() != 3) {
+      return -1;
+    }
+    int a = (code.charAt(0) & ~0x20) - 'A';
+    int b = (code.charAt(1) & ~0x20) - 'A';
+    int c = (code.charAt(2) & ~0x20) - 'A';
+    if ((a | b | c) < 0 || a > 25 || b > 25 || c > 25) {
+      return -1;
+    }
+    return (a * 26 + b) * 26 + c;
+  }
+
+  /**
+   * The effective rule for one merchant and scheme, with its error messages prepared.
+   */
+  public static final class Rule {
+
+    private final long[] currencies;
+    private final int cardLengths;
+    private final int cvvLengths;
+    private final String currencyError;
+    private final String cardLengthError;
+    private final String cvvError;
+
+    private Rule(long[] currencies, List<String> currencyCodes, int cardLengths,
+        int cvvLengths) {
+      this.currencies = currencies;
+      this.cardLengths = cardLengths;
+      this.cvvLengths = cvvLengths;
+      this.currencyError = "Currency must be one of: " + currencyCodes;
+      this.cardLengthError =
+          "Card number must be " + describe(cardLengths, "between ") + " characters";
+      this.cvvError = "CVV must be " + describe(cvvLengths, "") + " digits";
+    }
+
+    public boolean allowsCurrency(String code) {
+      int index = currencyIndex(code);
+      return index >= 0 && (currencies[index >>> 6] & 1L << index) != 0;
+    }
+
+    public boolean allowsCardLength(int length) {
+      return length <= MAX_LENGTH && (cardLengths >>> length & 1) != 0;
+    }
+
+    public boolean allowsCvvLength(int length) {
+      return length <= MAX_LENGTH && (cvvLengths >>> length & 1) != 0;
+    }
+
+    int cardLengthMask() {
+      return cardLengths;
+    }
+
+    public String currencyError() {
+      return currencyError;
+    }
+
+    public String cardLengthError() {
+      return cardLengthError;
+    }
+
+    public String cvvError() {
+      return cvvError;
+    }
+
+    /**
+     * Describes a length mask in the style of the original messages, e.g. {@code 15},
+     * {@code between 14-19} or, when the lengths are not contiguous, {@code one of 13, 16}.
+     */
+    private static String describe(int mask, String rangePrefix) {
+      int low = Integer.numberOfTrailingZeros(mask);
+      int high = 31 - Integer.numberOfLeadingZeros(mask);
+      if (low == high) {
+        return String.valueOf(low);
+      }
+      if (lengths(low, high) == mask) {
+        return rangePrefix + low + "-" + high;
+      }
+      List<String> values = new ArrayList<>();
+      for (int length = low; length <= high; length++) {
+        if ((mask >>> length & 1) != 0) {
+          values.add(String.valueOf(length));
+        }
+      }
+      return "one of " + String.join(", ", values);
+    }
+  }
+
+  private record MerchantRules(Rule rule, Map<String, Rule> byScheme) {}
+
+  /**
+   * One parsed line; null currencies and zero masks mean the column was left empty.
+   */
+  private record RuleLine(List<String> currencies, int cardLengths, int cvvLengths) {
+
+    RuleLine over(RuleLine fallback) {
+      return new RuleLine(currencies != null ? currencies : fallback.currencies,
+          cardLengths != 0 ? cardLengths : fallback.cardLengths,
+          cvvLengths != 0 ? cvvLengths : fallback.cvvLengths);
+    }
+
+    Rule compile(Map<List<String>, long[]> bitsets) {
+      long[] bits = bitsets.computeIfAbsent(currencies, codes -> {
+        long[] set = new long[(CURRENCY_CODES + 63) / 64];
+        for (String code : codes) {
+          int index = currencyIndex(code);
+          set[index >>> 6] |= 1L << index;
+        }
+        return set;
+      });
+      return new Rule(bits, currencies, cardLengths, cvvLengths);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.checkout.payment.gateway.warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * In-process stand-in for the acquiring bank used during warm-up.
+ * <p>
+ * Requests go through the full {@code RestClient} pipeline, including JSON serialization of the
+ * request and deserialization of the response, but are answered from memory: every tenth one
+ * is declined and the rest authorized.
+ */
+class StubBankRequestFactory implements ClientHttpRequestFactory {
+
+  private static final byte[] AUTHORIZED = ("{\"authorized\":true,"
+      + "\"authorization_code\":\"00000000-0000-0000-0000-000000000000\"}")
+      .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] DECLINED = "{\"authorized\":false,\"authorization_code\":\"\"}"
+      .getBytes(StandardCharsets.UTF_8);
+
+  private final AtomicLong requests = new AtomicLong();
+
+  @Override
+  public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+    return new StubRequest(uri, httpMethod);
+  }
+
+  private final class StubRequest extends AbstractClientHttpRequest {
+
+    private final URI uri;
+    private final HttpMethod method;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    private StubRequest(URI uri, HttpMethod method) {
+      this.uri = uri;
+      this.method = method;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+      return method;
+    }
+
+    @Override
+    public URI getURI() {
+      return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+      return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+      boolean declined = requests.incrementAndGet() % 10 == 0;
+      return new StubResponse(declined ? DECLINED : AUTHORIZED);
+    }
+  }
+
+  private static final class StubResponse implements ClientHttpResponse {
+
+    private final byte[] body;
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private StubResponse(byte[] body) {
+      this.body = body;
+      headers.setContentType(MediaType.APPLICATION_JSON);
+      headers.setContentLength(body.length);
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+      return HttpStatus.OK;
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.OK.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package com.checkout.payment.gateway.warmup;
+
+import com.checkout.payment.gateway.bin.BinTable;
+import com.checkout.payment.gateway.controller.PaymentGatewayController;
+import com.checkout.payment.gateway.deadline.RequestDeadlines;
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.fairness.MerchantFairQueue;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
+import com.checkout.payment.gateway.replication.PaymentReplication;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.risk.DuplicatePaymentDetector;
+import com.checkout.payment.gateway.risk.VelocityChecker;
+import com.checkout.payment.gateway.service.AsyncAuthorizationExecutor;
+import com.checkout.payment.gateway.service.BankClient;
+import com.checkout.payment.gateway.service.DeferredAuthorizationService;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentLifecycleService;
+import com.checkout.payment.gateway.service.PaymentRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Drives synthetic payments through the request path before the instance reports ready.
+ * <p>
+ * Application runners complete before Spring Boot moves readiness to ACCEPTING_TRAFFIC, so the
+ * readiness probe stays down until this finishes. Each iteration serializes and parses a request
+ * with the application's {@link ObjectMapper}, passes it through a {@link PaymentGatewayController}
+ * and {@link PaymentGatewayService} to the real {@link PaymentRequestValidator}, and serializes
+ * the response. The service is a private copy wired to a scratch repository, a private event bus,
+ * a silenced event logger and an in-process bank, so no synthetic payment is stored, published,
+ * logged or sent to an acquirer; it shares only the stateless beans, and the JIT compiles the
+ * same methods either way.
+ * <p>
+ * Warm-up stops after {@code max-iterations}, or earlier once at least {@code min-iterations}
+ * have run and a batch averages under {@code target-latency-micros} per request, and never runs
+ * longer than {@code max-duration-ms}. A failure is logged and readiness proceeds regardless.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmupRunner.class);
+  private static final String WARMUP_MERCHANT = "warmup";
+  private static final String[] CURRENCIES = {"USD", "GBP", "EUR"};
+
+  private final RestClient.Builder restClientBuilder;
+  private final ObjectMapper objectMapper;
+  private final PaymentRequestValidator paymentRequestValidator;
+  private final BinTable binTable;
+  private final RequestDeadlines requestDeadlines;
+  private final int minIterations;
+  private final int maxIterations;
+  private final int batchSize;
+  private final long targetLatencyNanos;
+  private final long maxDurationNanos;
+  private volatile int completedIterations;
+
+  public WarmupRunner(
+      RestClient.Builder restClientBuilder,
+      ObjectMapper objectMapper,
+      PaymentRequestValidator paymentRequestValidator,
+      BinTable binTable,
+      RequestDeadlines requestDeadlines,
+      @Value("${gateway.warmup.min-iterations:2000}") int minIterations,
+      @Value("${gateway.warmup.max-iterations:20000}") int maxIterations,
+      @Value("${gateway.warmup.batch-size:500}") int batchSize,
+      @Value("${gateway.warmup.target-latency-micros:200}") long targetLatencyMicros,
+      @Value("${gateway.warmup.max-duration-ms:60000}") long maxDurationMillis
+  ) {
+    this.restClientBuilder = restClientBuilder;
+    this.objectMapper = objectMapper;
+    this.paymentRequestValidator = paymentRequestValidator;
+    this.binTable = binTable;
+    this.requestDeadlines = requestDeadlines;
+    this.minIterations = minIterations;
+    this.maxIterations = maxIterations;
+    this.batchSize = batchSize;
+    this.targetLatencyNanos = TimeUnit.MICROSECONDS.toNanos(targetLatencyMicros);
+    this.maxDurationNanos = TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    try {
+      warmUp();
+    } catch (Exception ex) {
+      LOG.warn("Warm-up failed after {} iterations, accepting traffic without it",
+          completedIterations, ex);
+    }
+  }
+
+  /**
+   * @return number of synthetic payments processed so far
+   */
+  public int completedIterations() {
+    return completedIterations;
+  }
+
+  private void warmUp() throws IOException {
+    PaymentsRepository scratchRepository = new PaymentsRepository();
+    PaymentEventBus scratchBus = new PaymentEventBus(1024);
+    PaymentEventLogger silentLogger = new PaymentEventLogger(1024, 0, 10_000);
+    try {
+      silentLogger.shutdown();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    BankClient stubBank = new BankClient(restClientBuilder.clone()
+        .requestFactory(new StubBankRequestFactory())
+        .baseUrl("http://warmup-bank")
+        .build());
+    AsyncAuthorizationExecutor noAsync = new AsyncAuthorizationExecutor(false, 1, 1);
+    PaymentGatewayService service = new PaymentGatewayService(
+        scratchRepository,
+        stubBank,
+        paymentRequestValidator,
+        silentLogger,
+        scratchBus,
+        binTable,
+        new VelocityChecker(true, 60, 6, Integer.MAX_VALUE, Integer.MAX_VALUE, 1024),
+        new DuplicatePaymentDetector(true, 60, maxIterations, 0.01),
+        new DeferredAuthorizationService(stubBank, scratchRepository, silentLogger, scratchBus,
+            false, Path.of("."), "", 1000, 1000, 1, 1, PaymentReplication.NONE),
+        noAsync,
+        new MerchantFairQueue(true, 64, 1, 64, 1000, List.of(), List.of(), List.of(), 256)
+    );
+    PaymentGatewayController controller = new PaymentGatewayController(service,
+        new PaymentLifecycleService(scratchRepository, scratchBus), requestDeadlines);
+
+    LOG.info("Warming up payment path, readiness withheld until complete");
+    int expiryYear = Year.now().getValue() + 2;
+    long started = System.nanoTime();
+    String outcome = "iteration limit";
+    int iteration = 0;
+    while (iteration < maxIterations) {
+      long batchStart = System.nanoTime();
+      int batchEnd = Math.min(iteration + batchSize, maxIterations);
+      int batchCount = batchEnd - iteration;
+      for (; iteration < batchEnd; iteration++) {
+        exercise(controller, syntheticRequest(iteration, expiryYear));
+      }
+      completedIterations = iteration;
+
+      long now = System.nanoTime();
+      long batchMeanNanos = (now - batchStart) / batchCount;
+      if (iteration >= minIterations && batchMeanNanos <= targetLatencyNanos) {
+        outcome = "latency target";
+        break;
+      }
+      if (now - started >= maxDurationNanos) {
+        outcome = "time limit";
+        break;
+      }
+    }
+    LOG.info("Warm-up reached {} after {} iterations in {} ms", outcome, completedIterations,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+  }
+
+  private void exercise(PaymentGatewayController controller, PostPaymentRequest synthetic)
+      throws IOException {
+    byte[] requestJson = objectMapper.writeValueAsBytes(synthetic);
+    PostPaymentRequest request = objectMapper.readValue(requestJson, PostPaymentRequest.class);
+    ResponseEntity<PaymentResponse> response =
+        controller.processPayment(request, WARMUP_MERCHANT, null, null);
+    objectMapper.writeValueAsBytes(response.getBody());
+  }
+
+  /**
+   * Builds a unique request per iteration; every twentieth fails validation so the rejection
+   * path is compiled too.
+   */
+  private static PostPaymentRequest syntheticRequest(int iteration, int expiryYear) {
+    String cardNumber = "4111111111" + String.format("%06d", iteration % 1_000_000);
+    String cvv = iteration % 20 == 19 ? "1" : "123";
+    return new PostPaymentRequest(cardNumber, 12, expiryYear, CURRENCIES[iteration % 3],
+        100 + iteration, cvv);
+  }
+}
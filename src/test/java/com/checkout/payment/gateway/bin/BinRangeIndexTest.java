@@ -0,0 +1,66 @@
+package com.checkout.payment.gateway.bin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.model.CardMetadata;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+class BinRangeIndexTest {
+
+  private static final String TABLE = """
+      # low,high,scheme,issuer_country,preferred_acquirer
+      4,4,VISA,,
+      411111,411111,VISA,GB,acquirer-a
+      51,55,MASTERCARD,US,
+      """;
+
+  @Test
+  void whenBinFallsInRange_thenMetadataIsReturned() throws IOException {
+    BinRangeIndex index = parse(TABLE.replace("4,4,VISA,,\n", ""));
+
+    assertThat(index.lookup("5312345678901234"))
+        .isEqualTo(new CardMetadata("MASTERCARD", "US", null));
+    assertThat(index.lookup("4111111111111111"))
+        .isEqualTo(new CardMetadata("VISA", "GB", "acquirer-a"));
+  }
+
+  @Test
+  void whenBinFallsOutsideAllRanges_thenNullIsReturned() throws IOException {
+    BinRangeIndex index = parse("51,55,MASTERCARD,,\n");
+
+    assertThat(index.lookup("5612345678901234")).isNull();
+    assertThat(index.lookup("5012345678901234")).isNull();
+    assertThat(index.lookup("12")).isNull();
+  }
+
+  @Test
+  void whenRangeBoundsAreShorterThanBin_thenTheyArePadded() throws IOException {
+    BinRangeIndex index = parse("2221,2720,MASTERCARD,,\n");
+
+    assertThat(index.lookup("2221000000000009")).isNotNull();
+    assertThat(index.lookup("2720999999999999")).isNotNull();
+    assertThat(index.lookup("2721000000000000")).isNull();
+  }
+
+  @Test
+  void whenRangesOverlap_thenParsingFails() {
+    assertThatThrownBy(() -> parse(TABLE))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("overlaps");
+  }
+
+  @Test
+  void whenLineIsMalformed_thenParsingFails() {
+    assertThatThrownBy(() -> parse("4,VISA\n"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Line 1");
+  }
+
+  private static BinRangeIndex parse(String table) throws IOException {
+    return BinRangeIndex.parse(new BufferedReader(new StringReader(table)));
+  }
+}
@@ -0,0 +1,62 @@
+package com.checkout.payment.gateway.bin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.model.CardMetadata;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class BinTableTest {
+
+  private static final String CARD = "4111111111111111";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void reloadShouldSwapTheTableAndKeepItWhenTheFileIsBroken() throws IOException {
+    Path file = directory.resolve("bin-ranges.csv");
+    Files.writeString(file, "4,4,VISA,,\n");
+    BinTable table = new BinTable(new FileSystemResource(file));
+    assertThat(table.lookup(CARD)).isEqualTo(new CardMetadata("VISA", null, null));
+
+    Files.writeString(file, "411111,411111,VISA,GB,acquirer-a\n51,55,MASTERCARD,US,\n");
+    assertThat(table.reload()).isEqualTo(2);
+    assertThat(table.lookup(CARD)).isEqualTo(new CardMetadata("VISA", "GB", "acquirer-a"));
+
+    Files.writeString(file, "4,4,VISA,,\n411111,411111,VISA,GB,\n");
+    assertThat(table.reload()).isEqualTo(2);
+    assertThat(table.lookup(CARD)).isEqualTo(new CardMetadata("VISA", "GB", "acquirer-a"));
+  }
+
+  @Test
+  void reloadIfModifiedShouldOnlyReloadAChangedFile() throws IOException {
+    Path file = directory.resolve("bin-ranges.csv");
+    Files.writeString(file, "4,4,VISA,,\n");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2030-01-01T00:00:00Z")));
+    BinTable table = new BinTable(new FileSystemResource(file));
+
+    Files.writeString(file, "411111,411111,VISA,GB,acquirer-a\n");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2030-01-01T00:00:00Z")));
+    table.reloadIfModified();
+    assertThat(table.lookup(CARD).preferredAcquirer()).isNull();
+
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2030-01-01T00:01:00Z")));
+    table.reloadIfModified();
+    assertThat(table.lookup(CARD).preferredAcquirer()).isEqualTo("acquirer-a");
+  }
+
+  @Test
+  void missingFileShouldLeaveCardMetadataUnavailable() {
+    BinTable table = new BinTable(new FileSystemResource(directory.resolve("missing.csv")));
+
+    assertThat(table.reload()).isZero();
+    assertThat(table.lookup(CARD)).isNull();
+  }
+}
@@ -6,7 +6,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.checkout.payment.gateway.exception.BankCommunicationException;
+import com.checkout.payment.gateway.exception.DeadlineExceededException;
+import com.checkout.payment.gateway.exception.DuplicatePaymentInProgressException;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.monitoring.PaymentStage;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -42,7 +45,7 @@ class PaymentGatewayControllerExceptionTest {
         "123"
     );
 
-    when(paymentGatewayService.processPayment(any()))
+    when(paymentGatewayService.processPayment(any(), any(), any()))
         .thenThrow(new BankCommunicationException("Bank down"));
 
     mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment")
@@ -64,7 +67,7 @@ class PaymentGatewayControllerExceptionTest {
         "123"
     );
 
-    when(paymentGatewayService.processPayment(any()))
+    when(paymentGatewayService.processPayment(any(), any(), any()))
         .thenThrow(new RuntimeException("Something went very wrong"));
 
     mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment")
@@ -74,4 +77,47 @@ class PaymentGatewayControllerExceptionTest {
         .andExpect(jsonPath("$.message")
             .value("An unexpected error occurred"));
   }
+
+  @Test
+  void whenDeadlineExceededExceptionOccurs_then504IsReturned() throws Exception {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "4111111111111111",
+        12,
+        2030,
+        "USD",
+        1000,
+        "123"
+    );
+
+    when(paymentGatewayService.processPayment(any(), any(), any()))
+        .thenThrow(new DeadlineExceededException("Deadline passed", PaymentStage.ACQUIRER));
+
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment")
+            .header("Request-Timeout-Ms", "100")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isGatewayTimeout())
+        .andExpect(jsonPath("$.message").value("Deadline passed"));
+  }
+
+  @Test
+  void whenDuplicatePaymentIsInProgress_then409IsReturned() throws Exception {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "4111111111111111",
+        12,
+        2030,
+        "USD",
+        1000,
+        "123"
+    );
+
+    when(paymentGatewayService.processPayment(any(), any(), any()))
+        .thenThrow(new DuplicatePaymentInProgressException("Still processing"));
+
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value("Still processing"));
+  }
 }
@@ -1,5 +1,7 @@
 package com.checkout.payment.gateway.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -7,7 +9,10 @@ import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.checkout.payment.gateway.model.PaymentResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -113,9 +118,111 @@ class PaymentGatewayControllerTest {
         .andExpect(jsonPath("$.amount").value(payment.amount()));
   }
 
+  @Test
+  void whenSmileIsAccepted_thenPaymentIsReturnedAsSmile() throws Exception {
+    PaymentResponse payment = new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        "1234", 12, 2030, "GBP", 1000, null, "VISA", "GB");
+    paymentsRepository.add(payment);
+    MediaType smile = new MediaType("application", "x-jackson-smile");
+
+    byte[] body = mvc.perform(MockMvcRequestBuilders.get("/api/v1/payment/" + payment.id())
+            .accept(smile))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(smile))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode decoded = objectMapper.copyWith(new SmileFactory()).readTree(body);
+    assertThat(decoded).isEqualTo(objectMapper.valueToTree(payment));
+  }
+
+  @Test
+  void whenPaymentIsPostedAsCbor_thenResponseIsCbor() throws Exception {
+    ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+    PostPaymentRequest request = new PostPaymentRequest("12", 12, 2030, "USD", 1000, "123");
+
+    byte[] body = mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .accept(MediaType.APPLICATION_CBOR)
+            .content(cbor.writeValueAsBytes(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(cbor.readTree(body).get("status").asText())
+        .isEqualTo(PaymentStatus.REJECTED.getName());
+  }
+
   @Test
   void whenPaymentWithIdDoesNotExist_then404IsReturned() throws Exception {
     mvc.perform(MockMvcRequestBuilders.get("/api/v1/payment/" + UUID.randomUUID()))
         .andExpect(status().isNotFound());
   }
+
+  @Test
+  void whenAuthorizedPaymentIsCaptured_thenCapturedPaymentIsReturned() throws Exception {
+    PaymentResponse payment = new PaymentResponse(
+        UUID.randomUUID(),
+        PaymentStatus.AUTHORIZED,
+        "1234",
+        12,
+        2030,
+        "USD",
+        1000,
+        null
+    );
+    paymentsRepository.add(payment);
+
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment/" + payment.id() + "/capture"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value(PaymentStatus.CAPTURED.getName()));
+
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment/" + payment.id() + "/refund")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"amount\": 250}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value(PaymentStatus.PARTIALLY_REFUNDED.getName()))
+        .andExpect(jsonPath("$.refundedAmount").value(250));
+
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment/" + payment.id() + "/void"))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  void whenPaymentBelongsToAnotherMerchant_then404IsReturned() throws Exception {
+    PaymentResponse payment = new PaymentResponse(
+        UUID.randomUUID(),
+        PaymentStatus.AUTHORIZED,
+        "1234",
+        12,
+        2030,
+        "USD",
+        1000,
+        null,
+        null,
+        null,
+        null,
+        "merchant-1"
+    );
+    paymentsRepository.add(payment);
+
+    mvc.perform(MockMvcRequestBuilders.get("/api/v1/payment/" + payment.id())
+            .header("Merchant-Id", "merchant-2"))
+        .andExpect(status().isNotFound());
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment/" + payment.id() + "/capture")
+            .header("Merchant-Id", "merchant-2"))
+        .andExpect(status().isNotFound());
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment/" + payment.id() + "/void"))
+        .andExpect(status().isNotFound());
+    mvc.perform(MockMvcRequestBuilders.get("/api/v1/payment/" + payment.id())
+            .header("Merchant-Id", "merchant-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value(PaymentStatus.AUTHORIZED.getName()))
+        .andExpect(jsonPath("$.merchantId").doesNotExist());
+  }
+
+  @Test
+  void whenUnknownPaymentIsCaptured_then404IsReturned() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment/" + UUID.randomUUID() + "/capture"))
+        .andExpect(status().isNotFound());
+  }
 }
@@ -0,0 +1,62 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.service.BankClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@SpringBootTest(properties = {
+    "gateway.server-timing.enabled=true",
+    "gateway.server-timing.slow-threshold-ms=0"
+})
+@AutoConfigureMockMvc
+class ServerTimingControllerTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @MockBean
+  private BankClient bankClient;
+
+  @Test
+  void whenPaymentIsProcessed_thenServerTimingHeaderContainsStages() throws Exception {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "4111111111111111",
+        12,
+        2030,
+        "USD",
+        1000,
+        "123"
+    );
+    when(bankClient.authorizePayment(any(), any())).thenReturn(new BankPaymentResponse(true, "code"));
+
+    mvc.perform(MockMvcRequestBuilders.post("/api/v1/payment")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Server-Timing", Matchers.containsString("validation;dur=")))
+        .andExpect(header().string("Server-Timing", Matchers.containsString("total;dur=")));
+
+    mvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/slow-requests"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].path").value("/api/v1/payment"));
+  }
+}
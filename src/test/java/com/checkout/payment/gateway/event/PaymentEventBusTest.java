@@ -0,0 +1,76 @@
+package com.checkout.payment.gateway.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class PaymentEventBusTest {
+
+  @Test
+  void whenCursorIsOpenedWithoutLastEventId_thenOnlyNewEventsAreReceived() {
+    PaymentEventBus bus = new PaymentEventBus(8);
+    bus.publish("merchant-1", payment(1));
+
+    PaymentEventCursor cursor = bus.openCursor(null);
+    assertThat(cursor.poll()).isNull();
+
+    bus.publish("merchant-1", payment(2));
+
+    PaymentEvent event = cursor.poll();
+    assertThat(event.sequence()).isEqualTo(1);
+    assertThat(event.payment().amount()).isEqualTo(2);
+    assertThat(cursor.poll()).isNull();
+  }
+
+  @Test
+  void whenCursorResumesFromLastEventId_thenMissedEventsAreReplayed() {
+    PaymentEventBus bus = new PaymentEventBus(8);
+    for (int i = 0; i < 3; i++) {
+      bus.publish("merchant-1", payment(i));
+    }
+
+    PaymentEventCursor cursor = bus.openCursor(0L);
+
+    assertThat(cursor.poll().sequence()).isEqualTo(1);
+    assertThat(cursor.poll().sequence()).isEqualTo(2);
+    assertThat(cursor.poll()).isNull();
+  }
+
+  @Test
+  void whenReaderIsLapped_thenItSkipsToOldestRetainedEventAndReportsGap() {
+    PaymentEventBus bus = new PaymentEventBus(4);
+    PaymentEventCursor cursor = bus.openCursor(null);
+
+    for (int i = 0; i < 10; i++) {
+      bus.publish("merchant-1", payment(i));
+    }
+
+    PaymentEvent event = cursor.poll();
+
+    assertThat(event.sequence()).isEqualTo(6);
+    assertThat(cursor.takeDropped()).isEqualTo(6);
+    assertThat(cursor.takeDropped()).isZero();
+  }
+
+  @Test
+  void whenReaderLagsBeyondBound_thenItIsSkippedForward() {
+    PaymentEventBus bus = new PaymentEventBus(16);
+    PaymentEventCursor cursor = bus.openCursor(null);
+
+    for (int i = 0; i < 10; i++) {
+      bus.publish("merchant-1", payment(i));
+    }
+    cursor.boundLag(2);
+
+    assertThat(cursor.takeDropped()).isEqualTo(8);
+    assertThat(cursor.poll().sequence()).isEqualTo(8);
+  }
+
+  private static PaymentResponse payment(int amount) {
+    return new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED, "1111", 12, 2030,
+        "USD", amount, null);
+  }
+}
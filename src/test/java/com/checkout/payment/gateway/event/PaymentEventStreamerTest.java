@@ -0,0 +1,131 @@
+package com.checkout.payment.gateway.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.SubscriptionLimitExceededException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class PaymentEventStreamerTest {
+
+  private final PaymentEventBus bus = new PaymentEventBus(64);
+  private final PaymentEventStreamer streamer = new PaymentEventStreamer(bus, 2, 16, 1, 20,
+      60_000);
+
+  @AfterEach
+  void tearDown() {
+    streamer.shutdown();
+  }
+
+  @Test
+  void whenPaymentIsPublished_thenOnlyItsMerchantsSubscribersReceiveIt()
+      throws InterruptedException {
+    RecordingEmitter merchant = subscribe("merchant-1");
+    RecordingEmitter other = subscribe("merchant-2");
+    PaymentResponse payment = payment();
+
+    bus.publish("merchant-1", payment);
+
+    String event = merchant.nextEvent("event:payment");
+    assertThat(event).contains("id:0");
+    assertThat(event).contains(payment.id().toString());
+    assertThat(other.nextEvent("event:payment")).isNull();
+  }
+
+  @Test
+  void whenSubscriberResumesFromLastEventId_thenMissedPaymentsAreReplayed()
+      throws InterruptedException {
+    bus.publish("merchant-1", payment());
+    bus.publish("merchant-1", payment());
+
+    RecordingEmitter emitter = new RecordingEmitter();
+    streamer.subscribe("merchant-1", 0L, emitter);
+
+    assertThat(emitter.nextEvent("event:payment")).contains("id:1");
+  }
+
+  @Test
+  void whenSubscriberLimitIsReached_thenFurtherSubscribersAreRefused() {
+    subscribe("merchant-1");
+    subscribe("merchant-2");
+
+    assertThatThrownBy(() -> subscribe("merchant-3"))
+        .isInstanceOf(SubscriptionLimitExceededException.class);
+    assertThat(streamer.subscribers()).isEqualTo(2);
+  }
+
+  @Test
+  void whenIdleClientDisconnects_thenHeartbeatFreesItsSlot() throws InterruptedException {
+    RecordingEmitter first = subscribe("merchant-1");
+    subscribe("merchant-2");
+    assertThat(first.nextEvent(":heartbeat")).isNotNull();
+
+    first.disconnected = true;
+
+    assertThat(awaitSubscribers(1)).isTrue();
+    assertThat(subscribe("merchant-3")).isNotNull();
+  }
+
+  private RecordingEmitter subscribe(String merchantId) {
+    RecordingEmitter emitter = new RecordingEmitter();
+    streamer.subscribe(merchantId, null, emitter);
+    return emitter;
+  }
+
+  private boolean awaitSubscribers(int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (streamer.subscribers() != expected) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      TimeUnit.MILLISECONDS.sleep(5);
+    }
+    return true;
+  }
+
+  private static PaymentResponse payment() {
+    return new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED, "8877", 4, 2030,
+        "GBP", 100, null, null, null);
+  }
+
+  /**
+   * Records each event as its wire text instead of writing to a response, and fails every send
+   * once the client has disconnected.
+   */
+  private static final class RecordingEmitter extends SseEmitter {
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private volatile boolean disconnected;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (disconnected) {
+        throw new IOException("Broken pipe");
+      }
+      StringBuilder event = new StringBuilder();
+      builder.build().forEach(part -> event.append(part.getData()));
+      events.add(event.toString());
+    }
+
+    /**
+     * @return the next event containing {@code marker} sent within 500 ms, or null
+     */
+    String nextEvent(String marker) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+      String event;
+      do {
+        event = events.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      } while (event != null && !event.contains(marker));
+      return event;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.checkout.payment.gateway.fairness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.exception.GatewayBusyException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MerchantFairQueueTest {
+
+  private final ExecutorService callers = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void tearDown() {
+    callers.shutdownNow();
+  }
+
+  @Test
+  void backloggedMerchantsShouldShareSlotsInProportionToWeight() throws Exception {
+    MerchantFairQueue queue = new MerchantFairQueue(true, 1, 1, 1, 100,
+        Map.of("heavy", 3, "light", 1), Map.of(), List.of(), 16);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> holder = callers.submit(() -> queue.call("holder", () -> await(release)));
+    awaitInFlight(queue, "holder", 1);
+
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    List<Future<?>> calls = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      calls.add(callers.submit(() -> queue.call("heavy", () -> order.add("heavy"))));
+      calls.add(callers.submit(() -> queue.call("light", () -> order.add("light"))));
+    }
+    awaitQueued(queue, "heavy", 4);
+    awaitQueued(queue, "light", 4);
+
+    release.countDown();
+    holder.get(5, TimeUnit.SECONDS);
+    for (Future<?> call : calls) {
+      call.get(5, TimeUnit.SECONDS);
+    }
+
+    assertThat(order.subList(0, 4)).containsExactlyInAnyOrder("heavy", "heavy", "heavy", "light");
+    assertThat(order).hasSize(8);
+  }
+
+  @Test
+  void merchantAtItsConcurrencyCapShouldNotBlockOtherMerchants() throws Exception {
+    MerchantFairQueue queue = new MerchantFairQueue(true, 4, 1, 1, 100, Map.of(), Map.of(),
+        List.of("bulk"), 16);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> first = callers.submit(() -> queue.call("bulk", () -> await(release)));
+    awaitInFlight(queue, "bulk", 1);
+    Future<?> second = callers.submit(() -> queue.call("bulk", () -> "second"));
+    awaitQueued(queue, "bulk", 1);
+
+    assertThat(queue.call("interactive", () -> "done")).isEqualTo("done");
+    assertThat(second).isNotDone();
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+    assertThat(stats(queue, "bulk").dispatched()).isEqualTo(2);
+  }
+
+  @Test
+  void fullMerchantQueueShouldBeRefused() throws Exception {
+    MerchantFairQueue queue = new MerchantFairQueue(true, 1, 1, 1, 1, Map.of(), Map.of(),
+        List.of(), 16);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> first = callers.submit(() -> queue.call("m", () -> await(release)));
+    awaitInFlight(queue, "m", 1);
+    Future<?> second = callers.submit(() -> queue.call("m", () -> "queued"));
+    awaitQueued(queue, "m", 1);
+
+    assertThatThrownBy(() -> queue.call("m", () -> "refused"))
+        .isInstanceOf(GatewayBusyException.class);
+    assertThat(stats(queue, "m").rejected()).isEqualTo(1);
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    second.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void idleUnregisteredMerchantQueuesShouldBeEvicted() {
+    MerchantFairQueue queue = new MerchantFairQueue(true, 4, 1, 1, 100, Map.of(), Map.of(),
+        List.of("registered"), 16);
+
+    for (int i = 0; i < 1_000; i++) {
+      queue.call("rotating-" + i, () -> "done");
+    }
+    queue.call("registered", () -> "done");
+
+    assertThat(queue.stats()).extracting(MerchantQueueStats::merchantId)
+        .containsExactly("registered");
+  }
+
+  @Test
+  void unregisteredMerchantsBeyondTheLimitShouldShareTheAnonymousQueue() throws Exception {
+    MerchantFairQueue queue = new MerchantFairQueue(true, 8, 1, 1, 100, Map.of(), Map.of(),
+        List.of(), 1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> first = callers.submit(() -> queue.call("first", () -> await(release)));
+    awaitInFlight(queue, "first", 1);
+    Future<?> second = callers.submit(() -> queue.call("second", () -> await(release)));
+    awaitInFlight(queue, MerchantFairQueue.ANONYMOUS_MERCHANT, 1);
+    Future<?> third = callers.submit(() -> queue.call("third", () -> "queued"));
+    awaitQueued(queue, MerchantFairQueue.ANONYMOUS_MERCHANT, 1);
+
+    assertThat(queue.stats()).extracting(MerchantQueueStats::merchantId)
+        .containsExactly(MerchantFairQueue.ANONYMOUS_MERCHANT, "first");
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    second.get(5, TimeUnit.SECONDS);
+    assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+  }
+
+  @Test
+  void parseOverridesShouldRejectMalformedEntries() {
+    assertThat(MerchantFairQueue.parseOverrides(List.of("a=2", " b = 5 ", "")))
+        .containsEntry("a", 2)
+        .containsEntry("b", 5)
+        .hasSize(2);
+    assertThatThrownBy(() -> MerchantFairQueue.parseOverrides(List.of("a")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> MerchantFairQueue.parseOverrides(List.of("a=0")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Object await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static MerchantQueueStats stats(MerchantFairQueue queue, String merchantId) {
+    return queue.stats().stream()
+        .filter(stats -> stats.merchantId().equals(merchantId))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static void awaitInFlight(MerchantFairQueue queue, String merchantId, int inFlight)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (queue.stats().stream().noneMatch(
+        stats -> stats.merchantId().equals(merchantId) && stats.inFlight() == inFlight)) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(1);
+    }
+  }
+
+  private static void awaitQueued(MerchantFairQueue queue, String merchantId, int queued)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (queue.stats().stream().noneMatch(
+        stats -> stats.merchantId().equals(merchantId) && stats.queued() == queued)) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(1);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.checkout.payment.gateway.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.jfr.PaymentRecordingAnalyzer.SlowPayment;
+import com.checkout.payment.gateway.jfr.PaymentRecordingAnalyzer.Summary;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PaymentRecordingAnalyzerTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldSummariseStageLatenciesAndSlowestPayments() throws Exception {
+    Path file = tempDir.resolve("payments.jfr");
+    String slowPaymentId = UUID.randomUUID().toString();
+
+    try (Recording recording = new Recording()) {
+      recording.enable(PaymentValidationEvent.class);
+      recording.enable(BankAuthorizationEvent.class);
+      recording.enable(PaymentRejectedEvent.class);
+      recording.enable(PaymentProcessedEvent.class);
+      recording.start();
+
+      for (int i = 0; i < 3; i++) {
+        PaymentValidationEvent validation = new PaymentValidationEvent();
+        validation.begin();
+        validation.complete("GBP", 0);
+        BankAuthorizationEvent bank = new BankAuthorizationEvent();
+        bank.begin();
+        bank.complete(UUID.randomUUID().toString(), i == 0 ? "Declined" : "Authorized", "GBP",
+            100);
+      }
+      new PaymentRejectedEvent().complete(List.of("Currency is not supported"));
+
+      PaymentProcessedEvent fast = new PaymentProcessedEvent();
+      fast.begin();
+      fast.complete(UUID.randomUUID().toString(), "Authorized", "GBP", 100);
+      PaymentProcessedEvent slow = new PaymentProcessedEvent();
+      slow.begin();
+      Thread.sleep(20);
+      slow.complete(slowPaymentId, "Declined", "USD", 250);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    Summary summary = PaymentRecordingAnalyzer.analyze(file, 1);
+
+    assertThat(summary.stage("Validation").count()).isEqualTo(3);
+    assertThat(summary.stage("BankAuthorization/Authorized").count()).isEqualTo(2);
+    assertThat(summary.stage("BankAuthorization/Declined").count()).isEqualTo(1);
+    assertThat(summary.stage("Rejected").count()).isEqualTo(1);
+    assertThat(summary.stage("Processed/Declined").maxMillis()).isGreaterThanOrEqualTo(20.0);
+
+    assertThat(summary.slowest()).hasSize(1);
+    SlowPayment slowest = summary.slowest().get(0);
+    assertThat(slowest.paymentId()).isEqualTo(slowPaymentId);
+    assertThat(slowest.status()).isEqualTo("Declined");
+    assertThat(slowest.durationMillis()).isGreaterThanOrEqualTo(20.0);
+  }
+}
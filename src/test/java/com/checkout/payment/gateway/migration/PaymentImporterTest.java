@@ -0,0 +1,135 @@
+package com.checkout.payment.gateway.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.InvalidImportFileException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PaymentImporterTest {
+
+  @TempDir
+  Path directory;
+
+  private final PaymentsRepository repository = new PaymentsRepository();
+  private PaymentImporter importer;
+
+  @AfterEach
+  void tearDown() {
+    importer.shutdown();
+  }
+
+  @Test
+  void importShouldStoreEveryPaymentAcrossManyChunks() throws IOException {
+    importer = new PaymentImporter(repository, directory.toString(), 4, 256, 7, 100);
+    List<UUID> ids = new ArrayList<>();
+    StringBuilder csv = new StringBuilder(PaymentCsvParser.HEADER).append('\n');
+    for (int i = 0; i < 1000; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      csv.append(id).append(",Authorized,").append(String.format("%04d", i)).append(",12,2030,")
+          .append(i % 2 == 0 ? "GBP" : "USD").append(',').append(i).append(",VISA,GB,\n");
+    }
+    Files.writeString(directory.resolve("payments.csv"), csv);
+
+    ImportReport report = importer.importFile("payments.csv");
+
+    assertThat(report.imported()).isEqualTo(1000);
+    assertThat(report.failed()).isZero();
+    assertThat(report.errors()).isEmpty();
+    assertThat(report.bytes()).isEqualTo(csv.length());
+    assertThat(repository.get(ids.get(7))).contains(new PaymentResponse(ids.get(7),
+        PaymentStatus.AUTHORIZED, "0007", 12, 2030, "USD", 7, null, "VISA", "GB", null));
+    assertThat(ids).allMatch(id -> repository.get(id).isPresent());
+  }
+
+  @Test
+  void malformedLinesShouldBeReportedWithTheirLineNumbers() throws IOException {
+    importer = new PaymentImporter(repository, directory.toString(), 2, 128, 100, 100);
+    UUID refunded = UUID.randomUUID();
+    String csv = String.join("\r\n",
+        UUID.randomUUID() + ",Captured,1234,1,2031,EUR,500,,,0",
+        "not-a-uuid,Captured,1234,1,2031,EUR,500,,,0",
+        UUID.randomUUID() + ",Settled,1234,1,2031,EUR,500,,,0",
+        "",
+        refunded + ",Partially Refunded,,,,EUR,500,,,200",
+        UUID.randomUUID() + ",Captured,12345,1,2031,EUR,500,,,0",
+        UUID.randomUUID() + ",Captured,1234,1,2031,EUR,5000000000,,,0",
+        UUID.randomUUID() + ",Pending,1234,1,2031,EUR,500,,,",
+        UUID.randomUUID() + ",Captured,1234,1,2031,EUR,500,,,",
+        UUID.randomUUID() + ",Authorized,1234,1,2031,,500,,,",
+        UUID.randomUUID() + ",Refunded,1234,1,2031,EUR,500,,,600",
+        UUID.randomUUID() + ",Captured,1234,1,2031,EUR,500,,");
+    Files.write(directory.resolve("history.csv"), csv.getBytes(StandardCharsets.US_ASCII));
+
+    ImportReport report = importer.importFile("history.csv");
+
+    assertThat(report.imported()).isEqualTo(2);
+    assertThat(report.failed()).isEqualTo(9);
+    assertThat(report.errors()).extracting(ImportError::line)
+        .containsExactly(2L, 3L, 6L, 7L, 8L, 9L, 10L, 11L, 12L);
+    assertThat(report.errors()).extracting(ImportError::message).containsExactly(
+        "id is not a UUID",
+        "unknown status",
+        "card_number_last_four must be 4 digits",
+        "column 7 is out of range",
+        "pending payments cannot be imported",
+        "refunded_amount is required once captured",
+        "currency is required",
+        "refunded_amount must be between 0 and amount",
+        "expected 10 or 11 columns, found 9");
+    assertThat(repository.get(refunded)).contains(new PaymentResponse(refunded,
+        PaymentStatus.PARTIALLY_REFUNDED, null, null, null, "EUR", 500, null, null, null, 200));
+  }
+
+  @Test
+  void storedPaymentsShouldBeSkippedUnlessOverwriteIsRequested() throws IOException {
+    importer = new PaymentImporter(repository, directory.toString(), 1, 1024, 100, 100);
+    PaymentResponse live = new PaymentResponse(UUID.randomUUID(), PaymentStatus.CAPTURED, "4242",
+        12, 2030, "GBP", 1000, null, "VISA", "GB", 300);
+    repository.add(live);
+    UUID fresh = UUID.randomUUID();
+    Files.writeString(directory.resolve("history.csv"), String.join("\n",
+        PaymentCsvParser.HEADER,
+        live.id() + ",Captured,4242,12,2030,GBP,1000,VISA,GB,0",
+        fresh + ",Authorized,1111,1,2031,EUR,500,,,,merchant-1"));
+
+    ImportReport report = importer.importFile("history.csv");
+
+    assertThat(report.imported()).isEqualTo(1);
+    assertThat(report.skipped()).isEqualTo(1);
+    assertThat(repository.get(live.id())).contains(live);
+    assertThat(repository.get(fresh).orElseThrow().merchantId()).isEqualTo("merchant-1");
+
+    ImportReport overwritten = importer.importFile("history.csv", true);
+
+    assertThat(overwritten.imported()).isEqualTo(2);
+    assertThat(overwritten.skipped()).isZero();
+    assertThat(repository.get(live.id()).orElseThrow().refundedAmount()).isZero();
+  }
+
+  @Test
+  void filesOutsideTheImportDirectoryShouldBeRefused() throws IOException {
+    importer = new PaymentImporter(repository, directory.resolve("import").toString(), 1,
+        1024, 100, 100);
+    Files.createDirectories(directory.resolve("import"));
+    Files.writeString(directory.resolve("secret.csv"), PaymentCsvParser.HEADER);
+
+    assertThatThrownBy(() -> importer.importFile("../secret.csv"))
+        .isInstanceOf(InvalidImportFileException.class);
+    assertThatThrownBy(() -> importer.importFile("missing.csv"))
+        .isInstanceOf(InvalidImportFileException.class);
+  }
+}
@@ -0,0 +1,91 @@
+package com.checkout.payment.gateway.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.checkout.payment.gateway.monitoring.PaymentLogEvent.Type;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+class PaymentEventLoggerTest {
+
+  private static final String PAYMENT = "payment_event type={} payment_id={} card=****{} "
+      + "currency={} amount={}";
+  private static final String BANK_ERROR = "payment_event type=BANK_ERROR message=\"{}\"";
+  private static final String SUPPRESSED =
+      "payment_event type=BANK_ERROR message=\"{}\" suppressed={}";
+  private static final String DROPPED = "payment_event type=DROPPED count={}";
+
+  private final Logger log = mock(Logger.class);
+
+  @Test
+  void whenPaymentsAreLogged_thenEachIsWrittenOnce() throws InterruptedException {
+    PaymentEventLogger logger = new PaymentEventLogger(16, 5, 60_000, log);
+    UUID authorized = UUID.randomUUID();
+    UUID declined = UUID.randomUUID();
+
+    logger.authorized(authorized, "8877", "GBP", 100);
+    logger.declined(declined, "8112", "USD", 60);
+    logger.rejected(List.of("Invalid CVV", "Invalid currency"));
+    logger.shutdown();
+
+    verify(log).info(PAYMENT, Type.AUTHORIZED, authorized, "8877", "GBP", 100);
+    verify(log).info(PAYMENT, Type.DECLINED, declined, "8112", "USD", 60);
+    verify(log).warn("payment_event type=REJECTED errors=\"{}\"",
+        "Invalid CVV; Invalid currency");
+  }
+
+  @Test
+  void whenIdenticalBankErrorsExceedTheSampleLimit_thenTheRestAreSummarised()
+      throws InterruptedException {
+    PaymentEventLogger logger = new PaymentEventLogger(16, 2, 60_000, log);
+
+    for (int i = 0; i < 5; i++) {
+      logger.bankError("Bank unavailable");
+    }
+    logger.bankError("Bank timeout");
+    logger.shutdown();
+
+    verify(log, times(2)).error(BANK_ERROR, "Bank unavailable");
+    verify(log).error(SUPPRESSED, "Bank unavailable", 3);
+    verify(log).error(BANK_ERROR, "Bank timeout");
+    verify(log, never()).error(eq(SUPPRESSED), eq("Bank timeout"), any());
+  }
+
+  @Test
+  void whenTheRingIsFull_thenEventsAreDroppedAndReported() throws InterruptedException {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch resume = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      writing.countDown();
+      resume.await();
+      return null;
+    }).when(log).warn(anyString(), eq("Blocking"));
+    PaymentEventLogger logger = new PaymentEventLogger(4, 5, 60_000, log);
+    UUID paymentId = UUID.randomUUID();
+
+    logger.rejected(List.of("Blocking"));
+    assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 10; i++) {
+      logger.authorized(paymentId, "8877", "GBP", 100);
+    }
+
+    assertThat(logger.droppedEvents()).isEqualTo(7);
+    resume.countDown();
+    logger.shutdown();
+
+    verify(log, times(3)).info(PAYMENT, Type.AUTHORIZED, paymentId, "8877", "GBP", 100);
+    verify(log).warn(DROPPED, 7L);
+  }
+}
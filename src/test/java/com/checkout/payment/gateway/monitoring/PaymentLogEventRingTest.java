@@ -0,0 +1,65 @@
+package com.checkout.payment.gateway.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.monitoring.PaymentLogEvent.Type;
+import org.junit.jupiter.api.Test;
+
+class PaymentLogEventRingTest {
+
+  @Test
+  void whenEventsArePublished_thenTheyAreConsumedInOrder() {
+    PaymentLogEventRing ring = new PaymentLogEventRing(4);
+
+    publish(ring, Type.AUTHORIZED, 1);
+    publish(ring, Type.DECLINED, 2);
+
+    assertThat(ring.peek().amount).isEqualTo(1);
+    ring.release();
+    assertThat(ring.peek().type).isEqualTo(Type.DECLINED);
+    ring.release();
+    assertThat(ring.peek()).isNull();
+  }
+
+  @Test
+  void whenRingIsFull_thenEventIsDroppedAndCounted() {
+    PaymentLogEventRing ring = new PaymentLogEventRing(2);
+
+    publish(ring, Type.AUTHORIZED, 1);
+    publish(ring, Type.AUTHORIZED, 2);
+
+    assertThat(ring.claim()).isEqualTo(-1);
+    assertThat(ring.dropped()).isEqualTo(1);
+
+    ring.peek();
+    ring.release();
+
+    assertThat(ring.claim()).isGreaterThanOrEqualTo(0);
+  }
+
+  @Test
+  void whenSlotIsReleased_thenItIsCleared() {
+    PaymentLogEventRing ring = new PaymentLogEventRing(2);
+    publish(ring, Type.BANK_ERROR, 0);
+
+    PaymentLogEvent event = ring.peek();
+    ring.release();
+
+    assertThat(event.type).isNull();
+  }
+
+  @Test
+  void whenCapacityIsNotPowerOfTwo_thenConstructionFails() {
+    assertThatThrownBy(() -> new PaymentLogEventRing(3))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static void publish(PaymentLogEventRing ring, Type type, int amount) {
+    long position = ring.claim();
+    PaymentLogEvent event = ring.slot(position);
+    event.type = type;
+    event.amount = amount;
+    ring.publish(position);
+  }
+}
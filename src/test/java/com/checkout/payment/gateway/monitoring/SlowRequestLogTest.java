@@ -0,0 +1,33 @@
+package com.checkout.payment.gateway.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SlowRequestLogTest {
+
+  @Test
+  void whenMoreRequestsThanCapacityAreRecorded_thenOnlyMostRecentAreKept() {
+    SlowRequestLog log = new SlowRequestLog(2);
+
+    log.record(slowRequest(1));
+    log.record(slowRequest(2));
+    log.record(slowRequest(3));
+
+    List<SlowRequest> recent = log.recent();
+
+    assertThat(recent).extracting(SlowRequest::totalMillis).containsExactly(3.0, 2.0);
+  }
+
+  @Test
+  void whenNothingIsRecorded_thenEmptyListIsReturned() {
+    assertThat(new SlowRequestLog(4).recent()).isEmpty();
+  }
+
+  private static SlowRequest slowRequest(double totalMillis) {
+    return new SlowRequest(Instant.now(), "POST", "/api/v1/payment", 200, totalMillis, Map.of());
+  }
+}
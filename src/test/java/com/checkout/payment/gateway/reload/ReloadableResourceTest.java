@@ -0,0 +1,79 @@
+package com.checkout.payment.gateway.reload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class ReloadableResourceTest {
+
+  @TempDir
+  Path directory;
+
+  private final AtomicInteger parses = new AtomicInteger();
+
+  @Test
+  void brokenFileShouldNotBeParsedAgainUntilItChanges() throws IOException {
+    Path file = directory.resolve("values.txt");
+    write(file, "first", "2030-01-01T00:00:00Z");
+    ReloadableResource<String> resource = resource(file);
+    resource.reload();
+
+    write(file, "", "2030-01-01T00:01:00Z");
+    resource.reloadIfModified();
+    resource.reloadIfModified();
+
+    assertThat(resource.current()).isEqualTo("first");
+    assertThat(parses.get()).isEqualTo(2);
+
+    write(file, "second", "2030-01-01T00:02:00Z");
+    resource.reloadIfModified();
+
+    assertThat(resource.current()).isEqualTo("second");
+    assertThat(parses.get()).isEqualTo(3);
+  }
+
+  @Test
+  void unchangedFileShouldNotBeParsedAgain() throws IOException {
+    Path file = directory.resolve("values.txt");
+    write(file, "first", "2030-01-01T00:00:00Z");
+    ReloadableResource<String> resource = resource(file);
+    resource.reload();
+
+    resource.reloadIfModified();
+
+    assertThat(parses.get()).isEqualTo(1);
+  }
+
+  @Test
+  void missingFileShouldKeepTheInitialValue() {
+    ReloadableResource<String> resource = resource(directory.resolve("missing.txt"));
+
+    assertThat(resource.reload()).isEqualTo("initial");
+    assertThat(parses.get()).isZero();
+  }
+
+  private ReloadableResource<String> resource(Path file) {
+    return new ReloadableResource<>("values", new FileSystemResource(file), "initial",
+        reader -> {
+          parses.incrementAndGet();
+          String line = reader.readLine();
+          if (line == null || line.isEmpty()) {
+            throw new IllegalArgumentException("Empty file");
+          }
+          return line;
+        }, value -> value);
+  }
+
+  private static void write(Path file, String content, String modified) throws IOException {
+    Files.writeString(file, content + "\n");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse(modified)));
+  }
+}
@@ -0,0 +1,128 @@
+package com.checkout.payment.gateway.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicationTest {
+
+  private final PaymentsRepository primaryRepository = new PaymentsRepository();
+  private final PaymentsRepository replicaRepository = new PaymentsRepository();
+  private final List<AutoCloseable> closeables = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() throws Exception {
+    for (AutoCloseable closeable : closeables) {
+      closeable.close();
+    }
+  }
+
+  @Test
+  void paymentsAndUpdatesShouldReachTheReplica() throws Exception {
+    ReplicationPrimary primary = primary(1024);
+    ReplicationReplica replica = replica(primary);
+    PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+    PaymentResponse rejected = new PaymentResponse(UUID.randomUUID(), PaymentStatus.REJECTED,
+        null, 13, 2030, "USD", 100, List.of("Expiry month must be between 1 and 12"));
+
+    primaryRepository.add(payment);
+    primaryRepository.add(rejected);
+    primaryRepository.update(payment.id(),
+        current -> current.withStatus(PaymentStatus.CAPTURED));
+
+    awaitTrue(() -> replica.appliedSequence() == 3);
+    assertThat(replicaRepository.get(payment.id()))
+        .contains(payment.withStatus(PaymentStatus.CAPTURED));
+    assertThat(replicaRepository.get(rejected.id())).contains(rejected);
+    assertThat(replica.connected()).isTrue();
+    assertThat(replica.lagSequences()).isZero();
+    awaitTrue(() -> primary.replicas().size() == 1
+        && primary.replicas().get(0).ackedSequence() == 3);
+  }
+
+  @Test
+  void reconnectingReplicaShouldCatchUpFromItsLastSequence() throws Exception {
+    ReplicationPrimary primary = primary(1024);
+    ReplicationReplica replica = replica(primary);
+    PaymentResponse first = payment(PaymentStatus.AUTHORIZED);
+    primaryRepository.add(first);
+    awaitTrue(() -> replica.appliedSequence() == 1);
+
+    replica.disconnect();
+    PaymentResponse second = payment(PaymentStatus.DECLINED);
+    primaryRepository.add(second);
+
+    awaitTrue(() -> replica.appliedSequence() == 2);
+    assertThat(replicaRepository.get(first.id())).contains(first);
+    assertThat(replicaRepository.get(second.id())).contains(second);
+  }
+
+  @Test
+  void replicaBehindTheLogShouldReceiveASnapshot() throws Exception {
+    ReplicationPrimary primary = primary(4);
+    ReplicationReplica replica = replica(primary);
+    primaryRepository.add(payment(PaymentStatus.AUTHORIZED));
+    awaitTrue(() -> replica.appliedSequence() == 1);
+
+    replica.disconnect();
+    for (int i = 0; i < 20; i++) {
+      primaryRepository.add(payment(PaymentStatus.AUTHORIZED));
+    }
+
+    awaitTrue(() -> replica.appliedSequence() == 21);
+    try (Stream<PaymentResponse> payments = primaryRepository.stream()) {
+      payments.forEach(payment -> assertThat(replicaRepository.get(payment.id()))
+          .contains(payment));
+    }
+  }
+
+  @Test
+  void newReplicaShouldStartFromASnapshot() throws Exception {
+    ReplicationPrimary primary = primary(1024);
+    PaymentResponse existing = payment(PaymentStatus.AUTHORIZED);
+    primaryRepository.add(existing);
+
+    ReplicationReplica replica = replica(primary);
+
+    awaitTrue(() -> replica.appliedSequence() == 1);
+    assertThat(replicaRepository.get(existing.id())).contains(existing);
+  }
+
+  private ReplicationPrimary primary(int logCapacity) throws Exception {
+    ReplicationPrimary primary = new ReplicationPrimary(primaryRepository, 0, logCapacity, 16,
+        20);
+    closeables.add(primary);
+    return primary;
+  }
+
+  private ReplicationReplica replica(ReplicationPrimary primary) {
+    ReplicationReplica replica = new ReplicationReplica(replicaRepository,
+        InetAddress.getLoopbackAddress().getHostAddress(), primary.port(), 20);
+    closeables.add(replica);
+    return replica;
+  }
+
+  private static PaymentResponse payment(PaymentStatus status) {
+    return new PaymentResponse(UUID.randomUUID(), status, "1234", 12, 2030, "GBP", 1000, null,
+        null, null, null, "merchant-1");
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class ColumnarPaymentStoreTest {
+
+  private final ColumnarPaymentStore store = new ColumnarPaymentStore();
+
+  @Test
+  void storedPaymentShouldBeMaterializedUnchanged() {
+    PaymentResponse payment = new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        "0042", 3, 2031, "GBP", 1250, null, "VISA", "GB", null, "merchant-1");
+
+    store.put(payment);
+
+    assertThat(store.get(payment.id())).contains(payment);
+  }
+
+  @Test
+  void paymentWithoutOptionalFieldsShouldRoundTripNulls() {
+    PaymentResponse payment = new PaymentResponse(UUID.randomUUID(), PaymentStatus.PENDING,
+        null, null, null, null, null, null);
+
+    store.put(payment);
+
+    assertThat(store.get(payment.id())).contains(payment);
+  }
+
+  @Test
+  void unknownIdShouldNotBeFound() {
+    store.put(payment(PaymentStatus.AUTHORIZED));
+
+    assertThat(store.get(UUID.randomUUID())).isEmpty();
+    assertThat(store.update(UUID.randomUUID(), current -> current)).isEmpty();
+  }
+
+  @Test
+  void puttingExistingIdShouldReplaceRow() {
+    PaymentResponse pending = payment(PaymentStatus.PENDING);
+    store.put(pending);
+
+    PaymentResponse authorized = pending.withStatus(PaymentStatus.AUTHORIZED);
+    store.put(authorized);
+
+    assertThat(store.get(pending.id())).contains(authorized);
+  }
+
+  @Test
+  void updateShouldChangeStatusAndRefundedAmount() {
+    PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+    store.put(payment);
+
+    PaymentResponse refunded = store.update(payment.id(),
+        current -> current.withStatus(PaymentStatus.PARTIALLY_REFUNDED, 300)).orElseThrow();
+
+    assertThat(refunded.refundedAmount()).isEqualTo(300);
+    assertThat(store.get(payment.id())).contains(refunded);
+  }
+
+  @Test
+  void rewrittenRowShouldStillBeUpdatable() {
+    PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+    store.put(payment);
+    PaymentResponse imported = new PaymentResponse(payment.id(), PaymentStatus.CAPTURED, "2222",
+        1, 2031, "EUR", 500, null, "VISA", "FR", 0);
+    store.put(imported);
+
+    PaymentResponse refunded = store.update(payment.id(),
+        current -> current.withStatus(PaymentStatus.REFUNDED, 500)).orElseThrow();
+
+    assertThat(refunded).isEqualTo(imported.withStatus(PaymentStatus.REFUNDED, 500));
+    assertThat(store.get(payment.id())).contains(refunded);
+  }
+
+  @Test
+  void updateShouldRejectChangesToImmutableColumns() {
+    PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+    store.put(payment);
+
+    assertThatThrownBy(() -> store.update(payment.id(), current -> new PaymentResponse(
+        current.id(), current.status(), "9999", current.expiryMonth(), current.expiryYear(),
+        current.currency(), current.amount(), null)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void storeShouldGrowAcrossPagesAndIndexResizes() {
+    List<PaymentResponse> payments = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      PaymentResponse payment = new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+          String.format("%04d", i % 10_000), 1 + i % 12, 2030, i % 2 == 0 ? "USD" : "EUR", i,
+          null);
+      payments.add(payment);
+      store.put(payment);
+    }
+
+    for (PaymentResponse payment : payments) {
+      assertThat(store.get(payment.id())).contains(payment);
+    }
+  }
+
+  @Test
+  void paymentWithErrorsShouldBeRefused() {
+    PaymentResponse rejected = new PaymentResponse(UUID.randomUUID(), PaymentStatus.REJECTED,
+        null, null, null, null, null, List.of("Card number is required"));
+
+    assertThatThrownBy(() -> store.put(rejected)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static PaymentResponse payment(PaymentStatus status) {
+    return new PaymentResponse(UUID.randomUUID(), status, "1111", 12, 2030, "USD", 1000, null);
+  }
+}
@@ -0,0 +1,98 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.CardMetadata;
+import com.checkout.payment.gateway.model.DeferredAuthorization;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DeferredAuthorizationJournalTest {
+
+  private static final SecretKeySpec KEY = new SecretKeySpec(new byte[32], "AES");
+
+  @TempDir
+  Path directory;
+
+  private DeferredAuthorizationJournal journal;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    journal = new DeferredAuthorizationJournal(directory, KEY);
+  }
+
+  @Test
+  void whenEntryIsSaved_thenItIsRecoveredByANewJournal() throws IOException {
+    DeferredAuthorization entry = entry();
+    journal.save(entry);
+
+    DeferredAuthorizationJournal reopened = new DeferredAuthorizationJournal(directory, KEY);
+
+    assertThat(reopened.loadAll()).containsExactly(entry);
+  }
+
+  @Test
+  void whenEntryIsSavedAgain_thenLatestVersionReplacesIt() {
+    DeferredAuthorization entry = entry();
+    journal.save(entry);
+    journal.save(entry.retryAt(123_456L));
+
+    assertThat(journal.loadAll()).singleElement()
+        .satisfies(loaded -> {
+          assertThat(loaded.attempts()).isEqualTo(2);
+          assertThat(loaded.nextAttemptAtMillis()).isEqualTo(123_456L);
+        });
+  }
+
+  @Test
+  void whenEntryIsDeleted_thenItIsNoLongerLoaded() {
+    DeferredAuthorization entry = entry();
+    journal.save(entry);
+
+    journal.delete(entry.pendingPayment().id());
+
+    assertThat(journal.loadAll()).isEmpty();
+  }
+
+  @Test
+  void whenEntryIsSaved_thenCardNumberIsNotStoredInPlainText() throws IOException {
+    journal.save(entry());
+
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        assertThat(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1))
+            .doesNotContain("4111111111111111");
+      }
+    }
+  }
+
+  private static DeferredAuthorization entry() {
+    PaymentResponse pending = new PaymentResponse(
+        UUID.randomUUID(),
+        PaymentStatus.PENDING,
+        "1111",
+        12,
+        2030,
+        "USD",
+        1000,
+        null,
+        "VISA",
+        null,
+        null,
+        "merchant-1"
+    );
+    BankPaymentRequest request = new BankPaymentRequest("4111111111111111", "12/2030", "USD",
+        1000, "123", new CardMetadata("VISA", null, "acquirer-a"));
+    return new DeferredAuthorization("merchant-1", request, pending, 1, 1_000L);
+  }
+}
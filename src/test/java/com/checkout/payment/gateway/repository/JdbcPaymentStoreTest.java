@@ -0,0 +1,179 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.PaymentStorageException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class JdbcPaymentStoreTest {
+
+  private final String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+  private final List<JdbcPaymentStore> stores = new ArrayList<>();
+  private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+  @AfterEach
+  void tearDown() {
+    callers.shutdownNow();
+    stores.forEach(JdbcPaymentStore::close);
+  }
+
+  @Test
+  void storedPaymentShouldBeReadBackFromTheDatabase() {
+    PaymentResponse payment = new PaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        "0042", 3, 2031, "GBP", 1250, null, "VISA", "GB", null, "merchant-1");
+    PaymentResponse bare = new PaymentResponse(UUID.randomUUID(), PaymentStatus.PENDING,
+        null, null, null, null, null, null);
+    JdbcPaymentStore store = open(1);
+
+    store.put(payment);
+    store.put(bare);
+
+    JdbcPaymentStore uncached = open(1);
+    assertThat(uncached.get(payment.id())).contains(payment);
+    assertThat(uncached.get(bare.id())).contains(bare);
+    assertThat(uncached.get(UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  void puttingExistingIdShouldReplaceRow() {
+    JdbcPaymentStore store = open(1);
+    PaymentResponse pending = payment(PaymentStatus.PENDING);
+    store.put(pending);
+
+    PaymentResponse authorized = pending.withStatus(PaymentStatus.AUTHORIZED);
+    store.put(authorized);
+
+    assertThat(store.get(pending.id())).contains(authorized);
+    assertThat(open(1).get(pending.id())).contains(authorized);
+  }
+
+  @Test
+  void updateShouldOnlyChangeStatusAndRefundedAmount() {
+    JdbcPaymentStore store = open(1);
+    PaymentResponse payment = payment(PaymentStatus.CAPTURED);
+    store.put(payment);
+
+    assertThat(store.update(payment.id(),
+        current -> current.withStatus(PaymentStatus.PARTIALLY_REFUNDED, 40)))
+        .contains(payment.withStatus(PaymentStatus.PARTIALLY_REFUNDED, 40));
+    assertThat(open(1).get(payment.id()))
+        .contains(payment.withStatus(PaymentStatus.PARTIALLY_REFUNDED, 40));
+    assertThat(store.update(UUID.randomUUID(), current -> current)).isEmpty();
+    assertThatThrownBy(() -> store.update(payment.id(), current -> new PaymentResponse(
+        current.id(), current.status(), "9999", 1, 2030, "USD", 1, null)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void racingUpdatesFromSeparateCachesShouldAllApply() throws Exception {
+    JdbcPaymentStore first = open(1);
+    JdbcPaymentStore second = open(1);
+    PaymentResponse payment = payment(PaymentStatus.CAPTURED).withStatus(PaymentStatus.CAPTURED,
+        0);
+    first.put(payment);
+
+    List<Future<?>> refunds = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      JdbcPaymentStore store = i % 2 == 0 ? first : second;
+      refunds.add(callers.submit(() -> store.update(payment.id(), current -> current.withStatus(
+          PaymentStatus.PARTIALLY_REFUNDED, current.refundedAmount() + 1))));
+    }
+    for (Future<?> refund : refunds) {
+      refund.get(10, TimeUnit.SECONDS);
+    }
+
+    assertThat(open(1).get(payment.id()).orElseThrow().refundedAmount()).isEqualTo(200);
+  }
+
+  @Test
+  void concurrentPutsShouldBeCoalescedIntoBatches() throws Exception {
+    JdbcPaymentStore store = new JdbcPaymentStore(url, 4, 256, 5_000, 1024, 10_000);
+    stores.add(store);
+    CountDownLatch start = new CountDownLatch(1);
+    List<PaymentResponse> payments = new ArrayList<>();
+    List<Future<?>> puts = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+      payments.add(payment);
+      puts.add(callers.submit(() -> {
+        start.await();
+        store.put(payment);
+        return null;
+      }));
+    }
+
+    start.countDown();
+    for (Future<?> put : puts) {
+      put.get(10, TimeUnit.SECONDS);
+    }
+
+    assertThat(store.batchesWritten()).isLessThan(64);
+    JdbcPaymentStore uncached = open(1);
+    payments.forEach(payment -> assertThat(uncached.get(payment.id())).contains(payment));
+  }
+
+  @Test
+  void putReplacingARowWithANewerVersionShouldFail() throws Exception {
+    JdbcPaymentStore store = open(1);
+    PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+    store.put(payment);
+    try (Connection connection = DriverManager.getConnection(url);
+        PreparedStatement statement = connection.prepareStatement(
+            "UPDATE payments SET status = 'CAPTURED', version = ? WHERE id = ?")) {
+      statement.setLong(1, 1_000_000_000L);
+      statement.setObject(2, payment.id());
+      statement.executeUpdate();
+    }
+
+    assertThatThrownBy(() -> store.put(payment.withStatus(PaymentStatus.VOIDED)))
+        .isInstanceOf(PaymentStorageException.class);
+    assertThat(open(1).get(payment.id()).orElseThrow().status())
+        .isEqualTo(PaymentStatus.CAPTURED);
+  }
+
+  @Test
+  void putNotDurableWithinTheWriteTimeoutShouldFail() {
+    JdbcPaymentStore store = new JdbcPaymentStore(url, 4, 256, 1_000_000, 1024, 50);
+    stores.add(store);
+    PaymentResponse payment = payment(PaymentStatus.AUTHORIZED);
+
+    assertThatThrownBy(() -> store.put(payment))
+        .isInstanceOf(PaymentStorageException.class)
+        .hasMessageContaining("Timed out");
+  }
+
+  @Test
+  void putAfterCloseShouldBeRefused() {
+    JdbcPaymentStore store = open(1);
+    store.close();
+
+    assertThatThrownBy(() -> store.put(payment(PaymentStatus.AUTHORIZED)))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private JdbcPaymentStore open(int cacheSize) {
+    JdbcPaymentStore store = new JdbcPaymentStore(url, 4, 256, 0, cacheSize, 10_000);
+    stores.add(store);
+    return store;
+  }
+
+  private static PaymentResponse payment(PaymentStatus status) {
+    return new PaymentResponse(UUID.randomUUID(), status, "4242", 12, 2030, "EUR", 999, null,
+        "MASTERCARD", "FR");
+  }
+}
@@ -0,0 +1,214 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.params.ParameterizedTest;
+import org.junit.jupiter.api.params.provider.ValueSource;
+
+/**
+ * Hammers {@link PaymentsRepository} from concurrent writers, readers and updaters and checks the
+ * history each thread observed against what was acknowledged.
+ * <p>
+ * Every stored snapshot is derived from its ID and a version number, so a reader can tell a torn
+ * or corrupted row from a legitimate one. Each hot payment has a single writer which publishes a
+ * version only after {@code add} returned; a reader that then sees an older version, or nothing,
+ * has caught a lost or reordered write. Counter payments are incremented with
+ * {@code update} from several threads at once and must end up with every increment applied.
+ * Runs for {@code stress.seconds} (one by default) per layout; raise it with
+ * {@code ./gradlew test --tests '*StressTest' -PstressSeconds=60} before adopting a new store.
+ */
+class PaymentsRepositoryStressTest {
+
+  private static final long DURATION_NANOS =
+      TimeUnit.SECONDS.toNanos(Integer.getInteger("stress.seconds", 1));
+  private static final int WRITERS = 4;
+  private static final int READERS = 4;
+  private static final int UPDATERS = 2;
+  private static final int HOT_PAYMENTS = 64;
+  private static final int COUNTERS = 8;
+  private static final int FRESH_SLOTS = 4096;
+  private static final String[] CURRENCIES = {"GBP", "USD", "EUR"};
+
+  private final UUID[] hot = ids(HOT_PAYMENTS);
+  private final AtomicIntegerArray acknowledged = new AtomicIntegerArray(HOT_PAYMENTS);
+  private final UUID[] counters = ids(COUNTERS);
+  private final AtomicLongArray increments = new AtomicLongArray(COUNTERS);
+  private final AtomicReferenceArray<PaymentResponse> fresh =
+      new AtomicReferenceArray<>(FRESH_SLOTS);
+  private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+  private PaymentsRepository repository;
+
+  @AfterEach
+  void tearDown() {
+    repository.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"objects", "columnar", "jdbc"})
+  void acknowledgedPaymentsShouldAlwaysBeReadableAndIntact(String mode) throws Exception {
+    repository = new PaymentsRepository(mode,
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", 8, 256, 0, 1024, 10_000);
+    for (UUID counter : counters) {
+      repository.add(version(counter, 1).withStatus(PaymentStatus.CAPTURED, 0));
+    }
+
+    run(List.of(this::write, this::read, this::increment),
+        List.of(WRITERS, READERS, UPDATERS));
+
+    assertThat(violations).isEmpty();
+    for (int i = 0; i < HOT_PAYMENTS; i++) {
+      int version = acknowledged.get(i);
+      assertThat(repository.get(hot[i]))
+          .isEqualTo(version > 0 ? Optional.of(version(hot[i], version)) : Optional.empty());
+    }
+    for (int i = 0; i < COUNTERS; i++) {
+      assertThat(repository.get(counters[i]).orElseThrow().refundedAmount())
+          .isEqualTo((int) increments.get(i));
+    }
+    for (int i = 0; i < FRESH_SLOTS; i++) {
+      PaymentResponse payment = fresh.get(i);
+      if (payment != null) {
+        assertThat(repository.get(payment.id())).contains(payment);
+      }
+    }
+  }
+
+  /**
+   * Writes new versions of the hot payments this writer owns, and payments that are written once.
+   */
+  private void write(int writer, long deadline) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int[] versions = new int[HOT_PAYMENTS];
+    while (System.nanoTime() < deadline) {
+      int index = writer + WRITERS * random.nextInt(HOT_PAYMENTS / WRITERS);
+      int version = ++versions[index];
+      repository.add(version(hot[index], version));
+      acknowledged.set(index, version);
+
+      PaymentResponse payment = version(UUID.randomUUID(), random.nextInt(1, 1_000_000));
+      repository.add(payment);
+      fresh.set(random.nextInt(FRESH_SLOTS), payment);
+    }
+  }
+
+  private void read(int reader, long deadline) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (System.nanoTime() < deadline) {
+      int index = random.nextInt(HOT_PAYMENTS);
+      int version = acknowledged.get(index);
+      Optional<PaymentResponse> read = repository.get(hot[index]);
+      if (version > 0 && read.isEmpty()) {
+        violations.add("Acknowledged payment " + hot[index] + " was not found");
+      }
+      read.ifPresent(payment -> {
+        checkIntact(payment);
+        if (payment.amount() < version) {
+          violations.add("Read version " + payment.amount() + " of " + payment.id()
+              + " after version " + version + " was acknowledged");
+        }
+      });
+
+      PaymentResponse expected = fresh.get(random.nextInt(FRESH_SLOTS));
+      if (expected != null && !repository.get(expected.id()).equals(Optional.of(expected))) {
+        violations.add("Payment " + expected.id() + " was not read back as written");
+      }
+
+      repository.get(counters[random.nextInt(COUNTERS)]).ifPresentOrElse(
+          this::checkIntact, () -> violations.add("Counter payment disappeared"));
+    }
+  }
+
+  private void increment(int updater, long deadline) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (System.nanoTime() < deadline) {
+      int index = random.nextInt(COUNTERS);
+      Optional<PaymentResponse> updated = repository.update(counters[index],
+          payment -> payment.withStatus(payment.status(), payment.refundedAmount() + 1));
+      if (updated.isPresent()) {
+        increments.incrementAndGet(index);
+      } else {
+        violations.add("Counter payment " + counters[index] + " could not be updated");
+      }
+    }
+  }
+
+  private void checkIntact(PaymentResponse payment) {
+    PaymentResponse expected = version(payment.id(), payment.amount());
+    if (payment.refundedAmount() != null) {
+      expected = expected.withStatus(PaymentStatus.CAPTURED, payment.refundedAmount());
+    }
+    if (!payment.equals(expected)) {
+      violations.add("Corrupted payment " + payment + ", expected " + expected);
+    }
+  }
+
+  private void run(List<Worker> workers, List<Integer> threads) throws Exception {
+    int total = threads.stream().mapToInt(Integer::intValue).sum();
+    ExecutorService executor = Executors.newFixedThreadPool(total);
+    CountDownLatch start = new CountDownLatch(1);
+    long deadline = System.nanoTime() + DURATION_NANOS;
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < workers.size(); i++) {
+        Worker worker = workers.get(i);
+        for (int thread = 0; thread < threads.get(i); thread++) {
+          int number = thread;
+          futures.add(executor.submit(() -> {
+            start.await();
+            worker.run(number, deadline);
+            return null;
+          }));
+        }
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * A snapshot whose every field is derived from the ID and version, with the version as amount.
+   */
+  private static PaymentResponse version(UUID id, int version) {
+    return new PaymentResponse(id, version % 2 == 0 ? PaymentStatus.AUTHORIZED
+        : PaymentStatus.DECLINED, String.format("%04d", version % 10_000), version % 12 + 1,
+        2030 + version % 10, CURRENCIES[version % 3], version, null,
+        version % 2 == 0 ? "VISA" : "MASTERCARD", version % 2 == 0 ? "GB" : "US");
+  }
+
+  private static UUID[] ids(int count) {
+    UUID[] ids = new UUID[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = UUID.randomUUID();
+    }
+    return ids;
+  }
+
+  @FunctionalInterface
+  private interface Worker {
+
+    void run(int thread, long deadline);
+  }
+}
@@ -80,4 +80,35 @@ class PaymentsRepositoryTest {
     assertThat(result).isPresent();
     assertThat(result.get()).isEqualTo(second);
   }
+
+  @Test
+  void whenPaymentIsUpdated_thenTransitionIsAppliedToCurrentSnapshot() {
+    UUID id = UUID.randomUUID();
+    PaymentResponse payment = new PaymentResponse(
+        id,
+        PaymentStatus.AUTHORIZED,
+        "1234",
+        12,
+        2030,
+        "USD",
+        1000,
+        null
+    );
+    repository.add(payment);
+
+    Optional<PaymentResponse> result =
+        repository.update(id, current -> current.withStatus(PaymentStatus.CAPTURED, 0));
+
+    assertThat(result).isPresent();
+    assertThat(result.get().status()).isEqualTo(PaymentStatus.CAPTURED);
+    assertThat(repository.get(id)).isEqualTo(result);
+  }
+
+  @Test
+  void whenMissingPaymentIsUpdated_thenEmptyOptionalIsReturned() {
+    Optional<PaymentResponse> result =
+        repository.update(UUID.randomUUID(), current -> current);
+
+    assertThat(result).isEmpty();
+  }
 }
@@ -0,0 +1,186 @@
+package com.checkout.payment.gateway.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DuplicatePaymentDetectorTest {
+
+  private static final DuplicateKey KEY = new DuplicateKey(42L, 1000, "USD", 12, 2030, "m-1");
+
+  private MutableClock clock;
+  private DuplicatePaymentDetector detector;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+    detector = new DuplicatePaymentDetector(true, 60, 1_000, 0.01, clock);
+  }
+
+  @Test
+  void whenSameKeyIsSeenWithinWindow_thenOriginalPaymentIsReturned() {
+    UUID paymentId = UUID.randomUUID();
+    detector.record(KEY, paymentId);
+
+    clock.advance(Duration.ofSeconds(30));
+
+    assertThat(detector.findOriginal(KEY)).contains(paymentId);
+  }
+
+  @Test
+  void whenKeyDiffers_thenNoDuplicateIsFound() {
+    detector.record(KEY, UUID.randomUUID());
+
+    assertThat(detector.findOriginal(
+        new DuplicateKey(42L, 1001, "USD", 12, 2030, "m-1"))).isEmpty();
+    assertThat(detector.findOriginal(
+        new DuplicateKey(42L, 1000, "USD", 12, 2030, "m-2"))).isEmpty();
+  }
+
+  @Test
+  void whenKeyIsRecordedJustBeforeRotation_thenItIsStillFoundInPreviousGeneration() {
+    UUID paymentId = UUID.randomUUID();
+    clock.advance(Duration.ofSeconds(50));
+    detector.record(KEY, paymentId);
+
+    clock.advance(Duration.ofSeconds(20));
+
+    assertThat(detector.findOriginal(KEY)).contains(paymentId);
+  }
+
+  @Test
+  void whenWindowHasPassed_thenDuplicateIsNoLongerReported() {
+    detector.record(KEY, UUID.randomUUID());
+
+    clock.advance(Duration.ofSeconds(61));
+
+    assertThat(detector.findOriginal(KEY)).isEmpty();
+  }
+
+  @Test
+  void whenKeyIsReserved_thenLaterReservationsReportTheHolder() {
+    UUID first = UUID.randomUUID();
+
+    assertThat(detector.reserve(KEY, first)).isEmpty();
+
+    assertThat(detector.reserve(KEY, UUID.randomUUID())).contains(first);
+  }
+
+  @Test
+  void whenReservationIsReleased_thenKeyCanBeReservedAgain() {
+    UUID first = UUID.randomUUID();
+    detector.reserve(KEY, first);
+
+    detector.release(KEY, first);
+
+    assertThat(detector.reserve(KEY, UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  void whenReservedPaymentIsRecorded_thenLaterReservationsReportIt() {
+    UUID first = UUID.randomUUID();
+    detector.reserve(KEY, first);
+    detector.record(KEY, first);
+    detector.release(KEY, first);
+
+    assertThat(detector.reserve(KEY, UUID.randomUUID())).contains(first);
+  }
+
+  @Test
+  void whenRecordedPaymentIsForgotten_thenKeyCanBeReservedAgain() {
+    UUID first = UUID.randomUUID();
+    detector.reserve(KEY, first);
+    detector.record(KEY, first);
+
+    detector.forget(KEY, first);
+
+    assertThat(detector.findOriginal(KEY)).isEmpty();
+    assertThat(detector.reserve(KEY, UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  void whenAnotherPaymentIsForgotten_thenRecordedKeyIsKept() {
+    UUID first = UUID.randomUUID();
+    detector.record(KEY, first);
+
+    detector.forget(KEY, UUID.randomUUID());
+
+    assertThat(detector.findOriginal(KEY)).contains(first);
+  }
+
+  @Test
+  void whenManyThreadsReserveSameKey_thenExactlyOneSucceeds() throws Exception {
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Optional<UUID>>> attempts = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        attempts.add(executor.submit(() -> {
+          start.await();
+          return detector.reserve(KEY, UUID.randomUUID());
+        }));
+      }
+      start.countDown();
+
+      int claimed = 0;
+      for (Future<Optional<UUID>> attempt : attempts) {
+        claimed += attempt.get().isEmpty() ? 1 : 0;
+      }
+      assertThat(claimed).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void whenDisabled_thenNothingIsReported() {
+    DuplicatePaymentDetector disabled = new DuplicatePaymentDetector(false, 60, 1_000, 0.01, clock);
+    disabled.record(KEY, UUID.randomUUID());
+
+    assertThat(disabled.findOriginal(KEY)).isEmpty();
+    assertThat(disabled.reserve(KEY, UUID.randomUUID())).isEmpty();
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now;
+
+    private MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.checkout.payment.gateway.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowCountMinSketchTest {
+
+  private static final long BUCKET_MILLIS = 1_000;
+
+  @Test
+  void whenKeyIsAdded_thenEstimateCountsEveryOccurrence() {
+    SlidingWindowCountMinSketch sketch = new SlidingWindowCountMinSketch(4, 1024, 6, BUCKET_MILLIS);
+
+    for (int i = 0; i < 7; i++) {
+      sketch.add(42L, 10_000);
+    }
+
+    assertThat(sketch.estimate(42L, 10_000, 6)).isEqualTo(7);
+    assertThat(sketch.estimate(43L, 10_000, 6)).isZero();
+  }
+
+  @Test
+  void whenOccurrencesFallOutOfTheWindow_thenTheyAreNoLongerCounted() {
+    SlidingWindowCountMinSketch sketch = new SlidingWindowCountMinSketch(4, 1024, 3, BUCKET_MILLIS);
+
+    sketch.add(42L, 10_000);
+    sketch.add(42L, 11_000);
+    sketch.add(42L, 12_000);
+
+    assertThat(sketch.estimate(42L, 12_000, 3)).isEqualTo(3);
+    assertThat(sketch.estimate(42L, 12_000, 1)).isEqualTo(1);
+    assertThat(sketch.estimate(42L, 13_000, 3)).isEqualTo(2);
+    assertThat(sketch.estimate(42L, 20_000, 3)).isZero();
+  }
+
+  @Test
+  void whenSliceIsReused_thenItsOldCountsAreCleared() {
+    SlidingWindowCountMinSketch sketch = new SlidingWindowCountMinSketch(4, 1024, 2, BUCKET_MILLIS);
+
+    sketch.add(42L, 10_000);
+    sketch.add(42L, 12_000);
+
+    assertThat(sketch.estimate(42L, 12_000, 2)).isEqualTo(1);
+  }
+
+  @Test
+  void whenManyDistinctKeysAreAdded_thenEstimateNeverUndercounts() {
+    SlidingWindowCountMinSketch sketch = new SlidingWindowCountMinSketch(4, 256, 1, BUCKET_MILLIS);
+
+    for (long key = 0; key < 5_000; key++) {
+      sketch.add(CardFingerprint.mix(key), 0);
+    }
+    sketch.add(CardFingerprint.mix(7), 0);
+
+    assertThat(sketch.estimate(CardFingerprint.mix(7), 0, 1)).isGreaterThanOrEqualTo(2);
+  }
+}
@@ -0,0 +1,40 @@
+package com.checkout.payment.gateway.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+class VelocityCheckerTest {
+
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"),
+      ZoneOffset.UTC);
+
+  @Test
+  void whenBurstLimitIsExceeded_thenAttemptIsRefused() {
+    VelocityChecker checker = new VelocityChecker(true, 60, 6, 20, 3, 1024, CLOCK);
+
+    assertThat(checker.recordAttempt("4111111111111111")).isTrue();
+    assertThat(checker.recordAttempt("4111111111111111")).isTrue();
+    assertThat(checker.recordAttempt("4111111111111111")).isTrue();
+    assertThat(checker.recordAttempt("4111111111111111")).isFalse();
+  }
+
+  @Test
+  void whenDifferentCardsAreUsed_thenTheyAreCountedSeparately() {
+    VelocityChecker checker = new VelocityChecker(true, 60, 6, 20, 1, 1024, CLOCK);
+
+    assertThat(checker.recordAttempt("4111111111111111")).isTrue();
+    assertThat(checker.recordAttempt("4111111111111112")).isTrue();
+  }
+
+  @Test
+  void whenDisabled_thenEveryAttemptIsAllowed() {
+    VelocityChecker checker = new VelocityChecker(false, 60, 6, 1, 1, 1024, CLOCK);
+
+    assertThat(checker.recordAttempt("4111111111111111")).isTrue();
+    assertThat(checker.recordAttempt("4111111111111111")).isTrue();
+  }
+}
@@ -0,0 +1,142 @@
+package com.checkout.payment.gateway.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+class AcquirerRouterTest {
+
+  private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  @Test
+  void whenOneAcquirerIsSlower_thenTheFasterOneIsAlwaysChosenFirst() {
+    AcquirerEndpoint fast = endpoint("fast");
+    AcquirerEndpoint slow = endpoint("slow");
+    observe(fast, TimeUnit.MILLISECONDS.toNanos(10), false);
+    observe(slow, TimeUnit.MILLISECONDS.toNanos(200), false);
+
+    AcquirerRouter router = new AcquirerRouter(List.of(fast, slow), 10);
+
+    for (int i = 0; i < 50; i++) {
+      assertThat(router.candidates()).containsExactly(fast, slow);
+    }
+  }
+
+  @Test
+  void whenOneAcquirerIsFailing_thenItIsRankedLast() {
+    AcquirerEndpoint healthy = endpoint("healthy");
+    AcquirerEndpoint failing = endpoint("failing");
+    AcquirerEndpoint other = endpoint("other");
+    observe(healthy, TimeUnit.MILLISECONDS.toNanos(20), false);
+    observe(other, TimeUnit.MILLISECONDS.toNanos(30), false);
+    observe(failing, TimeUnit.MILLISECONDS.toNanos(20), true);
+
+    AcquirerRouter router = new AcquirerRouter(List.of(healthy, failing, other), 10);
+
+    for (int i = 0; i < 50; i++) {
+      List<AcquirerEndpoint> candidates = router.candidates();
+      assertThat(candidates).hasSize(3);
+      assertThat(candidates.get(0)).isNotSameAs(failing);
+      assertThat(candidates.get(2)).isSameAs(failing);
+    }
+  }
+
+  @Test
+  void whenAcquirerFailsFast_thenSlowerHealthyOneIsStillChosenFirst() {
+    AcquirerEndpoint failing = endpoint("failing");
+    AcquirerEndpoint healthy = endpoint("healthy");
+    for (int i = 0; i < 3; i++) {
+      observe(failing, TimeUnit.MILLISECONDS.toNanos(1), true);
+    }
+    observe(healthy, TimeUnit.MILLISECONDS.toNanos(150), false);
+
+    AcquirerRouter router = new AcquirerRouter(List.of(failing, healthy), 10);
+
+    for (int i = 0; i < 50; i++) {
+      assertThat(router.candidates()).containsExactly(healthy, failing);
+    }
+  }
+
+  @Test
+  void whenAcquirerHasNotBeenObserved_thenItIsScoredAtTheLatencyPrior() {
+    AcquirerEndpoint known = endpoint("known");
+    AcquirerEndpoint unknown = endpoint("unknown");
+    observe(known, TimeUnit.MILLISECONDS.toNanos(10), false);
+
+    AcquirerRouter router = new AcquirerRouter(List.of(unknown, known), 10);
+
+    assertThat(unknown.score(10))
+        .isEqualTo((double) AcquirerEndpoint.DEFAULT_LATENCY_PRIOR_NANOS);
+    for (int i = 0; i < 50; i++) {
+      assertThat(router.candidates()).containsExactly(known, unknown);
+    }
+  }
+
+  @Test
+  void whenBinPrefersAHealthyAcquirer_thenItIsChosenFirstEvenIfSlower() {
+    AcquirerEndpoint fast = endpoint("fast");
+    AcquirerEndpoint preferred = endpoint("preferred");
+    observe(fast, TimeUnit.MILLISECONDS.toNanos(10), false);
+    observe(preferred, TimeUnit.MILLISECONDS.toNanos(200), false);
+
+    AcquirerRouter router = new AcquirerRouter(List.of(fast, preferred), 10);
+
+    assertThat(router.candidates("preferred")).containsExactly(preferred, fast);
+    assertThat(router.candidates("unknown")).containsExactly(fast, preferred);
+  }
+
+  @Test
+  void whenPreferredAcquirerIsFailing_thenTheBestScoredOneIsChosenFirst() {
+    AcquirerEndpoint healthy = endpoint("healthy");
+    AcquirerEndpoint preferred = endpoint("preferred");
+    observe(healthy, TimeUnit.MILLISECONDS.toNanos(50), false);
+    for (int i = 0; i < 10; i++) {
+      observe(preferred, TimeUnit.MILLISECONDS.toNanos(10), true);
+    }
+
+    AcquirerRouter router = new AcquirerRouter(List.of(healthy, preferred), 10);
+
+    assertThat(preferred.errorRate()).isGreaterThan(AcquirerRouter.PREFERRED_MAX_ERROR_RATE);
+    assertThat(router.candidates("preferred")).containsExactly(healthy, preferred);
+  }
+
+  @Test
+  void whenRequestsAreInFlight_thenStatusReportsThem() {
+    AcquirerEndpoint endpoint = endpoint("busy");
+    endpoint.onStart();
+
+    AcquirerRouter router = new AcquirerRouter(List.of(endpoint), 10);
+
+    assertThat(router.status()).singleElement()
+        .satisfies(status -> assertThat(status.pending()).isEqualTo(1));
+  }
+
+  @Test
+  void whenFailingAcquirerReceivesNoTraffic_thenItsErrorRateStillDecays() throws Exception {
+    AcquirerEndpoint recovering = new AcquirerEndpoint("recovering", mock(RestClient.class),
+        TimeUnit.MILLISECONDS.toNanos(5));
+    observe(recovering, TimeUnit.MILLISECONDS.toNanos(20), true);
+    double afterFailure = recovering.errorRate();
+
+    Thread.sleep(50);
+
+    assertThat(recovering.errorRate()).isLessThan(afterFailure / 100);
+  }
+
+  private static AcquirerEndpoint endpoint(String name) {
+    return new AcquirerEndpoint(name, mock(RestClient.class), DECAY_NANOS);
+  }
+
+  private static void observe(AcquirerEndpoint endpoint, long latencyNanos, boolean failed) {
+    endpoint.onStart();
+    if (failed) {
+      endpoint.onFailure(latencyNanos);
+    } else {
+      endpoint.onSuccess(latencyNanos);
+    }
+  }
+}
@@ -6,19 +6,36 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.checkout.payment.gateway.deadline.Deadline;
 import com.checkout.payment.gateway.exception.BankCommunicationException;
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.exception.DeadlineExceededException;
 import com.checkout.payment.gateway.model.BankPaymentRequest;
 import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.routing.AcquirerEndpoint;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClient.RequestBodyUriSpec;
 import org.springframework.web.client.RestClient.RequestBodySpec;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient.ResponseSpec;
 
 @ExtendWith(MockitoExtension.class)
@@ -98,7 +115,7 @@ class BankClientTest {
   }
 
   @Test
-  void authorizePayment_whenBankReturns503_shouldThrowBankCommunicationException() {
+  void authorizePayment_whenBankReturns503_shouldThrowBankUnavailableException() {
     BankPaymentRequest request = new BankPaymentRequest(
         "2222405343248880",
         "04/2025",
@@ -112,15 +129,179 @@ class BankClientTest {
     when(requestBodySpec.body(request)).thenReturn(requestBodySpec);
     when(requestBodySpec.retrieve()).thenReturn(responseSpec);
     when(responseSpec.onStatus(any(), any())).thenThrow(
-        new BankCommunicationException("Bank service is currently unavailable. Please try again later.")
+        new BankUnavailableException("Bank service is currently unavailable. Please try again later.")
     );
 
-    BankCommunicationException exception = assertThrows(
-        BankCommunicationException.class,
+    BankUnavailableException exception = assertThrows(
+        BankUnavailableException.class,
         () -> bankClient.authorizePayment(request)
     );
 
     assertEquals("Bank service is currently unavailable. Please try again later.",
         exception.getMessage());
   }
-}
\ No newline at end of file
+
+  @Test
+  void authorizePayment_whenFirstAcquirerIsUnreachable_shouldFailOverToNextAcquirer() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248111",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+    BankPaymentResponse expectedResponse = new BankPaymentResponse(true, "auth-code");
+
+    RestClient unreachable = mock(RestClient.class);
+    lenient().when(unreachable.post()).thenThrow(new ResourceAccessException(
+        "Connection refused", new ConnectException("Connection refused")));
+
+    when(restClient.post()).thenReturn(requestBodyUriSpec);
+    when(requestBodyUriSpec.uri("/payments")).thenReturn(requestBodySpec);
+    when(requestBodySpec.body(request)).thenReturn(requestBodySpec);
+    when(requestBodySpec.retrieve()).thenReturn(responseSpec);
+    when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+    when(responseSpec.body(BankPaymentResponse.class)).thenReturn(expectedResponse);
+
+    BankClient failoverClient = new BankClient(new AcquirerRouter(List.of(
+        new AcquirerEndpoint("unreachable", unreachable, 10_000_000_000L),
+        new AcquirerEndpoint("healthy", restClient, 10_000_000_000L)
+    ), 10));
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(failoverClient.authorizePayment(request).authorized());
+    }
+  }
+
+  @Test
+  void authorizePayment_whenAcquirerTimesOutAfterRequestWasSent_shouldNotFailOver() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248111",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+    RestClient secondAcquirer = mock(RestClient.class);
+    BankClient failoverClient = new BankClient(new AcquirerRouter(List.of(
+        new AcquirerEndpoint("first", restClient, 10_000_000_000L),
+        new AcquirerEndpoint("second", secondAcquirer, 10_000_000_000L)
+    ), 0));
+
+    lenient().when(restClient.post()).thenThrow(new ResourceAccessException(
+        "Read timed out", new SocketTimeoutException("Read timed out")));
+    lenient().when(secondAcquirer.post()).thenThrow(new ResourceAccessException(
+        "Read timed out", new SocketTimeoutException("Read timed out")));
+
+    BankCommunicationException exception = assertThrows(BankCommunicationException.class,
+        () -> failoverClient.authorizePayment(request));
+    assertFalse(exception instanceof BankUnavailableException);
+    assertEquals(1, mockingDetails(restClient).getInvocations().size()
+        + mockingDetails(secondAcquirer).getInvocations().size());
+  }
+
+  @Test
+  void authorizePayment_whenAcquirerReturns503_shouldNotFailOver() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248880",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+    RestClient secondAcquirer = mock(RestClient.class);
+    BankClient failoverClient = new BankClient(new AcquirerRouter(List.of(
+        new AcquirerEndpoint("first", restClient, 10_000_000_000L),
+        new AcquirerEndpoint("second", secondAcquirer, 10_000_000_000L)
+    ), 0));
+
+    lenient().when(restClient.post())
+        .thenThrow(new BankUnavailableException(BankClient.UNAVAILABLE_MESSAGE));
+    lenient().when(secondAcquirer.post())
+        .thenThrow(new BankUnavailableException(BankClient.UNAVAILABLE_MESSAGE));
+
+    assertThrows(BankUnavailableException.class,
+        () -> failoverClient.authorizePayment(request));
+    assertEquals(1, mockingDetails(restClient).getInvocations().size()
+        + mockingDetails(secondAcquirer).getInvocations().size());
+  }
+
+  @Test
+  void authorizePayment_whenAcquirerRejectsRequest_shouldReleaseItsInFlightSlot() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248111",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+    AcquirerRouter router = new AcquirerRouter(List.of(
+        new AcquirerEndpoint("first", restClient, 10_000_000_000L)), 0);
+    BankClient rejectingClient = new BankClient(router);
+
+    when(restClient.post()).thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+    assertThrows(HttpClientErrorException.class, () -> rejectingClient.authorizePayment(request));
+    assertEquals(0, router.status().get(0).pending());
+    assertTrue(router.status().get(0).errorRate() > 0);
+  }
+
+  @Test
+  void authorizePayment_whenEveryAcquirerIsUnreachable_shouldThrowBankUnavailableException() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248111",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(restClient.post()).thenThrow(new ResourceAccessException("Connection refused",
+        new ConnectException("Connection refused")));
+
+    assertThrows(BankUnavailableException.class, () -> bankClient.authorizePayment(request));
+  }
+
+  @Test
+  void authorizePayment_whenDeadlineHasPassed_shouldAbandonWithoutContactingAcquirer() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248111",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+
+    assertThrows(DeadlineExceededException.class,
+        () -> bankClient.authorizePayment(request, Deadline.after(Duration.ZERO)));
+    verify(restClient, never()).post();
+  }
+
+  @Test
+  void authorizePayment_whenAcquirerTimesOutAfterDeadline_shouldNotFailOver() {
+    BankPaymentRequest request = new BankPaymentRequest(
+        "2222405343248111",
+        "04/2025",
+        "GBP",
+        100,
+        "123"
+    );
+    RestClient secondAcquirer = mock(RestClient.class);
+    BankClient failoverClient = new BankClient(new AcquirerRouter(List.of(
+        new AcquirerEndpoint("first", restClient, 1_000_000_000L),
+        new AcquirerEndpoint("second", secondAcquirer, 1_000_000_000L)
+    ), 0));
+
+    lenient().when(restClient.post()).thenAnswer(invocation -> {
+      Thread.sleep(20);
+      throw new ResourceAccessException("Read timed out");
+    });
+    lenient().when(secondAcquirer.post()).thenAnswer(invocation -> {
+      Thread.sleep(20);
+      throw new ResourceAccessException("Read timed out");
+    });
+
+    assertThrows(DeadlineExceededException.class,
+        () -> failoverClient.authorizePayment(request, Deadline.after(Duration.ofMillis(10))));
+  }
+}
@@ -0,0 +1,80 @@
+package com.checkout.payment.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class BankJsonCodecTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void encodeShouldProduceTheDocumentJacksonReadsBack() throws IOException {
+    BankJsonCodec codec = new BankJsonCodec(8, 1024);
+    BankPaymentRequest request =
+        new BankPaymentRequest("2222405343248877", "04/2030", "G\"B\\P\u00e9\n", -250, null);
+
+    int length = codec.encode(request);
+
+    Map<?, ?> document = objectMapper.readValue(codec.buffer(), 0, length, Map.class);
+    assertThat(document).containsOnlyKeys("card_number", "expiry_date", "currency", "amount",
+        "cvv");
+    assertThat(document.get("card_number")).isEqualTo("2222405343248877");
+    assertThat(document.get("expiry_date")).isEqualTo("04/2030");
+    assertThat(document.get("currency")).isEqualTo("G\"B\\P\u00e9\n");
+    assertThat(document.get("amount")).isEqualTo(-250);
+    assertThat(document.get("cvv")).isNull();
+  }
+
+  @Test
+  void decodeShouldReadKnownMembersAndSkipOthers() throws IOException {
+    BankJsonCodec codec = new BankJsonCodec(16, 1024);
+
+    BankPaymentResponse response = codec.decode(stream(" { \"extra\": {\"a\": [1, \"}\"]},"
+        + " \"authorized\" : true, \"authorization_code\": \"a\\\"b\\u00e9\", \"n\": -1.5e3 }"));
+
+    assertThat(response).isEqualTo(new BankPaymentResponse(true, "a\"b\u00e9"));
+    assertThat(codec.decode(stream("{\"authorized\":false,\"authorization_code\":null}")))
+        .isEqualTo(new BankPaymentResponse(false, null));
+    assertThat(codec.decode(stream("{}"))).isEqualTo(new BankPaymentResponse(false, null));
+  }
+
+  @Test
+  void decodeShouldRejectMalformedResponses() {
+    BankJsonCodec codec = new BankJsonCodec(64, 1024);
+
+    assertThatThrownBy(() -> codec.decode(stream("{\"authorized\":truex}")))
+        .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> codec.decode(stream("{\"authorized\":true")))
+        .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> codec.decode(stream("[]")))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void decodeShouldGrowUpToTheLimitAndRefuseLongerResponses() throws IOException {
+    BankJsonCodec codec = new BankJsonCodec(8, 32);
+    String response = "{\"authorized\":true}";
+
+    assertThat(codec.decode(stream(response + " ".repeat(32 - response.length()))))
+        .isEqualTo(new BankPaymentResponse(true, null));
+    assertThat(codec.buffer()).hasSize(32);
+    assertThatThrownBy(() -> codec.decode(stream(response + " ".repeat(33 - response.length()))))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("exceeds 32 bytes");
+    assertThat(codec.buffer()).hasSize(32);
+  }
+
+  private static InputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
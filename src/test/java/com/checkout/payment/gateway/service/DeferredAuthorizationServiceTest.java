@@ -0,0 +1,267 @@
+package com.checkout.payment.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
+import com.checkout.payment.gateway.replication.PaymentReplication;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.routing.AcquirerEndpoint;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+
+class DeferredAuthorizationServiceTest {
+
+  private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+  private static final BankPaymentRequest BANK_REQUEST = new BankPaymentRequest(
+      "2222405343248877", "04/2030", "GBP", 100, "123");
+
+  @TempDir
+  Path directory;
+
+  private final AtomicInteger failingStores = new AtomicInteger();
+  private final PaymentsRepository repository = new PaymentsRepository() {
+    @Override
+    public void add(PaymentResponse payment) {
+      if (payment.status() != PaymentStatus.PENDING && failingStores.getAndDecrement() > 0) {
+        throw new IllegalStateException("Storage unavailable");
+      }
+      super.add(payment);
+    }
+  };
+  private final AtomicInteger bankCalls = new AtomicInteger();
+  private final List<DeferredAuthorizationService> services = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    services.forEach(DeferredAuthorizationService::stop);
+  }
+
+  @Test
+  void deferredPaymentShouldBeRetriedUntilTheBankAnswers() {
+    DeferredAuthorizationService service = service(failingTimes(2), 5);
+    service.start();
+    PaymentResponse pending = pending();
+
+    service.defer("merchant-1", BANK_REQUEST, pending, () -> repository.add(pending));
+
+    assertThat(awaitStatus(pending.id())).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(bankCalls.get()).isEqualTo(3);
+    assertThat(journalFiles()).isEmpty();
+  }
+
+  @Test
+  void failureWithUnknownOutcomeShouldFailThePaymentRatherThanSendItAgain() {
+    DeferredAuthorizationService service = service(() -> {
+      if (bankCalls.incrementAndGet() == 1) {
+        throw new IllegalStateException("Malformed bank response");
+      }
+      return new BankPaymentResponse(true, "auth-code");
+    }, 5);
+    service.start();
+    PaymentResponse pending = pending();
+
+    service.defer("merchant-1", BANK_REQUEST, pending, () -> repository.add(pending));
+
+    assertThat(awaitStatus(pending.id())).isEqualTo(PaymentStatus.FAILED);
+    assertThat(bankCalls.get()).isEqualTo(1);
+    assertThat(journalFiles()).isEmpty();
+  }
+
+  @Test
+  void failedCompletionShouldBeRetriedWithoutCallingTheBankAgain() {
+    DeferredAuthorizationService service = service(failingTimes(0), 5);
+    failingStores.set(2);
+    service.start();
+    PaymentResponse pending = pending();
+
+    service.defer("merchant-1", BANK_REQUEST, pending, () -> repository.add(pending));
+
+    assertThat(awaitStatus(pending.id())).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(bankCalls.get()).isEqualTo(1);
+    assertThat(journalFiles()).isEmpty();
+  }
+
+  @Test
+  void deferralShouldBeJournaledBeforeThePaymentIsStored() {
+    DeferredAuthorizationService service = service(failingTimes(0), 5);
+    List<Path> journaledAtStore = new ArrayList<>();
+
+    service.defer(null, BANK_REQUEST, pending(), () -> journaledAtStore.addAll(journalFiles()));
+
+    assertThat(journaledAtStore).hasSize(1);
+  }
+
+  @Test
+  void deferralShouldFailWhenTheJournalCannotBeWritten() throws IOException {
+    DeferredAuthorizationService service = service(failingTimes(0), 5);
+    AtomicInteger stored = new AtomicInteger();
+    Files.delete(directory);
+    Files.writeString(directory, "not a directory");
+
+    assertThatThrownBy(() -> service.defer(null, BANK_REQUEST, pending(),
+        stored::incrementAndGet))
+        .isInstanceOf(UncheckedIOException.class);
+    assertThat(stored.get()).isEqualTo(0);
+  }
+
+  @Test
+  void deferralShouldBeWithdrawnWhenStoringThePaymentFails() {
+    DeferredAuthorizationService service = service(failingTimes(0), 5);
+    PaymentResponse pending = pending();
+
+    assertThatThrownBy(() -> service.defer(null, BANK_REQUEST, pending, () -> {
+      throw new IllegalStateException("Storage unavailable");
+    })).isInstanceOf(IllegalStateException.class);
+    service.start();
+
+    assertThat(journalFiles()).isEmpty();
+    assertThat(repository.get(pending.id())).isEmpty();
+    assertThat(bankCalls.get()).isEqualTo(0);
+  }
+
+  @Test
+  void journaledPaymentShouldBeRecoveredAndCompletedAfterRestart() {
+    PaymentResponse pending = pending();
+    service(failingTimes(0), 5).defer("merchant-1", BANK_REQUEST, pending, () -> { });
+
+    DeferredAuthorizationService restarted = service(failingTimes(0), 5);
+    restarted.start();
+
+    assertThat(awaitStatus(pending.id())).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(journalFiles()).isEmpty();
+  }
+
+  @Test
+  void replicaShouldLeaveJournaledPaymentsToThePrimary() {
+    PaymentResponse pending = pending();
+    service(failingTimes(0), 5).defer("merchant-1", BANK_REQUEST, pending, () -> { });
+
+    DeferredAuthorizationService replica = service(failingTimes(0), 5,
+        PaymentReplication.REPLICA);
+    replica.start();
+
+    assertThat(replica.isEnabled()).isFalse();
+    assertThat(repository.get(pending.id())).isEmpty();
+    assertThat(journalFiles()).hasSize(1);
+    assertThat(bankCalls.get()).isEqualTo(0);
+  }
+
+  @Test
+  void paymentShouldFailOnceAttemptsAreExhausted() {
+    DeferredAuthorizationService service = service(failingTimes(Integer.MAX_VALUE), 3);
+    service.start();
+    PaymentResponse pending = pending();
+
+    service.defer(null, BANK_REQUEST, pending, () -> repository.add(pending));
+
+    assertThat(awaitStatus(pending.id())).isEqualTo(PaymentStatus.FAILED);
+    assertThat(bankCalls.get()).isEqualTo(2);
+    assertThat(journalFiles()).isEmpty();
+  }
+
+  @Test
+  void backoffShouldStayBetweenBaseAndCappedExponentialDelay() throws IOException {
+    DeferredAuthorizationService service = new DeferredAuthorizationService(
+        new BankClient(router(), (restClient, request) -> {
+          throw new BankUnavailableException(BankClient.UNAVAILABLE_MESSAGE);
+        }), repository, mock(PaymentEventLogger.class), mock(PaymentEventBus.class), false,
+        directory, "", 100, 1_000, 20, 50, PaymentReplication.NONE);
+
+    for (int i = 0; i < 1_000; i++) {
+      assertThat(service.backoffMillis(1)).isBetween(100L, 199L);
+      assertThat(service.backoffMillis(3)).isBetween(100L, 799L);
+      assertThat(service.backoffMillis(40)).isBetween(100L, 999L);
+    }
+  }
+
+  @Test
+  void nonPositiveRetryRateShouldBeRejected() {
+    assertThatThrownBy(() -> new DeferredAuthorizationService(
+        new BankClient(router(), (restClient, request) -> null), repository,
+        mock(PaymentEventLogger.class), mock(PaymentEventBus.class), true, directory, KEY, 1,
+        1, 20, 0, PaymentReplication.NONE))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private DeferredAuthorizationService service(Supplier<BankPaymentResponse> bank,
+      int maxAttempts) {
+    return service(bank, maxAttempts, PaymentReplication.NONE);
+  }
+
+  private DeferredAuthorizationService service(Supplier<BankPaymentResponse> bank,
+      int maxAttempts, String replicationRole) {
+    try {
+      DeferredAuthorizationService service = new DeferredAuthorizationService(
+          new BankClient(router(), (restClient, request) -> bank.get()), repository,
+          mock(PaymentEventLogger.class), mock(PaymentEventBus.class), true, directory, KEY, 1,
+          5, maxAttempts, 1_000, replicationRole);
+      services.add(service);
+      return service;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private Supplier<BankPaymentResponse> failingTimes(int failures) {
+    return () -> {
+      if (bankCalls.incrementAndGet() <= failures) {
+        throw new BankUnavailableException(BankClient.UNAVAILABLE_MESSAGE);
+      }
+      return new BankPaymentResponse(true, "auth-code");
+    };
+  }
+
+  private PaymentStatus awaitStatus(UUID id) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      Optional<PaymentResponse> payment = repository.get(id);
+      if (payment.isPresent() && payment.get().status() != PaymentStatus.PENDING) {
+        return payment.get().status();
+      }
+      Thread.onSpinWait();
+    }
+    return PaymentStatus.PENDING;
+  }
+
+  private List<Path> journalFiles() {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".auth")).toList();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static PaymentResponse pending() {
+    return new PaymentResponse(UUID.randomUUID(), PaymentStatus.PENDING, "8877", 4, 2030, "GBP",
+        100, null, null, null);
+  }
+
+  private static AcquirerRouter router() {
+    return new AcquirerRouter(List.of(new AcquirerEndpoint("bank", mock(RestClient.class),
+        TimeUnit.SECONDS.toNanos(10))), 0);
+  }
+}
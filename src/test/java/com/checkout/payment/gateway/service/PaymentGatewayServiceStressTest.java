@@ -0,0 +1,239 @@
+package com.checkout.payment.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.checkout.payment.gateway.bin.BinTable;
+import com.checkout.payment.gateway.deadline.Deadline;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.fairness.MerchantFairQueue;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.risk.DuplicatePaymentDetector;
+import com.checkout.payment.gateway.risk.VelocityChecker;
+import com.checkout.payment.gateway.routing.AcquirerEndpoint;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.params.ParameterizedTest;
+import org.junit.jupiter.api.params.provider.CsvSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Runs {@link PaymentGatewayService#processPayment} from many threads against a real repository,
+ * validator and bank client, with the bank replaced by an in-process stub that authorizes cards
+ * ending in an odd digit.
+ * <p>
+ * Each response must match its own request, and every acknowledged payment must be readable,
+ * unchanged, by its own thread at once and by any other thread afterwards. Rejected requests must
+ * leave nothing behind, so at the end the store holds exactly the acknowledged payments. Runs for
+ * {@code stress.seconds} (one by default) per combination.
+ */
+class PaymentGatewayServiceStressTest {
+
+  private static final long DURATION_NANOS =
+      TimeUnit.SECONDS.toNanos(Integer.getInteger("stress.seconds", 1));
+  private static final int THREADS = 8;
+  private static final int SHARED_SLOTS = 1024;
+  private static final String[] CURRENCIES = {"GBP", "USD", "EUR"};
+
+  private final AtomicReferenceArray<PaymentResponse> shared =
+      new AtomicReferenceArray<>(SHARED_SLOTS);
+  private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+  private PaymentsRepository repository;
+
+  @AfterEach
+  void tearDown() {
+    repository.close();
+  }
+
+  @ParameterizedTest
+  @CsvSource({"objects, jackson", "columnar, pooled", "jdbc, pooled"})
+  void acknowledgedPaymentsShouldBeStoredExactlyAsReturned(String mode, String transport)
+      throws Exception {
+    repository = new PaymentsRepository(mode,
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", 8, 256, 0, 1024, 10_000);
+    PaymentGatewayService service = service(transport);
+
+    List<List<PaymentResponse>> acknowledged = run(service);
+
+    assertThat(violations).isEmpty();
+    int total = 0;
+    for (List<PaymentResponse> payments : acknowledged) {
+      for (PaymentResponse payment : payments) {
+        assertThat(service.getPaymentById(payment.id())).contains(payment);
+      }
+      total += payments.size();
+    }
+    try (Stream<PaymentResponse> stored = repository.stream()) {
+      assertThat(stored.count()).isEqualTo(total);
+    }
+  }
+
+  private List<List<PaymentResponse>> run(PaymentGatewayService service) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    long deadline = System.nanoTime() + DURATION_NANOS;
+    try {
+      List<Future<List<PaymentResponse>>> futures = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return submit(service, deadline);
+        }));
+      }
+      start.countDown();
+      List<List<PaymentResponse>> acknowledged = new ArrayList<>();
+      for (Future<List<PaymentResponse>> future : futures) {
+        acknowledged.add(future.get());
+      }
+      return acknowledged;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<PaymentResponse> submit(PaymentGatewayService service, long deadline) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    YearMonth expiry = YearMonth.now().plusYears(2);
+    List<PaymentResponse> acknowledged = new ArrayList<>();
+    while (System.nanoTime() < deadline) {
+      StringBuilder card = new StringBuilder("4");
+      for (int digit = 1; digit < 16; digit++) {
+        card.append((char) ('0' + random.nextInt(10)));
+      }
+      boolean invalid = random.nextInt(10) == 0;
+      PostPaymentRequest request = new PostPaymentRequest(card.toString(),
+          expiry.getMonthValue(), expiry.getYear(), CURRENCIES[random.nextInt(3)],
+          random.nextInt(1, 1_000_000), invalid ? "12a" : "123");
+
+      String merchantId = "merchant-" + random.nextInt(4);
+      PaymentResponse response = service.processPayment(request, merchantId);
+
+      if (invalid) {
+        if (response.status() != PaymentStatus.REJECTED || response.id() != null) {
+          violations.add("Invalid request was not rejected: " + response);
+        }
+        continue;
+      }
+      PaymentStatus status = (card.charAt(15) - '0') % 2 == 1
+          ? PaymentStatus.AUTHORIZED
+          : PaymentStatus.DECLINED;
+      PaymentResponse expected = response.id() == null ? null : new PaymentResponse(
+          response.id(), status, request.cardNumberLastFour(), request.expiryMonth(),
+          request.expiryYear(), request.currency(), request.amount(), null, null, null, null,
+          merchantId);
+      if (!response.equals(expected)) {
+        violations.add("Response " + response + " does not match its request " + request);
+        continue;
+      }
+      if (!service.getPaymentById(response.id()).equals(Optional.of(response))) {
+        violations.add("Acknowledged payment " + response.id() + " was not read back");
+      }
+      acknowledged.add(response);
+      shared.set(random.nextInt(SHARED_SLOTS), response);
+
+      PaymentResponse other = shared.get(random.nextInt(SHARED_SLOTS));
+      if (other != null && !service.getPaymentById(other.id()).equals(Optional.of(other))) {
+        violations.add("Payment " + other.id() + " changed after it was acknowledged");
+      }
+    }
+    return acknowledged;
+  }
+
+  private PaymentGatewayService service(String transport) {
+    RestClient bank = RestClient.builder()
+        .baseUrl("http://stress-bank")
+        .requestFactory(BankStubRequest::new)
+        .build();
+    BankClient bankClient = new BankClient(new AcquirerRouter(
+        List.of(new AcquirerEndpoint("stress", bank, TimeUnit.SECONDS.toNanos(10))), 0),
+        transport, 64, 512, 8192, 65_536);
+
+    VelocityChecker velocityChecker = stub(VelocityChecker.class);
+    when(velocityChecker.recordAttempt(anyString())).thenReturn(true);
+    MerchantFairQueue merchantFairQueue = stub(MerchantFairQueue.class);
+    when(merchantFairQueue.call(any(), any(Deadline.class), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+
+    return new PaymentGatewayService(
+        repository,
+        bankClient,
+        new PaymentRequestValidator(),
+        stub(PaymentEventLogger.class),
+        stub(PaymentEventBus.class),
+        stub(BinTable.class),
+        velocityChecker,
+        stub(DuplicatePaymentDetector.class),
+        stub(DeferredAuthorizationService.class),
+        stub(AsyncAuthorizationExecutor.class),
+        merchantFairQueue
+    );
+  }
+
+  /**
+   * A mock that keeps no record of its invocations, which would otherwise grow with every
+   * payment and serialize the threads on the mock's own bookkeeping.
+   */
+  private static <T> T stub(Class<T> type) {
+    return mock(type, withSettings().stubOnly());
+  }
+
+  /**
+   * Answers an authorization after a short random delay, authorizing cards whose last digit is
+   * odd like the bank simulator.
+   */
+  private static final class BankStubRequest extends MockClientHttpRequest {
+
+    private static final String CARD_NUMBER = "\"card_number\":\"";
+
+    BankStubRequest(URI uri, HttpMethod method) {
+      super(method, uri);
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal() {
+      String body = getBodyAsString(StandardCharsets.UTF_8);
+      int start = body.indexOf(CARD_NUMBER) + CARD_NUMBER.length();
+      char last = body.charAt(body.indexOf('"', start) - 1);
+      LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(50_000));
+      MockClientHttpResponse response = new MockClientHttpResponse(
+          ("{\"authorized\":" + ((last - '0') % 2 == 1) + ",\"authorization_code\":\""
+              + UUID.randomUUID() + "\"}").getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+      response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      return response;
+    }
+  }
+}
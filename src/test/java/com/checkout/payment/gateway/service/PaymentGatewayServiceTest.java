@@ -6,24 +6,56 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.checkout.payment.gateway.bin.BinTable;
+import com.checkout.payment.gateway.deadline.Deadline;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
 import com.checkout.payment.gateway.exception.BankCommunicationException;
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.exception.DeadlineExceededException;
+import com.checkout.payment.gateway.exception.DuplicatePaymentInProgressException;
+import com.checkout.payment.gateway.exception.GatewayBusyException;
+import com.checkout.payment.gateway.exception.PaymentStorageException;
+import com.checkout.payment.gateway.fairness.MerchantFairQueue;
 import com.checkout.payment.gateway.model.BankPaymentRequest;
 import com.checkout.payment.gateway.model.BankPaymentResponse;
 import com.checkout.payment.gateway.model.PaymentResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.monitoring.PaymentEventLogger;
+import com.checkout.payment.gateway.monitoring.PaymentStage;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.risk.DuplicatePaymentDetector;
+import com.checkout.payment.gateway.risk.VelocityChecker;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -39,6 +71,30 @@ class PaymentGatewayServiceTest {
   @Mock
   private PaymentRequestValidator paymentRequestValidator;
 
+  @Mock
+  private PaymentEventLogger paymentEventLogger;
+
+  @Mock
+  private PaymentEventBus paymentEventBus;
+
+  @Mock
+  private BinTable binTable;
+
+  @Mock
+  private VelocityChecker velocityChecker;
+
+  @Mock
+  private DuplicatePaymentDetector duplicatePaymentDetector;
+
+  @Mock
+  private DeferredAuthorizationService deferredAuthorizationService;
+
+  @Mock
+  private AsyncAuthorizationExecutor asyncAuthorizationExecutor;
+
+  @Mock
+  private MerchantFairQueue merchantFairQueue;
+
   private PaymentGatewayService paymentGatewayService;
 
   @BeforeEach
@@ -46,8 +102,19 @@ class PaymentGatewayServiceTest {
     paymentGatewayService = new PaymentGatewayService(
         paymentsRepository,
         bankClient,
-        paymentRequestValidator
+        paymentRequestValidator,
+        paymentEventLogger,
+        paymentEventBus,
+        binTable,
+        velocityChecker,
+        duplicatePaymentDetector,
+        deferredAuthorizationService,
+        asyncAuthorizationExecutor,
+        merchantFairQueue
     );
+    lenient().when(velocityChecker.recordAttempt(anyString())).thenReturn(true);
+    lenient().when(merchantFairQueue.call(any(), any(Deadline.class), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
   }
 
   @Test
@@ -84,6 +151,19 @@ class PaymentGatewayServiceTest {
     verify(paymentsRepository).get(paymentId);
   }
 
+  @Test
+  void getPaymentById_whenPaymentBelongsToAnotherMerchant_shouldReturnEmpty() {
+    UUID paymentId = UUID.randomUUID();
+    when(paymentsRepository.get(paymentId)).thenReturn(Optional.of(new PaymentResponse(paymentId,
+        PaymentStatus.AUTHORIZED, "8877", 4, 2025, "GBP", 100, null, null, null, null,
+        "merchant-1")));
+
+    Optional<PaymentResponse> result = paymentGatewayService.getPaymentById(paymentId,
+        "merchant-2");
+
+    assertTrue(result.isEmpty());
+  }
+
   @Test
   void processPayment_whenValidAndBankAuthorizes_shouldReturnAuthorizedPayment() {
     PostPaymentRequest request = new PostPaymentRequest(
@@ -95,8 +175,8 @@ class PaymentGatewayServiceTest {
         "123"
     );
 
-    when(paymentRequestValidator.validate(request)).thenReturn(Collections.emptyList());
-    when(bankClient.authorizePayment(any(BankPaymentRequest.class)))
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
         .thenReturn(new BankPaymentResponse(true, "0bb07405-6d44-4b50-a14f-7ae0beff13ad"));
 
     PaymentResponse response = paymentGatewayService.processPayment(request);
@@ -111,8 +191,8 @@ class PaymentGatewayServiceTest {
     assertEquals(100, response.amount());
     assertNull(response.errors());
 
-    verify(paymentRequestValidator).validate(request);
-    verify(bankClient).authorizePayment(any(BankPaymentRequest.class));
+    verify(paymentRequestValidator).validate(request, null);
+    verify(bankClient).authorizePayment(any(BankPaymentRequest.class), any(Deadline.class));
     verify(paymentsRepository).add(any(PaymentResponse.class));
   }
 
@@ -127,8 +207,8 @@ class PaymentGatewayServiceTest {
         "123"
     );
 
-    when(paymentRequestValidator.validate(request)).thenReturn(Collections.emptyList());
-    when(bankClient.authorizePayment(any(BankPaymentRequest.class)))
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
         .thenReturn(new BankPaymentResponse(false, null));
 
     PaymentResponse response = paymentGatewayService.processPayment(request);
@@ -139,8 +219,8 @@ class PaymentGatewayServiceTest {
     assertEquals("8888", response.cardNumberLastFour());
     assertNull(response.errors());
 
-    verify(paymentRequestValidator).validate(request);
-    verify(bankClient).authorizePayment(any(BankPaymentRequest.class));
+    verify(paymentRequestValidator).validate(request, null);
+    verify(bankClient).authorizePayment(any(BankPaymentRequest.class), any(Deadline.class));
     verify(paymentsRepository).add(any(PaymentResponse.class));
   }
 
@@ -159,7 +239,7 @@ class PaymentGatewayServiceTest {
         "Card number must be between 14-19 characters long"
     );
 
-    when(paymentRequestValidator.validate(request)).thenReturn(validationErrors);
+    when(paymentRequestValidator.validate(request, null)).thenReturn(validationErrors);
 
     PaymentResponse response = paymentGatewayService.processPayment(request);
 
@@ -168,8 +248,8 @@ class PaymentGatewayServiceTest {
     assertEquals(PaymentStatus.REJECTED, response.status());
     assertEquals(validationErrors, response.errors());
 
-    verify(paymentRequestValidator).validate(request);
-    verify(bankClient, never()).authorizePayment(any());
+    verify(paymentRequestValidator).validate(request, null);
+    verify(bankClient, never()).authorizePayment(any(), any());
     verify(paymentsRepository, never()).add(any());
   }
 
@@ -184,8 +264,8 @@ class PaymentGatewayServiceTest {
         "123"
     );
 
-    when(paymentRequestValidator.validate(request)).thenReturn(Collections.emptyList());
-    when(bankClient.authorizePayment(any(BankPaymentRequest.class)))
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
         .thenThrow(new BankCommunicationException("Bank service unavailable"));
 
     BankCommunicationException exception = assertThrows(
@@ -195,8 +275,473 @@ class PaymentGatewayServiceTest {
 
     assertEquals("Bank service unavailable", exception.getMessage());
 
-    verify(paymentRequestValidator).validate(request);
-    verify(bankClient).authorizePayment(any(BankPaymentRequest.class));
+    verify(paymentRequestValidator).validate(request, null);
+    verify(bankClient).authorizePayment(any(BankPaymentRequest.class), any(Deadline.class));
     verify(paymentsRepository, never()).add(any(PaymentResponse.class));
   }
-}
\ No newline at end of file
+
+  @Test
+  void processPayment_whenVelocityLimitExceeded_shouldReturnRejectedWithoutCallingBank() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248111",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(velocityChecker.recordAttempt("2222405343248111")).thenReturn(false);
+
+    PaymentResponse response = paymentGatewayService.processPayment(request);
+
+    assertEquals(PaymentStatus.REJECTED, response.status());
+    assertEquals(List.of(PaymentGatewayService.VELOCITY_EXCEEDED_ERROR), response.errors());
+
+    verify(bankClient, never()).authorizePayment(any(), any());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  @Test
+  void processPayment_whenRequestDuplicatesEarlierPayment_shouldReturnOriginalWithoutCallingBank() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248111",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+    PaymentResponse original = new PaymentResponse(
+        UUID.randomUUID(),
+        PaymentStatus.AUTHORIZED,
+        "8111",
+        4,
+        2025,
+        "GBP",
+        100,
+        null
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(duplicatePaymentDetector.reserve(any(), any())).thenReturn(Optional.of(original.id()));
+    when(paymentsRepository.get(original.id())).thenReturn(Optional.of(original));
+
+    PaymentResponse response = paymentGatewayService.processPayment(request);
+
+    assertEquals(original, response);
+    verify(bankClient, never()).authorizePayment(any(), any());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  @Test
+  void processPayment_whenSameRequestIsSubmittedConcurrently_shouldAuthorizeItOnce()
+      throws Exception {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248111",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+    PaymentGatewayService service = serviceWithDuplicateDetection();
+    CountDownLatch atBank = new CountDownLatch(1);
+    CountDownLatch bankAnswers = new CountDownLatch(1);
+
+    when(paymentRequestValidator.validate(request, "merchant-1"))
+        .thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenAnswer(invocation -> {
+          atBank.countDown();
+          bankAnswers.await();
+          return new BankPaymentResponse(true, "auth-code");
+        });
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<PaymentResponse> first =
+          executor.submit(() -> service.processPayment(request, "merchant-1"));
+      assertTrue(atBank.await(5, TimeUnit.SECONDS));
+
+      assertThrows(DuplicatePaymentInProgressException.class,
+          () -> service.processPayment(request, "merchant-1"));
+
+      bankAnswers.countDown();
+      PaymentResponse authorized = first.get(5, TimeUnit.SECONDS);
+      assertEquals(PaymentStatus.AUTHORIZED, authorized.status());
+      when(paymentsRepository.get(authorized.id())).thenReturn(Optional.of(authorized));
+
+      assertEquals(authorized, service.processPayment(request, "merchant-1"));
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(bankClient, times(1)).authorizePayment(any(), any());
+    verify(paymentsRepository, times(1)).add(any());
+  }
+
+  @Test
+  void processPayment_whenAuthorizationFails_shouldReleaseDuplicateKeyForRetry() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248880",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+    PaymentGatewayService service = serviceWithDuplicateDetection();
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenThrow(new BankCommunicationException("Bank service unavailable"))
+        .thenReturn(new BankPaymentResponse(false, null));
+
+    assertThrows(BankCommunicationException.class, () -> service.processPayment(request));
+    PaymentResponse retried = service.processPayment(request);
+
+    assertEquals(PaymentStatus.DECLINED, retried.status());
+    verify(bankClient, times(2)).authorizePayment(any(), any());
+  }
+
+  @Test
+  void processPayment_whenBankUnavailableAndDeferralEnabled_shouldStoreAndDeferPendingPayment() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248880",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, "merchant-1"))
+        .thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenThrow(new BankUnavailableException("Bank service unavailable"));
+    when(deferredAuthorizationService.isEnabled()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(3).run();
+      return null;
+    }).when(deferredAuthorizationService).defer(any(), any(), any(), any());
+
+    PaymentResponse response = paymentGatewayService.processPayment(request, "merchant-1");
+
+    assertEquals(PaymentStatus.PENDING, response.status());
+    assertNotNull(response.id());
+
+    InOrder inOrder = inOrder(deferredAuthorizationService, paymentsRepository);
+    inOrder.verify(deferredAuthorizationService)
+        .defer(eq("merchant-1"), any(BankPaymentRequest.class), eq(response), any());
+    inOrder.verify(paymentsRepository).add(response);
+  }
+
+  @Test
+  void processPayment_whenBankOutcomeUnknownAndDeferralEnabled_shouldNotDefer() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248880",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, "merchant-1"))
+        .thenReturn(Collections.emptyList());
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenThrow(new BankCommunicationException("Bank service unavailable"));
+    lenient().when(deferredAuthorizationService.isEnabled()).thenReturn(true);
+
+    assertThrows(BankCommunicationException.class,
+        () -> paymentGatewayService.processPayment(request, "merchant-1"));
+
+    verify(deferredAuthorizationService, never()).defer(any(), any(), any(), any());
+  }
+
+  @Test
+  void acceptPayment_whenCapacityAvailable_shouldStorePendingThenFinalStatus() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, "merchant-1"))
+        .thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenReturn(new BankPaymentResponse(true, "auth-code"));
+
+    PaymentResponse response = paymentGatewayService.acceptPayment(request, "merchant-1");
+
+    assertEquals(PaymentStatus.PENDING, response.status());
+    ArgumentCaptor<PaymentResponse> stored = ArgumentCaptor.forClass(PaymentResponse.class);
+    verify(paymentsRepository, times(2)).add(stored.capture());
+    assertEquals(PaymentStatus.PENDING, stored.getAllValues().get(0).status());
+    assertEquals(PaymentStatus.AUTHORIZED, stored.getAllValues().get(1).status());
+    assertEquals(response.id(), stored.getAllValues().get(1).id());
+  }
+
+  @Test
+  void acceptPayment_whenBankUnavailable_shouldMarkPaymentFailedInBackground() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenThrow(new BankCommunicationException("Bank service unavailable"));
+
+    PaymentResponse response = paymentGatewayService.acceptPayment(request, null);
+
+    assertEquals(PaymentStatus.PENDING, response.status());
+    ArgumentCaptor<PaymentResponse> stored = ArgumentCaptor.forClass(PaymentResponse.class);
+    verify(paymentsRepository, times(2)).add(stored.capture());
+    assertEquals(PaymentStatus.FAILED, stored.getAllValues().get(1).status());
+    verify(paymentEventLogger).bankError("Bank service unavailable");
+    verify(paymentEventLogger, never()).declined(any(), any(), any(), anyInt());
+    verify(duplicatePaymentDetector).forget(any(), eq(response.id()));
+  }
+
+  @Test
+  void acceptPayment_whenBankUnavailableAndDeferralEnabled_shouldDeferInBackground() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenThrow(new BankUnavailableException("Bank service unavailable"));
+    when(deferredAuthorizationService.isEnabled()).thenReturn(true);
+
+    PaymentResponse response = paymentGatewayService.acceptPayment(request, null);
+
+    verify(deferredAuthorizationService)
+        .defer(isNull(), any(BankPaymentRequest.class), eq(response), any());
+    verify(paymentsRepository, times(1)).add(any());
+  }
+
+  @Test
+  void acceptPayment_whenFairQueueIsFull_shouldMarkPaymentFailedInBackground() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+    when(merchantFairQueue.call(any(), any(Deadline.class), any()))
+        .thenThrow(new GatewayBusyException("Payment gateway is busy. Please try again later."));
+
+    paymentGatewayService.acceptPayment(request, null);
+
+    ArgumentCaptor<PaymentResponse> stored = ArgumentCaptor.forClass(PaymentResponse.class);
+    verify(paymentsRepository, times(2)).add(stored.capture());
+    assertEquals(PaymentStatus.FAILED, stored.getAllValues().get(1).status());
+  }
+
+  @Test
+  void acceptPayment_whenAuthorizationThrowsUnexpectedly_shouldMarkPaymentFailed() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenThrow(new IllegalStateException("Unexpected response"));
+
+    PaymentResponse response = paymentGatewayService.acceptPayment(request, null);
+
+    ArgumentCaptor<PaymentResponse> stored = ArgumentCaptor.forClass(PaymentResponse.class);
+    verify(paymentsRepository, times(2)).add(stored.capture());
+    assertEquals(PaymentStatus.FAILED, stored.getAllValues().get(1).status());
+    assertEquals(response.id(), stored.getAllValues().get(1).id());
+  }
+
+  @Test
+  void acceptPayment_whenStoringAuthorizationFails_shouldNotMarkPaymentFailed() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+    when(bankClient.authorizePayment(any(BankPaymentRequest.class), any(Deadline.class)))
+        .thenReturn(new BankPaymentResponse(true, "auth-code"));
+    doAnswer(invocation -> {
+      if (invocation.<PaymentResponse>getArgument(0).status() != PaymentStatus.PENDING) {
+        throw new IllegalStateException("Storage unavailable");
+      }
+      return null;
+    }).when(paymentsRepository).add(any(PaymentResponse.class));
+
+    paymentGatewayService.acceptPayment(request, null);
+
+    ArgumentCaptor<PaymentResponse> stored = ArgumentCaptor.forClass(PaymentResponse.class);
+    verify(paymentsRepository, times(2)).add(stored.capture());
+    assertEquals(PaymentStatus.AUTHORIZED, stored.getAllValues().get(1).status());
+  }
+
+  @Test
+  void acceptPayment_whenStoringPendingPaymentFails_shouldReleaseTheReservation() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doThrow(new PaymentStorageException("Timed out waiting for the payment store"))
+        .when(paymentsRepository).add(any(PaymentResponse.class));
+
+    assertThrows(PaymentStorageException.class,
+        () -> paymentGatewayService.acceptPayment(request, null));
+
+    verify(asyncAuthorizationExecutor).release();
+    verify(asyncAuthorizationExecutor, never()).execute(any(Runnable.class));
+    verify(bankClient, never()).authorizePayment(any(), any());
+  }
+
+  @Test
+  void acceptPayment_whenWorkerPoolRejectsTheTask_shouldReleaseAndFailThePayment() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(true);
+    doThrow(new RejectedExecutionException("Shutting down"))
+        .when(asyncAuthorizationExecutor).execute(any(Runnable.class));
+
+    assertThrows(RejectedExecutionException.class,
+        () -> paymentGatewayService.acceptPayment(request, null));
+
+    verify(asyncAuthorizationExecutor).release();
+    ArgumentCaptor<PaymentResponse> stored = ArgumentCaptor.forClass(PaymentResponse.class);
+    verify(paymentsRepository, times(2)).add(stored.capture());
+    assertEquals(PaymentStatus.FAILED, stored.getAllValues().get(1).status());
+  }
+
+  @Test
+  void acceptPayment_whenPipelineFull_shouldThrowWithoutStoring() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+    when(asyncAuthorizationExecutor.tryReserve()).thenReturn(false);
+
+    assertThrows(GatewayBusyException.class,
+        () -> paymentGatewayService.acceptPayment(request, null));
+
+    verify(paymentsRepository, never()).add(any());
+    verify(bankClient, never()).authorizePayment(any(), any());
+  }
+
+  @Test
+  void processPayment_whenDeadlineAlreadyPassed_shouldAbandonBeforeCallingBank() {
+    PostPaymentRequest request = new PostPaymentRequest(
+        "2222405343248877",
+        4,
+        2025,
+        "GBP",
+        100,
+        "123"
+    );
+
+    when(paymentRequestValidator.validate(request, null)).thenReturn(Collections.emptyList());
+
+    DeadlineExceededException exception = assertThrows(DeadlineExceededException.class,
+        () -> paymentGatewayService.processPayment(request, null, Deadline.after(Duration.ZERO)));
+
+    assertEquals(PaymentStage.VALIDATION, exception.getStage());
+    verify(bankClient, never()).authorizePayment(any(), any());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  private PaymentGatewayService serviceWithDuplicateDetection() {
+    return new PaymentGatewayService(
+        paymentsRepository,
+        bankClient,
+        paymentRequestValidator,
+        paymentEventLogger,
+        paymentEventBus,
+        binTable,
+        velocityChecker,
+        new DuplicatePaymentDetector(true, 60, 1_000, 0.01),
+        deferredAuthorizationService,
+        asyncAuthorizationExecutor,
+        merchantFairQueue
+    );
+  }
+}
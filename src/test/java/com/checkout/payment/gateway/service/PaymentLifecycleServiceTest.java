@@ -0,0 +1,219 @@
+package com.checkout.payment.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.exception.InvalidRefundAmountException;
+import com.checkout.payment.gateway.exception.PaymentStateConflictException;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentLifecycleServiceTest {
+
+  @Mock
+  private PaymentEventBus paymentEventBus;
+
+  private PaymentsRepository paymentsRepository;
+  private PaymentLifecycleService paymentLifecycleService;
+
+  @BeforeEach
+  void setUp() {
+    paymentsRepository = new PaymentsRepository();
+    paymentLifecycleService = new PaymentLifecycleService(paymentsRepository, paymentEventBus);
+  }
+
+  @Test
+  void capture_whenAuthorized_shouldCaptureAndPublish() {
+    UUID id = storeAuthorized(1000);
+
+    PaymentResponse captured = paymentLifecycleService.capture(id, "merchant-1").orElseThrow();
+
+    assertThat(captured.status()).isEqualTo(PaymentStatus.CAPTURED);
+    assertThat(captured.refundedAmount()).isZero();
+    assertThat(paymentsRepository.get(id)).contains(captured);
+    verify(paymentEventBus).publish("merchant-1", captured);
+  }
+
+  @Test
+  void capture_whenPaymentDoesNotExist_shouldReturnEmpty() {
+    assertThat(paymentLifecycleService.capture(UUID.randomUUID(), null)).isEmpty();
+  }
+
+  @Test
+  void void_whenCaptured_shouldConflict() {
+    UUID id = storeAuthorized(1000);
+    paymentLifecycleService.capture(id, null);
+
+    assertThatThrownBy(() -> paymentLifecycleService.voidPayment(id, null))
+        .isInstanceOf(PaymentStateConflictException.class);
+    assertThat(paymentsRepository.get(id).orElseThrow().status())
+        .isEqualTo(PaymentStatus.CAPTURED);
+  }
+
+  @Test
+  void refund_shouldMoveThroughPartialToFullRefund() {
+    UUID id = storeAuthorized(1000);
+    paymentLifecycleService.capture(id, null);
+
+    PaymentResponse partial = paymentLifecycleService.refund(id, 400, null).orElseThrow();
+    assertThat(partial.status()).isEqualTo(PaymentStatus.PARTIALLY_REFUNDED);
+    assertThat(partial.refundedAmount()).isEqualTo(400);
+
+    assertThatThrownBy(() -> paymentLifecycleService.refund(id, 601, null))
+        .isInstanceOf(PaymentStateConflictException.class);
+
+    PaymentResponse full = paymentLifecycleService.refund(id, 600, null).orElseThrow();
+    assertThat(full.status()).isEqualTo(PaymentStatus.REFUNDED);
+    assertThat(full.refundedAmount()).isEqualTo(1000);
+  }
+
+  @Test
+  void refund_whenAmountWouldOverflowTheRefundedTotal_shouldConflict() {
+    UUID id = storeAuthorized(100);
+    paymentLifecycleService.capture(id, null);
+    paymentLifecycleService.refund(id, 50, null);
+
+    assertThatThrownBy(() -> paymentLifecycleService.refund(id, Integer.MAX_VALUE, null))
+        .isInstanceOf(PaymentStateConflictException.class);
+    PaymentResponse payment = paymentsRepository.get(id).orElseThrow();
+    assertThat(payment.status()).isEqualTo(PaymentStatus.PARTIALLY_REFUNDED);
+    assertThat(payment.refundedAmount()).isEqualTo(50);
+  }
+
+  @Test
+  void refund_whenNotCaptured_shouldConflict() {
+    UUID id = storeAuthorized(1000);
+
+    assertThatThrownBy(() -> paymentLifecycleService.refund(id, 100, null))
+        .isInstanceOf(PaymentStateConflictException.class);
+  }
+
+  @Test
+  void refund_whenAmountNotPositive_shouldBeInvalid() {
+    UUID id = storeAuthorized(1000);
+
+    assertThatThrownBy(() -> paymentLifecycleService.refund(id, 0, null))
+        .isInstanceOf(InvalidRefundAmountException.class);
+    assertThatThrownBy(() -> paymentLifecycleService.refund(id, null, null))
+        .isInstanceOf(InvalidRefundAmountException.class);
+  }
+
+  @Test
+  void refund_whenRefundedAmountIsMissing_shouldTreatItAsZero() {
+    UUID id = UUID.randomUUID();
+    paymentsRepository.add(new PaymentResponse(id, PaymentStatus.CAPTURED, "1111", 12, 2030,
+        "GBP", 1000, null, null, null, null));
+
+    PaymentResponse refunded = paymentLifecycleService.refund(id, 300, null).orElseThrow();
+
+    assertThat(refunded.status()).isEqualTo(PaymentStatus.PARTIALLY_REFUNDED);
+    assertThat(refunded.refundedAmount()).isEqualTo(300);
+  }
+
+  @Test
+  void operations_whenPaymentBelongsToAnotherMerchant_shouldReturnEmpty() {
+    UUID id = UUID.randomUUID();
+    paymentsRepository.add(new PaymentResponse(id, PaymentStatus.AUTHORIZED, "1111", 12, 2030,
+        "GBP", 1000, null, null, null, null, "merchant-1"));
+
+    assertThat(paymentLifecycleService.capture(id, "merchant-2")).isEmpty();
+    assertThat(paymentLifecycleService.voidPayment(id, null)).isEmpty();
+    assertThat(paymentsRepository.get(id).orElseThrow().status())
+        .isEqualTo(PaymentStatus.AUTHORIZED);
+
+    paymentLifecycleService.capture(id, "merchant-1");
+
+    assertThat(paymentLifecycleService.refund(id, 100, "merchant-2")).isEmpty();
+    assertThat(paymentsRepository.get(id).orElseThrow().refundedAmount()).isZero();
+  }
+
+  @Test
+  void racingCaptureAndVoid_shouldApplyExactlyOne() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int round = 0; round < 200; round++) {
+        UUID id = storeAuthorized(1000);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<Boolean> capture = executor.submit(
+            succeeds(start, () -> paymentLifecycleService.capture(id, null)));
+        Future<Boolean> voided = executor.submit(
+            succeeds(start, () -> paymentLifecycleService.voidPayment(id, null)));
+        start.countDown();
+
+        boolean captured = capture.get(5, TimeUnit.SECONDS);
+        boolean wasVoided = voided.get(5, TimeUnit.SECONDS);
+        assertThat(captured ^ wasVoided).isTrue();
+        assertThat(paymentsRepository.get(id).orElseThrow().status())
+            .isEqualTo(captured ? PaymentStatus.CAPTURED : PaymentStatus.VOIDED);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void concurrentRefunds_shouldNeverExceedCapturedAmount() throws Exception {
+    UUID id = storeAuthorized(1000);
+    paymentLifecycleService.capture(id, null);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Boolean>> refunds = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        refunds.add(executor.submit(
+            succeeds(start, () -> paymentLifecycleService.refund(id, 100, null))));
+      }
+      start.countDown();
+
+      int succeeded = 0;
+      for (Future<Boolean> refund : refunds) {
+        if (refund.get(5, TimeUnit.SECONDS)) {
+          succeeded++;
+        }
+      }
+      assertThat(succeeded).isEqualTo(10);
+      PaymentResponse payment = paymentsRepository.get(id).orElseThrow();
+      assertThat(payment.status()).isEqualTo(PaymentStatus.REFUNDED);
+      assertThat(payment.refundedAmount()).isEqualTo(1000);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private UUID storeAuthorized(int amount) {
+    UUID id = UUID.randomUUID();
+    paymentsRepository.add(new PaymentResponse(id, PaymentStatus.AUTHORIZED, "1111", 12, 2030,
+        "GBP", amount, null));
+    return id;
+  }
+
+  private static Callable<Boolean> succeeds(CountDownLatch start, Runnable operation) {
+    return () -> {
+      start.await();
+      try {
+        operation.run();
+        return true;
+      } catch (PaymentStateConflictException ex) {
+        return false;
+      }
+    };
+  }
+}
@@ -0,0 +1,81 @@
+package com.checkout.payment.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.checkout.payment.gateway.exception.BankUnavailableException;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+class PooledBankTransportTest {
+
+  private final BankPaymentRequest request =
+      new BankPaymentRequest("2222405343248877", "04/2030", "GBP", 100, "123");
+  private final PooledBankTransport transport = new PooledBankTransport(1, 16, 512, 4096);
+
+  private MockRestServiceServer server;
+  private RestClient restClient;
+
+  @BeforeEach
+  void setUp() {
+    RestClient.Builder builder = RestClient.builder().baseUrl("http://bank");
+    server = MockRestServiceServer.bindTo(builder).build();
+    restClient = builder.build();
+  }
+
+  @Test
+  void shouldPostRequestJsonAndParseResponse() {
+    for (int i = 0; i < 2; i++) {
+      server.expect(requestTo("http://bank/payments"))
+          .andExpect(method(HttpMethod.POST))
+          .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+          .andExpect(content().json("{\"card_number\":\"2222405343248877\","
+              + "\"expiry_date\":\"04/2030\",\"currency\":\"GBP\",\"amount\":100,\"cvv\":\"123\"}",
+              true))
+          .andRespond(withSuccess("{\"authorized\":true,\"authorization_code\":\"code-" + i
+              + "\"}", MediaType.APPLICATION_JSON));
+    }
+
+    BankPaymentResponse first = transport.exchange(restClient, request);
+    BankPaymentResponse second = transport.exchange(restClient, request);
+
+    assertThat(first).isEqualTo(new BankPaymentResponse(true, "code-0"));
+    assertThat(second).isEqualTo(new BankPaymentResponse(true, "code-1"));
+    server.verify();
+  }
+
+  @Test
+  void codecThatGrewPastThePooledLimitShouldBeDropped() {
+    server.expect(requestTo("http://bank/payments"))
+        .andRespond(withSuccess("{\"authorized\":true,\"authorization_code\":\"code-0\"}",
+            MediaType.APPLICATION_JSON));
+    server.expect(requestTo("http://bank/payments"))
+        .andRespond(withSuccess("{\"authorized\":true,\"authorization_code\":\""
+            + "x".repeat(600) + "\"}", MediaType.APPLICATION_JSON));
+
+    transport.exchange(restClient, request);
+    assertThat(transport.pooled()).isEqualTo(1);
+    transport.exchange(restClient, request);
+    assertThat(transport.pooled()).isZero();
+    server.verify();
+  }
+
+  @Test
+  void serverErrorShouldBeReportedAsBankUnavailable() {
+    server.expect(requestTo("http://bank/payments")).andRespond(withServiceUnavailable());
+
+    assertThatThrownBy(() -> transport.exchange(restClient, request))
+        .isInstanceOf(BankUnavailableException.class);
+  }
+}
@@ -0,0 +1,173 @@
+package com.checkout.payment.gateway.settlement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SettlementJobTest {
+
+  private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+
+  @TempDir
+  Path directory;
+
+  private final PaymentsRepository repository = new PaymentsRepository();
+  private SettlementJob job;
+
+  @AfterEach
+  void tearDown() {
+    if (job != null) {
+      job.shutdown();
+    }
+  }
+
+  @Test
+  void settlementFileShouldGroupAuthorizedPaymentsByCurrencyWithTotals() throws IOException {
+    job = new SettlementJob(repository, directory.toString(), 4, 64, 1000);
+    for (int i = 0; i < 1000; i++) {
+      add(PaymentStatus.AUTHORIZED, i % 2 == 0 ? "GBP" : "USD", 100, null);
+    }
+    add(PaymentStatus.PARTIALLY_REFUNDED, "EUR", 500, 200);
+    add(PaymentStatus.DECLINED, "GBP", 700, null);
+    add(PaymentStatus.VOIDED, "USD", 900, null);
+    add(PaymentStatus.REJECTED, "EUR", 300, null);
+
+    SettlementReport report = job.run(DATE);
+
+    assertThat(report.scanned()).isEqualTo(1004);
+    assertThat(report.settled()).isEqualTo(1001);
+    assertThat(report.currencies()).containsExactly(
+        new CurrencyTotals("EUR", 1, 500, 200, 300),
+        new CurrencyTotals("GBP", 500, 50_000, 0, 50_000),
+        new CurrencyTotals("USD", 500, 50_000, 0, 50_000));
+
+    Path file = directory.resolve("settlement-2030-01-15.csv.gz");
+    assertThat(report.file()).isEqualTo(file.toString());
+    List<String> lines = read(file);
+    assertThat(lines).hasSize(1 + 1001 + 3);
+    assertThat(lines.get(0)).startsWith("record_type,currency,payment_id");
+    assertThat(lines.get(1)).startsWith("D,EUR,").endsWith(",Partially Refunded,1,500,200,300");
+    assertThat(lines.get(2)).isEqualTo("T,EUR,,,1,500,200,300");
+    assertThat(lines.subList(3, 503)).allMatch(line -> line.startsWith("D,GBP,"));
+    assertThat(lines.get(503)).isEqualTo("T,GBP,,,500,50000,0,50000");
+    assertThat(lines.subList(504, 1004)).allMatch(line -> line.startsWith("D,USD,"));
+    assertThat(lines.get(1004)).isEqualTo("T,USD,,,500,50000,0,50000");
+    try (var files = Files.list(directory)) {
+      assertThat(files).containsExactlyInAnyOrder(file,
+          directory.resolve(SettlementLedger.FILE_NAME));
+    }
+  }
+
+  @Test
+  void progressShouldReportTheFinishedRun() throws IOException {
+    job = new SettlementJob(repository, directory.toString(), 2, 16, 1000);
+    assertThat(job.progress().state()).isEqualTo("idle");
+    add(PaymentStatus.CAPTURED, "GBP", 100, null);
+
+    SettlementReport report = job.run(DATE);
+
+    SettlementProgress progress = job.progress();
+    assertThat(progress.state()).isEqualTo("completed");
+    assertThat(progress.scanned()).isEqualTo(1);
+    assertThat(progress.settled()).isEqualTo(1);
+    assertThat(progress.report()).isEqualTo(report);
+    assertThat(progress.finishedAt()).isAfterOrEqualTo(progress.startedAt());
+  }
+
+  @Test
+  void consecutiveRunsShouldSettleEachPaymentOnce() throws IOException {
+    job = new SettlementJob(repository, directory.toString(), 2, 16, 1000);
+    UUID first = add(PaymentStatus.AUTHORIZED, "GBP", 100, null);
+
+    SettlementReport firstRun = job.run(DATE);
+    UUID second = add(PaymentStatus.CAPTURED, "GBP", 250, null);
+    SettlementReport secondRun = job.run(DATE.plusDays(1));
+
+    assertThat(firstRun.currencies()).containsExactly(new CurrencyTotals("GBP", 1, 100, 0, 100));
+    assertThat(secondRun.scanned()).isEqualTo(2);
+    assertThat(secondRun.currencies())
+        .containsExactly(new CurrencyTotals("GBP", 1, 250, 0, 250));
+    assertThat(read(Path.of(secondRun.file())).get(1)).startsWith("D,GBP," + second + ",");
+
+    SettlementReport repeated = job.run(DATE);
+    assertThat(repeated.currencies()).isEqualTo(firstRun.currencies());
+    assertThat(read(Path.of(repeated.file())).get(1)).startsWith("D,GBP," + first + ",");
+  }
+
+  @Test
+  void settledPaymentsShouldBeRememberedAcrossRestarts() throws IOException {
+    job = new SettlementJob(repository, directory.toString(), 2, 16, 1000);
+    add(PaymentStatus.AUTHORIZED, "GBP", 100, null);
+    job.run(DATE);
+    job.shutdown();
+
+    job = new SettlementJob(repository, directory.toString(), 2, 16, 1000);
+    SettlementReport report = job.run(DATE.plusDays(1));
+
+    assertThat(report.settled()).isEqualTo(0);
+    assertThat(report.currencies()).isEmpty();
+  }
+
+  @Test
+  void paymentsWithoutValidCurrencyShouldBeSkippedAndReported() throws IOException {
+    job = new SettlementJob(repository, directory.toString(), 2, 16, 1000);
+    add(PaymentStatus.AUTHORIZED, "GBP", 100, null);
+    add(PaymentStatus.AUTHORIZED, null, 100, null);
+    add(PaymentStatus.AUTHORIZED, "../../tmp/x", 100, null);
+    add(PaymentStatus.AUTHORIZED, "GB", 100, null);
+
+    SettlementReport report = job.run(DATE);
+
+    assertThat(report.settled()).isEqualTo(1);
+    assertThat(report.skipped()).isEqualTo(3);
+    assertThat(job.progress().skipped()).isEqualTo(3);
+    assertThat(report.currencies()).containsExactly(new CurrencyTotals("GBP", 1, 100, 0, 100));
+  }
+
+  @Test
+  void nonPositiveProgressIntervalShouldBeRejected() {
+    assertThatThrownBy(() -> new SettlementJob(repository, directory.toString(), 2, 16, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void emptyRepositoryShouldProduceAHeaderOnlyFile() throws IOException {
+    job = new SettlementJob(repository, directory.toString(), 2, 16, 1000);
+
+    SettlementReport report = job.run(DATE);
+
+    assertThat(report.currencies()).isEmpty();
+    assertThat(read(Path.of(report.file()))).containsExactly(
+        SettlementFileWriter.HEADER.strip());
+  }
+
+  private UUID add(PaymentStatus status, String currency, int amount, Integer refunded) {
+    UUID id = UUID.randomUUID();
+    repository.add(new PaymentResponse(id, status, "1234", 12, 2030, currency, amount, null,
+        null, null, refunded));
+    return id;
+  }
+
+  private static List<String> read(Path file) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.US_ASCII))) {
+      return reader.lines().toList();
+    }
+  }
+}
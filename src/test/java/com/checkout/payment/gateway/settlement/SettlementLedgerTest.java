@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.settlement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SettlementLedgerTest {
+
+  private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void paymentsSettledAcrossSeveralSortBlocksShouldBeFoundByLaterRuns() throws IOException {
+    SettlementLedger ledger = new SettlementLedger(directory, 7);
+    List<UUID> first = ids(100);
+    List<UUID> second = ids(50);
+    settle(ledger, DATE, first);
+    settle(ledger, DATE.plusDays(1), second);
+
+    SettlementLedger reopened = new SettlementLedger(directory, 7);
+    try (SettlementLedger.Run run = reopened.begin(DATE.plusDays(2))) {
+      List<UUID> claimed = new ArrayList<>();
+      for (UUID id : first) {
+        assertThat(run.claim(id, claimed)).isFalse();
+      }
+      for (UUID id : second) {
+        assertThat(run.claim(id, claimed)).isFalse();
+      }
+      assertThat(run.claim(UUID.randomUUID(), claimed)).isTrue();
+      assertThat(claimed).hasSize(1);
+    }
+    assertThat(Files.size(directory.resolve(SettlementLedger.FILE_NAME))).isEqualTo(150 * 24);
+  }
+
+  @Test
+  void repeatedRunForTheSameDateShouldClaimItsPaymentsAgainWithoutRecordingThem()
+      throws IOException {
+    SettlementLedger ledger = new SettlementLedger(directory, 7);
+    List<UUID> settled = ids(20);
+    settle(ledger, DATE, settled);
+
+    try (SettlementLedger.Run run = ledger.begin(DATE)) {
+      List<UUID> claimed = new ArrayList<>();
+      for (UUID id : settled) {
+        assertThat(run.claim(id, claimed)).isTrue();
+      }
+      assertThat(claimed).isEmpty();
+    }
+  }
+
+  @Test
+  void uncommittedRunShouldLeaveNeitherLedgerEntriesNorWorkFiles() throws IOException {
+    SettlementLedger ledger = new SettlementLedger(directory, 7);
+    UUID id = UUID.randomUUID();
+    try (SettlementLedger.Run run = ledger.begin(DATE)) {
+      List<UUID> claimed = new ArrayList<>();
+      run.claim(id, claimed);
+      run.record(claimed);
+    }
+
+    try (SettlementLedger.Run run = ledger.begin(DATE.plusDays(1))) {
+      assertThat(run.claim(id, new ArrayList<>())).isTrue();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  private static void settle(SettlementLedger ledger, LocalDate date, List<UUID> ids)
+      throws IOException {
+    try (SettlementLedger.Run run = ledger.begin(date)) {
+      List<UUID> claimed = new ArrayList<>();
+      for (UUID id : ids) {
+        assertThat(run.claim(id, claimed)).isTrue();
+      }
+      run.record(claimed);
+      run.commit();
+    }
+  }
+
+  private static List<UUID> ids(int count) {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    return ids;
+  }
+}
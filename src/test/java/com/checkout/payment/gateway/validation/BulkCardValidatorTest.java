@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BulkCardValidatorTest {
+
+  private final ValidationRules.Rule rule = ValidationRules.DEFAULT.ruleFor(null, null);
+
+  @Test
+  void scalarCheckerShouldFlagEachKindOfInvalidCardNumber() {
+    BulkCardValidator validator = new BulkCardValidator(new ScalarCardNumberChecker());
+    CardNumberBatch batch = new CardNumberBatch(8);
+    batch.add("4242424242424242");
+    batch.add("4242424242424241");
+    batch.add("42424242424242x2");
+    batch.add("4242424241");
+    batch.add(null);
+    batch.add("4".repeat(40));
+    byte[] results = new byte[batch.size()];
+
+    int valid = validator.validate(batch, rule, results);
+
+    assertThat(valid).isEqualTo(1);
+    assertThat(results).containsExactly(
+        0,
+        BulkCardValidator.INVALID_CHECKSUM,
+        BulkCardValidator.NOT_NUMERIC,
+        BulkCardValidator.INVALID_LENGTH | BulkCardValidator.INVALID_CHECKSUM,
+        BulkCardValidator.INVALID_LENGTH,
+        BulkCardValidator.INVALID_LENGTH | BulkCardValidator.NOT_NUMERIC);
+  }
+
+  @Test
+  void lengthShouldFollowTheRule() throws IOException {
+    BulkCardValidator validator = new BulkCardValidator(new ScalarCardNumberChecker());
+    CardNumberBatch batch = new CardNumberBatch(1);
+    batch.add("378282246310005");
+    byte[] results = new byte[1];
+
+    ValidationRules rules = parse("default,,USD,16,3\nscheme,AMEX,,15,4");
+
+    assertThat(validator.validate(batch, rules.ruleFor(null, "AMEX"), results)).isEqualTo(1);
+    assertThat(validator.validate(batch, rules.ruleFor(null, "VISA"), results)).isZero();
+    assertThat(results[0]).isEqualTo((byte) BulkCardValidator.INVALID_LENGTH);
+  }
+
+  @Test
+  void vectorCheckerShouldAgreeWithScalarChecker() {
+    CardNumberChecker vector = BulkCardValidator.vectorChecker();
+    assumeThat(vector.name()).isEqualTo("vector");
+    CardNumberChecker scalar = new ScalarCardNumberChecker();
+    Random random = new Random(42);
+    String[] alphabets = {"0123456789", "0123456789 -x\u0130"};
+    CardNumberBatch batch = new CardNumberBatch(1024);
+    byte[] expected = new byte[batch.capacity()];
+    byte[] actual = new byte[batch.capacity()];
+
+    for (int round = 0; round < 50; round++) {
+      batch.clear();
+      for (int i = 0; i < batch.capacity(); i++) {
+        String alphabet = alphabets[random.nextInt(10) == 0 ? 1 : 0];
+        StringBuilder card = new StringBuilder();
+        for (int length = random.nextInt(CardNumberBatch.STRIDE + 4); length > 0; length--) {
+          card.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        batch.add(card.toString());
+      }
+      scalar.check(batch.digits(), batch.lengths(), batch.size(), rule.cardLengthMask(),
+          expected);
+      vector.check(batch.digits(), batch.lengths(), batch.size(), rule.cardLengthMask(), actual);
+
+      assertThat(actual).isEqualTo(expected);
+    }
+  }
+
+  private static ValidationRules parse(String rules) throws IOException {
+    return ValidationRules.parse(new BufferedReader(new StringReader(rules)));
+  }
+}
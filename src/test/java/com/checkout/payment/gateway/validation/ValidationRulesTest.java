@@ -0,0 +1,105 @@
+package com.checkout.payment.gateway.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class ValidationRulesTest {
+
+  private static final String RULES = String.join("\n",
+      "# scope,key,currencies,card_lengths,cvv_lengths",
+      "default,,USD GBP EUR,14-19,3-4",
+      "scheme,AMEX,,15,4",
+      "merchant,merchant-42,usd jpy,,",
+      "merchant,merchant-7,,13 16,");
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void defaultRulesShouldMatchTheBuiltInValidation() {
+    ValidationRules.Rule rule = ValidationRules.DEFAULT.ruleFor(null, null);
+
+    assertThat(rule.allowsCurrency("GBP")).isTrue();
+    assertThat(rule.allowsCurrency("gbp")).isTrue();
+    assertThat(rule.allowsCurrency("JPY")).isFalse();
+    assertThat(rule.allowsCurrency("GB1")).isFalse();
+    assertThat(rule.allowsCardLength(14)).isTrue();
+    assertThat(rule.allowsCardLength(20)).isFalse();
+    assertThat(rule.allowsCvvLength(5)).isFalse();
+    assertThat(rule.currencyError()).isEqualTo("Currency must be one of: [USD, GBP, EUR]");
+    assertThat(rule.cardLengthError())
+        .isEqualTo("Card number must be between 14-19 characters");
+    assertThat(rule.cvvError()).isEqualTo("CVV must be 3-4 digits");
+  }
+
+  @Test
+  void merchantAndSchemeRulesShouldOverrideColumnByColumn() throws IOException {
+    ValidationRules rules = parse(RULES);
+
+    ValidationRules.Rule amex = rules.ruleFor("unknown-merchant", "AMEX");
+    assertThat(amex.allowsCardLength(15)).isTrue();
+    assertThat(amex.allowsCardLength(16)).isFalse();
+    assertThat(amex.allowsCvvLength(3)).isFalse();
+    assertThat(amex.allowsCurrency("EUR")).isTrue();
+    assertThat(amex.cardLengthError()).isEqualTo("Card number must be 15 characters");
+
+    ValidationRules.Rule merchantAmex = rules.ruleFor("merchant-42", "AMEX");
+    assertThat(merchantAmex.allowsCurrency("JPY")).isTrue();
+    assertThat(merchantAmex.allowsCurrency("EUR")).isFalse();
+    assertThat(merchantAmex.allowsCardLength(15)).isTrue();
+    assertThat(merchantAmex.currencyError()).isEqualTo("Currency must be one of: [USD, JPY]");
+
+    ValidationRules.Rule merchantVisa = rules.ruleFor("merchant-7", "VISA");
+    assertThat(merchantVisa.allowsCardLength(13)).isTrue();
+    assertThat(merchantVisa.allowsCardLength(14)).isFalse();
+    assertThat(merchantVisa.cardLengthError())
+        .isEqualTo("Card number must be one of 13, 16 characters");
+    assertThat(rules.merchantCount()).isEqualTo(2);
+  }
+
+  @Test
+  void malformedRulesShouldBeRejected() {
+    assertThatThrownBy(() -> parse("scheme,AMEX,,15,4"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("No default rule");
+    assertThatThrownBy(() -> parse("default,,USD,14-19,3-4\nmerchant,,USD,,"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageStartingWith("Line 2");
+    assertThatThrownBy(() -> parse("default,,USDX,14-19,3-4"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> parse("default,,USD,19-14,3-4"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> parse("default,,USD,14-19"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void reloadShouldSwapRulesAndKeepThemWhenTheFileIsBroken() throws IOException {
+    Path file = directory.resolve("validation-rules.csv");
+    Files.writeString(file, "default,,USD,14-19,3-4");
+    ValidationRuleTable table = new ValidationRuleTable(new FileSystemResource(file));
+    assertThat(table.rules().ruleFor(null, null).allowsCurrency("GBP")).isFalse();
+
+    Files.writeString(file, RULES);
+    assertThat(table.reload()).isEqualTo(2);
+    ValidationRules loaded = table.rules();
+    assertThat(loaded.ruleFor(null, null).allowsCurrency("GBP")).isTrue();
+
+    Files.writeString(file, "default,,USD");
+    assertThat(table.reload()).isEqualTo(2);
+    assertThat(table.rules()).isSameAs(loaded);
+  }
+
+  private static ValidationRules parse(String rules) throws IOException {
+    return ValidationRules.parse(new BufferedReader(new StringReader(rules)));
+  }
+}
@@ -0,0 +1,53 @@
+package com.checkout.payment.gateway.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.service.BankClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+@SpringBootTest(properties = {
+    "gateway.warmup.enabled=true",
+    "gateway.warmup.min-iterations=200",
+    "gateway.warmup.max-iterations=200",
+    "gateway.warmup.batch-size=50"
+})
+class WarmupRunnerTest {
+
+  @Autowired
+  private WarmupRunner warmupRunner;
+
+  @Autowired
+  private ApplicationAvailability applicationAvailability;
+
+  @SpyBean
+  private PaymentsRepository paymentsRepository;
+
+  @SpyBean
+  private PaymentEventBus paymentEventBus;
+
+  @MockBean
+  private BankClient bankClient;
+
+  @Test
+  void warmUpShouldCompleteBeforeReadinessWithoutTouchingRealState() {
+    assertThat(warmupRunner.completedIterations()).isEqualTo(200);
+    assertThat(applicationAvailability.getReadinessState())
+        .isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+
+    verify(paymentsRepository, never()).add(any());
+    verify(paymentEventBus, never()).publish(any(), any());
+    verifyNoInteractions(bankClient);
+  }
+}
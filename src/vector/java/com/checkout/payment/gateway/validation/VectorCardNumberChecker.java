@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.validation;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Checks each {@value CardNumberBatch#STRIDE}-byte row as two 128-bit vectors of sixteen digits.
+ * <p>
+ * Because rows are right-aligned, Luhn doubles exactly the even offsets of every row, so one
+ * constant mask selects the doubled lanes. The two halves are added lane-wise and each lane folded
+ * back below ten, which keeps the sum modulo ten and bounds the total at 16 &times; 9 = 144. That
+ * lets the final horizontal sum be done on the vector's two longs with a multiply, every byte
+ * partial sum fitting in a byte, instead of a slower cross-lane reduction. Only loaded, by name,
+ * when the {@code jdk.incubator.vector} module is resolved, see {@link BulkCardValidator}.
+ */
+final class VectorCardNumberChecker implements CardNumberChecker {
+
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_128;
+  private static final VectorMask<Byte> DOUBLED = VectorMask.fromLong(SPECIES, 0x5555L);
+  /** Multiplying by this sums the eight bytes of a long into its top byte. */
+  private static final long BYTE_SUM = 0x0101010101010101L;
+
+  /**
+   * @return whether the platform has 128-bit vectors; without them the API works but falls back
+   *     to a Java implementation far slower than the scalar checker
+   */
+  static boolean isSupported() {
+    return VectorShape.preferredShape().vectorBitSize() >= SPECIES.vectorBitSize();
+  }
+
+  @Override
+  public void check(byte[] digits, int[] lengths, int count, int lengthMask, byte[] results) {
+    for (int card = 0; card < count; card++) {
+      int row = card * CardNumberBatch.STRIDE;
+      ByteVector high = ByteVector.fromArray(SPECIES, digits, row);
+      ByteVector low = ByteVector.fromArray(SPECIES, digits, row + SPECIES.length());
+      int flags = CardNumberChecker.lengthFlag(lengths[card], lengthMask);
+      if (nonDigits(high).or(nonDigits(low)).anyTrue()) {
+        flags |= BulkCardValidator.NOT_NUMERIC;
+      } else {
+        ByteVector lanes = luhnDigits(high).add(luhnDigits(low));
+        lanes = lanes.sub((byte) 10, lanes.compare(VectorOperators.GT, (byte) 9));
+        LongVector words = lanes.reinterpretAsLongs();
+        long packed = words.lane(0) + words.lane(1);
+        if ((int) (packed * BYTE_SUM >>> 56) % 10 != 0) {
+          flags |= BulkCardValidator.INVALID_CHECKSUM;
+        }
+      }
+      results[card] = (byte) flags;
+    }
+  }
+
+  @Override
+  public String name() {
+    return "vector";
+  }
+
+  private static VectorMask<Byte> nonDigits(ByteVector characters) {
+    return characters.compare(VectorOperators.LT, (byte) '0')
+        .or(characters.compare(VectorOperators.GT, (byte) '9'));
+  }
+
+  /** Each lane's contribution to the Luhn sum, 0-9. */
+  private static ByteVector luhnDigits(ByteVector characters) {
+    ByteVector digits = characters.sub((byte) '0');
+    ByteVector doubled = digits.add(digits)
+        .sub((byte) 9, digits.compare(VectorOperators.GT, (byte) 4));
+    return digits.blend(doubled, DOUBLED);
+  }
+}